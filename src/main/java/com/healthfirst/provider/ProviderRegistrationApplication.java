@@ -3,11 +3,11 @@ package com.healthfirst.provider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 @SpringBootApplication
-@EnableJpaRepositories(basePackages = "com.healthfirst.provider.repository")
+@EnableScheduling
 public class ProviderRegistrationApplication {
 
 	public static void main(String[] args) {
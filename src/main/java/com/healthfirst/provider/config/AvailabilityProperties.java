@@ -0,0 +1,130 @@
+package com.healthfirst.provider.config;
+
+import com.healthfirst.provider.entity.ProviderAvailability;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "availability")
+@Data
+public class AvailabilityProperties {
+
+    // Used when a create request does not choose a materialization mode
+    private ProviderAvailability.SlotMaterialization defaultSlotMaterialization = ProviderAvailability.SlotMaterialization.EAGER;
+
+    // Slots persisted per flush when generating; keep in line with hibernate.jdbc.batch_size
+    private int slotBatchSize = 50;
+
+    // Where persisted slots are expanded: JAVA streams entities through SlotBatchWriter,
+    // DATABASE runs a single INSERT ... SELECT over generate_series in PostgreSQL
+    private SlotGeneration slotGeneration = SlotGeneration.JAVA;
+
+    private RollingHorizon rollingHorizon = new RollingHorizon();
+
+    private Jobs jobs = new Jobs();
+
+    private Batch batch = new Batch();
+
+    private Search search = new Search();
+
+    private SlotIndex slotIndex = new SlotIndex();
+
+    private SearchCache searchCache = new SearchCache();
+
+    private Geo geo = new Geo();
+
+    public enum SlotGeneration {
+        JAVA, DATABASE
+    }
+
+    @Data
+    public static class RollingHorizon {
+        // How far ahead of now ROLLING availabilities keep persisted slots
+        private int weeks = 8;
+
+        private String cron = "0 0 2 * * *";
+    }
+
+    @Data
+    public static class Jobs {
+        // Worker threads generating slots for async create requests
+        private int threads = 4;
+
+        // Jobs allowed to wait across all providers before new submissions are rejected
+        private int queueCapacity = 100;
+
+        // How long finished jobs stay queryable through the status endpoint
+        private int retentionMinutes = 60;
+    }
+
+    @Data
+    public static class Batch {
+        // Providers one multi-provider availability request may ask for
+        private int maxProviders = 50;
+
+        // Longest date window, in days, of a multi-provider availability request
+        private int maxWindowDays = 31;
+    }
+
+    @Data
+    public static class Search {
+        // Slots per search page when the request does not ask for a page size
+        private int defaultPageSize = 50;
+
+        // Upper bound on the page size a request may ask for
+        private int maxPageSize = 500;
+
+        // Share of a location query's trigrams a stored location must contain to match without containing the query
+        private double locationSimilarity = 0.6;
+
+        // Reload of the distinct locations searched by LocationIndex
+        private String locationReloadCron = "0 30 2 * * *";
+
+        // Rows fetched per round trip when search results are streamed as NDJSON
+        private int streamFetchSize = 500;
+
+        // How far ahead of now next-available lookups look for a slot
+        private int nextAvailableHorizonDays = 90;
+    }
+
+    @Data
+    public static class SlotIndex {
+        // Serve slot search from the in-memory index of available slots; the database is used when off
+        private boolean enabled = true;
+
+        // Full rebuild, which also drops slots that have started
+        private String rebuildCron = "0 30 2 * * *";
+    }
+
+    @Data
+    public static class SearchCache {
+        // Cache search responses; changes evict only the responses they could alter
+        private boolean enabled = true;
+
+        // Total slots held across cached responses before the least recently used are dropped
+        private long maxWeight = 50_000;
+
+        // Bounds staleness from changes made through other instances
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Geo {
+        // CSV of zip,latitude,longitude used to place clinics
+        private String zipCentroids = "classpath:geo/zip-centroids.csv";
+
+        // Radius used when a search gives coordinates but no radius, and the largest one accepted
+        private double defaultRadiusKm = 25;
+
+        private double maxRadiusKm = 200;
+
+        // Distance searches consider at most this many of the nearest providers
+        private int maxProviders = 200;
+
+        // Reload of provider positions, for providers registered through other instances
+        private String reloadCron = "0 30 2 * * *";
+    }
+}
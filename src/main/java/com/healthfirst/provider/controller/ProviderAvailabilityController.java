@@ -1,21 +1,47 @@
 package com.healthfirst.provider.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthfirst.provider.dto.AppointmentSlotResponse;
+import com.healthfirst.provider.dto.AvailabilityJobResponse;
 import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.ProviderAvailabilityBatchResponse;
 import com.healthfirst.provider.dto.ProviderAvailabilityRequest;
 import com.healthfirst.provider.dto.ProviderAvailabilityResponse;
+import com.healthfirst.provider.dto.ProviderCalendarResponse;
+import com.healthfirst.provider.dto.ProviderSlotsResponse;
+import com.healthfirst.provider.dto.ProviderTimelineResponse;
+import com.healthfirst.provider.dto.SearchCacheStatsResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailabilityVersion;
+import com.healthfirst.provider.service.AvailabilityJobService;
 import com.healthfirst.provider.service.ProviderAvailabilityService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -25,6 +51,8 @@ import java.util.List;
 public class ProviderAvailabilityController {
 
     private final ProviderAvailabilityService availabilityService;
+    private final AvailabilityJobService availabilityJobService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/provider/availability")
     @Operation(summary = "Create provider availability", 
@@ -45,16 +73,70 @@ public class ProviderAvailabilityController {
         }
     }
 
+    @PostMapping(value = "/provider/availability", params = "async=true")
+    @Operation(summary = "Create provider availability asynchronously", 
+               description = "Queue availability creation and return a job whose progress can be polled")
+    public ResponseEntity<AvailabilityJobResponse> createAvailabilityAsync(
+            @Valid @RequestBody ProviderAvailabilityRequest request) {
+        log.info("Queueing availability creation for provider: {}", request.getProviderId());
+        
+        try {
+            AvailabilityJobResponse job = availabilityJobService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/provider/availability/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            log.error("Cannot queue availability creation: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            log.error("Error queueing availability creation: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/provider/availability/jobs/{jobId}")
+    @Operation(summary = "Get availability job status", 
+               description = "Return the status of an async availability creation and the number of slots generated so far")
+    public ResponseEntity<AvailabilityJobResponse> getAvailabilityJob(
+            @Parameter(description = "Job ID") @PathVariable UUID jobId) {
+        try {
+            return ResponseEntity.ok(availabilityJobService.getJob(jobId));
+        } catch (RuntimeException e) {
+            log.error("Availability job not found: {}", jobId);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/provider/{providerId}/availability")
     @Operation(summary = "Get provider availability", 
-               description = "Return availability with slot counts by status and detailed slot data")
+               description = "Return availability with slot counts by status and one page of its slots in an optional date window. " +
+                             "Carries an ETag from the provider's availability version; requests sending it back as " +
+                             "If-None-Match get 304 while the version is unchanged")
     public ResponseEntity<ProviderAvailabilityResponse> getProviderAvailability(
-            @Parameter(description = "Provider ID") @PathVariable Long providerId) {
+            @Parameter(description = "Provider ID") @PathVariable Long providerId,
+            @Parameter(description = "First day of slots (UTC)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day of slots (UTC), inclusive") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Slots per page") @RequestParam(required = false) @Min(1) Integer pageSize,
+            @Parameter(description = "nextSlotCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(hidden = true) WebRequest webRequest) {
         log.info("Fetching availability for provider: {}", providerId);
         
         try {
-            ProviderAvailabilityResponse response = availabilityService.getProviderAvailability(providerId);
+            // Read before the response is built: a change made meanwhile leaves the ETag older than the
+            // content, so the next request gets the full response rather than a stale 304
+            Optional<ProviderAvailabilityVersion> version = availabilityService.getAvailabilityVersion(providerId);
+            // No Last-Modified: updated_at is the writing transaction's start time, so a slower transaction
+            // committing later can leave it earlier than a date already sent, and If-Modified-Since would miss it
+            if (version.isPresent() && webRequest.checkNotModified(String.valueOf(version.get().getVersion()))) {
+                // 304 with the ETag header set by checkNotModified
+                return null;
+            }
+            ProviderAvailabilityResponse response = availabilityService.getProviderAvailability(
+                    providerId, startDate, endDate, pageSize, cursor);
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid availability request for provider {}: {}", providerId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             log.error("Error fetching availability for provider {}: {}", providerId, e.getMessage());
             return ResponseEntity.notFound().build();
@@ -64,6 +146,83 @@ public class ProviderAvailabilityController {
         }
     }
 
+    @GetMapping("/provider/availability/batch")
+    @Operation(summary = "Get availability of several providers", 
+               description = "Active availabilities of each provider with their slots in a date window, grouped " +
+                             "by provider, read with a fixed number of queries")
+    public ResponseEntity<ProviderAvailabilityBatchResponse> getProvidersAvailability(
+            @Parameter(description = "Provider IDs") @RequestParam List<Long> providerIds,
+            @Parameter(description = "First day (UTC)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day (UTC), inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("Fetching availability for providers {} from {} to {}", providerIds, startDate, endDate);
+        
+        try {
+            return ResponseEntity.ok(availabilityService.getProvidersAvailability(providerIds, startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid availability request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching availability: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/provider/{providerId}/timeline")
+    @Operation(summary = "Get provider timeline", 
+               description = "Slots of all the provider's active availabilities in a date window, merged into one " +
+                             "sorted timeline with each time listed once")
+    public ResponseEntity<ProviderTimelineResponse> getProviderTimeline(
+            @Parameter(description = "Provider ID") @PathVariable Long providerId,
+            @Parameter(description = "First day (UTC)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day (UTC), inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("Fetching timeline for provider {} from {} to {}", providerId, startDate, endDate);
+        
+        try {
+            return ResponseEntity.ok(availabilityService.getProviderTimeline(providerId, startDate, endDate));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid timeline request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching timeline: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/provider/{providerId}/calendar")
+    @Operation(summary = "Get provider calendar", 
+               description = "Available, booked and cancelled slot counts for every day of a month")
+    public ResponseEntity<ProviderCalendarResponse> getProviderCalendar(
+            @Parameter(description = "Provider ID") @PathVariable Long providerId,
+            @Parameter(description = "Month (yyyy-MM)") @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        log.info("Fetching calendar for provider {} in {}", providerId, month);
+        
+        try {
+            return ResponseEntity.ok(availabilityService.getProviderCalendar(providerId, month));
+        } catch (Exception e) {
+            log.error("Error fetching calendar for provider {}: {}", providerId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/provider/{providerId}/next-available")
+    @Operation(summary = "Get provider's next available slot", 
+               description = "The provider's earliest available slot from now on, optionally of one appointment type")
+    public ResponseEntity<AvailabilitySearchResponse.AvailableSlot> getNextAvailableSlot(
+            @Parameter(description = "Provider ID") @PathVariable Long providerId,
+            @Parameter(description = "Appointment type filter") @RequestParam(required = false) String appointmentType) {
+        log.info("Finding next available slot for provider {}", providerId);
+        
+        try {
+            return ResponseEntity.ok(availabilityService.getNextAvailableSlot(providerId, appointmentType));
+        } catch (RuntimeException e) {
+            log.error("No available slot for provider {}: {}", providerId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error finding next available slot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PutMapping("/provider/availability/{slotId}")
     @Operation(summary = "Update appointment slot", 
                description = "Update slot timing, status, pricing, or notes")
@@ -87,6 +246,29 @@ public class ProviderAvailabilityController {
         }
     }
 
+    @PostMapping("/provider/availability/{availabilityId}/slots")
+    @Operation(summary = "Materialize virtual slot", 
+               description = "Persist a computed slot of a virtual availability so it can be booked or edited")
+    public ResponseEntity<AppointmentSlotResponse> materializeSlot(
+            @Parameter(description = "Availability ID") @PathVariable Long availabilityId,
+            @Parameter(description = "Slot start time (UTC)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime) {
+        log.info("Materializing slot at {} for availability: {}", startTime, availabilityId);
+        
+        try {
+            AppointmentSlotResponse response = availabilityService.materializeSlot(availabilityId, startTime);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for materializing slot: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            log.error("Availability not found: {}", availabilityId);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error materializing slot: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @DeleteMapping("/provider/availability/{availabilityId}")
     @Operation(summary = "Delete provider availability", 
                description = "Optionally delete all recurring slots; must check for booked appointments")
@@ -112,36 +294,101 @@ public class ProviderAvailabilityController {
 
     @GetMapping("/availability/search")
     @Operation(summary = "Search available slots", 
-               description = "Patients can search for available slots by location, date, appointment type, etc.")
-    public ResponseEntity<List<AppointmentSlotResponse>> searchAvailability(
+               description = "Patients can search for available slots by location, date, appointment type, etc. " +
+                             "Results are paged; pass nextCursor back as cursor to fetch the following page.")
+    public ResponseEntity<AvailabilitySearchResponse> searchAvailability(
             @Valid @ModelAttribute AvailabilitySearchRequest request) {
         log.info("Searching availability with filters: {}", request);
         
         try {
-            List<AppointmentSlotResponse> response = availabilityService.searchAvailability(request);
+            AvailabilitySearchResponse response = availabilityService.searchAvailability(request);
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error searching availability: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping(value = "/availability/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream available slots", 
+               description = "Every slot matching the search, one JSON object per line, in page order. " +
+                             "Served when the request accepts application/x-ndjson; pageSize and cursor are ignored.")
+    public ResponseEntity<StreamingResponseBody> streamAvailability(
+            @Valid @ModelAttribute AvailabilitySearchRequest request) {
+        log.info("Streaming availability with filters: {}", request);
+        
+        try {
+            Consumer<Consumer<AvailabilitySearchResponse.AvailableSlot>> slots = availabilityService.streamAvailability(request);
+            StreamingResponseBody body = outputStream -> slots.accept(slot -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(slot));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error streaming availability: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/availability/next-available")
+    @Operation(summary = "Next available slot per provider", 
+               description = "The earliest available slot of each provider offering the appointment type at the " +
+                             "location, soonest first")
+    public ResponseEntity<List<AvailabilitySearchResponse.AvailableSlot>> getNextAvailableSlots(
+            @Parameter(description = "Appointment type filter") @RequestParam(required = false) String appointmentType,
+            @Parameter(description = "Location filter") @RequestParam(required = false) String location,
+            @Parameter(description = "Maximum number of providers") @RequestParam(required = false) @Min(1) Integer limit) {
+        log.info("Finding next available slot per provider for type {} at {}", appointmentType, location);
+        
+        try {
+            return ResponseEntity.ok(availabilityService.getNextAvailableSlots(appointmentType, location, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid next available request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error finding next available slots: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/availability/search/cache-stats")
+    @Operation(summary = "Search cache statistics",
+               description = "Hits, misses, size evictions and change invalidations of the search response cache")
+    public ResponseEntity<SearchCacheStatsResponse> getSearchCacheStats() {
+        return ResponseEntity.ok(availabilityService.getSearchCacheStats());
+    }
+
     @GetMapping("/provider/{providerId}/slots")
     @Operation(summary = "Get provider slots", 
-               description = "Get all appointment slots for a specific provider")
-    public ResponseEntity<List<AppointmentSlotResponse>> getProviderSlots(
+               description = "One page of the provider's slots across all its availabilities, optionally of one status " +
+                             "and in a date window, in start time order")
+    public ResponseEntity<ProviderSlotsResponse> getProviderSlots(
             @Parameter(description = "Provider ID") @PathVariable Long providerId,
-            @Parameter(description = "Slot status filter") @RequestParam(required = false) String status) {
+            @Parameter(description = "Slot status filter") @RequestParam(required = false) AppointmentSlot.SlotStatus status,
+            @Parameter(description = "First day (UTC)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Last day (UTC), inclusive") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Slots per page") @RequestParam(required = false) @Min(1) Integer pageSize,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) {
         log.info("Fetching slots for provider: {} with status: {}", providerId, status);
         
         try {
-            // This would need to be implemented in the service
-            // For now, we'll return the slots from the availability response
-            ProviderAvailabilityResponse availability = availabilityService.getProviderAvailability(providerId);
-            return ResponseEntity.ok(availability.getAppointmentSlots());
-        } catch (RuntimeException e) {
-            log.error("Error fetching slots for provider {}: {}", providerId, e.getMessage());
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(availabilityService.getProviderSlots(
+                    providerId, status, startDate, endDate, pageSize, cursor));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid slots request for provider {}: {}", providerId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error fetching slots: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
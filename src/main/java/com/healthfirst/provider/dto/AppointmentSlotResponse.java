@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 public class AppointmentSlotResponse {
 
     private Long id;
+    private Long providerAvailabilityId;
     private Long providerId;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
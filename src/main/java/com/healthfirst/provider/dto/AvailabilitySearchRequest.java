@@ -1,6 +1,10 @@
 package com.healthfirst.provider.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +27,9 @@ public class AvailabilitySearchRequest {
     private LocalDate endDate;
     
     private String appointmentType;
+
+    // Provider specialization, by name ("Cardiology") or constant ("GENERAL_MEDICINE"), ignoring case
+    private String specialization;
     
     private Long providerId;
     
@@ -31,4 +38,22 @@ public class AvailabilitySearchRequest {
     private String timezone;
     
     private Integer slotDurationMinutes;
+
+    // Search position for "near me" searches; latitude and longitude go together
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    @Positive(message = "Radius must be positive")
+    private Double radiusKm;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    private Integer pageSize;
+
+    // nextCursor of the previous page; omit for the first page
+    private String cursor;
 } 
\ No newline at end of file
@@ -5,26 +5,27 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AvailabilitySearchResponse {
     private List<AvailableSlot> availableSlots;
-    private int totalPages;
-    private long totalElements;
-    private int currentPage;
     private int pageSize;
+    private boolean hasMore;
+    // Pass back as the cursor parameter to fetch the next page; null on the last page
+    private String nextCursor;
     
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
-    @Builder
+    @Builder(toBuilder = true)
     public static class AvailableSlot {
-        private UUID slotId;
-        private UUID providerId;
+        // Null for a computed slot of a VIRTUAL availability until it is materialized
+        private Long slotId;
+        private Long providerAvailabilityId;
+        private Long providerId;
         private String providerName;
         private String specialization;
         private String clinicAddress;
@@ -32,10 +33,14 @@ public class AvailabilitySearchResponse {
         private LocalDateTime slotEndTime;
         private String timezone;
         private BigDecimal price;
+        private String currency;
+        private String location;
         private String appointmentType;
         private String specialRequirements;
         private long durationMinutes;
         private String providerPhone;
         private String providerEmail;
+        // Clinic distance from the search position; null unless latitude and longitude were given
+        private Double distanceKm;
     }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,32 @@
+package com.healthfirst.provider.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderAvailabilityBatchResponse {
+
+    // UTC days; slots starting on either day are included
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // One entry per requested provider, in request order
+    private List<ProviderAvailabilities> providers;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProviderAvailabilities {
+        private Long providerId;
+        // Active availabilities with their slots in the window; empty when the provider has none
+        private List<ProviderAvailabilityResponse> availabilities;
+    }
+}
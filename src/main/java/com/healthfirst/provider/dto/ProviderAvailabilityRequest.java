@@ -57,4 +57,7 @@ public class ProviderAvailabilityRequest {
     private ProviderAvailability.AvailabilityStatus status = ProviderAvailability.AvailabilityStatus.ACTIVE;
 
     private String notes;
+
+    // Defaults to availability.default-slot-materialization when omitted
+    private ProviderAvailability.SlotMaterialization slotMaterialization;
 } 
\ No newline at end of file
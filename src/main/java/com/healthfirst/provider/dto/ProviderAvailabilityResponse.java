@@ -34,15 +34,22 @@ public class ProviderAvailabilityResponse {
     private String specialRequirements;
     private ProviderAvailability.AvailabilityStatus status;
     private String notes;
+    private ProviderAvailability.SlotMaterialization slotMaterialization;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
-    // Slot statistics
+    // Every ACTIVE availability merged into the counts and slots of a provider's availability; null otherwise
+    private List<Long> availabilityIds;
+
+    // Slot statistics, over the whole series
     private Long totalSlots;
     private Long availableSlots;
     private Long bookedSlots;
     private Long cancelledSlots;
     
-    // Detailed slot information
+    // Detailed slot information: one page of the slots in the requested window, in (startTime, id) order
     private List<AppointmentSlotResponse> appointmentSlots;
+    private boolean hasMoreSlots;
+    // Pass back as cursor to fetch the following page of appointmentSlots
+    private String nextSlotCursor;
 } 
\ No newline at end of file
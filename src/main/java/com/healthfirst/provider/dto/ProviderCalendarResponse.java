@@ -0,0 +1,34 @@
+package com.healthfirst.provider.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderCalendarResponse {
+
+    private Long providerId;
+    // yyyy-MM
+    private String month;
+    // Every day of the month, including days without slots
+    private List<Day> days;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        // Slot start dates are taken in each slot's own timezone
+        private LocalDate date;
+        private int availableSlots;
+        private int bookedSlots;
+        private int cancelledSlots;
+    }
+}
@@ -12,6 +12,8 @@ import java.util.UUID;
 @Builder
 public class ProviderRegistrationResponse {
     private UUID id;
+    // Use as providerId when creating availabilities
+    private Long providerNumber;
     private String firstName;
     private String lastName;
     private String email;
@@ -35,5 +37,7 @@ public class ProviderRegistrationResponse {
         private String city;
         private String state;
         private String zip;
+        private Double latitude;
+        private Double longitude;
     }
 } 
\ No newline at end of file
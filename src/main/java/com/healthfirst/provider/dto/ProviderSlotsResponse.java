@@ -0,0 +1,30 @@
+package com.healthfirst.provider.dto;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderSlotsResponse {
+
+    private Long providerId;
+    // Null when slots of every status are listed
+    private AppointmentSlot.SlotStatus status;
+    // UTC days; either is null when the window is open at that end
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // Slots of all the provider's availabilities in (startTime, id) order
+    private List<AppointmentSlotResponse> slots;
+    private int pageSize;
+    private boolean hasMore;
+    // Pass back as the cursor parameter to fetch the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,27 @@
+package com.healthfirst.provider.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderTimelineResponse {
+
+    private Long providerId;
+    // UTC days; slots starting on either day are included
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // The ACTIVE availabilities the timeline was merged from
+    private List<Long> availabilityIds;
+    private int totalSlots;
+    private int availableSlots;
+    // Slots of all availabilities in (startTime, id) order, each time once
+    private List<AppointmentSlotResponse> slots;
+}
@@ -0,0 +1,25 @@
+package com.healthfirst.provider.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchCacheStatsResponse {
+
+    private long hits;
+    private long misses;
+    private double hitRate;
+    // Dropped to stay within maxWeight
+    private long evictions;
+    // Dropped because a slot change covered them
+    private long invalidations;
+    private int entries;
+    // Slots held across entries, plus one per entry
+    private long weight;
+    private long maxWeight;
+}
@@ -9,6 +9,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
@@ -19,8 +20,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class AppointmentSlot {
 
+    // Ids handed out per sequence fetch; SQL that draws from appointment_slots_seq must use the same block size
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence ids keep JDBC insert batching enabled for bulk slot generation
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_slots_seq")
+    @SequenceGenerator(name = "appointment_slots_seq", sequenceName = "appointment_slots_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +42,14 @@ public class AppointmentSlot {
     @Column(name = "end_time", nullable = false)
     private LocalDateTime endTime;
 
+    // Kept in step with start and end so duration filters compare a column instead of computing per row
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
+    // Grid position of a materialized virtual slot, kept even if the slot is later moved
+    @Column(name = "original_start_time")
+    private LocalDateTime originalStartTime;
+
     @Column(name = "timezone", nullable = false)
     private String timezone;
 
@@ -58,6 +72,11 @@ public class AppointmentSlot {
     @Column(name = "special_requirements", columnDefinition = "TEXT")
     private String specialRequirements;
 
+    // Copied from the availability; see ProviderAvailability.specialization
+    @Convert(converter = SpecializationConverter.class)
+    @Column(name = "specialization_code")
+    private Specialization specialization;
+
     @Column(name = "patient_id")
     private Long patientId;
 
@@ -72,6 +91,16 @@ public class AppointmentSlot {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    void updateDurationMinutes() {
+        durationMinutes = (int) Duration.between(startTime, endTime).toMinutes();
+    }
+
+    public LocalDateTime getOccurrenceStartTime() {
+        return originalStartTime != null ? originalStartTime : startTime;
+    }
+
     public enum SlotStatus {
         AVAILABLE, BOOKED, CANCELLED, COMPLETED, NO_SHOW
     }
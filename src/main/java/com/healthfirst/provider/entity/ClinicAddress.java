@@ -27,4 +27,9 @@ public class ClinicAddress {
     @Column(nullable = false)
     @NotBlank
     private String zip;
+
+    // Clinic position for distance search; the zip centroid unless geocoded more precisely
+    private Double latitude;
+
+    private Double longitude;
 } 
\ No newline at end of file
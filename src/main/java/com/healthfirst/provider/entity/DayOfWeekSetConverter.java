@@ -0,0 +1,49 @@
+package com.healthfirst.provider.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stores a set of days as a 7-bit mask in a single column: bit 0 is Monday, bit 6 is Sunday.
+ * An empty or null set is stored as 0.
+ */
+@Converter
+public class DayOfWeekSetConverter implements AttributeConverter<Set<DayOfWeek>, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Set<DayOfWeek> days) {
+        return (short) toMask(days);
+    }
+
+    @Override
+    public Set<DayOfWeek> convertToEntityAttribute(Short mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (mask == null) {
+            return days;
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & bit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public static int toMask(Set<DayOfWeek> days) {
+        int mask = 0;
+        if (days != null) {
+            for (DayOfWeek day : days) {
+                mask |= bit(day);
+            }
+        }
+        return mask;
+    }
+
+    private static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -24,6 +25,11 @@ public class Provider {
     @GeneratedValue
     private UUID id;
 
+    // Numeric key that availabilities and slots store as providerId; assigned by the database
+    @Generated
+    @Column(name = "provider_number", insertable = false, updatable = false, unique = true)
+    private Long providerNumber;
+
     @Column(nullable = false, length = 50)
     @Size(min = 2, max = 50)
     @NotBlank
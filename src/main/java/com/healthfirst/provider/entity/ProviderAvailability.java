@@ -43,11 +43,9 @@ public class ProviderAvailability {
     @Column(name = "recurrence_type")
     private RecurrenceType recurrenceType;
 
-    @ElementCollection
-    @CollectionTable(name = "provider_availability_recurrence_days", 
-                    joinColumns = @JoinColumn(name = "availability_id"))
-    @Column(name = "day_of_week")
-    @Enumerated(EnumType.STRING)
+    // Weekly recurrence days as a bit mask (Monday = bit 0), see DayOfWeekSetConverter
+    @Convert(converter = DayOfWeekSetConverter.class)
+    @Column(name = "recurrence_days")
     @Builder.Default
     private Set<DayOfWeek> recurrenceDays = new HashSet<>();
 
@@ -72,6 +70,11 @@ public class ProviderAvailability {
     @Column(name = "special_requirements", columnDefinition = "TEXT")
     private String specialRequirements;
 
+    // The provider's specialization, copied here and onto every slot so search filters without a join
+    @Convert(converter = SpecializationConverter.class)
+    @Column(name = "specialization_code")
+    private Specialization specialization;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private AvailabilityStatus status;
@@ -79,6 +82,14 @@ public class ProviderAvailability {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "slot_materialization")
+    private SlotMaterialization slotMaterialization;
+
+    // Rolling materialization: slots starting before this instant have been persisted
+    @Column(name = "materialized_until")
+    private LocalDateTime materializedUntil;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -98,4 +109,22 @@ public class ProviderAvailability {
     public enum AvailabilityStatus {
         ACTIVE, INACTIVE, SUSPENDED, DELETED
     }
+
+    /**
+     * EAGER persists every generated slot up front. VIRTUAL computes unbooked slots from the
+     * rule at read time and only persists slots that were booked, cancelled or edited.
+     * ROLLING persists slots only a fixed number of weeks ahead and extends that horizon nightly.
+     */
+    public enum SlotMaterialization {
+        EAGER, VIRTUAL, ROLLING
+    }
+
+    public boolean isVirtual() {
+        return slotMaterialization == SlotMaterialization.VIRTUAL;
+    }
+
+    public boolean isRolling() {
+        return slotMaterialization == SlotMaterialization.ROLLING
+                && recurrenceType != null && recurrenceType != RecurrenceType.NONE;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.healthfirst.provider.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of a provider's availabilities and slots, changed whenever any of them is written. Maintained
+ * by database triggers (V9__provider_availability_version.sql), so it is read-only here.
+ */
+@Entity
+@Immutable
+@Table(name = "provider_availability_versions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderAvailabilityVersion {
+
+    @Id
+    @Column(name = "provider_id")
+    private Long providerId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // UTC start of the transaction that made the last change; not a validator, since a transaction that
+    // started earlier can commit later
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.healthfirst.provider.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Slot counts of a provider on one local date. Maintained by database triggers on appointment_slots
+ * (V6__provider_daily_availability.sql), so it is read-only here.
+ */
+@Entity
+@Immutable
+@Table(name = "provider_daily_availability")
+@IdClass(ProviderDailyAvailability.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderDailyAvailability {
+
+    @Id
+    @Column(name = "provider_id")
+    private Long providerId;
+
+    // Slot start date in the slot's own timezone
+    @Id
+    @Column(name = "local_date")
+    private LocalDate localDate;
+
+    @Column(name = "available_count", nullable = false)
+    private int availableCount;
+
+    @Column(name = "booked_count", nullable = false)
+    private int bookedCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private int cancelledCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long providerId;
+        private LocalDate localDate;
+    }
+}
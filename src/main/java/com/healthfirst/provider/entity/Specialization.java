@@ -0,0 +1,76 @@
+package com.healthfirst.provider.entity;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The specializations a provider may register with. Availabilities and slots carry their provider's
+ * specialization as the one-byte {@code code} (see SpecializationConverter), so slot search filters on
+ * a column of its own table instead of joining providers. Codes are stored; never renumber them.
+ */
+public enum Specialization {
+    CARDIOLOGY(1, "Cardiology"),
+    DERMATOLOGY(2, "Dermatology"),
+    PEDIATRICS(3, "Pediatrics"),
+    GENERAL_MEDICINE(4, "General Medicine"),
+    ORTHOPEDICS(5, "Orthopedics"),
+    NEUROLOGY(6, "Neurology"),
+    PSYCHIATRY(7, "Psychiatry"),
+    ONCOLOGY(8, "Oncology"),
+    GYNECOLOGY(9, "Gynecology"),
+    OPHTHALMOLOGY(10, "Ophthalmology");
+
+    private final short code;
+    private final String displayName;
+
+    Specialization(int code, String displayName) {
+        this.code = (short) code;
+        this.displayName = displayName;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static Specialization fromCode(short code) {
+        for (Specialization specialization : values()) {
+            if (specialization.code == code) {
+                return specialization;
+            }
+        }
+        throw new IllegalArgumentException("Unknown specialization code: " + code);
+    }
+
+    /**
+     * The specialization with this display name, as providers register with it, or null.
+     */
+    public static Specialization fromDisplayName(String displayName) {
+        for (Specialization specialization : values()) {
+            if (specialization.displayName.equals(displayName)) {
+                return specialization;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a search filter: a display name or constant name, ignoring case ("cardiology", "GENERAL_MEDICINE").
+     */
+    public static Specialization parse(String value) {
+        for (Specialization specialization : values()) {
+            if (specialization.displayName.equalsIgnoreCase(value) || specialization.name().equalsIgnoreCase(value)) {
+                return specialization;
+            }
+        }
+        throw new IllegalArgumentException("Unknown specialization: " + value);
+    }
+
+    public static Set<String> displayNames() {
+        return Arrays.stream(values()).map(Specialization::getDisplayName).collect(Collectors.toUnmodifiableSet());
+    }
+}
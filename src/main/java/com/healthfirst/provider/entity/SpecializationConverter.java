@@ -0,0 +1,21 @@
+package com.healthfirst.provider.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a specialization as its smallint code. Null stays null.
+ */
+@Converter
+public class SpecializationConverter implements AttributeConverter<Specialization, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(Specialization specialization) {
+        return specialization != null ? specialization.getCode() : null;
+    }
+
+    @Override
+    public Specialization convertToEntityAttribute(Short code) {
+        return code != null ? Specialization.fromCode(code) : null;
+    }
+}
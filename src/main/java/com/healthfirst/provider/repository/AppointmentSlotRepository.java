@@ -2,53 +2,169 @@ package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.AppointmentSlot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long> {
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long>, JpaSpecificationExecutor<AppointmentSlot>,
+        SlotPageQueries {
 
-    List<AppointmentSlot> findByProviderIdAndStatus(Long providerId, AppointmentSlot.SlotStatus status);
+    @Query(SlotRow.SELECT + "WHERE s.providerId = :providerId AND s.status = :status ORDER BY s.startTime, s.id")
+    List<SlotRow> findByProviderIdAndStatus(@Param("providerId") Long providerId,
+                                            @Param("status") AppointmentSlot.SlotStatus status);
 
-    @Query("SELECT as FROM AppointmentSlot as WHERE as.providerId = :providerId AND as.status = 'AVAILABLE' AND " +
-           "as.startTime >= :startTime AND as.endTime <= :endTime")
-    List<AppointmentSlot> findAvailableSlotsByProviderAndDateRange(
+    @Query(SlotRow.SELECT + "WHERE s.providerId = :providerId AND s.status = 'AVAILABLE' AND " +
+           "s.startTime >= :startTime AND s.endTime <= :endTime")
+    List<SlotRow> findAvailableSlotsByProviderAndDateRange(
             @Param("providerId") Long providerId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
 
-    @Query("SELECT as FROM AppointmentSlot as WHERE as.status = 'AVAILABLE' AND as.startTime >= :startTime AND " +
-           "as.endTime <= :endTime AND (:location IS NULL OR as.location LIKE %:location%) AND " +
-           "(:appointmentType IS NULL OR as.appointmentType = :appointmentType) AND " +
-           "(:providerId IS NULL OR as.providerId = :providerId) AND " +
-           "(:maxPrice IS NULL OR as.price <= :maxPrice) AND " +
-           "(:slotDurationMinutes IS NULL OR (as.endTime - as.startTime) = :slotDurationMinutes)")
-    List<AppointmentSlot> findAvailableSlotsByFilters(
-            @Param("startTime") LocalDateTime startTime,
-            @Param("endTime") LocalDateTime endTime,
-            @Param("location") String location,
-            @Param("appointmentType") String appointmentType,
-            @Param("providerId") Long providerId,
-            @Param("maxPrice") Integer maxPrice,
-            @Param("slotDurationMinutes") Integer slotDurationMinutes
-    );
-
     @Query("SELECT COUNT(as) FROM AppointmentSlot as WHERE as.providerAvailability.id = :availabilityId AND as.status = 'BOOKED'")
     long countBookedSlotsByAvailabilityId(@Param("availabilityId") Long availabilityId);
 
     @Query("SELECT as FROM AppointmentSlot as WHERE as.providerAvailability.id = :availabilityId")
     List<AppointmentSlot> findByProviderAvailabilityId(@Param("availabilityId") Long availabilityId);
 
-    @Query("SELECT as FROM AppointmentSlot as WHERE as.providerId = :providerId AND as.startTime >= :startTime AND " +
-           "as.endTime <= :endTime AND as.status = 'BOOKED'")
-    List<AppointmentSlot> findBookedSlotsByProviderAndDateRange(
+    /**
+     * Slot counts of an availability per status, aggregated in the database.
+     */
+    @Query("SELECT s.status AS status, COUNT(s) AS total FROM AppointmentSlot s " +
+           "WHERE s.providerAvailability.id = :availabilityId GROUP BY s.status")
+    List<SlotStatusCount> countByAvailabilityIdGroupByStatus(@Param("availabilityId") Long availabilityId);
+
+    @Query(SlotRow.SELECT + "WHERE s.providerId = :providerId AND s.startTime >= :startTime AND " +
+           "s.endTime <= :endTime AND s.status = 'BOOKED'")
+    List<SlotRow> findBookedSlotsByProviderAndDateRange(
             @Param("providerId") Long providerId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
-} 
\ No newline at end of file
+
+    /**
+     * Slots of any status of the given providers starting in [startTime, endTime), in (providerId,
+     * startTime, id) order; served by the (provider_id, start_time) index.
+     */
+    @Query(SlotRow.SELECT + "WHERE s.providerId IN :providerIds AND s.startTime >= :startTime AND " +
+           "s.startTime < :endTime ORDER BY s.providerId, s.startTime, s.id")
+    List<SlotRow> findByProviderIdsAndStartTimeRange(
+            @Param("providerIds") Collection<Long> providerIds,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    @Query(SlotRow.SELECT + "WHERE s.providerAvailability.id IN :availabilityIds AND " +
+           "COALESCE(s.originalStartTime, s.startTime) >= :startTime AND COALESCE(s.originalStartTime, s.startTime) <= :endTime")
+    List<SlotRow> findExceptionsByAvailabilityIdsAndDateRange(
+            @Param("availabilityIds") Collection<Long> availabilityIds,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    @Query("SELECT COUNT(as) > 0 FROM AppointmentSlot as WHERE as.providerAvailability.id = :availabilityId AND " +
+           "COALESCE(as.originalStartTime, as.startTime) = :occurrenceStartTime")
+    boolean existsByAvailabilityIdAndOccurrenceStartTime(
+            @Param("availabilityId") Long availabilityId,
+            @Param("occurrenceStartTime") LocalDateTime occurrenceStartTime
+    );
+
+    @Query("SELECT DISTINCT s.location FROM AppointmentSlot s WHERE s.status = 'AVAILABLE' AND s.location IS NOT NULL")
+    List<String> findDistinctAvailableSlotLocations();
+
+    @Query("SELECT DISTINCT s.location FROM AppointmentSlot s WHERE s.status = 'AVAILABLE' " +
+           "AND LOWER(s.location) LIKE LOWER(CONCAT('%', :location, '%'))")
+    List<String> findDistinctAvailableSlotLocationsContaining(@Param("location") String location);
+
+    @Query("SELECT s.id AS id, s.providerAvailability.id AS providerAvailabilityId, s.providerId AS providerId, " +
+           "s.startTime AS startTime, s.endTime AS endTime, s.timezone AS timezone, s.price AS price, " +
+           "s.currency AS currency, s.location AS location, s.appointmentType AS appointmentType, " +
+           "s.specialRequirements AS specialRequirements, s.specialization AS specialization " +
+           "FROM AppointmentSlot s WHERE s.status = 'AVAILABLE' AND s.startTime >= :from")
+    Stream<AvailableSlotRow> streamAvailableSlotRows(@Param("from") LocalDateTime from);
+
+    @Query("SELECT s.id AS id, s.providerAvailability.id AS providerAvailabilityId, s.providerId AS providerId, " +
+           "s.startTime AS startTime, s.endTime AS endTime, s.timezone AS timezone, s.price AS price, " +
+           "s.currency AS currency, s.location AS location, s.appointmentType AS appointmentType, " +
+           "s.specialRequirements AS specialRequirements, s.specialization AS specialization " +
+           "FROM AppointmentSlot s WHERE s.providerAvailability.id = :availabilityId AND s.status = 'AVAILABLE'")
+    List<AvailableSlotRow> findAvailableSlotRowsByAvailabilityId(@Param("availabilityId") Long availabilityId);
+
+    /**
+     * Set-based counterpart of SlotGenerator: expands the availability into slots with generate_series
+     * and inserts them in one statement. Like RecurrenceRule, occurrences repeat in the wall-clock time
+     * of the availability's timezone and are converted back to UTC per occurrence; the only difference
+     * is that PostgreSQL resolves a local time repeated by a DST fall-back to the later offset where
+     * Java takes the earlier one. Only slots starting in [fromTime, toTime) are inserted; null bounds
+     * are open. Ids are drawn from appointment_slots_seq one pooled block per allocationSize rows,
+     * the same way Hibernate's pooled optimizer uses them (the first block of a fresh sequence maps to
+     * ids <= 1, which Hibernate never hands out). Monthly occurrences keep the day clamped by earlier
+     * short months, matching repeated LocalDate.plusMonths. Returns the number of slots inserted.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "WITH availability AS (" +
+           "  SELECT pa.*, COALESCE(pa.recurrence_end_date, pa.start_time + INTERVAL '6 months') AS series_end, " +
+           "         pa.slot_duration_minutes * INTERVAL '1 minute' AS slot_length, " +
+           "         COALESCE(pa.recurrence_days, 0) AS day_mask, " +
+           "         (pa.start_time AT TIME ZONE 'UTC') AT TIME ZONE pa.timezone AS local_start, " +
+           "         ((pa.end_time AT TIME ZONE 'UTC') AT TIME ZONE pa.timezone) - ((pa.start_time AT TIME ZONE 'UTC') AT TIME ZONE pa.timezone) AS local_length, " +
+           "         ((COALESCE(pa.recurrence_end_date, pa.start_time + INTERVAL '6 months') AT TIME ZONE 'UTC') AT TIME ZONE pa.timezone) + INTERVAL '1 day' AS local_series_end " +
+           "  FROM provider_availability pa WHERE pa.id = :availabilityId" +
+           "), local_occurrences AS (" +
+           "  SELECT o FROM availability a, generate_series(a.local_start, a.local_series_end, INTERVAL '1 day') o " +
+           "  WHERE a.recurrence_type = 'DAILY' " +
+           "  UNION ALL " +
+           "  SELECT o FROM availability a, generate_series(a.local_start, a.local_series_end, INTERVAL '1 week') o " +
+           "  WHERE a.recurrence_type = 'WEEKLY' AND a.day_mask = 0 " +
+           "  UNION ALL " +
+           "  SELECT o FROM availability a, generate_series(a.local_start, a.local_series_end, INTERVAL '1 day') o " +
+           "  WHERE a.recurrence_type = 'WEEKLY' AND a.day_mask <> 0 AND (o = a.local_start OR " +
+           "    (a.day_mask & (1 << (CAST(EXTRACT(ISODOW FROM o) AS integer) - 1))) <> 0) " +
+           "  UNION ALL " +
+           "  SELECT date_trunc('month', a.local_start + k * INTERVAL '1 month') " +
+           "    + (MIN(EXTRACT(DAY FROM a.local_start + k * INTERVAL '1 month')) OVER (ORDER BY k) - 1) * INTERVAL '1 day' " +
+           "    + (a.local_start - date_trunc('day', a.local_start)) " +
+           "  FROM availability a, " +
+           "    generate_series(0, CAST(EXTRACT(YEAR FROM age(a.local_series_end, a.local_start)) * 12 + EXTRACT(MONTH FROM age(a.local_series_end, a.local_start)) AS integer) + 1) k " +
+           "  WHERE a.recurrence_type = 'MONTHLY'" +
+           "), occurrences AS (" +
+           "  SELECT a.start_time AS occurrence_start, a.end_time AS occurrence_end FROM availability a " +
+           "  WHERE a.recurrence_type IS NULL OR a.recurrence_type = 'NONE' " +
+           "  UNION ALL " +
+           "  SELECT u.occurrence_start, u.occurrence_end FROM (" +
+           "    SELECT (lo.o AT TIME ZONE a.timezone) AT TIME ZONE 'UTC' AS occurrence_start, " +
+           "           ((lo.o + a.local_length) AT TIME ZONE a.timezone) AT TIME ZONE 'UTC' AS occurrence_end, a.series_end " +
+           "    FROM availability a, local_occurrences lo" +
+           "  ) u WHERE u.occurrence_start < u.series_end" +
+           "), slots AS (" +
+           "  SELECT o.occurrence_start + j * a.slot_length AS slot_start, row_number() OVER () - 1 AS rn " +
+           "  FROM availability a, occurrences o, " +
+           "    generate_series(0, CAST(FLOOR(EXTRACT(EPOCH FROM (o.occurrence_end - o.occurrence_start)) / (a.slot_duration_minutes * 60)) AS integer) - 1) j " +
+           "  WHERE (CAST(:fromTime AS timestamp) IS NULL OR o.occurrence_start + j * a.slot_length >= CAST(:fromTime AS timestamp)) " +
+           "    AND (CAST(:toTime AS timestamp) IS NULL OR o.occurrence_start + j * a.slot_length < CAST(:toTime AS timestamp))" +
+           "), id_blocks AS (" +
+           "  SELECT b, nextval('appointment_slots_seq') AS hi " +
+           "  FROM generate_series(0, (SELECT (COUNT(*) + :allocationSize - 1) / :allocationSize - 1 FROM slots)) b" +
+           ") " +
+           "INSERT INTO appointment_slots (id, provider_availability_id, provider_id, start_time, end_time, duration_minutes, timezone, status, " +
+           "  price, currency, location, appointment_type, special_requirements, specialization_code, created_at, updated_at) " +
+           "SELECT ib.hi - :allocationSize + 1 + s.rn % :allocationSize, a.id, a.provider_id, s.slot_start, s.slot_start + a.slot_length, a.slot_duration_minutes, " +
+           "  a.timezone, 'AVAILABLE', a.price, a.currency, a.location, a.appointment_type, a.special_requirements, a.specialization_code, " +
+           "  LOCALTIMESTAMP, LOCALTIMESTAMP " +
+           "FROM slots s JOIN id_blocks ib ON ib.b = s.rn / :allocationSize CROSS JOIN availability a",
+           nativeQuery = true)
+    int insertGeneratedSlots(
+            @Param("availabilityId") Long availabilityId,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("allocationSize") int allocationSize
+    );
+}
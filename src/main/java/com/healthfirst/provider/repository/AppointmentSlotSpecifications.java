@@ -0,0 +1,110 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Specialization;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Search predicates over appointment slots. Filters that are not supplied add no predicate, so every
+ * combination of filters becomes its own SQL statement: PostgreSQL plans each one for the columns it
+ * actually constrains instead of sharing one generic plan full of "(? IS NULL OR ...)" branches.
+ */
+public final class AppointmentSlotSpecifications {
+
+    private AppointmentSlotSpecifications() {
+    }
+
+    /**
+     * Available slots lying completely inside [startTime, endTime] that match the non-null filters.
+     * {@code locations} are exact stored values, as resolved by LocationIndex; {@code providerIds} may
+     * be the providers near a search position, as found by ProviderGeoIndex.
+     */
+    public static Specification<AppointmentSlot> availableSlots(LocalDateTime startTime, LocalDateTime endTime,
+                                                                Collection<String> locations, String appointmentType,
+                                                                Specialization specialization,
+                                                                Collection<Long> providerIds, Integer maxPrice,
+                                                                Integer slotDurationMinutes) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            // Rendered as a literal so the planner can match indexes restricted to AVAILABLE slots
+            predicates.add(cb.equal(root.get("status"), cb.literal(AppointmentSlot.SlotStatus.AVAILABLE)));
+            predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("startTime"), startTime));
+            predicates.add(cb.lessThanOrEqualTo(root.<LocalDateTime>get("endTime"), endTime));
+            if (locations != null) {
+                predicates.add(locations.isEmpty() ? cb.disjunction() : root.get("location").in(locations));
+            }
+            if (appointmentType != null) {
+                predicates.add(cb.equal(root.get("appointmentType"), appointmentType));
+            }
+            if (specialization != null) {
+                predicates.add(cb.equal(root.get("specialization"), specialization));
+            }
+            if (providerIds != null) {
+                predicates.add(providerIds.isEmpty() ? cb.disjunction() : root.get("providerId").in(providerIds));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.le(root.<BigDecimal>get("price"), maxPrice));
+            }
+            if (slotDurationMinutes != null) {
+                predicates.add(cb.equal(root.get("durationMinutes"), slotDurationMinutes));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Slots of the availability, of any status, starting in [startTime, endTime); null bounds are open.
+     */
+    public static Specification<AppointmentSlot> ofAvailability(Long availabilityId, LocalDateTime startTime,
+                                                                LocalDateTime endTime) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("providerAvailability").get("id"), availabilityId));
+            if (startTime != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("startTime"), startTime));
+            }
+            if (endTime != null) {
+                predicates.add(cb.lessThan(root.<LocalDateTime>get("startTime"), endTime));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Slots of the provider starting in [startTime, endTime), of the given status or of any status when
+     * it is null; null bounds are open.
+     */
+    public static Specification<AppointmentSlot> ofProvider(Long providerId, AppointmentSlot.SlotStatus status,
+                                                            LocalDateTime startTime, LocalDateTime endTime) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("providerId"), providerId));
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (startTime != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<LocalDateTime>get("startTime"), startTime));
+            }
+            if (endTime != null) {
+                predicates.add(cb.lessThan(root.<LocalDateTime>get("startTime"), endTime));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Slots that sort strictly after (startTime, id) in search order.
+     */
+    public static Specification<AppointmentSlot> after(LocalDateTime startTime, long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.<LocalDateTime>get("startTime"), startTime),
+                cb.and(cb.equal(root.get("startTime"), startTime), cb.greaterThan(root.<Long>get("id"), id)));
+    }
+}
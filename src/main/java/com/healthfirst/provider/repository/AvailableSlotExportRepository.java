@@ -0,0 +1,156 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Specialization;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads available slots for export through a forward-only JDBC cursor, so rows are fetched
+ * {@code fetchSize} at a time and nothing but the current batch is held in memory. PostgreSQL only
+ * streams inside a transaction; outside one the driver buffers the whole result.
+ *
+ * Filters have the same meaning as in AppointmentSlotSpecifications, and like there, filters that are
+ * not supplied add no predicate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AvailableSlotExportRepository {
+
+    private static final String SELECT = "SELECT id, provider_availability_id, provider_id, start_time, end_time, " +
+            "timezone, price, currency, location, appointment_type, special_requirements, specialization_code " +
+            "FROM appointment_slots WHERE status = 'AVAILABLE' AND start_time >= ? AND end_time <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Available slots lying completely inside [startTime, endTime] that match the non-null filters, in
+     * (startTime, id) order, as rows carrying the columns search responses use; the others are null. The
+     * stream holds a connection and must be closed.
+     */
+    public Stream<SlotRow> streamAvailableSlots(LocalDateTime startTime, LocalDateTime endTime,
+                                                Collection<String> locations, String appointmentType,
+                                                Specialization specialization,
+                                                Collection<Long> providerIds, Integer maxPrice,
+                                                Integer slotDurationMinutes, int fetchSize) {
+        if ((locations != null && locations.isEmpty()) || (providerIds != null && providerIds.isEmpty())) {
+            return Stream.empty();
+        }
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(Timestamp.valueOf(startTime));
+        parameters.add(Timestamp.valueOf(endTime));
+        if (locations != null) {
+            sql.append(" AND location IN (").append(placeholders(locations.size())).append(')');
+            parameters.addAll(locations);
+        }
+        if (appointmentType != null) {
+            sql.append(" AND appointment_type = ?");
+            parameters.add(appointmentType);
+        }
+        if (specialization != null) {
+            sql.append(" AND specialization_code = ?");
+            parameters.add(specialization.getCode());
+        }
+        if (providerIds != null) {
+            sql.append(" AND provider_id IN (").append(placeholders(providerIds.size())).append(')');
+            parameters.addAll(providerIds);
+        }
+        if (maxPrice != null) {
+            sql.append(" AND price <= ?");
+            parameters.add(maxPrice);
+        }
+        if (slotDurationMinutes != null) {
+            sql.append(" AND duration_minutes = ?");
+            parameters.add(slotDurationMinutes);
+        }
+        sql.append(" ORDER BY start_time, id");
+
+        // Released through DataSourceUtils with the connection it handed out: JdbcTemplate.queryForStream
+        // releases Statement.getConnection() instead, which a wrapping DataSource does not recognise as
+        // the transaction's connection and closes.
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            ResultSet resultSet = statement.executeQuery();
+            PreparedStatement openStatement = statement;
+            return StreamSupport.stream(new Spliterators.AbstractSpliterator<SlotRow>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super SlotRow> action) {
+                    try {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        action.accept(toRow(resultSet));
+                        return true;
+                    } catch (SQLException e) {
+                        throw translate(sql.toString(), e);
+                    }
+                }
+            }, false).onClose(() -> {
+                JdbcUtils.closeResultSet(resultSet);
+                JdbcUtils.closeStatement(openStatement);
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            });
+        } catch (SQLException e) {
+            JdbcUtils.closeStatement(statement);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw translate(sql.toString(), e);
+        }
+    }
+
+    private DataAccessException translate(String sql, SQLException e) {
+        DataAccessException translated = jdbcTemplate.getExceptionTranslator()
+                .translate("streamAvailableSlots", sql, e);
+        return translated != null ? translated : new UncategorizedSQLException("streamAvailableSlots", sql, e);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Specialization specialization(ResultSet resultSet) throws SQLException {
+        short code = resultSet.getShort("specialization_code");
+        return resultSet.wasNull() ? null : Specialization.fromCode(code);
+    }
+
+    private static SlotRow toRow(ResultSet resultSet) throws SQLException {
+        return new SlotRow(resultSet.getLong("id"), resultSet.getLong("provider_availability_id"),
+                resultSet.getLong("provider_id"), resultSet.getTimestamp("start_time").toLocalDateTime(),
+                resultSet.getTimestamp("end_time").toLocalDateTime(), null, null, resultSet.getString("timezone"),
+                AppointmentSlot.SlotStatus.AVAILABLE, resultSet.getBigDecimal("price"),
+                resultSet.getString("currency"), resultSet.getString("location"),
+                resultSet.getString("appointment_type"), resultSet.getString("special_requirements"),
+                specialization(resultSet), null, null, null, null);
+    }
+}
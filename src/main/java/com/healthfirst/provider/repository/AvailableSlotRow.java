@@ -0,0 +1,36 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.Specialization;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns of an available slot needed to answer searches, read without hydrating the entity.
+ */
+public interface AvailableSlotRow {
+
+    Long getId();
+
+    Long getProviderAvailabilityId();
+
+    Long getProviderId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    String getTimezone();
+
+    BigDecimal getPrice();
+
+    String getCurrency();
+
+    String getLocation();
+
+    String getAppointmentType();
+
+    String getSpecialRequirements();
+
+    Specialization getSpecialization();
+}
@@ -1,22 +1,32 @@
 package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.ProviderAvailability;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAvailability, Long> {
 
+    // Read paths only: results are loaded read-only, without dirty-checking snapshots
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<ProviderAvailability> findByProviderIdAndStatus(Long providerId, ProviderAvailability.AvailabilityStatus status);
 
     @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.providerId = :providerId AND pa.status = :status AND " +
            "((pa.recurrenceType = 'NONE' AND pa.startTime >= :startDate AND pa.endTime <= :endDate) OR " +
            "(pa.recurrenceType != 'NONE' AND pa.recurrenceEndDate >= :startDate))")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<ProviderAvailability> findByProviderIdAndStatusAndDateRange(
             @Param("providerId") Long providerId,
             @Param("status") ProviderAvailability.AvailabilityStatus status,
@@ -24,19 +34,57 @@ public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAv
             @Param("endDate") LocalDateTime endDate
     );
 
-    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.location LIKE %:location% AND pa.status = 'ACTIVE'")
-    List<ProviderAvailability> findByLocationContaining(@Param("location") String location);
+    /**
+     * Active availabilities of any of the providers that may have an occurrence starting in
+     * [startTime, endTime), in (providerId, startTime, id) order.
+     */
+    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.providerId IN :providerIds AND pa.status = 'ACTIVE' AND " +
+           "pa.startTime < :endTime AND ((pa.recurrenceType = 'NONE' AND pa.endTime > :startTime) OR " +
+           "(pa.recurrenceType != 'NONE' AND (pa.recurrenceEndDate IS NULL OR pa.recurrenceEndDate >= :startTime))) " +
+           "ORDER BY pa.providerId, pa.startTime, pa.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<ProviderAvailability> findActiveByProviderIdsAndWindow(
+            @Param("providerIds") Collection<Long> providerIds,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    /**
+     * Active availabilities at any of the given locations, as resolved by LocationIndex.
+     */
+    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.location IN :locations AND pa.status = 'ACTIVE'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<ProviderAvailability> findByLocationIn(@Param("locations") Collection<String> locations);
+
+    @Query("SELECT DISTINCT pa.location FROM ProviderAvailability pa WHERE pa.location IS NOT NULL")
+    List<String> findDistinctLocations();
+
+    /**
+     * Stored locations containing the text, for queries LocationIndex has no match for yet.
+     */
+    @Query("SELECT DISTINCT pa.location FROM ProviderAvailability pa WHERE LOWER(pa.location) LIKE LOWER(CONCAT('%', :location, '%'))")
+    List<String> findDistinctLocationsContaining(@Param("location") String location);
 
     @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.appointmentType = :appointmentType AND pa.status = 'ACTIVE'")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<ProviderAvailability> findByAppointmentType(@Param("appointmentType") String appointmentType);
 
     @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.providerId = :providerId AND pa.startTime >= :startTime AND pa.endTime <= :endTime")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     List<ProviderAvailability> findOverlappingAvailability(
             @Param("providerId") Long providerId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
 
+    /**
+     * Blocks until no other transaction holds the provider's availability lock, then holds it until this
+     * transaction ends. Writers that check for overlaps before inserting take it first, so two of them for
+     * the same provider cannot both pass the check before either commits.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:providerId)", nativeQuery = true)
+    Integer lockProvider(@Param("providerId") Long providerId);
+
     @Query("SELECT COUNT(pa) > 0 FROM ProviderAvailability pa WHERE pa.providerId = :providerId AND pa.id != :excludeId AND " +
            "pa.status = 'ACTIVE' AND ((pa.startTime < :endTime AND pa.endTime > :startTime) OR " +
            "(pa.recurrenceType != 'NONE' AND pa.recurrenceEndDate >= :startTime))")
@@ -46,4 +94,30 @@ public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAv
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
-} 
\ No newline at end of file
+
+    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.status = 'ACTIVE' AND pa.slotMaterialization = 'VIRTUAL' AND " +
+           "pa.startTime < :endTime AND ((pa.recurrenceType = 'NONE' AND pa.endTime > :startTime) OR " +
+           "(pa.recurrenceType != 'NONE' AND (pa.recurrenceEndDate IS NULL OR pa.recurrenceEndDate >= :startTime))) AND " +
+           "(:appointmentType IS NULL OR pa.appointmentType = :appointmentType) AND " +
+           "(:providerId IS NULL OR pa.providerId = :providerId) AND " +
+           "(:maxPrice IS NULL OR pa.price <= :maxPrice) AND " +
+           "(:slotDurationMinutes IS NULL OR pa.slotDurationMinutes = :slotDurationMinutes)")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<ProviderAvailability> findVirtualAvailabilitiesByFilters(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("appointmentType") String appointmentType,
+            @Param("providerId") Long providerId,
+            @Param("maxPrice") Integer maxPrice,
+            @Param("slotDurationMinutes") Integer slotDurationMinutes
+    );
+
+    @Query("SELECT pa.id FROM ProviderAvailability pa WHERE pa.status = 'ACTIVE' AND pa.slotMaterialization = 'ROLLING' AND " +
+           "pa.recurrenceType != 'NONE' AND pa.materializedUntil < :horizon AND " +
+           "(pa.recurrenceEndDate IS NULL OR pa.materializedUntil < pa.recurrenceEndDate)")
+    List<Long> findRollingAvailabilityIdsBehindHorizon(@Param("horizon") LocalDateTime horizon);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pa FROM ProviderAvailability pa WHERE pa.id = :id")
+    Optional<ProviderAvailability> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,9 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.ProviderAvailabilityVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProviderAvailabilityVersionRepository extends JpaRepository<ProviderAvailabilityVersion, Long> {
+}
@@ -0,0 +1,17 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.ProviderDailyAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProviderDailyAvailabilityRepository
+        extends JpaRepository<ProviderDailyAvailability, ProviderDailyAvailability.Key> {
+
+    // One range scan of the (provider_id, local_date) primary key
+    List<ProviderDailyAvailability> findByProviderIdAndLocalDateBetweenOrderByLocalDate(
+            Long providerId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,15 @@
+package com.healthfirst.provider.repository;
+
+/**
+ * Where an active provider's clinic is, read without hydrating the entity.
+ */
+public interface ProviderLocationRow {
+
+    Long getProviderNumber();
+
+    String getZip();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
@@ -2,6 +2,10 @@ package com.healthfirst.provider.repository;
 
 import com.healthfirst.provider.entity.Provider;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +16,18 @@ public interface ProviderRepository extends JpaRepository<Provider, UUID> {
     boolean existsByEmail(String email);
     boolean existsByPhoneNumber(String phoneNumber);
     boolean existsByLicenseNumber(String licenseNumber);
+
+    @Query("SELECT p.providerNumber AS providerNumber, p.clinicAddress.zip AS zip, " +
+           "p.clinicAddress.latitude AS latitude, p.clinicAddress.longitude AS longitude " +
+           "FROM Provider p WHERE p.isActive = true")
+    List<ProviderLocationRow> findActiveProviderLocations();
+
+    @Query("SELECT p.specialization FROM Provider p WHERE p.providerNumber = :providerNumber")
+    Optional<String> findSpecializationByProviderNumber(@Param("providerNumber") Long providerNumber);
+
+    @Query("SELECT p.providerNumber AS providerNumber, p.firstName AS firstName, p.lastName AS lastName, " +
+           "p.specialization AS specialization, p.phoneNumber AS phoneNumber, p.email AS email, " +
+           "p.clinicAddress.street AS street, p.clinicAddress.city AS city, p.clinicAddress.state AS state, " +
+           "p.clinicAddress.zip AS zip FROM Provider p WHERE p.providerNumber IN :providerNumbers")
+    List<ProviderSummaryRow> findSummariesByProviderNumbers(@Param("providerNumbers") Collection<Long> providerNumbers);
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.healthfirst.provider.repository;
+
+/**
+ * The provider fields search results carry, read without hydrating the entity.
+ */
+public interface ProviderSummaryRow {
+
+    Long getProviderNumber();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getSpecialization();
+
+    String getPhoneNumber();
+
+    String getEmail();
+
+    String getStreet();
+
+    String getCity();
+
+    String getState();
+
+    String getZip();
+}
@@ -0,0 +1,48 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Specialization;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keyset-paged slot reads built from AppointmentSlotSpecifications, returned as {@link SlotRow}s rather than
+ * loaded as managed entities.
+ */
+public interface SlotPageQueries {
+
+    /**
+     * One page of the available slots matching the supplied filters, in (startTime, id) order. With a
+     * non-null afterStartTime only slots sorting after (afterStartTime, afterId) are returned; seeking
+     * instead of using OFFSET keeps every page as cheap as the first. Locations are the stored values
+     * LocationIndex resolved the location filter to; null means any location. Likewise null providerIds
+     * means any provider.
+     */
+    List<SlotRow> findAvailableSlotsPageByFilters(LocalDateTime startTime, LocalDateTime endTime,
+                                                  Collection<String> locations, String appointmentType,
+                                                  Specialization specialization,
+                                                  Collection<Long> providerIds, Integer maxPrice,
+                                                  Integer slotDurationMinutes,
+                                                  LocalDateTime afterStartTime, Long afterId,
+                                                  Limit limit);
+
+    /**
+     * One page of an availability's slots of any status starting in [startTime, endTime), in (startTime, id)
+     * order; null bounds are open. Pages seek past (afterStartTime, afterId) like the search pages.
+     */
+    List<SlotRow> findSlotsPageByAvailabilityId(Long availabilityId, LocalDateTime startTime,
+                                                LocalDateTime endTime, LocalDateTime afterStartTime,
+                                                Long afterId, Limit limit);
+
+    /**
+     * One page of a provider's slots starting in [startTime, endTime), of one status or of any when status
+     * is null, in (startTime, id) order; null bounds are open. Pages seek past (afterStartTime, afterId),
+     * so each page is one range scan of (provider_id, status, start_time, id) or (provider_id, start_time, id).
+     */
+    List<SlotRow> findSlotsPageByProviderId(Long providerId, AppointmentSlot.SlotStatus status,
+                                            LocalDateTime startTime, LocalDateTime endTime,
+                                            LocalDateTime afterStartTime, Long afterId, Limit limit);
+}
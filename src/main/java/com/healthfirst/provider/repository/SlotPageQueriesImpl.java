@@ -0,0 +1,75 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Specialization;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Runs the slot page Specifications as a constructor expression into {@link SlotRow}, the Criteria
+ * counterpart of {@link SlotRow#SELECT}.
+ */
+class SlotPageQueriesImpl implements SlotPageQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<SlotRow> findAvailableSlotsPageByFilters(LocalDateTime startTime, LocalDateTime endTime,
+                                                         Collection<String> locations, String appointmentType,
+                                                         Specialization specialization,
+                                                         Collection<Long> providerIds, Integer maxPrice,
+                                                         Integer slotDurationMinutes,
+                                                         LocalDateTime afterStartTime, Long afterId,
+                                                         Limit limit) {
+        return findPage(AppointmentSlotSpecifications.availableSlots(startTime, endTime, locations, appointmentType,
+                specialization, providerIds, maxPrice, slotDurationMinutes), afterStartTime, afterId, limit);
+    }
+
+    @Override
+    public List<SlotRow> findSlotsPageByAvailabilityId(Long availabilityId, LocalDateTime startTime,
+                                                       LocalDateTime endTime, LocalDateTime afterStartTime,
+                                                       Long afterId, Limit limit) {
+        return findPage(AppointmentSlotSpecifications.ofAvailability(availabilityId, startTime, endTime),
+                afterStartTime, afterId, limit);
+    }
+
+    @Override
+    public List<SlotRow> findSlotsPageByProviderId(Long providerId, AppointmentSlot.SlotStatus status,
+                                                   LocalDateTime startTime, LocalDateTime endTime,
+                                                   LocalDateTime afterStartTime, Long afterId, Limit limit) {
+        return findPage(AppointmentSlotSpecifications.ofProvider(providerId, status, startTime, endTime),
+                afterStartTime, afterId, limit);
+    }
+
+    private List<SlotRow> findPage(Specification<AppointmentSlot> filters, LocalDateTime afterStartTime,
+                                   Long afterId, Limit limit) {
+        if (afterStartTime != null) {
+            filters = filters.and(AppointmentSlotSpecifications.after(afterStartTime, afterId));
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SlotRow> query = cb.createQuery(SlotRow.class);
+        Root<AppointmentSlot> root = query.from(AppointmentSlot.class);
+        query.select(cb.construct(SlotRow.class,
+                root.get("id"), root.get("providerAvailability").get("id"), root.get("providerId"),
+                root.get("startTime"), root.get("endTime"), root.get("durationMinutes"),
+                root.get("originalStartTime"), root.get("timezone"), root.get("status"), root.get("price"),
+                root.get("currency"), root.get("location"), root.get("appointmentType"),
+                root.get("specialRequirements"), root.get("specialization"), root.get("patientId"),
+                root.get("bookingNotes"), root.get("createdAt"), root.get("updatedAt")));
+        query.where(filters.toPredicate(root, query, cb));
+        query.orderBy(cb.asc(root.get("startTime")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Specialization;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a slot of any status that availability responses show, selected with a JPQL or Criteria
+ * constructor expression so reads allocate one row per slot and nothing enters the persistence context.
+ * Read paths carry rows from the query to the response DTOs; computed slots of VIRTUAL availabilities
+ * join them through {@link #of(AppointmentSlot)}.
+ */
+public record SlotRow(Long id, Long providerAvailabilityId, Long providerId, LocalDateTime startTime,
+                      LocalDateTime endTime, Integer durationMinutes, LocalDateTime originalStartTime,
+                      String timezone, AppointmentSlot.SlotStatus status, BigDecimal price, String currency,
+                      String location, String appointmentType, String specialRequirements,
+                      Specialization specialization, Long patientId, String bookingNotes,
+                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    static final String SELECT = "SELECT new com.healthfirst.provider.repository.SlotRow(s.id, " +
+            "s.providerAvailability.id, s.providerId, s.startTime, s.endTime, s.durationMinutes, s.originalStartTime, " +
+            "s.timezone, s.status, s.price, s.currency, s.location, s.appointmentType, s.specialRequirements, " +
+            "s.specialization, s.patientId, s.bookingNotes, s.createdAt, s.updatedAt) FROM AppointmentSlot s ";
+
+    /**
+     * The row of a slot that was not read through a projection, such as a computed one.
+     */
+    public static SlotRow of(AppointmentSlot slot) {
+        return new SlotRow(slot.getId(),
+                slot.getProviderAvailability() != null ? slot.getProviderAvailability().getId() : null,
+                slot.getProviderId(), slot.getStartTime(), slot.getEndTime(), slot.getDurationMinutes(),
+                slot.getOriginalStartTime(), slot.getTimezone(), slot.getStatus(), slot.getPrice(),
+                slot.getCurrency(), slot.getLocation(), slot.getAppointmentType(), slot.getSpecialRequirements(),
+                slot.getSpecialization(), slot.getPatientId(), slot.getBookingNotes(), slot.getCreatedAt(),
+                slot.getUpdatedAt());
+    }
+
+    /**
+     * The grid start the slot was created from: its original start if it was moved, else its start.
+     */
+    public LocalDateTime occurrenceStartTime() {
+        return originalStartTime != null ? originalStartTime : startTime;
+    }
+}
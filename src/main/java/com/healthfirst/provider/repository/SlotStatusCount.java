@@ -0,0 +1,13 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+
+/**
+ * Number of slots of an availability in one status.
+ */
+public interface SlotStatusCount {
+
+    AppointmentSlot.SlotStatus getStatus();
+
+    long getTotal();
+}
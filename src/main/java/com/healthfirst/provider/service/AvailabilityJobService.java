@@ -0,0 +1,197 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.dto.AvailabilityJobResponse;
+import com.healthfirst.provider.dto.ProviderAvailabilityRequest;
+import com.healthfirst.provider.dto.ProviderAvailabilityResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs availability creation in the background for the async variant of the create endpoint.
+ * Pending jobs are queued per provider and the workers serve providers round-robin, so one provider
+ * submitting a long series of large schedules cannot hold back the others. A provider's jobs run one at
+ * a time: the provider leaves the rotation while its job runs, so no worker sits waiting on the
+ * provider lock that createAvailability takes. Job state is kept in memory for
+ * {@code availability.jobs.retention-minutes} after the job finishes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityJobService {
+
+    private final ProviderAvailabilityService availabilityService;
+    private final AvailabilityProperties properties;
+
+    private final Map<UUID, AvailabilityJob> jobs = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Map<Long, Deque<AvailabilityJob>> pendingByProvider = new HashMap<>();
+    // Providers with pending jobs and none running, in serving order
+    private final Deque<Long> providerRotation = new ArrayDeque<>();
+    private final Set<Long> runningProviders = new HashSet<>();
+    private int pendingJobs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(properties.getJobs().getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "availability-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues creation of the availability and returns the job in QUEUED state.
+     * Throws RejectedExecutionException when availability.jobs.queue-capacity jobs are already waiting.
+     */
+    public AvailabilityJobResponse submit(ProviderAvailabilityRequest request) {
+        evictFinishedJobs();
+
+        AvailabilityJob job = new AvailabilityJob(UUID.randomUUID(), request);
+        synchronized (this) {
+            if (pendingJobs >= properties.getJobs().getQueueCapacity()) {
+                throw new RejectedExecutionException("Availability job queue is full");
+            }
+            jobs.put(job.id, job);
+            pendingByProvider.computeIfAbsent(request.getProviderId(), providerId -> {
+                if (!runningProviders.contains(providerId)) {
+                    providerRotation.addLast(providerId);
+                }
+                return new ArrayDeque<>();
+            }).addLast(job);
+            pendingJobs++;
+        }
+
+        // Each task runs whichever job is next in the rotation, not necessarily this one
+        executor.execute(this::runNextJob);
+        log.info("Queued availability job {} for provider: {}", job.id, request.getProviderId());
+        return job.toResponse();
+    }
+
+    public AvailabilityJobResponse getJob(UUID jobId) {
+        AvailabilityJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Availability job not found: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void runNextJob() {
+        AvailabilityJob job = nextJob();
+        if (job == null) {
+            return;
+        }
+
+        job.startedAt = LocalDateTime.now();
+        job.status = AvailabilityJobResponse.JobStatus.RUNNING;
+        try {
+            ProviderAvailabilityResponse response = availabilityService.createAvailability(job.request,
+                    slotsGenerated -> job.slotsGenerated = slotsGenerated);
+            job.availabilityId = response.getId();
+            job.status = AvailabilityJobResponse.JobStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            log.error("Availability job {} failed: {}", job.id, e.getMessage());
+            job.error = e.getMessage();
+            job.status = AvailabilityJobResponse.JobStatus.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            if (release(job.request.getProviderId())) {
+                // Tasks submitted meanwhile found the provider busy; this one takes its next job
+                executor.execute(this::runNextJob);
+            }
+        }
+    }
+
+    private synchronized AvailabilityJob nextJob() {
+        Long providerId = providerRotation.pollFirst();
+        if (providerId == null) {
+            return null;
+        }
+
+        Deque<AvailabilityJob> queue = pendingByProvider.get(providerId);
+        AvailabilityJob job = queue.pollFirst();
+        if (queue.isEmpty()) {
+            pendingByProvider.remove(providerId);
+        }
+        runningProviders.add(providerId);
+        pendingJobs--;
+        return job;
+    }
+
+    /**
+     * Marks the provider's job finished and puts the provider back at the end of the rotation if it has
+     * more jobs pending; returns whether it has.
+     */
+    private synchronized boolean release(Long providerId) {
+        runningProviders.remove(providerId);
+        if (!pendingByProvider.containsKey(providerId)) {
+            return false;
+        }
+        providerRotation.addLast(providerId);
+        return true;
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(properties.getJobs().getRetentionMinutes());
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private static class AvailabilityJob {
+
+        private final UUID id;
+        private final ProviderAvailabilityRequest request;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+
+        private volatile AvailabilityJobResponse.JobStatus status = AvailabilityJobResponse.JobStatus.QUEUED;
+        private volatile int slotsGenerated;
+        private volatile Long availabilityId;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+
+        private AvailabilityJob(UUID id, ProviderAvailabilityRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private AvailabilityJobResponse toResponse() {
+            return AvailabilityJobResponse.builder()
+                    .jobId(id)
+                    .providerId(request.getProviderId())
+                    .status(status)
+                    .slotsGenerated(slotsGenerated)
+                    .availabilityId(availabilityId)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,706 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.Specialization;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.AvailableSlotRow;
+import com.healthfirst.provider.repository.SlotRow;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Read-side index of persisted AVAILABLE slots that answers slot search without touching the database.
+ *
+ * Slots are bucketed by (appointmentType, location, specialization) and, inside a bucket, by the UTC
+ * day they start on. Each day is an immutable chunk of parallel primitive arrays (epoch seconds, ids,
+ * prices in cents) sorted in search order (startTime, id); a search binary-searches the first chunk of
+ * every matching bucket and merges the buckets until the page is full. Writers replace whole chunks, so
+ * readers never lock and a single slot change only copies the slots of one bucket-day.
+ *
+ * Every chunk change is also applied to {@link ProviderOpenings}, which keeps each provider's slots in
+ * order so the next free slot of a provider, or of every provider in a bucket, is read off a set head.
+ *
+ * The database stays the source of truth: changes are applied after their transaction commits, the
+ * index is rebuilt nightly, and until the first build completes (or when disabled) search falls back
+ * to the repository. Computed slots of VIRTUAL availabilities are not indexed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AvailableSlotIndex {
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final AppointmentSlotRepository slotRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final AvailabilityProperties properties;
+
+    private final Object writeLock = new Object();
+
+    // Null until the first build
+    private volatile State state;
+
+    // Changes made while a rebuild reads the database, replayed onto the rebuilt state
+    private List<Consumer<State>> pendingChanges;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (properties.getSlotIndex().isEnabled()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${availability.slot-index.rebuild-cron:0 30 2 * * *}")
+    public void scheduledRebuild() {
+        if (properties.getSlotIndex().isEnabled()) {
+            rebuild();
+        }
+    }
+
+    void rebuild() {
+        synchronized (writeLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            // Slots that started before today are no longer bookable and are left out
+            LocalDateTime from = LocalDate.now(ZoneOffset.UTC).atStartOfDay();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            State rebuilt = transaction.execute(status -> {
+                try (Stream<AvailableSlotRow> rows = slotRepository.streamAvailableSlotRows(from)) {
+                    return load(from, rows);
+                }
+            });
+
+            synchronized (writeLock) {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                state = rebuilt;
+                log.info("Built available slot index: {} slots from {}", rebuilt.size(), from);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error building available slot index: {}", e.getMessage());
+        } finally {
+            synchronized (writeLock) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * Builds a state from the given rows; every row must start at or after {@code from}.
+     */
+    static State load(LocalDateTime from, Stream<AvailableSlotRow> rows) {
+        State loaded = new State(toSecond(from));
+        Map<ChunkKey, List<Entry>> entriesByChunk = new HashMap<>();
+        rows.forEach(row -> {
+            Entry entry = loaded.entry(row);
+            BucketKey bucket = new BucketKey(row.getAppointmentType(), row.getLocation(), row.getSpecialization());
+            entriesByChunk.computeIfAbsent(new ChunkKey(bucket, entry.day()), key -> new ArrayList<>()).add(entry);
+        });
+        entriesByChunk.forEach((key, entries) -> loaded.putChunk(key, DayChunk.of(entries)));
+        return loaded;
+    }
+
+    /**
+     * Whether searches over windows starting at {@code startTime} can be answered from the index.
+     */
+    public boolean covers(LocalDateTime startTime) {
+        State current = state;
+        return current != null && properties.getSlotIndex().isEnabled() && toSecond(startTime) >= current.fromSecond;
+    }
+
+    /**
+     * Same contract as AppointmentSlotRepository.findAvailableSlotsPageByFilters: up to {@code limit}
+     * available slots lying completely inside [startTime, endTime] that match the non-null filters, in
+     * (startTime, id) order and after (afterStartTime, afterId) when a cursor is given. The returned
+     * rows carry only the columns search responses use; the others are null.
+     */
+    public List<SlotRow> findPage(LocalDateTime startTime, LocalDateTime endTime, Collection<String> locations,
+                                  String appointmentType, Specialization specialization,
+                                  Collection<Long> providerIds, Integer maxPrice,
+                                  Integer slotDurationMinutes, LocalDateTime afterStartTime, Long afterId,
+                                  int limit) {
+        State current = state;
+        long fromSecond = toSecond(startTime);
+        long toSecond = toSecond(endTime);
+        Filter filter = new Filter(providerIds, maxPrice != null ? maxPrice * 100L : null, slotDurationMinutes, toSecond);
+
+        // First (start, id) position a page may contain
+        long seekSecond = fromSecond;
+        long seekId = Long.MIN_VALUE;
+        if (afterStartTime != null && toSecond(afterStartTime) >= fromSecond) {
+            seekSecond = toSecond(afterStartTime);
+            if (afterId == Long.MAX_VALUE) {
+                seekSecond++;
+            } else {
+                seekId = afterId + 1;
+            }
+        }
+        int firstDay = dayOf(seekSecond);
+        int lastDay = dayOf(toSecond);
+        if (lastDay < firstDay) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<BucketCursor> cursors = new PriorityQueue<>(BucketCursor.ORDER);
+        for (Map.Entry<BucketKey, ConcurrentSkipListMap<Integer, DayChunk>> bucket : current.buckets.entrySet()) {
+            if (bucket.getKey().matches(appointmentType, locations, specialization)) {
+                BucketCursor cursor = new BucketCursor(bucket.getKey(),
+                        bucket.getValue().subMap(firstDay, true, lastDay, true), seekSecond, seekId, filter);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+
+        List<SlotRow> page = new ArrayList<>(Math.min(limit, 64));
+        while (page.size() < limit && !cursors.isEmpty()) {
+            BucketCursor cursor = cursors.poll();
+            page.add(cursor.toRow());
+            cursor.position++;
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * The provider's earliest indexed slot starting at or after {@code from} whose type and location match
+     * the non-null filters, or null. Read from the heads of the provider's openings, so the cost does not
+     * grow with the number of slots before it.
+     */
+    public SlotRow findNextForProvider(Long providerId, LocalDateTime from, String appointmentType,
+                                       Collection<String> locations) {
+        State current = state;
+        if (current == null) {
+            return null;
+        }
+        Predicate<BucketKey> bucketFilter = bucket -> bucket.matches(appointmentType, locations, null);
+        ProviderOpenings.Opening next = current.openings.next(providerId, toSecond(from), Long.MIN_VALUE, bucketFilter);
+        while (next != null) {
+            SlotRow slot = current.slotAt(next);
+            if (slot != null) {
+                return slot;
+            }
+            // Its chunk was replaced after the opening was read
+            next = current.openings.next(providerId, next.startSecond, next.id + 1, bucketFilter);
+        }
+        return null;
+    }
+
+    /**
+     * The earliest indexed slot of each provider whose type and location match the non-null filters,
+     * soonest first, for at most {@code limit} providers. Slots that started before {@code now} are
+     * dropped from the openings, so it must be the current time.
+     */
+    public List<SlotRow> findNextPerProvider(LocalDateTime now, String appointmentType,
+                                             Collection<String> locations, int limit) {
+        State current = state;
+        List<SlotRow> slots = new ArrayList<>();
+        if (current == null) {
+            return slots;
+        }
+        for (ProviderOpenings.Opening first : current.openings.firstPerProvider(toSecond(now),
+                bucket -> bucket.matches(appointmentType, locations, null), limit)) {
+            SlotRow slot = current.slotAt(first);
+            if (slot != null) {
+                slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Indexes the available slots of a newly created or extended availability, replacing whatever was
+     * indexed for it before. Runs after the current transaction commits.
+     */
+    public void refreshAvailability(Long availabilityId) {
+        afterCommit(() -> {
+            List<AvailableSlotRow> rows = slotRepository.findAvailableSlotRowsByAvailabilityId(availabilityId);
+            apply(current -> {
+                current.removeAvailability(availabilityId);
+                for (AvailableSlotRow row : rows) {
+                    current.add(new BucketKey(row.getAppointmentType(), row.getLocation(), row.getSpecialization()), current.entry(row));
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops every slot of the availability. Runs after the current transaction commits.
+     */
+    public void removeAvailability(Long availabilityId) {
+        afterCommit(() -> apply(current -> current.removeAvailability(availabilityId)));
+    }
+
+    /**
+     * Re-indexes a slot whose status, time or attributes may have changed. {@code previous} is where the
+     * slot was indexed before the change, or null for a slot that was not persisted yet. Runs after the
+     * current transaction commits.
+     */
+    public void updateSlot(SlotPosition previous, AppointmentSlot slot) {
+        SlotPosition current = SlotPosition.of(slot);
+        boolean available = slot.getStatus() == AppointmentSlot.SlotStatus.AVAILABLE;
+        SlotSnapshot snapshot = available ? SlotSnapshot.of(slot) : null;
+        afterCommit(() -> apply(indexed -> {
+            if (previous != null) {
+                indexed.remove(previous);
+            }
+            indexed.remove(current);
+            if (snapshot != null) {
+                indexed.add(current.bucket(), indexed.entry(snapshot));
+            }
+        }));
+    }
+
+    private void apply(Consumer<State> change) {
+        synchronized (writeLock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            if (state != null) {
+                change.accept(state);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.error("Error updating available slot index: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static long toSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int dayOf(long epochSecond) {
+        return (int) Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price != null ? price.movePointRight(2).longValue() : -1;
+    }
+
+    /**
+     * Where a slot sits in the index: its bucket, start and id.
+     */
+    @Value
+    public static class SlotPosition {
+        Long id;
+        String appointmentType;
+        String location;
+        Specialization specialization;
+        LocalDateTime startTime;
+
+        public static SlotPosition of(AppointmentSlot slot) {
+            return new SlotPosition(slot.getId(), slot.getAppointmentType(), slot.getLocation(),
+                    slot.getSpecialization(), slot.getStartTime());
+        }
+
+        BucketKey bucket() {
+            return new BucketKey(appointmentType, location, specialization);
+        }
+    }
+
+    @Value
+    static class BucketKey {
+        String appointmentType;
+        String location;
+        Specialization specialization;
+
+        // Same semantics as the database filters: equality on type and specialization, membership in the resolved locations
+        boolean matches(String appointmentTypeFilter, Collection<String> locationFilter,
+                        Specialization specializationFilter) {
+            return (appointmentTypeFilter == null || appointmentTypeFilter.equals(appointmentType))
+                    && (locationFilter == null || (location != null && locationFilter.contains(location)))
+                    && (specializationFilter == null || specializationFilter == specialization);
+        }
+    }
+
+    @Value
+    static class ChunkKey {
+        BucketKey bucket;
+        int day;
+    }
+
+    /**
+     * Attributes shared by many slots, interned so each slot holds one reference.
+     */
+    @Value
+    static class SlotDetails {
+        Long providerAvailabilityId;
+        String timezone;
+        String currency;
+        String specialRequirements;
+    }
+
+    /**
+     * Copy of the indexed fields of a slot, taken before the transaction commits.
+     */
+    @Value
+    static class SlotSnapshot implements AvailableSlotRow {
+        Long id;
+        Long providerAvailabilityId;
+        Long providerId;
+        LocalDateTime startTime;
+        LocalDateTime endTime;
+        String timezone;
+        BigDecimal price;
+        String currency;
+        String location;
+        String appointmentType;
+        String specialRequirements;
+        Specialization specialization;
+
+        static SlotSnapshot of(AppointmentSlot slot) {
+            return new SlotSnapshot(slot.getId(),
+                    slot.getProviderAvailability() != null ? slot.getProviderAvailability().getId() : null,
+                    slot.getProviderId(), slot.getStartTime(), slot.getEndTime(), slot.getTimezone(), slot.getPrice(),
+                    slot.getCurrency(), slot.getLocation(), slot.getAppointmentType(), slot.getSpecialRequirements(),
+                    slot.getSpecialization());
+        }
+    }
+
+    /**
+     * Mutable form of one indexed slot, used only while a chunk is being rebuilt.
+     */
+    static final class Entry {
+        static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(entry -> entry.startSecond)
+                .thenComparingLong(entry -> entry.id);
+
+        final long startSecond;
+        final long endSecond;
+        final long id;
+        final long providerId;
+        final long priceCents;
+        final SlotDetails details;
+
+        Entry(long startSecond, long endSecond, long id, long providerId, long priceCents, SlotDetails details) {
+            this.startSecond = startSecond;
+            this.endSecond = endSecond;
+            this.id = id;
+            this.providerId = providerId;
+            this.priceCents = priceCents;
+            this.details = details;
+        }
+
+        int day() {
+            return dayOf(startSecond);
+        }
+    }
+
+    /**
+     * Slots of one bucket starting on one UTC day, sorted by (startSecond, id). Immutable.
+     */
+    static final class DayChunk {
+        final long[] startSeconds;
+        final long[] endSeconds;
+        final long[] ids;
+        final long[] providerIds;
+        final long[] priceCents;
+        final SlotDetails[] details;
+
+        private DayChunk(int size) {
+            startSeconds = new long[size];
+            endSeconds = new long[size];
+            ids = new long[size];
+            providerIds = new long[size];
+            priceCents = new long[size];
+            details = new SlotDetails[size];
+        }
+
+        static DayChunk of(List<Entry> entries) {
+            entries.sort(Entry.ORDER);
+            DayChunk chunk = new DayChunk(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                chunk.startSeconds[i] = entry.startSecond;
+                chunk.endSeconds[i] = entry.endSecond;
+                chunk.ids[i] = entry.id;
+                chunk.providerIds[i] = entry.providerId;
+                chunk.priceCents[i] = entry.priceCents;
+                chunk.details[i] = entry.details;
+            }
+            return chunk;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        List<Entry> entries() {
+            List<Entry> entries = new ArrayList<>(size() + 1);
+            for (int i = 0; i < size(); i++) {
+                entries.add(new Entry(startSeconds[i], endSeconds[i], ids[i], providerIds[i], priceCents[i], details[i]));
+            }
+            return entries;
+        }
+
+        /**
+         * Whether the chunk holds the slot with this id at this start for this provider.
+         */
+        boolean holds(long second, long id, long providerId) {
+            int i = seek(second, id);
+            return i < size() && ids[i] == id && startSeconds[i] == second && providerIds[i] == providerId;
+        }
+
+        ProviderOpenings.Opening opening(BucketKey bucket, int i) {
+            return new ProviderOpenings.Opening(startSeconds[i], ids[i], providerIds[i], bucket);
+        }
+
+        SlotRow toRow(BucketKey bucket, int i) {
+            SlotDetails slotDetails = details[i];
+            return new SlotRow(ids[i], slotDetails.getProviderAvailabilityId(), providerIds[i],
+                    LocalDateTime.ofEpochSecond(startSeconds[i], 0, ZoneOffset.UTC),
+                    LocalDateTime.ofEpochSecond(endSeconds[i], 0, ZoneOffset.UTC),
+                    (int) ((endSeconds[i] - startSeconds[i]) / 60), null, slotDetails.getTimezone(),
+                    AppointmentSlot.SlotStatus.AVAILABLE,
+                    priceCents[i] >= 0 ? BigDecimal.valueOf(priceCents[i], 2) : null, slotDetails.getCurrency(),
+                    bucket.getLocation(), bucket.getAppointmentType(), slotDetails.getSpecialRequirements(),
+                    bucket.getSpecialization(), null, null, null, null);
+        }
+
+        /**
+         * Index of the first slot at or after (second, id).
+         */
+        int seek(long second, long id) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startSeconds[mid] < second || (startSeconds[mid] == second && ids[mid] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Filter {
+        // Sorted for binary search; null when not filtering by provider
+        final long[] providerIds;
+        final Long maxPriceCents;
+        final Integer durationMinutes;
+        final long toSecond;
+
+        Filter(Collection<Long> providerIds, Long maxPriceCents, Integer durationMinutes, long toSecond) {
+            this.providerIds = providerIds != null
+                    ? providerIds.stream().mapToLong(Long::longValue).sorted().toArray()
+                    : null;
+            this.maxPriceCents = maxPriceCents;
+            this.durationMinutes = durationMinutes;
+            this.toSecond = toSecond;
+        }
+
+        boolean accepts(DayChunk chunk, int i) {
+            return chunk.endSeconds[i] <= toSecond
+                    && (providerIds == null || Arrays.binarySearch(providerIds, chunk.providerIds[i]) >= 0)
+                    && (maxPriceCents == null || (chunk.priceCents[i] >= 0 && chunk.priceCents[i] <= maxPriceCents))
+                    && (durationMinutes == null || chunk.endSeconds[i] - chunk.startSeconds[i] == durationMinutes * 60L);
+        }
+    }
+
+    /**
+     * Walks the matching slots of one bucket in search order.
+     */
+    private static final class BucketCursor {
+        static final Comparator<BucketCursor> ORDER = Comparator.<BucketCursor>comparingLong(cursor -> cursor.chunk.startSeconds[cursor.position])
+                .thenComparingLong(cursor -> cursor.chunk.ids[cursor.position]);
+
+        final BucketKey bucket;
+        final Iterator<DayChunk> chunks;
+        final Filter filter;
+        DayChunk chunk;
+        int position;
+
+        BucketCursor(BucketKey bucket, NavigableMap<Integer, DayChunk> days, long seekSecond, long seekId, Filter filter) {
+            this.bucket = bucket;
+            this.chunks = days.values().iterator();
+            this.filter = filter;
+            if (chunks.hasNext()) {
+                chunk = chunks.next();
+                position = chunk.seek(seekSecond, seekId);
+            }
+        }
+
+        /**
+         * Moves to the next matching slot at or after the current position; false when there is none.
+         */
+        boolean advance() {
+            while (chunk != null) {
+                for (; position < chunk.size(); position++) {
+                    if (chunk.startSeconds[position] > filter.toSecond) {
+                        chunk = null;
+                        return false;
+                    }
+                    if (filter.accepts(chunk, position)) {
+                        return true;
+                    }
+                }
+                chunk = chunks.hasNext() ? chunks.next() : null;
+                position = 0;
+            }
+            return false;
+        }
+
+        SlotRow toRow() {
+            return chunk.toRow(bucket, position);
+        }
+    }
+
+    /**
+     * One generation of the index. Reads go through the concurrent maps; all writes hold the write lock.
+     */
+    static final class State {
+        final long fromSecond;
+        final Map<BucketKey, ConcurrentSkipListMap<Integer, DayChunk>> buckets = new ConcurrentHashMap<>();
+        final Map<Long, Set<ChunkKey>> chunksByAvailability = new ConcurrentHashMap<>();
+        final Map<SlotDetails, SlotDetails> details = new ConcurrentHashMap<>();
+        final ProviderOpenings openings = new ProviderOpenings();
+
+        State(long fromSecond) {
+            this.fromSecond = fromSecond;
+        }
+
+        Entry entry(AvailableSlotRow row) {
+            SlotDetails shared = details.computeIfAbsent(new SlotDetails(row.getProviderAvailabilityId(),
+                    row.getTimezone(), row.getCurrency(), row.getSpecialRequirements()), key -> key);
+            return new Entry(toSecond(row.getStartTime()), toSecond(row.getEndTime()), row.getId(),
+                    row.getProviderId(), toCents(row.getPrice()), shared);
+        }
+
+        int size() {
+            return buckets.values().stream()
+                    .flatMap(days -> days.values().stream())
+                    .mapToInt(DayChunk::size)
+                    .sum();
+        }
+
+        void putChunk(ChunkKey key, DayChunk chunk) {
+            ConcurrentSkipListMap<Integer, DayChunk> days = buckets.computeIfAbsent(key.getBucket(), bucket -> new ConcurrentSkipListMap<>());
+            DayChunk previous = chunk.size() == 0 ? days.remove(key.getDay()) : days.put(key.getDay(), chunk);
+            updateOpenings(key.getBucket(), previous, chunk);
+            if (chunk.size() == 0) {
+                return;
+            }
+            for (SlotDetails shared : new HashSet<>(Arrays.asList(chunk.details))) {
+                if (shared.getProviderAvailabilityId() != null) {
+                    chunksByAvailability.computeIfAbsent(shared.getProviderAvailabilityId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+                }
+            }
+        }
+
+        void add(BucketKey bucket, Entry entry) {
+            if (entry.startSecond < fromSecond) {
+                return;
+            }
+            ChunkKey key = new ChunkKey(bucket, entry.day());
+            List<Entry> entries = entriesOf(key);
+            entries.removeIf(existing -> existing.id == entry.id);
+            entries.add(entry);
+            putChunk(key, DayChunk.of(entries));
+        }
+
+        void remove(SlotPosition position) {
+            ChunkKey key = new ChunkKey(position.bucket(), dayOf(toSecond(position.getStartTime())));
+            List<Entry> entries = entriesOf(key);
+            if (entries.removeIf(existing -> existing.id == position.getId())) {
+                putChunk(key, DayChunk.of(entries));
+            }
+        }
+
+        void removeAvailability(Long availabilityId) {
+            Set<ChunkKey> keys = chunksByAvailability.remove(availabilityId);
+            if (keys == null) {
+                return;
+            }
+            for (ChunkKey key : keys) {
+                List<Entry> entries = entriesOf(key);
+                if (entries.removeIf(existing -> availabilityId.equals(existing.details.getProviderAvailabilityId()))) {
+                    putChunk(key, DayChunk.of(entries));
+                }
+            }
+        }
+
+        /**
+         * The indexed slot at the opening, or null if its chunk no longer holds it.
+         */
+        SlotRow slotAt(ProviderOpenings.Opening opening) {
+            ConcurrentSkipListMap<Integer, DayChunk> days = buckets.get(opening.bucket);
+            DayChunk chunk = days != null ? days.get(dayOf(opening.startSecond)) : null;
+            if (chunk == null || !chunk.holds(opening.startSecond, opening.id, opening.providerId)) {
+                return null;
+            }
+            return chunk.toRow(opening.bucket, chunk.seek(opening.startSecond, opening.id));
+        }
+
+        // Only slots that were added, dropped or moved within the day change the openings
+        private void updateOpenings(BucketKey bucket, DayChunk previous, DayChunk chunk) {
+            if (previous != null) {
+                for (int i = 0; i < previous.size(); i++) {
+                    if (!chunk.holds(previous.startSeconds[i], previous.ids[i], previous.providerIds[i])) {
+                        openings.remove(previous.opening(bucket, i));
+                    }
+                }
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                if (previous == null || !previous.holds(chunk.startSeconds[i], chunk.ids[i], chunk.providerIds[i])) {
+                    openings.add(chunk.opening(bucket, i));
+                }
+            }
+        }
+
+        private List<Entry> entriesOf(ChunkKey key) {
+            ConcurrentSkipListMap<Integer, DayChunk> days = buckets.get(key.getBucket());
+            DayChunk chunk = days != null ? days.get(key.getDay()) : null;
+            return chunk != null ? chunk.entries() : new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over the distinct location strings of availabilities and available slots. Search
+ * resolves the free-text location filter to the set of stored locations it matches, and the slot
+ * queries then filter with {@code location IN (...)} instead of scanning with {@code LIKE '%x%'}.
+ *
+ * A location matches when, ignoring case and punctuation, it contains the query, or when at least
+ * {@code availability.search.location-similarity} of the query's trigrams occur in it (the same
+ * padded word trigrams as PostgreSQL's pg_trgm), which tolerates a typo or two in longer queries.
+ *
+ * The index is loaded on first use and reloaded nightly; locations written by this instance are
+ * registered as they are saved. Locations saved by other instances since the last reload are not
+ * known yet, so a query the index has no match for falls back to a {@code LIKE} over the stored
+ * locations, and whatever that finds is registered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationIndex {
+
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final AppointmentSlotRepository slotRepository;
+    private final AvailabilityProperties properties;
+
+    // Null until first loaded
+    private volatile Vocabulary vocabulary;
+
+    @Scheduled(cron = "${availability.search.location-reload-cron:0 30 2 * * *}")
+    public void reload() {
+        Set<String> locations = new LinkedHashSet<>(availabilityRepository.findDistinctLocations());
+        locations.addAll(slotRepository.findDistinctAvailableSlotLocations());
+        synchronized (this) {
+            vocabulary = new Vocabulary(locations);
+        }
+        log.info("Loaded location index: {} locations", locations.size());
+    }
+
+    /**
+     * Makes a newly saved location searchable before the next reload.
+     */
+    public void register(String location) {
+        if (location == null) {
+            return;
+        }
+        registerAll(List.of(location));
+    }
+
+    private void registerAll(Collection<String> added) {
+        Vocabulary current = loaded();
+        if (added.stream().allMatch(current::contains)) {
+            return;
+        }
+        synchronized (this) {
+            List<String> locations = new ArrayList<>(vocabulary.locations);
+            for (String location : added) {
+                if (!vocabulary.contains(location) && !locations.contains(location)) {
+                    locations.add(location);
+                }
+            }
+            vocabulary = new Vocabulary(locations);
+        }
+    }
+
+    /**
+     * The stored locations matching the query, or null when there is no location filter.
+     */
+    public Set<String> resolve(String query) {
+        if (query == null) {
+            return null;
+        }
+        Set<String> matches = loaded().match(normalize(query), properties.getSearch().getLocationSimilarity());
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+
+        Set<String> stored = new LinkedHashSet<>(availabilityRepository.findDistinctLocationsContaining(query.trim()));
+        stored.addAll(slotRepository.findDistinctAvailableSlotLocationsContaining(query.trim()));
+        if (!stored.isEmpty()) {
+            log.debug("Location query '{}' matched {} locations missing from the index", query, stored.size());
+            registerAll(stored);
+        }
+        return stored;
+    }
+
+    /**
+     * Whether the location satisfies an already normalized query by the same rule as {@link #resolve},
+     * for locations that may not have been in the vocabulary when the query was resolved.
+     */
+    public boolean matches(String normalizedQuery, String location) {
+        if (location == null) {
+            return false;
+        }
+        String normalizedLocation = normalize(location);
+        if (normalizedLocation.contains(normalizedQuery)) {
+            return true;
+        }
+        if (!hasLongWord(normalizedQuery)) {
+            return false;
+        }
+        Set<String> queryTrigrams = trigrams(normalizedQuery);
+        Set<String> locationTrigrams = trigrams(normalizedLocation);
+        long shared = queryTrigrams.stream().filter(locationTrigrams::contains).count();
+        return (double) shared / queryTrigrams.size() >= properties.getSearch().getLocationSimilarity();
+    }
+
+    private Vocabulary loaded() {
+        Vocabulary current = vocabulary;
+        if (current == null) {
+            synchronized (this) {
+                if (vocabulary == null) {
+                    reload();
+                }
+                current = vocabulary;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Lower-cases and reduces everything but letters and digits to single spaces.
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        return length > 0 && normalized.charAt(length - 1) == ' ' ? normalized.substring(0, length - 1) : normalized.toString();
+    }
+
+    /**
+     * Trigrams of each word padded with two spaces in front and one behind, as pg_trgm builds them.
+     */
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static boolean hasLongWord(String normalized) {
+        for (String word : normalized.split(" ")) {
+            if (word.length() >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Immutable set of locations with their trigram postings.
+     */
+    private static final class Vocabulary {
+        final List<String> locations;
+        final List<String> normalized;
+        final Set<String> known;
+        final Map<String, int[]> postings;
+
+        Vocabulary(Collection<String> locations) {
+            this.locations = new ArrayList<>(locations);
+            this.normalized = new ArrayList<>(locations.size());
+            this.known = new HashSet<>(locations);
+            Map<String, List<Integer>> postingLists = new HashMap<>();
+            for (int i = 0; i < this.locations.size(); i++) {
+                String location = normalize(this.locations.get(i));
+                normalized.add(location);
+                for (String trigram : trigrams(location)) {
+                    postingLists.computeIfAbsent(trigram, key -> new ArrayList<>()).add(i);
+                }
+            }
+            this.postings = new HashMap<>();
+            postingLists.forEach((trigram, ids) -> postings.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        boolean contains(String location) {
+            return known.contains(location);
+        }
+
+        Set<String> match(String query, double similarity) {
+            Set<String> matches = new HashSet<>();
+            // Without a word of three letters a contained query may share no trigram with the location
+            if (!hasLongWord(query)) {
+                for (int i = 0; i < locations.size(); i++) {
+                    if (normalized.get(i).contains(query)) {
+                        matches.add(locations.get(i));
+                    }
+                }
+                return matches;
+            }
+
+            Set<String> queryTrigrams = trigrams(query);
+            int[] shared = new int[locations.size()];
+            for (String trigram : queryTrigrams) {
+                for (int i : postings.getOrDefault(trigram, new int[0])) {
+                    shared[i]++;
+                }
+            }
+            for (int i = 0; i < shared.length; i++) {
+                if (shared[i] > 0 && ((double) shared[i] / queryTrigrams.size() >= similarity
+                        || normalized.get(i).contains(query))) {
+                    matches.add(locations.get(i));
+                }
+            }
+            return matches;
+        }
+    }
+}
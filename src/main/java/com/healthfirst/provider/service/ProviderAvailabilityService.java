@@ -1,36 +1,95 @@
 package com.healthfirst.provider.service;
 
+import com.healthfirst.provider.config.AvailabilityProperties;
 import com.healthfirst.provider.dto.AppointmentSlotResponse;
 import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.ProviderAvailabilityBatchResponse;
 import com.healthfirst.provider.dto.ProviderAvailabilityRequest;
 import com.healthfirst.provider.dto.ProviderAvailabilityResponse;
+import com.healthfirst.provider.dto.ProviderCalendarResponse;
+import com.healthfirst.provider.dto.ProviderSlotsResponse;
+import com.healthfirst.provider.dto.ProviderTimelineResponse;
+import com.healthfirst.provider.dto.SearchCacheStatsResponse;
 import com.healthfirst.provider.entity.AppointmentSlot;
 import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.ProviderAvailabilityVersion;
+import com.healthfirst.provider.entity.Specialization;
 import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.AvailableSlotExportRepository;
 import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityVersionRepository;
+import com.healthfirst.provider.repository.ProviderDailyAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.repository.ProviderSummaryRow;
+import com.healthfirst.provider.repository.SlotRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProviderAvailabilityService {
 
+    private static final IntConsumer NO_PROGRESS = slotsGenerated -> { };
+
     private final ProviderAvailabilityRepository availabilityRepository;
     private final AppointmentSlotRepository slotRepository;
+    private final AvailableSlotExportRepository exportRepository;
+    private final ProviderDailyAvailabilityRepository dailyAvailabilityRepository;
+    private final ProviderAvailabilityVersionRepository versionRepository;
+    private final ProviderRepository providerRepository;
+    private final SlotGenerator slotGenerator;
+    private final SlotBatchWriter slotBatchWriter;
+    private final AvailableSlotIndex slotIndex;
+    private final LocationIndex locationIndex;
+    private final ProviderGeoIndex providerGeoIndex;
+    private final SearchResultCache searchCache;
+    private final AvailabilityProperties properties;
+    private final PlatformTransactionManager transactionManager;
 
     @Transactional
     public ProviderAvailabilityResponse createAvailability(ProviderAvailabilityRequest request) {
+        return createAvailability(request, NO_PROGRESS);
+    }
+
+    /**
+     * Creates the availability and reports the running number of persisted slots to the progress
+     * callback while they are generated.
+     */
+    @Transactional
+    public ProviderAvailabilityResponse createAvailability(ProviderAvailabilityRequest request, IntConsumer progress) {
         log.info("Creating availability for provider: {}", request.getProviderId());
 
         // Validate time range
@@ -38,7 +97,9 @@ public class ProviderAvailabilityService {
             throw new IllegalArgumentException("Start time must be before end time");
         }
 
-        // Check for overlapping availability
+        // Check for overlapping availability; the lock keeps a concurrent create for the provider, on any
+        // instance, from passing the same check before this one commits
+        availabilityRepository.lockProvider(request.getProviderId());
         if (availabilityRepository.existsOverlappingAvailability(
                 request.getProviderId(), null, request.getStartTime(), request.getEndTime())) {
             throw new IllegalArgumentException("Availability overlaps with existing schedule");
@@ -64,20 +125,65 @@ public class ProviderAvailabilityService {
                 .location(request.getLocation())
                 .appointmentType(request.getAppointmentType())
                 .specialRequirements(request.getSpecialRequirements())
+                .specialization(providerRepository.findSpecializationByProviderNumber(request.getProviderId())
+                        .map(Specialization::fromDisplayName)
+                        .orElse(null))
                 .status(request.getStatus())
                 .notes(request.getNotes())
+                .slotMaterialization(request.getSlotMaterialization() != null ?
+                    request.getSlotMaterialization() : properties.getDefaultSlotMaterialization())
                 .build();
 
         availability = availabilityRepository.save(availability);
+        locationIndex.register(availability.getLocation());
 
-        // Generate appointment slots
-        generateAppointmentSlots(availability);
+        // Rolling availabilities persist only up to the horizon; virtual ones compute their slots on read
+        if (availability.isRolling()) {
+            materializeUntil(availability, LocalDateTime.now(ZoneOffset.UTC)
+                    .plusWeeks(properties.getRollingHorizon().getWeeks()), progress);
+        } else if (!availability.isVirtual()) {
+            generateAppointmentSlots(availability, progress);
+        }
+        if (!availability.isVirtual()) {
+            slotIndex.refreshAvailability(availability.getId());
+        }
+        searchCache.invalidate(SearchResultCache.SlotScope.of(availability, slotGenerator.getSeriesEnd(availability)));
 
         return buildAvailabilityResponse(availability);
     }
 
+    /**
+     * The provider's availability version, which changes with every write to its availabilities or slots.
+     * One primary key lookup; empty for providers that never had availability.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProviderAvailabilityVersion> getAvailabilityVersion(Long providerId) {
+        return versionRepository.findById(providerId);
+    }
+
+    @Transactional(readOnly = true)
     public ProviderAvailabilityResponse getProviderAvailability(Long providerId) {
+        return getProviderAvailability(providerId, null, null, null, null);
+    }
+
+    /**
+     * The provider's availability with slot counts over the whole series and one page of its slots
+     * starting between startDate and endDate (UTC days, either end open when null). Counts are aggregated
+     * by the database and the page is read by seeking past the cursor, so the response costs the same
+     * however long the series runs.
+     *
+     * A provider with several ACTIVE availabilities gets them all: each contributes at most one page of
+     * slots after the cursor, SlotTimeline merges those in search order (keeping a time offered twice
+     * once), and the counts are summed. The remaining fields describe the earliest availability.
+     */
+    @Transactional(readOnly = true)
+    public ProviderAvailabilityResponse getProviderAvailability(Long providerId, LocalDate startDate, LocalDate endDate,
+                                                               Integer pageSize, String cursor) {
         log.info("Fetching availability for provider: {}", providerId);
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        SearchCursor after = cursor != null ? SearchCursor.decode(cursor) : null;
 
         List<ProviderAvailability> availabilities = availabilityRepository.findByProviderIdAndStatus(
                 providerId, ProviderAvailability.AvailabilityStatus.ACTIVE);
@@ -86,9 +192,266 @@ public class ProviderAvailabilityService {
             throw new RuntimeException("No availability found for provider: " + providerId);
         }
 
-        // For now, return the first availability. In a real system, you might want to aggregate multiple availabilities
-        ProviderAvailability availability = availabilities.get(0);
-        return buildAvailabilityResponse(availability);
+        LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime until = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+        int limit = resolvePageSize(pageSize);
+
+        // One row more than the page from each source tells whether another page follows: the slot after
+        // the page sorts behind a full page of its own source's slots, so the merged page is complete
+        List<Iterator<SlotRow>> sources = new ArrayList<>();
+        Map<AppointmentSlot.SlotStatus, Long> counts = new EnumMap<>(AppointmentSlot.SlotStatus.class);
+        for (ProviderAvailability availability : availabilities) {
+            sources.add(findSlotPage(availability, from, until, after, limit + 1).iterator());
+            countSlotsByStatus(availability).forEach((status, count) -> counts.merge(status, count, Long::sum));
+        }
+        List<SlotRow> slots = new ArrayList<>();
+        SlotTimeline.merge(sources, slots::add);
+        boolean hasMore = slots.size() > limit;
+        List<SlotRow> page = hasMore ? slots.subList(0, limit) : slots;
+
+        ProviderAvailability earliest = availabilities.stream()
+                .min(Comparator.comparing(ProviderAvailability::getStartTime))
+                .orElseThrow();
+        ProviderAvailabilityResponse response = buildAvailabilityResponse(earliest, counts, page);
+        response.setAvailabilityIds(availabilities.stream().map(ProviderAvailability::getId).collect(Collectors.toList()));
+        response.setHasMoreSlots(hasMore);
+        response.setNextSlotCursor(hasMore ? SearchCursor.of(page.get(limit - 1)).encode() : null);
+        return response;
+    }
+
+    /**
+     * Active availabilities of several providers, each with its slots starting between startDate and
+     * endDate (UTC days), grouped by provider in request order. Providers without availability get an
+     * empty group. However many providers are asked for, this reads their availabilities, the persisted
+     * slots in the window and, when VIRTUAL availabilities are among them, their exceptions: three
+     * queries at most.
+     */
+    @Transactional(readOnly = true)
+    public ProviderAvailabilityBatchResponse getProvidersAvailability(List<Long> providerIds, LocalDate startDate,
+                                                                      LocalDate endDate) {
+        if (providerIds == null || providerIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one provider ID is required");
+        }
+        Set<Long> providers = new LinkedHashSet<>(providerIds);
+        AvailabilityProperties.Batch limits = properties.getBatch();
+        if (providers.size() > limits.getMaxProviders()) {
+            throw new IllegalArgumentException("At most " + limits.getMaxProviders() + " providers per request");
+        }
+        validateWindow(startDate, endDate);
+        log.info("Fetching availability for {} providers from {} to {}", providers.size(), startDate, endDate);
+
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime until = endDate.plusDays(1).atStartOfDay();
+        List<ProviderAvailability> availabilities = availabilityRepository.findActiveByProviderIdsAndWindow(
+                providers, from, until);
+
+        Map<Long, List<SlotRow>> slotsByAvailability = availabilities.isEmpty()
+                ? Collections.emptyMap()
+                : slotRepository.findByProviderIdsAndStartTimeRange(providers, from, until).stream()
+                        .collect(Collectors.groupingBy(SlotRow::providerAvailabilityId));
+        List<Long> virtualIds = availabilities.stream()
+                .filter(ProviderAvailability::isVirtual)
+                .map(ProviderAvailability::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<SlotRow>> exceptionsByAvailability = virtualIds.isEmpty()
+                ? Collections.emptyMap()
+                : slotRepository.findExceptionsByAvailabilityIdsAndDateRange(virtualIds, from, until).stream()
+                        .collect(Collectors.groupingBy(SlotRow::providerAvailabilityId));
+
+        Map<Long, List<ProviderAvailabilityResponse>> byProvider = new LinkedHashMap<>();
+        providers.forEach(providerId -> byProvider.put(providerId, new ArrayList<>()));
+        for (ProviderAvailability availability : availabilities) {
+            List<SlotRow> slots = new ArrayList<>(
+                    slotsByAvailability.getOrDefault(availability.getId(), Collections.emptyList()));
+            if (availability.isVirtual()) {
+                List<SlotRow> generated = new ArrayList<>();
+                slotGenerator.forEachSlotStartingBetween(availability, from, until,
+                        slot -> generated.add(SlotRow.of(slot)));
+                slots.addAll(removeOverriddenSlots(generated,
+                        exceptionsByAvailability.getOrDefault(availability.getId(), Collections.emptyList())));
+                slots.sort(Comparator.comparing(SlotRow::startTime));
+            }
+            byProvider.get(availability.getProviderId()).add(buildAvailabilityResponse(availability,
+                    slots.stream().collect(Collectors.groupingBy(SlotRow::status, Collectors.counting())),
+                    slots));
+        }
+
+        return ProviderAvailabilityBatchResponse.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .providers(byProvider.entrySet().stream()
+                        .map(entry -> ProviderAvailabilityBatchResponse.ProviderAvailabilities.builder()
+                                .providerId(entry.getKey())
+                                .availabilities(entry.getValue())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * All ACTIVE availabilities of the provider merged into one timeline of the slots starting between
+     * startDate and endDate (UTC days). Each availability contributes its slots already in start order:
+     * persisted ones as the query returns them, computed ones as they are generated. The sources are merged
+     * k ways by SlotTimeline, which also keeps a time offered by overlapping availabilities once. Reads
+     * the availabilities, the persisted slots in the window and, for VIRTUAL availabilities, their
+     * exceptions: three queries at most.
+     */
+    @Transactional(readOnly = true)
+    public ProviderTimelineResponse getProviderTimeline(Long providerId, LocalDate startDate, LocalDate endDate) {
+        validateWindow(startDate, endDate);
+        log.info("Fetching timeline for provider {} from {} to {}", providerId, startDate, endDate);
+
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime until = endDate.plusDays(1).atStartOfDay();
+        List<ProviderAvailability> availabilities = availabilityRepository.findActiveByProviderIdsAndWindow(
+                List.of(providerId), from, until);
+
+        // Ordered by start time, so every availability's group is in search order
+        Map<Long, List<SlotRow>> slotsByAvailability = availabilities.isEmpty()
+                ? Collections.emptyMap()
+                : slotRepository.findByProviderIdsAndStartTimeRange(List.of(providerId), from, until).stream()
+                        .collect(Collectors.groupingBy(SlotRow::providerAvailabilityId));
+        List<ProviderAvailability> virtualAvailabilities = availabilities.stream()
+                .filter(ProviderAvailability::isVirtual)
+                .collect(Collectors.toList());
+        Map<Long, Set<LocalDateTime>> overriddenStarts = virtualAvailabilities.isEmpty()
+                ? Collections.emptyMap()
+                : findOverriddenStarts(virtualAvailabilities, from, until);
+
+        // Computed slots are generated as the merge reaches them, a day at a time
+        List<Iterator<SlotRow>> sources = new ArrayList<>();
+        for (ProviderAvailability availability : availabilities) {
+            sources.add(slotsByAvailability.getOrDefault(availability.getId(), Collections.emptyList()).iterator());
+            if (availability.isVirtual()) {
+                Set<LocalDateTime> overridden = overriddenStarts.getOrDefault(availability.getId(), Collections.emptySet());
+                sources.add(StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                                slotGenerator.slotsStartingBetween(availability, from, until), Spliterator.ORDERED), false)
+                        .filter(slot -> !overridden.contains(slot.getStartTime()))
+                        .map(SlotRow::of)
+                        .iterator());
+            }
+        }
+        List<SlotRow> timeline = new ArrayList<>();
+        SlotTimeline.merge(sources, timeline::add);
+
+        return ProviderTimelineResponse.builder()
+                .providerId(providerId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .availabilityIds(availabilities.stream().map(ProviderAvailability::getId).collect(Collectors.toList()))
+                .totalSlots(timeline.size())
+                .availableSlots((int) timeline.stream()
+                        .filter(slot -> slot.status() == AppointmentSlot.SlotStatus.AVAILABLE)
+                        .count())
+                .slots(timeline.stream().map(this::buildSlotResponse).collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * One page of the provider's slots starting between startDate and endDate (UTC days, either end open
+     * when null), of one status or of any when status is null, in (startTime, id) order across all its
+     * availabilities. Persisted slots are read by seeking past the cursor in the provider's slot index, one
+     * range scan per page whatever the number of slots. Computed slots of VIRTUAL availabilities are
+     * available, so they are added only when available slots are asked for.
+     */
+    @Transactional(readOnly = true)
+    public ProviderSlotsResponse getProviderSlots(Long providerId, AppointmentSlot.SlotStatus status,
+                                                  LocalDate startDate, LocalDate endDate, Integer pageSize,
+                                                  String cursor) {
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        SearchCursor after = cursor != null ? SearchCursor.decode(cursor) : null;
+        int limit = resolvePageSize(pageSize);
+        log.info("Fetching slots for provider {} with status {} from {} to {}", providerId, status, startDate, endDate);
+
+        LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime until = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+        // One row more than the page tells whether another page follows
+        List<SlotRow> slots = new ArrayList<>(slotRepository.findSlotsPageByProviderId(providerId, status,
+                from, until, after != null ? after.getStartTime() : null, after != null ? after.getKey() : null,
+                Limit.of(limit + 1)));
+        if (status == null || status == AppointmentSlot.SlotStatus.AVAILABLE) {
+            List<ProviderAvailability> virtualAvailabilities = availabilityRepository.findByProviderIdAndStatus(
+                            providerId, ProviderAvailability.AvailabilityStatus.ACTIVE).stream()
+                    .filter(ProviderAvailability::isVirtual)
+                    .collect(Collectors.toList());
+            for (ProviderAvailability availability : virtualAvailabilities) {
+                slots.addAll(findVirtualSlotPage(availability, from, until, after, limit + 1));
+            }
+            slots.sort(SearchCursor::compare);
+        }
+        boolean hasMore = slots.size() > limit;
+        List<SlotRow> page = hasMore ? slots.subList(0, limit) : slots;
+
+        return ProviderSlotsResponse.builder()
+                .providerId(providerId)
+                .status(status)
+                .startDate(startDate)
+                .endDate(endDate)
+                .slots(page.stream().map(this::buildSlotResponse).collect(Collectors.toList()))
+                .pageSize(limit)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? SearchCursor.of(page.get(limit - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * Rejects date windows that end before they start or span more than availability.batch.max-window-days.
+     */
+    private void validateWindow(LocalDate startDate, LocalDate endDate) {
+        int maxWindowDays = properties.getBatch().getMaxWindowDays();
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxWindowDays) {
+            throw new IllegalArgumentException("Date window must not exceed " + maxWindowDays + " days");
+        }
+    }
+
+    /**
+     * Slot counts for every day of the month, dated in each slot's own timezone. Persisted slots are
+     * counted from the per-day counters the database keeps current; computed slots of VIRTUAL
+     * availabilities have no counters and are added to the available counts here.
+     */
+    @Transactional(readOnly = true)
+    public ProviderCalendarResponse getProviderCalendar(Long providerId, YearMonth month) {
+        log.info("Fetching calendar for provider {} in {}", providerId, month);
+
+        LocalDate first = month.atDay(1);
+        LocalDate last = month.atEndOfMonth();
+        Map<LocalDate, ProviderCalendarResponse.Day> days = new LinkedHashMap<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            days.put(date, ProviderCalendarResponse.Day.builder().date(date).build());
+        }
+        dailyAvailabilityRepository.findByProviderIdAndLocalDateBetweenOrderByLocalDate(providerId, first, last)
+                .forEach(counts -> {
+                    ProviderCalendarResponse.Day day = days.get(counts.getLocalDate());
+                    day.setAvailableSlots(counts.getAvailableCount());
+                    day.setBookedSlots(counts.getBookedCount());
+                    day.setCancelledSlots(counts.getCancelledCount());
+                });
+
+        // A local date lies within a day of the UTC date in any timezone
+        LocalDateTime from = first.minusDays(1).atStartOfDay();
+        LocalDateTime until = last.plusDays(2).atStartOfDay();
+        List<ProviderAvailability> virtualAvailabilities = availabilityRepository.findVirtualAvailabilitiesByFilters(
+                from, until, null, providerId, null, null);
+        computeVirtualSlots(virtualAvailabilities, new SearchCursor(from, Long.MIN_VALUE), until, until.plusDays(1),
+                Integer.MAX_VALUE).forEach(slot -> {
+            LocalDate date = slot.startTime().atZone(ZoneOffset.UTC)
+                    .withZoneSameInstant(ZoneId.of(slot.timezone())).toLocalDate();
+            ProviderCalendarResponse.Day day = days.get(date);
+            if (day != null) {
+                day.setAvailableSlots(day.getAvailableSlots() + 1);
+            }
+        });
+
+        return ProviderCalendarResponse.builder()
+                .providerId(providerId)
+                .month(month.toString())
+                .days(new ArrayList<>(days.values()))
+                .build();
     }
 
     @Transactional
@@ -102,6 +465,8 @@ public class ProviderAvailabilityService {
         if (slot.getStatus() == AppointmentSlot.SlotStatus.BOOKED) {
             throw new IllegalArgumentException("Cannot update a booked slot");
         }
+        AvailableSlotIndex.SlotPosition previous = AvailableSlotIndex.SlotPosition.of(slot);
+        SearchResultCache.SlotScope previousScope = SearchResultCache.SlotScope.of(slot);
 
         // Update fields
         if (updateRequest.getStartTime() != null) {
@@ -118,6 +483,7 @@ public class ProviderAvailabilityService {
         }
         if (updateRequest.getLocation() != null) {
             slot.setLocation(updateRequest.getLocation());
+            locationIndex.register(updateRequest.getLocation());
         }
         if (updateRequest.getAppointmentType() != null) {
             slot.setAppointmentType(updateRequest.getAppointmentType());
@@ -133,6 +499,8 @@ public class ProviderAvailabilityService {
         }
 
         slot = slotRepository.save(slot);
+        slotIndex.updateSlot(previous, slot);
+        searchCache.invalidate(previousScope, SearchResultCache.SlotScope.of(slot));
         return buildSlotResponse(slot);
     }
 
@@ -154,126 +522,622 @@ public class ProviderAvailabilityService {
             List<AppointmentSlot> slots = slotRepository.findByProviderAvailabilityId(availabilityId);
             slotRepository.deleteAll(slots);
             availabilityRepository.delete(availability);
+            slotIndex.removeAvailability(availabilityId);
         } else {
             // Mark as deleted instead of physical deletion
             availability.setStatus(ProviderAvailability.AvailabilityStatus.DELETED);
             availabilityRepository.save(availability);
         }
+        searchCache.invalidate(SearchResultCache.SlotScope.of(availability, slotGenerator.getSeriesEnd(availability)));
     }
 
-    public List<AppointmentSlotResponse> searchAvailability(AvailabilitySearchRequest request) {
+    /**
+     * Returns one page of available slots in (startTime, id) order. The page after request.cursor is
+     * found by seeking past the cursor position, so deep pages cost the same as the first. Responses are
+     * served from SearchResultCache until a change to a slot they cover commits.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilitySearchResponse searchAvailability(AvailabilitySearchRequest request) {
         log.info("Searching availability with filters: {}", request);
 
-        // Convert dates to UTC
-        ZoneId searchZone = request.getTimezone() != null ? ZoneId.of(request.getTimezone()) : ZoneId.systemDefault();
-        LocalDateTime startDateTime = request.getStartDate().atStartOfDay().atZone(searchZone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
-        LocalDateTime endDateTime = request.getEndDate() != null ? 
-            request.getEndDate().atTime(23, 59, 59).atZone(searchZone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime() :
-            startDateTime.plusDays(30); // Default to 30 days if no end date
+        LocalDateTime startDateTime = searchWindowStart(request);
+        LocalDateTime endDateTime = searchWindowEnd(request, startDateTime);
 
-        List<AppointmentSlot> availableSlots = slotRepository.findAvailableSlotsByFilters(
-                startDateTime, endDateTime, request.getLocation(), request.getAppointmentType(),
-                request.getProviderId(), request.getMaxPrice(), request.getSlotDurationMinutes());
+        int pageSize = resolvePageSize(request.getPageSize());
+        SearchCursor cursor = request.getCursor() != null ? SearchCursor.decode(request.getCursor()) : null;
+        SearchCursor after = cursor != null ? cursor : new SearchCursor(startDateTime, Long.MIN_VALUE);
+        Double radiusKm = resolveRadiusKm(request);
+        Specialization specialization = resolveSpecialization(request);
 
-        return availableSlots.stream()
-                .map(this::buildSlotResponse)
-                .collect(Collectors.toList());
+        SearchResultCache.Key cacheKey = new SearchResultCache.Key(startDateTime, endDateTime,
+                request.getLocation() != null ? LocationIndex.normalize(request.getLocation()) : null,
+                request.getAppointmentType(), specialization, request.getProviderId(), request.getMaxPrice(),
+                request.getSlotDurationMinutes(), request.getLatitude(), request.getLongitude(), radiusKm,
+                pageSize, request.getCursor());
+        AvailabilitySearchResponse cached = searchCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        long cacheGeneration = searchCache.generation();
+
+        Set<String> locations = locationIndex.resolve(request.getLocation());
+        Map<Long, Double> nearby = radiusKm != null
+                ? providerGeoIndex.findNearest(new GeoPoint(request.getLatitude(), request.getLongitude()),
+                        radiusKm, properties.getGeo().getMaxProviders())
+                : null;
+        Set<Long> providerIds = resolveProviderIds(request.getProviderId(), nearby);
+
+        // One row more than the page tells whether another page follows
+        List<SlotRow> availableSlots = new ArrayList<>(slotIndex.covers(startDateTime)
+                ? slotIndex.findPage(startDateTime, endDateTime, locations, request.getAppointmentType(),
+                        specialization, providerIds, request.getMaxPrice(), request.getSlotDurationMinutes(),
+                        cursor != null ? cursor.getStartTime() : null, cursor != null ? cursor.getKey() : null,
+                        pageSize + 1)
+                : slotRepository.findAvailableSlotsPageByFilters(
+                        startDateTime, endDateTime, locations, request.getAppointmentType(),
+                        specialization, providerIds, request.getMaxPrice(), request.getSlotDurationMinutes(),
+                        cursor != null ? cursor.getStartTime() : null, cursor != null ? cursor.getKey() : null,
+                        Limit.of(pageSize + 1)));
+
+        // Computed slots starting after the last persisted row of a full page cannot make it into the page
+        LocalDateTime virtualUntil = availableSlots.size() > pageSize
+                ? availableSlots.get(pageSize).startTime().plusSeconds(1)
+                : endDateTime;
+        availableSlots.addAll(findVirtualSlots(request, locations, providerIds, after, virtualUntil, endDateTime, pageSize + 1));
+        availableSlots.sort(SearchCursor::compare);
+
+        boolean hasMore = availableSlots.size() > pageSize;
+        List<SlotRow> page = hasMore ? availableSlots.subList(0, pageSize) : availableSlots;
+
+        Map<Long, ProviderSummaryRow> providers = findProviderSummaries(page);
+        AvailabilitySearchResponse response = AvailabilitySearchResponse.builder()
+                .availableSlots(page.stream()
+                        .map(slot -> buildAvailableSlot(slot, nearby, providers))
+                        .collect(Collectors.toList()))
+                .pageSize(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? SearchCursor.of(page.get(pageSize - 1)).encode() : null)
+                .build();
+        searchCache.put(cacheKey, after.getStartTime(), locations, nearby != null ? providerIds : null, response,
+                cacheGeneration);
+        return response;
     }
 
-    private void generateAppointmentSlots(ProviderAvailability availability) {
-        log.info("Generating appointment slots for availability: {}", availability.getId());
+    /**
+     * Every slot matching the search, unpaged and in page order. The request is validated and its filters
+     * resolved here; the slots are read when the returned source is run, and handed to its consumer one
+     * at a time. Persisted slots come through a database cursor and computed ones are generated a day at
+     * a time, so memory use does not grow with the number of matches. Providers are looked up once per
+     * batch of {@code availability.search.stream-fetch-size} slots, for those not already seen.
+     */
+    public Consumer<Consumer<AvailabilitySearchResponse.AvailableSlot>> streamAvailability(AvailabilitySearchRequest request) {
+        log.info("Streaming availability with filters: {}", request);
 
-        List<AppointmentSlot> slots = new ArrayList<>();
-        ZoneId providerZone = ZoneId.of(availability.getTimezone());
+        LocalDateTime startDateTime = searchWindowStart(request);
+        LocalDateTime endDateTime = searchWindowEnd(request, startDateTime);
+        Double radiusKm = resolveRadiusKm(request);
+        Specialization specialization = resolveSpecialization(request);
+        Set<String> locations = locationIndex.resolve(request.getLocation());
+        Map<Long, Double> nearby = radiusKm != null
+                ? providerGeoIndex.findNearest(new GeoPoint(request.getLatitude(), request.getLongitude()),
+                        radiusKm, properties.getGeo().getMaxProviders())
+                : null;
+        Set<Long> providerIds = resolveProviderIds(request.getProviderId(), nearby);
 
-        ProviderAvailability.RecurrenceType recurrenceType = availability.getRecurrenceType();
-        if (recurrenceType == null || recurrenceType == ProviderAvailability.RecurrenceType.NONE) {
-            // Generate slots for single availability
-            slots.addAll(generateSlotsForTimeRange(availability, availability.getStartTime(), availability.getEndTime()));
-        } else {
-            // Generate recurring slots
-            LocalDateTime currentStart = availability.getStartTime();
-            LocalDateTime currentEnd = availability.getEndTime();
-            LocalDateTime endDate = availability.getRecurrenceEndDate() != null ? 
-                availability.getRecurrenceEndDate() : currentStart.plusMonths(6); // Default to 6 months
-
-            while (currentStart.isBefore(endDate)) {
-                slots.addAll(generateSlotsForTimeRange(availability, currentStart, currentEnd));
-
-                // Calculate next occurrence
-                switch (recurrenceType) {
-                    case DAILY:
-                        currentStart = currentStart.plusDays(1);
-                        currentEnd = currentEnd.plusDays(1);
-                        break;
-                    case WEEKLY:
-                        if (availability.getRecurrenceDays() != null && !availability.getRecurrenceDays().isEmpty()) {
-                            // Find next occurrence based on recurrence days
-                            currentStart = findNextOccurrence(currentStart, availability.getRecurrenceDays());
-                            currentEnd = findNextOccurrence(currentEnd, availability.getRecurrenceDays());
-                        } else {
-                            currentStart = currentStart.plusWeeks(1);
-                            currentEnd = currentEnd.plusWeeks(1);
+        int batchSize = properties.getSearch().getStreamFetchSize();
+        return sink -> {
+            List<SlotRow> batch = new ArrayList<>(batchSize);
+            Map<Long, ProviderSummaryRow> providers = new HashMap<>();
+            Consumer<SlotRow> emit = slot -> {
+                batch.add(slot);
+                if (batch.size() == batchSize) {
+                    flushBatch(batch, providers, nearby, sink);
+                }
+            };
+
+            // PostgreSQL only keeps a cursor open inside a transaction; otherwise it buffers the whole result
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                List<ProviderAvailability> virtualAvailabilities = findVirtualAvailabilities(
+                        request, locations, providerIds, startDateTime, endDateTime);
+                Map<Long, Set<LocalDateTime>> overriddenStarts = virtualAvailabilities.isEmpty()
+                        ? Map.of()
+                        : findOverriddenStarts(virtualAvailabilities, startDateTime, endDateTime);
+                try (Stream<SlotRow> rows = exportRepository.streamAvailableSlots(
+                        startDateTime, endDateTime, locations, request.getAppointmentType(), specialization,
+                        providerIds, request.getMaxPrice(), request.getSlotDurationMinutes(), batchSize)) {
+                    Iterator<SlotRow> persisted = rows.iterator();
+                    SlotRow next = persisted.hasNext() ? persisted.next() : null;
+
+                    // Each day's computed slots are merged with the persisted rows starting that day
+                    for (LocalDateTime day = startDateTime; !virtualAvailabilities.isEmpty() && day.isBefore(endDateTime);
+                         day = day.plusDays(1)) {
+                        LocalDateTime nextDay = day.plusDays(1);
+                        List<SlotRow> computed = computeVirtualSlots(virtualAvailabilities, overriddenStarts,
+                                new SearchCursor(day, Long.MIN_VALUE), nextDay, endDateTime, Integer.MAX_VALUE);
+                        computed.sort(SearchCursor::compare);
+                        for (SlotRow slot : computed) {
+                            while (next != null && SearchCursor.compare(next, slot) < 0) {
+                                emit.accept(next);
+                                next = persisted.hasNext() ? persisted.next() : null;
+                            }
+                            emit.accept(slot);
+                        }
+                        while (next != null && next.startTime().isBefore(nextDay)) {
+                            emit.accept(next);
+                            next = persisted.hasNext() ? persisted.next() : null;
                         }
-                        break;
-                    case MONTHLY:
-                        currentStart = currentStart.plusMonths(1);
-                        currentEnd = currentEnd.plusMonths(1);
-                        break;
+                    }
+                    while (next != null) {
+                        emit.accept(next);
+                        next = persisted.hasNext() ? persisted.next() : null;
+                    }
                 }
+                flushBatch(batch, providers, nearby, sink);
+            });
+        };
+    }
+
+    /**
+     * The provider's earliest available slot starting from now and within
+     * {@code availability.search.next-available-horizon-days}, of the given type if one is given. Persisted
+     * slots are read from the slot index's per-provider openings, so the answer does not depend on how
+     * many slots the provider has; computed slots of VIRTUAL availabilities are generated only up to it.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilitySearchResponse.AvailableSlot getNextAvailableSlot(Long providerId, String appointmentType) {
+        log.info("Finding next available slot for provider {}", providerId);
+
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime horizon = now.plusDays(properties.getSearch().getNextAvailableHorizonDays());
+        SlotRow persisted = slotIndex.covers(now)
+                ? slotIndex.findNextForProvider(providerId, now, appointmentType, null)
+                : slotRepository.findAvailableSlotsPageByFilters(now, horizon, null, appointmentType, null,
+                        Set.of(providerId), null, null, null, null, Limit.of(1)).stream().findFirst().orElse(null);
+
+        Map<Long, SlotRow> firsts = new HashMap<>();
+        if (persisted != null && persisted.startTime().isBefore(horizon)) {
+            firsts.put(providerId, persisted);
+        }
+        mergeFirstVirtualSlots(firsts, now, firsts.isEmpty() ? horizon : persisted.startTime(),
+                appointmentType, null, providerId);
+
+        SlotRow next = firsts.get(providerId);
+        if (next == null) {
+            throw new RuntimeException("No available slot for provider: " + providerId);
+        }
+        return buildAvailableSlot(next, null, findProviderSummaries(List.of(next)));
+    }
+
+    /**
+     * The earliest available slot of each provider matching the type and location, soonest first, for at
+     * most {@code limit} providers (the search page size by default). The same horizon applies as for
+     * getNextAvailableSlot.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailabilitySearchResponse.AvailableSlot> getNextAvailableSlots(String appointmentType, String location,
+                                                                                Integer limit) {
+        log.info("Finding next available slot per provider for type {} at {}", appointmentType, location);
+
+        int count = resolvePageSize(limit);
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime horizon = now.plusDays(properties.getSearch().getNextAvailableHorizonDays());
+        Set<String> locations = locationIndex.resolve(location);
+        List<SlotRow> persisted = slotIndex.covers(now)
+                ? slotIndex.findNextPerProvider(now, appointmentType, locations, count)
+                : findNextPerProviderInDatabase(now, horizon, appointmentType, locations, count);
+
+        Map<Long, SlotRow> firsts = new HashMap<>();
+        persisted.stream()
+                .filter(slot -> slot.startTime().isBefore(horizon))
+                .forEach(slot -> firsts.put(slot.providerId(), slot));
+        // With a full list, computed slots after its last one cannot make it in
+        LocalDateTime until = firsts.size() == count
+                ? persisted.get(count - 1).startTime().plusSeconds(1)
+                : horizon;
+        mergeFirstVirtualSlots(firsts, now, until, appointmentType, locations, null);
+
+        List<SlotRow> next = firsts.values().stream()
+                .sorted(SearchCursor::compare)
+                .limit(count)
+                .collect(Collectors.toList());
+        Map<Long, ProviderSummaryRow> providers = findProviderSummaries(next);
+        return next.stream()
+                .map(slot -> buildAvailableSlot(slot, null, providers))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public AppointmentSlotResponse materializeSlot(Long availabilityId, LocalDateTime startTime) {
+        log.info("Materializing slot at {} for availability: {}", startTime, availabilityId);
+
+        ProviderAvailability availability = availabilityRepository.findById(availabilityId)
+                .orElseThrow(() -> new RuntimeException("Availability not found: " + availabilityId));
+
+        if (!availability.isVirtual()) {
+            throw new IllegalArgumentException("Slots of availability " + availabilityId + " are already persisted");
+        }
+        if (slotRepository.existsByAvailabilityIdAndOccurrenceStartTime(availabilityId, startTime)) {
+            throw new IllegalArgumentException("Slot at " + startTime + " is already materialized");
+        }
+
+        AppointmentSlot slot = slotGenerator.generate(availability, startTime,
+                        startTime.plusMinutes(availability.getSlotDurationMinutes())).stream()
+                .filter(s -> s.getStartTime().isEqual(startTime))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Availability has no slot starting at " + startTime));
+        slot.setOriginalStartTime(startTime);
+
+        slot = slotRepository.save(slot);
+        slotIndex.updateSlot(null, slot);
+        searchCache.invalidate(SearchResultCache.SlotScope.of(slot));
+        return buildSlotResponse(slot);
+    }
+
+    /**
+     * Appends the slots of a ROLLING availability that start between its watermark and the given
+     * horizon, then advances the watermark. Returns the number of slots persisted.
+     */
+    @Transactional
+    public int extendRollingHorizon(Long availabilityId, LocalDateTime horizon) {
+        ProviderAvailability availability = availabilityRepository.findByIdForUpdate(availabilityId)
+                .orElseThrow(() -> new RuntimeException("Availability not found: " + availabilityId));
+
+        if (!availability.isRolling() || availability.getStatus() != ProviderAvailability.AvailabilityStatus.ACTIVE) {
+            return 0;
+        }
+        int materialized = materializeUntil(availability, horizon, NO_PROGRESS);
+        if (materialized > 0) {
+            slotIndex.refreshAvailability(availabilityId);
+            searchCache.invalidate(SearchResultCache.SlotScope.of(availability, slotGenerator.getSeriesEnd(availability)));
+        }
+        return materialized;
+    }
+
+    private int materializeUntil(ProviderAvailability availability, LocalDateTime horizon, IntConsumer progress) {
+        LocalDateTime seriesEnd = slotGenerator.getSeriesEnd(availability);
+        LocalDateTime until = horizon.isBefore(seriesEnd) ? horizon : seriesEnd;
+        LocalDateTime from = availability.getMaterializedUntil();
+        if (from != null && !until.isAfter(from)) {
+            return 0;
+        }
+
+        int materialized = persistSlots(availability, from, until, progress);
+
+        availability.setMaterializedUntil(until);
+        availabilityRepository.save(availability);
+        log.info("Materialized {} slots for availability {} up to {}", materialized, availability.getId(), until);
+        return materialized;
+    }
+
+    public SearchCacheStatsResponse getSearchCacheStats() {
+        return searchCache.stats();
+    }
+
+    /**
+     * The radius of a distance search, or null when the request has no position. Searches by position
+     * keep only the nearest {@code availability.geo.max-providers} providers within it, which bounds the
+     * provider filter of the slot query.
+     */
+    private Double resolveRadiusKm(AvailabilitySearchRequest request) {
+        if (request.getLatitude() == null && request.getLongitude() == null) {
+            return null;
+        }
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
+        }
+        AvailabilityProperties.Geo geo = properties.getGeo();
+        return Math.min(request.getRadiusKm() != null ? request.getRadiusKm() : geo.getDefaultRadiusKm(),
+                geo.getMaxRadiusKm());
+    }
+
+    /**
+     * The providers a search is restricted to, or null for any provider.
+     */
+    private static Set<Long> resolveProviderIds(Long providerId, Map<Long, Double> nearby) {
+        if (nearby == null) {
+            return providerId != null ? Set.of(providerId) : null;
+        }
+        if (providerId != null) {
+            return nearby.containsKey(providerId) ? Set.of(providerId) : Collections.emptySet();
+        }
+        return nearby.keySet();
+    }
+
+    /**
+     * Before the slot index is built: walks the matching slots in order, keeping each provider's first.
+     */
+    private List<SlotRow> findNextPerProviderInDatabase(LocalDateTime now, LocalDateTime horizon,
+                                                        String appointmentType, Set<String> locations,
+                                                        int limit) {
+        int pageSize = properties.getSearch().getMaxPageSize();
+        Map<Long, SlotRow> firsts = new LinkedHashMap<>();
+        SlotRow last = null;
+        while (firsts.size() < limit) {
+            List<SlotRow> page = slotRepository.findAvailableSlotsPageByFilters(now, horizon, locations,
+                    appointmentType, null, null, null, null, last != null ? last.startTime() : null,
+                    last != null ? last.id() : null, Limit.of(pageSize));
+            for (SlotRow slot : page) {
+                if (firsts.size() < limit) {
+                    firsts.putIfAbsent(slot.providerId(), slot);
+                }
+            }
+            if (page.size() < pageSize) {
+                break;
             }
+            last = page.get(pageSize - 1);
         }
+        return new ArrayList<>(firsts.values());
+    }
+
+    /**
+     * Replaces each provider's entry in {@code firsts} with its first computed slot of a matching VIRTUAL
+     * availability when that starts earlier, looking at slots starting before {@code until}. Slots are
+     * computed a week at a time, and a provider is no longer computed once a week has given it a slot or
+     * its entry starts before the week.
+     */
+    private void mergeFirstVirtualSlots(Map<Long, SlotRow> firsts, LocalDateTime now, LocalDateTime until,
+                                        String appointmentType, Set<String> locations, Long providerId) {
+        List<ProviderAvailability> remaining = availabilityRepository.findVirtualAvailabilitiesByFilters(
+                        now, until, appointmentType, providerId, null, null).stream()
+                .filter(availability -> locations == null || locations.contains(availability.getLocation()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        for (LocalDateTime from = now; !remaining.isEmpty() && from.isBefore(until); from = from.plusWeeks(1)) {
+            LocalDateTime weekStart = from;
+            remaining.removeIf(availability -> firsts.containsKey(availability.getProviderId())
+                    && firsts.get(availability.getProviderId()).startTime().isBefore(weekStart));
+            LocalDateTime weekEnd = from.plusWeeks(1).isBefore(until) ? from.plusWeeks(1) : until;
+            Set<Long> found = new HashSet<>();
+            for (SlotRow slot : computeVirtualSlots(remaining, new SearchCursor(from, Long.MIN_VALUE),
+                    weekEnd, until.plusDays(1), Integer.MAX_VALUE)) {
+                firsts.merge(slot.providerId(), slot,
+                        (current, computed) -> SearchCursor.compare(computed, current) < 0 ? computed : current);
+                found.add(slot.providerId());
+            }
+            remaining.removeIf(availability -> found.contains(availability.getProviderId()));
+        }
+    }
+
+    private static Specialization resolveSpecialization(AvailabilitySearchRequest request) {
+        return request.getSpecialization() != null ? Specialization.parse(request.getSpecialization()) : null;
+    }
+
+    private static LocalDateTime searchWindowStart(AvailabilitySearchRequest request) {
+        return request.getStartDate().atStartOfDay().atZone(searchZone(request))
+                .withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    /**
+     * The end of the search window in UTC; 30 days after its start when the request has no end date.
+     */
+    private static LocalDateTime searchWindowEnd(AvailabilitySearchRequest request, LocalDateTime startDateTime) {
+        return request.getEndDate() != null
+                ? request.getEndDate().atTime(23, 59, 59).atZone(searchZone(request))
+                        .withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime()
+                : startDateTime.plusDays(30);
+    }
+
+    private static ZoneId searchZone(AvailabilitySearchRequest request) {
+        return request.getTimezone() != null ? ZoneId.of(request.getTimezone()) : ZoneId.systemDefault();
+    }
+
+    private int resolvePageSize(Integer requested) {
+        AvailabilityProperties.Search search = properties.getSearch();
+        if (requested == null) {
+            return search.getDefaultPageSize();
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(requested, search.getMaxPageSize());
+    }
 
-        slotRepository.saveAll(slots);
-        log.info("Generated {} appointment slots", slots.size());
-    }
-
-    private List<AppointmentSlot> generateSlotsForTimeRange(ProviderAvailability availability, 
-                                                           LocalDateTime startTime, LocalDateTime endTime) {
-        List<AppointmentSlot> slots = new ArrayList<>();
-        LocalDateTime currentSlotStart = startTime;
-        
-        while (currentSlotStart.plusMinutes(availability.getSlotDurationMinutes()).isBefore(endTime) ||
-               currentSlotStart.plusMinutes(availability.getSlotDurationMinutes()).isEqual(endTime)) {
-            
-            LocalDateTime slotEnd = currentSlotStart.plusMinutes(availability.getSlotDurationMinutes());
-            
-            AppointmentSlot slot = AppointmentSlot.builder()
-                    .providerAvailability(availability)
-                    .providerId(availability.getProviderId())
-                    .startTime(currentSlotStart)
-                    .endTime(slotEnd)
-                    .timezone(availability.getTimezone())
-                    .status(AppointmentSlot.SlotStatus.AVAILABLE)
-                    .price(availability.getPrice())
-                    .currency(availability.getCurrency())
-                    .location(availability.getLocation())
-                    .appointmentType(availability.getAppointmentType())
-                    .specialRequirements(availability.getSpecialRequirements())
-                    .build();
-
-            slots.add(slot);
-            currentSlotStart = slotEnd;
+    /**
+     * Computes the unbooked slots of matching VIRTUAL availabilities that sort after the cursor, start
+     * before {@code until} and end by {@code endDateTime}. At most {@code limit} slots are kept per
+     * availability, since no page needs more.
+     */
+    private List<SlotRow> findVirtualSlots(AvailabilitySearchRequest request, Set<String> locations,
+                                           Set<Long> providerIds, SearchCursor after, LocalDateTime until,
+                                           LocalDateTime endDateTime, int limit) {
+        List<ProviderAvailability> virtualAvailabilities = findVirtualAvailabilities(
+                request, locations, providerIds, after.getStartTime(), endDateTime);
+        return computeVirtualSlots(virtualAvailabilities, after, until, endDateTime, limit);
+    }
+
+    private List<ProviderAvailability> findVirtualAvailabilities(AvailabilitySearchRequest request, Set<String> locations,
+                                                                 Set<Long> providerIds, LocalDateTime from,
+                                                                 LocalDateTime endDateTime) {
+        // VIRTUAL availabilities are few, so their locations, specialization and nearby providers are matched here rather than in the query
+        Specialization specialization = resolveSpecialization(request);
+        return availabilityRepository.findVirtualAvailabilitiesByFilters(
+                        from, endDateTime, request.getAppointmentType(),
+                        request.getProviderId(), request.getMaxPrice(), request.getSlotDurationMinutes()).stream()
+                .filter(availability -> locations == null || locations.contains(availability.getLocation()))
+                .filter(availability -> specialization == null || specialization == availability.getSpecialization())
+                .filter(availability -> providerIds == null || providerIds.contains(availability.getProviderId()))
+                .collect(Collectors.toList());
+    }
+
+    private List<SlotRow> computeVirtualSlots(List<ProviderAvailability> virtualAvailabilities,
+                                              SearchCursor after, LocalDateTime until,
+                                              LocalDateTime endDateTime, int limit) {
+        if (virtualAvailabilities.isEmpty()) {
+            return new ArrayList<>();
         }
+        return computeVirtualSlots(virtualAvailabilities,
+                findOverriddenStarts(virtualAvailabilities, after.getStartTime(), until),
+                after, until, endDateTime, limit);
+    }
 
+    /**
+     * Computed slots as above, with the grid starts that persisted exceptions take the place of already
+     * loaded, so a caller covering a long window day by day queries them once.
+     */
+    private List<SlotRow> computeVirtualSlots(List<ProviderAvailability> virtualAvailabilities,
+                                              Map<Long, Set<LocalDateTime>> overriddenStarts,
+                                              SearchCursor after, LocalDateTime until,
+                                              LocalDateTime endDateTime, int limit) {
+        LocalDateTime from = after.getStartTime();
+        List<SlotRow> slots = new ArrayList<>();
+        for (ProviderAvailability availability : virtualAvailabilities) {
+            Set<LocalDateTime> overridden = overriddenStarts.getOrDefault(availability.getId(), Collections.emptySet());
+            List<SlotRow> generated = new ArrayList<>();
+            slotGenerator.forEachSlotStartingBetween(availability, from, until, computed -> {
+                SlotRow slot = SlotRow.of(computed);
+                if (generated.size() < limit && after.isBefore(slot) && !slot.endTime().isAfter(endDateTime)
+                        && !overridden.contains(slot.startTime())) {
+                    generated.add(slot);
+                }
+            });
+            slots.addAll(generated);
+        }
         return slots;
     }
 
-    private LocalDateTime findNextOccurrence(LocalDateTime current, Set<DayOfWeek> recurrenceDays) {
-        LocalDateTime next = current.plusDays(1);
-        while (!recurrenceDays.contains(next.getDayOfWeek())) {
-            next = next.plusDays(1);
+    /**
+     * Per availability, the grid start times in [from, until] taken over by persisted exceptions; one
+     * query for every availability.
+     */
+    private Map<Long, Set<LocalDateTime>> findOverriddenStarts(List<ProviderAvailability> virtualAvailabilities,
+                                                               LocalDateTime from, LocalDateTime until) {
+        List<Long> availabilityIds = virtualAvailabilities.stream()
+                .map(ProviderAvailability::getId)
+                .collect(Collectors.toList());
+        return slotRepository.findExceptionsByAvailabilityIdsAndDateRange(availabilityIds, from, until).stream()
+                .collect(Collectors.groupingBy(SlotRow::providerAvailabilityId,
+                        Collectors.mapping(SlotRow::occurrenceStartTime, Collectors.toSet())));
+    }
+
+    /**
+     * Slot counts of an availability per status. For virtual availabilities each persisted exception
+     * takes the place of the grid slot it was created from, and the remaining grid slots count as
+     * available; the grid is counted per occurrence, not generated.
+     */
+    private Map<AppointmentSlot.SlotStatus, Long> countSlotsByStatus(ProviderAvailability availability) {
+        Map<AppointmentSlot.SlotStatus, Long> counts = new EnumMap<>(AppointmentSlot.SlotStatus.class);
+        slotRepository.countByAvailabilityIdGroupByStatus(availability.getId())
+                .forEach(row -> counts.put(row.getStatus(), row.getTotal()));
+        if (availability.isVirtual()) {
+            long persisted = counts.values().stream().mapToLong(Long::longValue).sum();
+            long computed = Math.max(0, slotGenerator.countSlots(availability) - persisted);
+            counts.merge(AppointmentSlot.SlotStatus.AVAILABLE, computed, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Up to {@code limit} slots of an availability that sort after the cursor and start in [from, until),
+     * either bound open when null. For virtual availabilities the computed grid is merged with the
+     * persisted exceptions, which take the place of the grid slot they were created from; the grid is
+     * computed over a window that starts at a week and doubles until the page is full, so sparse series
+     * do not cost a query per empty week.
+     */
+    private List<SlotRow> findSlotPage(ProviderAvailability availability, LocalDateTime from,
+                                       LocalDateTime until, SearchCursor after, int limit) {
+        List<SlotRow> slots = new ArrayList<>(slotRepository.findSlotsPageByAvailabilityId(
+                availability.getId(), from, until, after != null ? after.getStartTime() : null,
+                after != null ? after.getKey() : null, Limit.of(limit)));
+        if (!availability.isVirtual()) {
+            return slots;
+        }
+        slots.addAll(findVirtualSlotPage(availability, from, until, after, limit));
+        slots.sort(SearchCursor::compare);
+        return slots.size() > limit ? new ArrayList<>(slots.subList(0, limit)) : slots;
+    }
+
+    /**
+     * Up to {@code limit} computed slots of a VIRTUAL availability that sort after the cursor and start in
+     * [from, until), either bound open when null, with persisted exceptions taking the place of the grid
+     * slot they were created from.
+     */
+    private List<SlotRow> findVirtualSlotPage(ProviderAvailability availability, LocalDateTime from,
+                                              LocalDateTime until, SearchCursor after, int limit) {
+        // Slots of the last occurrence may start after the series end, which bounds occurrence starts
+        LocalDateTime seriesEnd = availability.getRecurrenceType() == ProviderAvailability.RecurrenceType.NONE
+                ? availability.getEndTime()
+                : slotGenerator.getSeriesEnd(availability)
+                        .plus(Duration.between(availability.getStartTime(), availability.getEndTime()));
+        LocalDateTime end = until != null && until.isBefore(seriesEnd) ? until : seriesEnd;
+        LocalDateTime start = from != null ? from : availability.getStartTime();
+        SearchCursor position = after != null && !after.getStartTime().isBefore(start)
+                ? after
+                : new SearchCursor(start, Long.MIN_VALUE);
+        List<SlotRow> computed = new ArrayList<>();
+        long weeks = 1;
+        while (computed.size() < limit && position.getStartTime().isBefore(end)) {
+            LocalDateTime windowEnd = position.getStartTime().plusWeeks(weeks).isBefore(end)
+                    ? position.getStartTime().plusWeeks(weeks)
+                    : end;
+            computed.addAll(computeVirtualSlots(List.of(availability), position, windowEnd, LocalDateTime.MAX,
+                    limit - computed.size()));
+            position = new SearchCursor(windowEnd, Long.MIN_VALUE);
+            weeks *= 2;
+        }
+        return computed;
+    }
+
+    private List<SlotRow> removeOverriddenSlots(List<SlotRow> generatedSlots, List<SlotRow> exceptions) {
+        if (exceptions.isEmpty()) {
+            return generatedSlots;
         }
-        return next;
+        Set<LocalDateTime> overridden = exceptions.stream()
+                .map(SlotRow::occurrenceStartTime)
+                .collect(Collectors.toSet());
+        return generatedSlots.stream()
+                .filter(slot -> !overridden.contains(slot.startTime()))
+                .collect(Collectors.toList());
     }
 
+    private void generateAppointmentSlots(ProviderAvailability availability, IntConsumer progress) {
+        log.info("Generating appointment slots for availability: {}", availability.getId());
+
+        int generated = persistSlots(availability, null, null, progress);
+        log.info("Generated {} appointment slots", generated);
+    }
+
+    /**
+     * Persists the slots of the availability that start in [from, to); null bounds are open.
+     */
+    private int persistSlots(ProviderAvailability availability, LocalDateTime from, LocalDateTime to, IntConsumer progress) {
+        if (properties.getSlotGeneration() == AvailabilityProperties.SlotGeneration.DATABASE) {
+            int inserted = slotRepository.insertGeneratedSlots(availability.getId(), from, to, AppointmentSlot.ID_ALLOCATION_SIZE);
+            progress.accept(inserted);
+            return inserted;
+        }
+        return slotBatchWriter.write(sink -> slotGenerator.forEachSlotStartingBetween(availability, from, to, sink), progress);
+    }
+
+    /**
+     * The availability with its slot counts and the first page of its slots from the series start.
+     */
     private ProviderAvailabilityResponse buildAvailabilityResponse(ProviderAvailability availability) {
-        List<AppointmentSlot> slots = slotRepository.findByProviderAvailabilityId(availability.getId());
-        
-        long totalSlots = slots.size();
-        long availableSlots = slots.stream().filter(s -> s.getStatus() == AppointmentSlot.SlotStatus.AVAILABLE).count();
-        long bookedSlots = slots.stream().filter(s -> s.getStatus() == AppointmentSlot.SlotStatus.BOOKED).count();
-        long cancelledSlots = slots.stream().filter(s -> s.getStatus() == AppointmentSlot.SlotStatus.CANCELLED).count();
+        return buildAvailabilityResponse(availability, null, null, null, properties.getSearch().getDefaultPageSize());
+    }
+
+    private ProviderAvailabilityResponse buildAvailabilityResponse(ProviderAvailability availability, LocalDateTime from,
+                                                                   LocalDateTime until, SearchCursor after,
+                                                                   int pageSize) {
+        // One row more than the page tells whether another page follows
+        List<SlotRow> slots = findSlotPage(availability, from, until, after, pageSize + 1);
+        boolean hasMore = slots.size() > pageSize;
+        List<SlotRow> page = hasMore ? slots.subList(0, pageSize) : slots;
+
+        ProviderAvailabilityResponse response = buildAvailabilityResponse(availability,
+                countSlotsByStatus(availability), page);
+        response.setHasMoreSlots(hasMore);
+        response.setNextSlotCursor(hasMore ? SearchCursor.of(page.get(pageSize - 1)).encode() : null);
+        return response;
+    }
+
+    private ProviderAvailabilityResponse buildAvailabilityResponse(ProviderAvailability availability,
+                                                                   Map<AppointmentSlot.SlotStatus, Long> counts,
+                                                                   List<SlotRow> slots) {
+        long totalSlots = counts.values().stream().mapToLong(Long::longValue).sum();
+        long availableSlots = counts.getOrDefault(AppointmentSlot.SlotStatus.AVAILABLE, 0L);
+        long bookedSlots = counts.getOrDefault(AppointmentSlot.SlotStatus.BOOKED, 0L);
+        long cancelledSlots = counts.getOrDefault(AppointmentSlot.SlotStatus.CANCELLED, 0L);
 
         List<AppointmentSlotResponse> slotResponses = slots.stream()
                 .map(this::buildSlotResponse)
@@ -296,6 +1160,7 @@ public class ProviderAvailabilityService {
                 .specialRequirements(availability.getSpecialRequirements())
                 .status(availability.getStatus())
                 .notes(availability.getNotes())
+                .slotMaterialization(availability.getSlotMaterialization())
                 .createdAt(availability.getCreatedAt())
                 .updatedAt(availability.getUpdatedAt())
                 .totalSlots(totalSlots)
@@ -307,22 +1172,89 @@ public class ProviderAvailabilityService {
     }
 
     private AppointmentSlotResponse buildSlotResponse(AppointmentSlot slot) {
+        return buildSlotResponse(SlotRow.of(slot));
+    }
+
+    private AppointmentSlotResponse buildSlotResponse(SlotRow slot) {
         return AppointmentSlotResponse.builder()
-                .id(slot.getId())
-                .providerId(slot.getProviderId())
-                .startTime(slot.getStartTime())
-                .endTime(slot.getEndTime())
-                .timezone(slot.getTimezone())
-                .status(slot.getStatus())
-                .price(slot.getPrice())
-                .currency(slot.getCurrency())
-                .location(slot.getLocation())
-                .appointmentType(slot.getAppointmentType())
-                .specialRequirements(slot.getSpecialRequirements())
-                .patientId(slot.getPatientId())
-                .bookingNotes(slot.getBookingNotes())
-                .createdAt(slot.getCreatedAt())
-                .updatedAt(slot.getUpdatedAt())
+                .id(slot.id())
+                .providerAvailabilityId(slot.providerAvailabilityId())
+                .providerId(slot.providerId())
+                .startTime(slot.startTime())
+                .endTime(slot.endTime())
+                .timezone(slot.timezone())
+                .status(slot.status())
+                .price(slot.price())
+                .currency(slot.currency())
+                .location(slot.location())
+                .appointmentType(slot.appointmentType())
+                .specialRequirements(slot.specialRequirements())
+                .patientId(slot.patientId())
+                .bookingNotes(slot.bookingNotes())
+                .createdAt(slot.createdAt())
+                .updatedAt(slot.updatedAt())
                 .build();
     }
-} 
\ No newline at end of file
+
+    /**
+     * The providers of the given slots by provider number, read with one query.
+     */
+    private Map<Long, ProviderSummaryRow> findProviderSummaries(Collection<SlotRow> slots) {
+        Set<Long> providerNumbers = slots.stream()
+                .map(SlotRow::providerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (providerNumbers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return providerRepository.findSummariesByProviderNumbers(providerNumbers).stream()
+                .collect(Collectors.toMap(ProviderSummaryRow::getProviderNumber, provider -> provider));
+    }
+
+    /**
+     * Hands the batch to the sink, first looking up the providers no earlier batch brought in.
+     */
+    private void flushBatch(List<SlotRow> batch, Map<Long, ProviderSummaryRow> providers,
+                            Map<Long, Double> nearby, Consumer<AvailabilitySearchResponse.AvailableSlot> sink) {
+        List<SlotRow> unseen = batch.stream()
+                .filter(slot -> !providers.containsKey(slot.providerId()))
+                .collect(Collectors.toList());
+        providers.putAll(findProviderSummaries(unseen));
+        // Providers without a row are remembered too, so they are not looked up again
+        unseen.forEach(slot -> providers.putIfAbsent(slot.providerId(), null));
+        batch.forEach(slot -> sink.accept(buildAvailableSlot(slot, nearby, providers)));
+        batch.clear();
+    }
+
+    private AvailabilitySearchResponse.AvailableSlot buildAvailableSlot(SlotRow slot, Map<Long, Double> nearby,
+                                                                        Map<Long, ProviderSummaryRow> providers) {
+        ProviderSummaryRow provider = providers.get(slot.providerId());
+        return AvailabilitySearchResponse.AvailableSlot.builder()
+                .slotId(slot.id())
+                .providerAvailabilityId(slot.providerAvailabilityId())
+                .providerId(slot.providerId())
+                .providerName(provider != null ? provider.getFirstName() + " " + provider.getLastName() : null)
+                .specialization(provider != null ? provider.getSpecialization() : null)
+                .clinicAddress(provider != null ? formatClinicAddress(provider) : null)
+                .providerPhone(provider != null ? provider.getPhoneNumber() : null)
+                .providerEmail(provider != null ? provider.getEmail() : null)
+                .slotStartTime(slot.startTime())
+                .slotEndTime(slot.endTime())
+                .timezone(slot.timezone())
+                .price(slot.price())
+                .currency(slot.currency())
+                .location(slot.location())
+                .appointmentType(slot.appointmentType())
+                .specialRequirements(slot.specialRequirements())
+                .durationMinutes(Duration.between(slot.startTime(), slot.endTime()).toMinutes())
+                .distanceKm(nearby != null ? nearby.get(slot.providerId()) : null)
+                .build();
+    }
+
+    private static String formatClinicAddress(ProviderSummaryRow provider) {
+        if (provider.getStreet() == null) {
+            return null;
+        }
+        return provider.getStreet() + ", " + provider.getCity() + ", " + provider.getState() + " " + provider.getZip();
+    }
+}
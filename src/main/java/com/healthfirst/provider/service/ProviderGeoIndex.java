@@ -0,0 +1,326 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.repository.ProviderLocationRow;
+import com.healthfirst.provider.repository.ProviderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grid index of active providers' clinic positions for "providers near me" searches.
+ *
+ * The earth is cut into cells of {@value #CELL_DEGREES} degrees of latitude and longitude (about 11 km
+ * north-south); each cell holds the providers inside it as parallel primitive arrays. A radius query
+ * visits only the cells overlapping the circle's bounding box and keeps the nearest matches in a
+ * bounded heap, so its cost follows the number of providers nearby rather than the total.
+ *
+ * Clinics without stored coordinates are placed at their zip centroid; clinics whose zip has no
+ * centroid cannot be placed, and a warning on every load counts them. The index is loaded on first use
+ * and reloaded nightly; providers registered through this instance are added as they register.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProviderGeoIndex {
+
+    static final double CELL_DEGREES = 0.1;
+
+    private static final int MAX_LOGGED_ZIPS = 20;
+
+    private static final int LONGITUDE_CELLS = (int) Math.round(360 / CELL_DEGREES);
+    private static final double KM_PER_DEGREE = Math.toRadians(1) * GeoPoint.EARTH_RADIUS_KM;
+
+    private final ProviderRepository providerRepository;
+    private final ZipCentroids zipCentroids;
+
+    // Null until first loaded
+    private volatile Grid grid;
+
+    @Scheduled(cron = "${availability.geo.reload-cron:0 30 2 * * *}")
+    public void reload() {
+        Map<Long, GeoPoint> positions = new HashMap<>();
+        int unplaced = 0;
+        Set<String> unknownZips = new TreeSet<>();
+        for (ProviderLocationRow row : providerRepository.findActiveProviderLocations()) {
+            GeoPoint position = positionOf(row.getLatitude(), row.getLongitude(), row.getZip());
+            if (position == null) {
+                unplaced++;
+                unknownZips.add(String.valueOf(row.getZip()));
+                continue;
+            }
+            positions.put(row.getProviderNumber(), position);
+        }
+        Grid loaded = Grid.of(positions);
+        synchronized (this) {
+            grid = loaded;
+        }
+        log.info("Loaded provider geo index: {} providers", loaded.size());
+        if (unplaced > 0) {
+            List<String> sample = new ArrayList<>(unknownZips).subList(0, Math.min(unknownZips.size(), MAX_LOGGED_ZIPS));
+            log.warn("{} active providers are left out of radius searches: no coordinates and no centroid for {} zips, e.g. {}",
+                    unplaced, unknownZips.size(), sample);
+        }
+    }
+
+    /**
+     * Adds or moves a provider. Does nothing when the clinic has no known position.
+     */
+    public void register(Long providerNumber, ClinicAddress address) {
+        GeoPoint position = positionOf(address);
+        if (providerNumber == null || position == null) {
+            return;
+        }
+        Grid current = loaded();
+        synchronized (this) {
+            current.put(providerNumber, position);
+        }
+    }
+
+    /**
+     * The clinic's stored coordinates, else its zip centroid, else null.
+     */
+    public GeoPoint positionOf(ClinicAddress address) {
+        return address != null ? positionOf(address.getLatitude(), address.getLongitude(), address.getZip()) : null;
+    }
+
+    private GeoPoint positionOf(Double latitude, Double longitude, String zip) {
+        if (latitude != null && longitude != null) {
+            return new GeoPoint(latitude, longitude);
+        }
+        return zipCentroids.find(zip);
+    }
+
+    /**
+     * Where the provider is indexed, or null when it is not.
+     */
+    public GeoPoint positionOfProvider(long providerNumber) {
+        return loaded().positionOf(providerNumber);
+    }
+
+    /**
+     * Up to {@code limit} providers within {@code radiusKm} of the center, mapped to their distance in
+     * kilometres and ordered nearest first.
+     */
+    public Map<Long, Double> findNearest(GeoPoint center, double radiusKm, int limit) {
+        Grid current = loaded();
+        PriorityQueue<Neighbor> nearest = new PriorityQueue<>(Neighbor.FARTHEST_FIRST);
+
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        int minLatitudeCell = cellIndex(Math.max(-90, center.getLatitude() - latitudeSpan));
+        int maxLatitudeCell = cellIndex(Math.min(90, center.getLatitude() + latitudeSpan));
+        // Meridians converge, so the longitude span is widest at the latitude nearest a pole
+        double widestLatitude = Math.min(90, Math.abs(center.getLatitude()) + latitudeSpan);
+        double longitudeSpan = widestLatitude >= 90 ? 180 : latitudeSpan / Math.cos(Math.toRadians(widestLatitude));
+        int minLongitudeCell;
+        int maxLongitudeCell;
+        if (longitudeSpan >= 180) {
+            minLongitudeCell = -LONGITUDE_CELLS / 2;
+            maxLongitudeCell = LONGITUDE_CELLS / 2 - 1;
+        } else {
+            minLongitudeCell = cellIndex(center.getLongitude() - longitudeSpan);
+            maxLongitudeCell = cellIndex(center.getLongitude() + longitudeSpan);
+        }
+
+        for (int latitudeCell = minLatitudeCell; latitudeCell <= maxLatitudeCell; latitudeCell++) {
+            for (int longitudeCell = minLongitudeCell; longitudeCell <= maxLongitudeCell; longitudeCell++) {
+                Cell cell = current.cells.get(cellKey(latitudeCell, wrapLongitudeCell(longitudeCell)));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.providerNumbers.length; i++) {
+                    double distance = center.distanceKm(cell.latitudes[i], cell.longitudes[i]);
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    if (nearest.size() < limit) {
+                        nearest.add(new Neighbor(cell.providerNumbers[i], distance));
+                    } else if (distance < nearest.peek().distanceKm) {
+                        nearest.poll();
+                        nearest.add(new Neighbor(cell.providerNumbers[i], distance));
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> ordered = new ArrayList<>(nearest);
+        ordered.sort(Neighbor.FARTHEST_FIRST.reversed());
+        Map<Long, Double> distances = new LinkedHashMap<>();
+        for (Neighbor neighbor : ordered) {
+            distances.put(neighbor.providerNumber, neighbor.distanceKm);
+        }
+        return distances;
+    }
+
+    private Grid loaded() {
+        Grid current = grid;
+        if (current == null) {
+            synchronized (this) {
+                if (grid == null) {
+                    reload();
+                }
+                current = grid;
+            }
+        }
+        return current;
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static int wrapLongitudeCell(int longitudeCell) {
+        return Math.floorMod(longitudeCell + LONGITUDE_CELLS / 2, LONGITUDE_CELLS) - LONGITUDE_CELLS / 2;
+    }
+
+    private static long cellKey(int latitudeCell, int longitudeCell) {
+        return ((long) latitudeCell << 32) | (longitudeCell & 0xffffffffL);
+    }
+
+    private static final class Neighbor {
+        static final Comparator<Neighbor> FARTHEST_FIRST = Comparator.<Neighbor>comparingDouble(n -> n.distanceKm).reversed();
+
+        final long providerNumber;
+        final double distanceKm;
+
+        Neighbor(long providerNumber, double distanceKm) {
+            this.providerNumber = providerNumber;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    /**
+     * Providers of one cell. Immutable; a change replaces the cell.
+     */
+    private static final class Cell {
+        final long[] providerNumbers;
+        final double[] latitudes;
+        final double[] longitudes;
+
+        Cell(long[] providerNumbers, double[] latitudes, double[] longitudes) {
+            this.providerNumbers = providerNumbers;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+        }
+
+        Cell without(long providerNumber) {
+            int index = indexOf(providerNumber);
+            if (index < 0) {
+                return this;
+            }
+            return new Cell(remove(providerNumbers, index), remove(latitudes, index), remove(longitudes, index));
+        }
+
+        Cell with(long providerNumber, GeoPoint position) {
+            Cell base = without(providerNumber);
+            int size = base.providerNumbers.length;
+            long[] numbers = Arrays.copyOf(base.providerNumbers, size + 1);
+            double[] lats = Arrays.copyOf(base.latitudes, size + 1);
+            double[] lons = Arrays.copyOf(base.longitudes, size + 1);
+            numbers[size] = providerNumber;
+            lats[size] = position.getLatitude();
+            lons[size] = position.getLongitude();
+            return new Cell(numbers, lats, lons);
+        }
+
+        int indexOf(long providerNumber) {
+            for (int i = 0; i < providerNumbers.length; i++) {
+                if (providerNumbers[i] == providerNumber) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static long[] remove(long[] values, int index) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, result.length - index);
+            return result;
+        }
+
+        private static double[] remove(double[] values, int index) {
+            double[] result = new double[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, result.length - index);
+            return result;
+        }
+    }
+
+    /**
+     * Cells by key plus each provider's cell, so a moved provider leaves its old cell. Writes hold the
+     * index's lock; reads go through the concurrent map.
+     */
+    private static final class Grid {
+        static final Cell EMPTY = new Cell(new long[0], new double[0], new double[0]);
+
+        final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+        final Map<Long, Long> cellByProvider = new ConcurrentHashMap<>();
+
+        static Grid of(Map<Long, GeoPoint> positions) {
+            Grid grid = new Grid();
+            Map<Long, List<Long>> providersByCell = new HashMap<>();
+            positions.forEach((providerNumber, position) -> {
+                long key = keyOf(position);
+                grid.cellByProvider.put(providerNumber, key);
+                providersByCell.computeIfAbsent(key, k -> new ArrayList<>()).add(providerNumber);
+            });
+            providersByCell.forEach((key, providerNumbers) -> {
+                int size = providerNumbers.size();
+                long[] numbers = new long[size];
+                double[] latitudes = new double[size];
+                double[] longitudes = new double[size];
+                for (int i = 0; i < size; i++) {
+                    GeoPoint position = positions.get(providerNumbers.get(i));
+                    numbers[i] = providerNumbers.get(i);
+                    latitudes[i] = position.getLatitude();
+                    longitudes[i] = position.getLongitude();
+                }
+                grid.cells.put(key, new Cell(numbers, latitudes, longitudes));
+            });
+            return grid;
+        }
+
+        static long keyOf(GeoPoint position) {
+            return cellKey(cellIndex(position.getLatitude()), wrapLongitudeCell(cellIndex(position.getLongitude())));
+        }
+
+        void put(long providerNumber, GeoPoint position) {
+            long key = keyOf(position);
+            Long previous = cellByProvider.put(providerNumber, key);
+            if (previous != null && previous != key) {
+                Cell left = cells.get(previous).without(providerNumber);
+                if (left.providerNumbers.length == 0) {
+                    cells.remove(previous);
+                } else {
+                    cells.put(previous, left);
+                }
+            }
+            cells.put(key, cells.getOrDefault(key, EMPTY).with(providerNumber, position));
+        }
+
+        GeoPoint positionOf(long providerNumber) {
+            Long key = cellByProvider.get(providerNumber);
+            Cell cell = key != null ? cells.get(key) : null;
+            int index = cell != null ? cell.indexOf(providerNumber) : -1;
+            return index >= 0 ? new GeoPoint(cell.latitudes[index], cell.longitudes[index]) : null;
+        }
+
+        int size() {
+            return cellByProvider.size();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.healthfirst.provider.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Earliest openings of the slots indexed by AvailableSlotIndex, so "when is the next free slot" is read
+ * off the head of a sorted set instead of searched for.
+ *
+ * For every (bucket, provider) pair the indexed slots are kept in (startSecond, id) order, and every
+ * bucket keeps the first opening of each of its providers in the same order. A provider's next slot is
+ * the earliest head among its pairs; the next slot of each provider across a bucket is the bucket's set
+ * of heads. Booking or removing a slot moves the head to the slot after it, and slots that have started
+ * are dropped from the front of a bucket when a query reaches them.
+ *
+ * Writes are serialized here; reads walk the concurrent sets without locking.
+ */
+final class ProviderOpenings {
+
+    static final Comparator<Opening> ORDER = Comparator.<Opening>comparingLong(opening -> opening.startSecond)
+            .thenComparingLong(opening -> opening.id);
+
+    private final Map<Long, Map<AvailableSlotIndex.BucketKey, NavigableSet<Opening>>> byProvider = new ConcurrentHashMap<>();
+    private final Map<AvailableSlotIndex.BucketKey, NavigableSet<Opening>> firstsByBucket = new ConcurrentHashMap<>();
+
+    synchronized void add(Opening opening) {
+        NavigableSet<Opening> openings = byProvider
+                .computeIfAbsent(opening.providerId, providerId -> new ConcurrentHashMap<>())
+                .computeIfAbsent(opening.bucket, bucket -> new ConcurrentSkipListSet<>(ORDER));
+        Opening first = openings.isEmpty() ? null : openings.first();
+        openings.add(opening);
+        if (first == null || ORDER.compare(opening, first) < 0) {
+            NavigableSet<Opening> firsts = firstsByBucket.computeIfAbsent(opening.bucket,
+                    bucket -> new ConcurrentSkipListSet<>(ORDER));
+            // The new head goes in before the old one leaves, so readers always find the provider
+            firsts.add(opening);
+            if (first != null) {
+                firsts.remove(first);
+            }
+        }
+    }
+
+    synchronized void remove(Opening opening) {
+        Map<AvailableSlotIndex.BucketKey, NavigableSet<Opening>> pairs = byProvider.get(opening.providerId);
+        NavigableSet<Opening> openings = pairs != null ? pairs.get(opening.bucket) : null;
+        if (openings == null || openings.isEmpty()) {
+            return;
+        }
+        boolean wasFirst = ORDER.compare(openings.first(), opening) == 0;
+        if (!openings.remove(opening) || !wasFirst) {
+            return;
+        }
+        NavigableSet<Opening> firsts = firstsByBucket.get(opening.bucket);
+        if (!openings.isEmpty()) {
+            firsts.add(openings.first());
+        }
+        firsts.remove(opening);
+    }
+
+    /**
+     * The provider's first opening at or after (fromSecond, fromId) in a bucket the filter accepts, or null.
+     */
+    Opening next(long providerId, long fromSecond, long fromId, Predicate<AvailableSlotIndex.BucketKey> bucketFilter) {
+        Map<AvailableSlotIndex.BucketKey, NavigableSet<Opening>> pairs = byProvider.get(providerId);
+        if (pairs == null) {
+            return null;
+        }
+        Opening from = new Opening(fromSecond, fromId, providerId, null);
+        Opening next = null;
+        for (Map.Entry<AvailableSlotIndex.BucketKey, NavigableSet<Opening>> pair : pairs.entrySet()) {
+            if (bucketFilter.test(pair.getKey())) {
+                Opening candidate = pair.getValue().ceiling(from);
+                if (candidate != null && (next == null || ORDER.compare(candidate, next) < 0)) {
+                    next = candidate;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * The first opening of each provider in the buckets the filter accepts, earliest first, for at most
+     * {@code limit} providers. Slots starting before {@code nowSecond} are dropped for good first, so it
+     * must be the current time.
+     */
+    List<Opening> firstPerProvider(long nowSecond, Predicate<AvailableSlotIndex.BucketKey> bucketFilter, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head head) -> head.opening, ORDER));
+        for (Map.Entry<AvailableSlotIndex.BucketKey, NavigableSet<Opening>> bucket : firstsByBucket.entrySet()) {
+            if (bucketFilter.test(bucket.getKey())) {
+                dropStarted(bucket.getKey(), nowSecond);
+                Head head = new Head(bucket.getValue().iterator());
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+        }
+
+        // A provider listed in several buckets appears once, with its earliest opening
+        List<Opening> firsts = new ArrayList<>(Math.min(limit, 64));
+        Set<Long> providers = new HashSet<>();
+        while (firsts.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            if (head.opening.startSecond >= nowSecond && providers.add(head.opening.providerId)) {
+                firsts.add(head.opening);
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return firsts;
+    }
+
+    /**
+     * Advances every provider of the bucket whose first opening has started to its first one that has not.
+     */
+    private synchronized void dropStarted(AvailableSlotIndex.BucketKey bucket, long nowSecond) {
+        NavigableSet<Opening> firsts = firstsByBucket.get(bucket);
+        Opening now = new Opening(nowSecond, Long.MIN_VALUE, 0, bucket);
+        while (!firsts.isEmpty() && ORDER.compare(firsts.first(), now) < 0) {
+            Opening started = firsts.pollFirst();
+            NavigableSet<Opening> openings = byProvider.get(started.providerId).get(bucket);
+            openings.headSet(now).clear();
+            if (!openings.isEmpty()) {
+                firsts.add(openings.first());
+            }
+        }
+    }
+
+    /**
+     * Position of an indexed slot: its start, id, provider and bucket.
+     */
+    static final class Opening {
+        final long startSecond;
+        final long id;
+        final long providerId;
+        final AvailableSlotIndex.BucketKey bucket;
+
+        Opening(long startSecond, long id, long providerId, AvailableSlotIndex.BucketKey bucket) {
+            this.startSecond = startSecond;
+            this.id = id;
+            this.providerId = providerId;
+            this.bucket = bucket;
+        }
+    }
+
+    private static final class Head {
+        final Iterator<Opening> openings;
+        Opening opening;
+
+        Head(Iterator<Opening> openings) {
+            this.openings = openings;
+        }
+
+        boolean advance() {
+            opening = openings.hasNext() ? openings.next() : null;
+            return opening != null;
+        }
+    }
+}
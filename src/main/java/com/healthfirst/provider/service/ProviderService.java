@@ -5,12 +5,14 @@ import com.healthfirst.provider.dto.ProviderRegistrationResponse;
 import com.healthfirst.provider.entity.Provider;
 import com.healthfirst.provider.entity.Provider.VerificationStatus;
 import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Specialization;
 import com.healthfirst.provider.repository.ProviderRepository;
 import com.healthfirst.provider.dto.ProviderLoginRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,20 +23,23 @@ import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ProviderService {
     private final ProviderRepository providerRepository;
     private final Validator validator;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final ZipCentroids zipCentroids;
+    private final ProviderGeoIndex providerGeoIndex;
 
-    private static final Set<String> ALLOWED_SPECIALIZATIONS = Set.of(
-        "Cardiology", "Dermatology", "Pediatrics", "General Medicine", "Orthopedics", "Neurology", "Psychiatry", "Oncology", "Gynecology", "Ophthalmology"
-    );
+    private static final Set<String> ALLOWED_SPECIALIZATIONS = Specialization.displayNames();
 
     @Transactional
     public ProviderRegistrationResponse registerProvider(ProviderRegistrationRequest request) {
         validateRequest(request);
         checkUniqueFields(request);
         String hashedPassword = passwordEncoder.encode(request.getPassword());
+        String zip = request.getClinicAddress().getZip().trim();
+        GeoPoint centroid = zipCentroids.find(zip);
         Provider provider = Provider.builder()
                 .firstName(request.getFirstName().trim())
                 .lastName(request.getLastName().trim())
@@ -48,17 +53,25 @@ public class ProviderService {
                         .street(request.getClinicAddress().getStreet().trim())
                         .city(request.getClinicAddress().getCity().trim())
                         .state(request.getClinicAddress().getState().trim())
-                        .zip(request.getClinicAddress().getZip().trim())
+                        .zip(zip)
+                        .latitude(centroid != null ? centroid.getLatitude() : null)
+                        .longitude(centroid != null ? centroid.getLongitude() : null)
                         .build())
                 .verificationStatus(VerificationStatus.VERIFIED)
                 .role(Provider.Role.DOCTOR)
                 .isActive(true)
                 .build();
         try {
-            provider = providerRepository.save(provider);
+            // Flush so that constraint violations surface here and the database has assigned providerNumber
+            provider = providerRepository.saveAndFlush(provider);
         } catch (DataIntegrityViolationException e) {
             throw new RuntimeException("Duplicate entry detected.");
         }
+        if (centroid == null) {
+            log.warn("No centroid for zip {}; provider {} is left out of radius searches",
+                    zip, provider.getProviderNumber());
+        }
+        providerGeoIndex.register(provider.getProviderNumber(), provider.getClinicAddress());
         return mapToResponse(provider);
     }
 
@@ -117,6 +130,7 @@ public class ProviderService {
     private ProviderRegistrationResponse mapToResponse(Provider provider) {
         return ProviderRegistrationResponse.builder()
                 .id(provider.getId())
+                .providerNumber(provider.getProviderNumber())
                 .firstName(provider.getFirstName())
                 .lastName(provider.getLastName())
                 .email(provider.getEmail())
@@ -129,6 +143,8 @@ public class ProviderService {
                         .city(provider.getClinicAddress().getCity())
                         .state(provider.getClinicAddress().getState())
                         .zip(provider.getClinicAddress().getZip())
+                        .latitude(provider.getClinicAddress().getLatitude())
+                        .longitude(provider.getClinicAddress().getLongitude())
                         .build())
                 .verificationStatus(provider.getVerificationStatus())
                 .isActive(provider.isActive())
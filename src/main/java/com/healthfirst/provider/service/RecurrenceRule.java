@@ -0,0 +1,201 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.DayOfWeekSetConverter;
+import com.healthfirst.provider.entity.ProviderAvailability;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.function.BiConsumer;
+
+/**
+ * Compiled form of the recurrence of a {@link ProviderAvailability}. Occurrences are located by
+ * arithmetic on epoch days, so a window anywhere in the series is answered without walking from the
+ * series start, and weekly day sets are matched with one bit scan on the recurrence day mask instead
+ * of stepping a day at a time.
+ *
+ * Recurrences repeat in the provider's wall-clock time: every occurrence starts at the local time of
+ * day of the first one and lasts as long on the wall clock, and weekdays are the provider's weekdays.
+ * Occurrences are converted back to UTC through the cached {@link ZoneOffsetTable} of the
+ * availability's timezone, so slots stay at the same local time across DST changes.
+ */
+public final class RecurrenceRule {
+
+    private static final int DEFAULT_RECURRENCE_MONTHS = 6;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private static final int ALL_DAYS = 0x7F;
+
+    // 1970-01-01, epoch day 0, was a Thursday; mask bit 0 is Monday
+    private static final int EPOCH_DAY_INDEX = 3;
+
+    /**
+     * Receives the UTC epoch seconds at which an occurrence starts and ends.
+     */
+    @FunctionalInterface
+    public interface OccurrenceConsumer {
+        void accept(long startEpochSecond, long endEpochSecond);
+    }
+
+    private final ProviderAvailability.RecurrenceType type;
+    private final ZoneOffsetTable offsets;
+    private final long startEpochSecond;
+    private final long endEpochSecond;
+    private final LocalDate startDate;
+    private final long startDay;
+    private final long localTimeOfDay;
+    private final long localLength;
+    private final long seriesEndEpochSecond;
+    private final int dayMask;
+
+    private RecurrenceRule(ProviderAvailability.RecurrenceType type, ZoneOffsetTable offsets,
+                           LocalDateTime start, LocalDateTime end, LocalDateTime seriesEnd, int dayMask) {
+        this.type = type;
+        this.offsets = offsets;
+        this.startEpochSecond = start.toEpochSecond(ZoneOffset.UTC);
+        this.endEpochSecond = end.toEpochSecond(ZoneOffset.UTC);
+        long localStart = offsets.toLocal(startEpochSecond);
+        this.startDay = Math.floorDiv(localStart, SECONDS_PER_DAY);
+        this.startDate = LocalDate.ofEpochDay(startDay);
+        this.localTimeOfDay = Math.floorMod(localStart, SECONDS_PER_DAY);
+        this.localLength = offsets.toLocal(endEpochSecond) - localStart;
+        this.seriesEndEpochSecond = seriesEnd.toEpochSecond(ZoneOffset.UTC);
+        this.dayMask = dayMask;
+    }
+
+    public static RecurrenceRule compile(ProviderAvailability availability) {
+        ProviderAvailability.RecurrenceType type = availability.getRecurrenceType() != null ?
+                availability.getRecurrenceType() : ProviderAvailability.RecurrenceType.NONE;
+        ZoneId zone = availability.getTimezone() != null ? ZoneId.of(availability.getTimezone()) : ZoneOffset.UTC;
+        return new RecurrenceRule(type, ZoneOffsetTable.of(zone), availability.getStartTime(), availability.getEndTime(),
+                seriesEnd(availability), DayOfWeekSetConverter.toMask(availability.getRecurrenceDays()));
+    }
+
+    /**
+     * Returns the exclusive upper bound for occurrence starts of a recurring availability.
+     */
+    public static LocalDateTime seriesEnd(ProviderAvailability availability) {
+        return availability.getRecurrenceEndDate() != null ?
+            availability.getRecurrenceEndDate() : availability.getStartTime().plusMonths(DEFAULT_RECURRENCE_MONTHS);
+    }
+
+    /**
+     * Hands the sink the UTC start and end of every occurrence that overlaps [from, to); null bounds
+     * are open. Recurring series never produce occurrences starting at or after the series end.
+     */
+    public void forEachOccurrence(LocalDateTime from, LocalDateTime to, BiConsumer<LocalDateTime, LocalDateTime> sink) {
+        forEachOccurrenceEpochSecond(from, to, (start, end) -> sink.accept(
+                LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC), LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC)));
+    }
+
+    /**
+     * Allocation-free variant of {@link #forEachOccurrence} working on UTC epoch seconds.
+     */
+    public void forEachOccurrenceEpochSecond(LocalDateTime from, LocalDateTime to, OccurrenceConsumer sink) {
+        long fromSecond = from != null ? from.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        long toSecond = to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+
+        if (type == ProviderAvailability.RecurrenceType.NONE) {
+            if (endEpochSecond > fromSecond && startEpochSecond < toSecond) {
+                sink.accept(startEpochSecond, endEpochSecond);
+            }
+            return;
+        }
+
+        Window window = new Window(fromSecond, Math.min(toSecond, seriesEndEpochSecond), sink);
+        // Local days are bracketed with a day of slack on each side; the window checks the exact UTC bounds
+        long firstDay = startDay;
+        if (from != null) {
+            firstDay = Math.max(startDay,
+                    Math.floorDiv(offsets.toLocal(fromSecond) - localTimeOfDay - localLength, SECONDS_PER_DAY) - 1);
+        }
+        long endDay = Math.floorDiv(offsets.toLocal(window.limit) - localTimeOfDay, SECONDS_PER_DAY) + 2;
+
+        switch (type) {
+            case DAILY:
+                for (long day = firstDay; day < endDay; day++) {
+                    window.offer(day);
+                }
+                break;
+            case WEEKLY:
+                if (dayMask == 0) {
+                    long weeks = (firstDay - startDay + 6) / 7;
+                    for (long day = startDay + weeks * 7; day < endDay; day += 7) {
+                        window.offer(day);
+                    }
+                } else {
+                    // The series start is an occurrence even when its weekday is not among the recurrence days
+                    long day = firstDay;
+                    if (day == startDay) {
+                        window.offer(day);
+                        day++;
+                    }
+                    for (day = nextRecurrenceDay(day); day < endDay; day = nextRecurrenceDay(day + 1)) {
+                        window.offer(day);
+                    }
+                }
+                break;
+            case MONTHLY:
+                forEachMonthlyOccurrenceDay(firstDay, endDay, window);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Monthly occurrences repeat LocalDate.plusMonths(1), so a day of month clamped by a short month stays
+     * clamped. Days up to the 28th are never clamped and can be jumped to directly.
+     */
+    private void forEachMonthlyOccurrenceDay(long firstDay, long endDay, Window window) {
+        LocalDate date = startDate;
+        if (startDate.getDayOfMonth() <= 28) {
+            LocalDate first = LocalDate.ofEpochDay(firstDay);
+            long months = (first.getYear() - startDate.getYear()) * 12L + first.getMonthValue() - startDate.getMonthValue();
+            if (months > 1) {
+                date = startDate.plusMonths(months - 1);
+            }
+        }
+        for (long day = date.toEpochDay(); day < endDay; date = date.plusMonths(1), day = date.toEpochDay()) {
+            if (day >= firstDay) {
+                window.offer(day);
+            }
+        }
+    }
+
+    /**
+     * First day at or after the given one whose weekday is in the recurrence day mask.
+     */
+    private long nextRecurrenceDay(long day) {
+        int dayIndex = (int) Math.floorMod(day + EPOCH_DAY_INDEX, 7L);
+        int rotated = ((dayMask >>> dayIndex) | (dayMask << (7 - dayIndex))) & ALL_DAYS;
+        return day + Integer.numberOfTrailingZeros(rotated);
+    }
+
+    /**
+     * Converts occurrence days to UTC and passes on those that overlap the requested window.
+     */
+    private final class Window {
+
+        private final long from;
+        private final long limit;
+        private final OccurrenceConsumer sink;
+
+        private Window(long from, long limit, OccurrenceConsumer sink) {
+            this.from = from;
+            this.limit = limit;
+            this.sink = sink;
+        }
+
+        private void offer(long day) {
+            long localStart = day * SECONDS_PER_DAY + localTimeOfDay;
+            long start = offsets.toUtc(localStart);
+            long end = offsets.toUtc(localStart + localLength);
+            if (end > from && start < limit) {
+                sink.accept(start, end);
+            }
+        }
+    }
+}
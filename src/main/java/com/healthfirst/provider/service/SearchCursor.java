@@ -0,0 +1,74 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.repository.SlotRow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of a slot in search order, which is (startTime, key). The key of a persisted slot is its id;
+ * a computed slot of a VIRTUAL availability has no id and uses the negated availability id instead, so
+ * it sorts before the persisted slots starting at the same time. Encoded for clients as an opaque
+ * URL-safe token.
+ */
+public final class SearchCursor {
+
+    private final LocalDateTime startTime;
+    private final long key;
+
+    public SearchCursor(LocalDateTime startTime, long key) {
+        this.startTime = startTime;
+        this.key = key;
+    }
+
+    public static SearchCursor of(SlotRow slot) {
+        return new SearchCursor(slot.startTime(), keyOf(slot));
+    }
+
+    public static long keyOf(SlotRow slot) {
+        return slot.id() != null ? slot.id() : -slot.providerAvailabilityId();
+    }
+
+    /**
+     * Orders slots by start time, then by key.
+     */
+    public static int compare(SlotRow a, SlotRow b) {
+        int byStartTime = a.startTime().compareTo(b.startTime());
+        return byStartTime != 0 ? byStartTime : Long.compare(keyOf(a), keyOf(b));
+    }
+
+    /**
+     * Whether the slot sorts strictly after this position.
+     */
+    public boolean isBefore(SlotRow slot) {
+        int byStartTime = slot.startTime().compareTo(startTime);
+        return byStartTime > 0 || (byStartTime == 0 && keyOf(slot) > key);
+    }
+
+    public String encode() {
+        String value = startTime.toEpochSecond(ZoneOffset.UTC) + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.indexOf(':');
+            long startSecond = Long.parseLong(value.substring(0, separator));
+            long key = Long.parseLong(value.substring(separator + 1));
+            return new SearchCursor(LocalDateTime.ofEpochSecond(startSecond, 0, ZoneOffset.UTC), key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+        }
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public long getKey() {
+        return key;
+    }
+}
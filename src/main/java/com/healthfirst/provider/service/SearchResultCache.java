@@ -0,0 +1,287 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.SearchCacheStatsResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.Specialization;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded cache of search responses keyed on the normalized request. Entries are weighed by the
+ * number of slots they hold, and the least recently used ones are dropped once the total weight
+ * passes {@code availability.search-cache.max-weight}.
+ *
+ * A slot or availability change evicts only the entries whose window and filters cover it, after
+ * the change commits. A response computed while such a change committed is not stored, since it may
+ * have been read before the change. Entries also expire after {@code time-to-live}, which bounds how
+ * long changes made through other instances stay invisible.
+ *
+ * Responses are mutable DTOs, so the cache stores a copy and hands out a fresh copy on every hit;
+ * nothing a caller does to a response can reach the entry or another caller.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private final LocationIndex locationIndex;
+    private final ProviderGeoIndex providerGeoIndex;
+    private final AvailabilityProperties properties;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+    // Bumped by every invalidation; a response is stored only if none happened while it was computed
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * A copy of the cached response for the request, or null.
+     */
+    public synchronized AvailabilitySearchResponse get(Key key) {
+        if (!properties.getSearchCache().isEnabled()) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+            remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(entry.response);
+    }
+
+    /**
+     * Taken before computing a response and handed back to {@link #put}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a response unless an invalidation happened since {@code generation}. {@code locations} and
+     * {@code providerIds} are the filters the request was resolved to, null when absent; {@code from}
+     * is the earliest start time the response can contain.
+     */
+    public synchronized void put(Key key, LocalDateTime from, Set<String> locations, Set<Long> providerIds,
+                                 AvailabilitySearchResponse response, long generation) {
+        AvailabilityProperties.SearchCache config = properties.getSearchCache();
+        if (!config.isEnabled() || generation != this.generation) {
+            return;
+        }
+        Entry entry = new Entry(from, locations, providerIds, copyOf(response),
+                System.nanoTime() + config.getTimeToLive().toNanos());
+        if (entry.weight > config.getMaxWeight()) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entry.weight;
+
+        Iterator<Map.Entry<Key, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (weight > config.getMaxWeight() && leastRecentlyUsed.hasNext()) {
+            Map.Entry<Key, Entry> eldest = leastRecentlyUsed.next();
+            weight -= eldest.getValue().weight;
+            leastRecentlyUsed.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Evicts the entries covering any of the scopes once the current transaction commits.
+     */
+    public void invalidate(SlotScope... scopes) {
+        List<SlotScope> changed = List.of(scopes);
+        afterCommit(() -> evictCovering(changed));
+    }
+
+    public synchronized SearchCacheStatsResponse stats() {
+        long lookups = hits + misses;
+        return SearchCacheStatsResponse.builder()
+                .hits(hits)
+                .misses(misses)
+                .hitRate(lookups > 0 ? (double) hits / lookups : 0)
+                .evictions(evictions)
+                .invalidations(invalidations)
+                .entries(entries.size())
+                .weight(weight)
+                .maxWeight(properties.getSearchCache().getMaxWeight())
+                .build();
+    }
+
+    private synchronized void evictCovering(List<SlotScope> scopes) {
+        generation++;
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> cached = iterator.next();
+            if (scopes.stream().anyMatch(scope -> covers(cached.getKey(), cached.getValue(), scope))) {
+                weight -= cached.getValue().weight;
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        weight -= entry.weight;
+    }
+
+    /**
+     * Whether a slot in the scope could appear in, or be missing from, the cached response. Errs towards
+     * true: locations and providers the request did not resolve to are checked against the raw filters,
+     * since they may have been registered after the request was resolved.
+     */
+    private boolean covers(Key key, Entry entry, SlotScope scope) {
+        if (scope.getEndTime().isBefore(entry.from) || scope.getStartTime().isAfter(key.getEndTime())) {
+            return false;
+        }
+        if (key.getAppointmentType() != null && !key.getAppointmentType().equals(scope.getAppointmentType())) {
+            return false;
+        }
+        if (key.getSpecialization() != null && key.getSpecialization() != scope.getSpecialization()) {
+            return false;
+        }
+        if (key.getMaxPrice() != null && (scope.getPrice() == null
+                || scope.getPrice().compareTo(BigDecimal.valueOf(key.getMaxPrice())) > 0)) {
+            return false;
+        }
+        if (key.getSlotDurationMinutes() != null && scope.getDurationMinutes() != null
+                && !key.getSlotDurationMinutes().equals(scope.getDurationMinutes())) {
+            return false;
+        }
+        if (key.getLocation() != null && (scope.getLocation() == null
+                || !(entry.locations.contains(scope.getLocation())
+                        || locationIndex.matches(key.getLocation(), scope.getLocation())))) {
+            return false;
+        }
+        if (key.getProviderId() != null && !key.getProviderId().equals(scope.getProviderId())) {
+            return false;
+        }
+        if (key.getLatitude() != null) {
+            if (scope.getProviderId() == null) {
+                return false;
+            }
+            if (!entry.providerIds.contains(scope.getProviderId())) {
+                GeoPoint position = providerGeoIndex.positionOfProvider(scope.getProviderId());
+                return position != null
+                        && position.distanceKm(key.getLatitude(), key.getLongitude()) <= key.getRadiusKm();
+            }
+        }
+        return true;
+    }
+
+    private static AvailabilitySearchResponse copyOf(AvailabilitySearchResponse response) {
+        List<AvailabilitySearchResponse.AvailableSlot> slots = new ArrayList<>(response.getAvailableSlots().size());
+        for (AvailabilitySearchResponse.AvailableSlot slot : response.getAvailableSlots()) {
+            slots.add(slot.toBuilder().build());
+        }
+        return response.toBuilder().availableSlots(slots).build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A search request reduced to what determines its response: the UTC window, the location query as
+     * LocationIndex normalizes it, the radius actually applied and the resolved page size.
+     */
+    @Value
+    public static class Key {
+        LocalDateTime startTime;
+        LocalDateTime endTime;
+        String location;
+        String appointmentType;
+        Specialization specialization;
+        Long providerId;
+        Integer maxPrice;
+        Integer slotDurationMinutes;
+        Double latitude;
+        Double longitude;
+        Double radiusKm;
+        int pageSize;
+        String cursor;
+    }
+
+    /**
+     * Where slots changed: one slot, or every slot an availability may have between its start and the
+     * end of its series.
+     */
+    @Value
+    public static class SlotScope {
+        LocalDateTime startTime;
+        LocalDateTime endTime;
+        Long providerId;
+        String location;
+        String appointmentType;
+        Specialization specialization;
+        BigDecimal price;
+        Integer durationMinutes;
+
+        public static SlotScope of(AppointmentSlot slot) {
+            return new SlotScope(slot.getStartTime(), slot.getEndTime(), slot.getProviderId(), slot.getLocation(),
+                    slot.getAppointmentType(), slot.getSpecialization(), slot.getPrice(),
+                    (int) Duration.between(slot.getStartTime(), slot.getEndTime()).toMinutes());
+        }
+
+        public static SlotScope of(ProviderAvailability availability, LocalDateTime seriesEnd) {
+            return new SlotScope(availability.getStartTime(), seriesEnd, availability.getProviderId(),
+                    availability.getLocation(), availability.getAppointmentType(), availability.getSpecialization(),
+                    availability.getPrice(), availability.getSlotDurationMinutes());
+        }
+    }
+
+    private static final class Entry {
+        final LocalDateTime from;
+        final Set<String> locations;
+        final Set<Long> providerIds;
+        final AvailabilitySearchResponse response;
+        final long expiresAt;
+        final long weight;
+
+        Entry(LocalDateTime from, Set<String> locations, Set<Long> providerIds, AvailabilitySearchResponse response,
+              long expiresAt) {
+            this.from = from;
+            this.locations = locations != null ? locations : Set.of();
+            this.providerIds = providerIds != null ? providerIds : Set.of();
+            this.response = response;
+            this.expiresAt = expiresAt;
+            this.weight = 1L + response.getAvailableSlots().size();
+        }
+    }
+}
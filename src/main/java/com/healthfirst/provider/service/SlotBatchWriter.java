@@ -0,0 +1,60 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Bulk insert path for generated slots. Slots are persisted as they are produced and the
+ * persistence context is flushed and cleared every {@code availability.slot-batch-size} entities,
+ * so Hibernate sends them as JDBC batches and memory stays flat however long the series is.
+ * Relies on the pooled sequence id of {@link AppointmentSlot}; IDENTITY ids disable batching.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotBatchWriter {
+
+    private final AvailabilityProperties properties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Persists every slot the source hands to its sink and returns how many were written.
+     * Entities managed by the caller are detached by the periodic clear.
+     */
+    @Transactional
+    public int write(Consumer<Consumer<AppointmentSlot>> slotSource) {
+        return write(slotSource, written -> { });
+    }
+
+    /**
+     * Like {@link #write(Consumer)}, reporting the running total of written slots after every flush.
+     */
+    @Transactional
+    public int write(Consumer<Consumer<AppointmentSlot>> slotSource, IntConsumer progress) {
+        int batchSize = properties.getSlotBatchSize();
+        int[] written = {0};
+
+        slotSource.accept(slot -> {
+            entityManager.persist(slot);
+            if (++written[0] % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                progress.accept(written[0]);
+            }
+        });
+
+        entityManager.flush();
+        entityManager.clear();
+        progress.accept(written[0]);
+        return written[0];
+    }
+}
@@ -0,0 +1,152 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Expands a {@link ProviderAvailability} rule into concrete appointment slots.
+ * The returned slots are transient; callers decide whether to persist them (eager mode)
+ * or merge them with persisted exceptions at read time (virtual mode).
+ */
+@Component
+public class SlotGenerator {
+
+    public List<AppointmentSlot> generate(ProviderAvailability availability) {
+        return generate(availability, null, null);
+    }
+
+    /**
+     * Generates the slots of the availability that fall completely inside [from, to].
+     * A null bound leaves that side of the window open.
+     */
+    public List<AppointmentSlot> generate(ProviderAvailability availability, LocalDateTime from, LocalDateTime to) {
+        List<AppointmentSlot> slots = new ArrayList<>();
+        generate(availability, from, to, false, slots::add);
+        return slots;
+    }
+
+    /**
+     * Streaming variant of {@link #generate(ProviderAvailability)}: each slot is handed to the sink
+     * as soon as it is built, so the whole series never has to be held in memory.
+     */
+    public void forEachSlot(ProviderAvailability availability, Consumer<AppointmentSlot> sink) {
+        generate(availability, null, null, false, sink);
+    }
+
+    /**
+     * Hands the sink every slot of the availability whose start lies in [from, to); null bounds are open.
+     * Consecutive windows never drop or repeat a slot, which makes this suitable for incremental materialization.
+     */
+    public void forEachSlotStartingBetween(ProviderAvailability availability, LocalDateTime from, LocalDateTime to,
+                                           Consumer<AppointmentSlot> sink) {
+        generate(availability, from, to, true, sink);
+    }
+
+    /**
+     * Lazy variant of {@link #forEachSlotStartingBetween} for merging: the slots starting in [from, to), in
+     * start order, built a day at a time as the iterator advances, so at most one day's slots are held.
+     * Both bounds are required.
+     */
+    public Iterator<AppointmentSlot> slotsStartingBetween(ProviderAvailability availability, LocalDateTime from,
+                                                          LocalDateTime to) {
+        RecurrenceRule rule = RecurrenceRule.compile(availability);
+        return new Iterator<>() {
+            private final Deque<AppointmentSlot> day = new ArrayDeque<>();
+            private LocalDateTime dayStart = from;
+
+            @Override
+            public boolean hasNext() {
+                while (day.isEmpty() && dayStart.isBefore(to)) {
+                    LocalDateTime dayEnd = dayStart.plusDays(1).isBefore(to) ? dayStart.plusDays(1) : to;
+                    generate(availability, rule, dayStart, dayEnd, true, day::add);
+                    dayStart = dayEnd;
+                }
+                return !day.isEmpty();
+            }
+
+            @Override
+            public AppointmentSlot next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return day.poll();
+            }
+        };
+    }
+
+    private void generate(ProviderAvailability availability, LocalDateTime from, LocalDateTime to,
+                          boolean byStartTime, Consumer<AppointmentSlot> sink) {
+        generate(availability, RecurrenceRule.compile(availability), from, to, byStartTime, sink);
+    }
+
+    private void generate(ProviderAvailability availability, RecurrenceRule rule, LocalDateTime from, LocalDateTime to,
+                          boolean byStartTime, Consumer<AppointmentSlot> sink) {
+        rule.forEachOccurrence(from, to, (occurrenceStart, occurrenceEnd) ->
+                generateSlotsForTimeRange(availability, occurrenceStart, occurrenceEnd, from, to, byStartTime, sink));
+    }
+
+    /**
+     * The number of slots {@link #forEachSlot} hands out, worked out per occurrence without building them.
+     */
+    public long countSlots(ProviderAvailability availability) {
+        long slotSeconds = availability.getSlotDurationMinutes() * 60L;
+        long[] count = {0};
+        RecurrenceRule.compile(availability).forEachOccurrenceEpochSecond(null, null,
+                (start, end) -> count[0] += (end - start) / slotSeconds);
+        return count[0];
+    }
+
+    /**
+     * Returns the exclusive upper bound for occurrence starts of a recurring availability.
+     */
+    public LocalDateTime getSeriesEnd(ProviderAvailability availability) {
+        return RecurrenceRule.seriesEnd(availability);
+    }
+
+    private void generateSlotsForTimeRange(ProviderAvailability availability,
+                                           LocalDateTime startTime, LocalDateTime endTime,
+                                           LocalDateTime from, LocalDateTime to, boolean byStartTime,
+                                           Consumer<AppointmentSlot> sink) {
+        LocalDateTime currentSlotStart = startTime;
+
+        while (currentSlotStart.plusMinutes(availability.getSlotDurationMinutes()).isBefore(endTime) ||
+               currentSlotStart.plusMinutes(availability.getSlotDurationMinutes()).isEqual(endTime)) {
+
+            LocalDateTime slotEnd = currentSlotStart.plusMinutes(availability.getSlotDurationMinutes());
+
+            boolean beforeEnd = to == null || (byStartTime ? currentSlotStart.isBefore(to) : !slotEnd.isAfter(to));
+            if ((from == null || !currentSlotStart.isBefore(from)) && beforeEnd) {
+                sink.accept(buildSlot(availability, currentSlotStart, slotEnd));
+            }
+            currentSlotStart = slotEnd;
+        }
+    }
+
+    private AppointmentSlot buildSlot(ProviderAvailability availability, LocalDateTime startTime, LocalDateTime endTime) {
+        return AppointmentSlot.builder()
+                .providerAvailability(availability)
+                .providerId(availability.getProviderId())
+                .startTime(startTime)
+                .endTime(endTime)
+                .durationMinutes(availability.getSlotDurationMinutes())
+                .timezone(availability.getTimezone())
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .price(availability.getPrice())
+                .currency(availability.getCurrency())
+                .location(availability.getLocation())
+                .appointmentType(availability.getAppointmentType())
+                .specialRequirements(availability.getSpecialRequirements())
+                .specialization(availability.getSpecialization())
+                .build();
+    }
+}
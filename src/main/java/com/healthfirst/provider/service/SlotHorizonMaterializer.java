@@ -0,0 +1,44 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Nightly job that keeps ROLLING availabilities materialized a fixed number of weeks ahead.
+ * Each availability is extended in its own transaction from its persisted watermark, so a run
+ * only appends the slots that entered the horizon since the previous one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SlotHorizonMaterializer {
+
+    private final ProviderAvailabilityRepository availabilityRepository;
+    private final ProviderAvailabilityService availabilityService;
+    private final AvailabilityProperties properties;
+
+    @Scheduled(cron = "${availability.rolling-horizon.cron:0 0 2 * * *}")
+    public void extendHorizons() {
+        LocalDateTime horizon = LocalDateTime.now(ZoneOffset.UTC).plusWeeks(properties.getRollingHorizon().getWeeks());
+        List<Long> availabilityIds = availabilityRepository.findRollingAvailabilityIdsBehindHorizon(horizon);
+        log.info("Extending slot horizon to {} for {} availabilities", horizon, availabilityIds.size());
+
+        int materialized = 0;
+        for (Long availabilityId : availabilityIds) {
+            try {
+                materialized += availabilityService.extendRollingHorizon(availabilityId, horizon);
+            } catch (RuntimeException e) {
+                log.error("Error extending slot horizon for availability {}: {}", availabilityId, e.getMessage());
+            }
+        }
+        log.info("Materialized {} slots", materialized);
+    }
+}
@@ -0,0 +1,83 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.repository.SlotRow;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Merges slot sources that are each in search order, (startTime, key), into one timeline in that order.
+ * A heap holds the head of every source, so n slots from k sources are merged in O(n log k) without
+ * collecting or sorting them first.
+ *
+ * Overlapping availabilities can offer the same time twice; slots with the same start and end appear
+ * once. A slot that is no longer available (booked, cancelled, ...) wins over an available one, since the
+ * time is taken; otherwise the first in search order is kept.
+ */
+final class SlotTimeline {
+
+    private SlotTimeline() {
+    }
+
+    static void merge(List<Iterator<SlotRow>> sources, Consumer<SlotRow> sink) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> SearchCursor.compare(a.slot, b.slot));
+        for (Iterator<SlotRow> source : sources) {
+            Head head = new Head(source);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        // Slots starting together are adjacent, but one with the same end may follow one with another end
+        List<SlotRow> sameStart = new ArrayList<>();
+        LocalDateTime start = null;
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            SlotRow slot = head.slot;
+            if (head.advance()) {
+                heads.add(head);
+            }
+            if (!slot.startTime().equals(start)) {
+                sameStart.forEach(sink);
+                sameStart.clear();
+                start = slot.startTime();
+            }
+            keep(sameStart, slot);
+        }
+        sameStart.forEach(sink);
+    }
+
+    private static void keep(List<SlotRow> sameStart, SlotRow slot) {
+        for (int i = 0; i < sameStart.size(); i++) {
+            SlotRow kept = sameStart.get(i);
+            if (kept.endTime().equals(slot.endTime())) {
+                if (kept.status() == AppointmentSlot.SlotStatus.AVAILABLE
+                        && slot.status() != AppointmentSlot.SlotStatus.AVAILABLE) {
+                    sameStart.set(i, slot);
+                }
+                return;
+            }
+        }
+        sameStart.add(slot);
+    }
+
+    private static final class Head {
+        final Iterator<SlotRow> slots;
+        SlotRow slot;
+
+        Head(Iterator<SlotRow> slots) {
+            this.slots = slots;
+        }
+
+        boolean advance() {
+            slot = slots.hasNext() ? slots.next() : null;
+            return slot != null;
+        }
+    }
+}
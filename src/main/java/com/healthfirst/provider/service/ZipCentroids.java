@@ -0,0 +1,82 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline geocoder: the centroid of each ZIP code, read once from the bundled CSV
+ * ({@code availability.geo.zip-centroids}) of {@code zip,latitude,longitude} lines.
+ */
+@Component
+@Slf4j
+public class ZipCentroids {
+
+    // The Census ZCTA gazetteer has about 33,800 entries; fewer means a partial table
+    private static final int FULL_TABLE_SIZE = 30_000;
+
+    private final Map<String, GeoPoint> centroids;
+
+    @Autowired
+    public ZipCentroids(ResourceLoader resourceLoader, AvailabilityProperties properties) {
+        this(resourceLoader.getResource(properties.getGeo().getZipCentroids()));
+    }
+
+    ZipCentroids(Resource resource) {
+        this.centroids = load(resource);
+        if (centroids.size() < FULL_TABLE_SIZE) {
+            log.warn("Loaded only {} zip centroids from {}; providers in other zips are left out of radius searches. "
+                    + "Point availability.geo.zip-centroids at the full Census ZCTA gazetteer.",
+                    centroids.size(), resource.getDescription());
+        } else {
+            log.info("Loaded {} zip centroids from {}", centroids.size(), resource.getDescription());
+        }
+    }
+
+    /**
+     * Centroid of the zip code, which may carry a ZIP+4 suffix, or null when unknown.
+     */
+    public GeoPoint find(String zip) {
+        if (zip == null) {
+            return null;
+        }
+        String trimmed = zip.trim();
+        return centroids.get(trimmed.length() > 5 ? trimmed.substring(0, 5) : trimmed);
+    }
+
+    public int size() {
+        return centroids.size();
+    }
+
+    private static Map<String, GeoPoint> load(Resource resource) {
+        Map<String, GeoPoint> centroids = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    throw new IllegalStateException("Invalid zip centroid line: " + line);
+                }
+                centroids.put(fields[0].trim(),
+                        new GeoPoint(Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read zip centroids from " + resource.getDescription(), e);
+        }
+        return centroids;
+    }
+}
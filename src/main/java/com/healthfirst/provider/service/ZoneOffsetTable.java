@@ -0,0 +1,91 @@
+package com.healthfirst.provider.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed UTC offset transitions of a time zone between 1970 and 2100, cached per {@link ZoneId}.
+ * Conversions between UTC and local epoch seconds are a binary search over primitive arrays, so
+ * recurrence expansion does not consult {@link ZoneRules} for every occurrence. Outside the table
+ * range the first or last known offset applies.
+ */
+public final class ZoneOffsetTable {
+
+    private static final long TABLE_START = LocalDateTime.of(1970, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long TABLE_END = LocalDateTime.of(2100, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    private static final Map<ZoneId, ZoneOffsetTable> TABLES = new ConcurrentHashMap<>();
+
+    // Epoch second of each transition
+    private final long[] transitions;
+    // Local epoch second from which the offset after each transition applies to local times
+    private final long[] localThresholds;
+    // offsets[i] is in effect before transition i; offsets[transitions.length] after the last one
+    private final int[] offsets;
+
+    private ZoneOffsetTable(long[] transitions, long[] localThresholds, int[] offsets) {
+        this.transitions = transitions;
+        this.localThresholds = localThresholds;
+        this.offsets = offsets;
+    }
+
+    public static ZoneOffsetTable of(ZoneId zone) {
+        return TABLES.computeIfAbsent(zone, ZoneOffsetTable::build);
+    }
+
+    private static ZoneOffsetTable build(ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        List<ZoneOffsetTransition> zoneTransitions = new ArrayList<>();
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(TABLE_START));
+        while (transition != null && transition.toEpochSecond() < TABLE_END) {
+            zoneTransitions.add(transition);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+
+        int count = zoneTransitions.size();
+        long[] transitions = new long[count];
+        long[] localThresholds = new long[count];
+        int[] offsets = new int[count + 1];
+        offsets[0] = rules.getOffset(Instant.ofEpochSecond(TABLE_START)).getTotalSeconds();
+        for (int i = 0; i < count; i++) {
+            ZoneOffsetTransition zoneTransition = zoneTransitions.get(i);
+            int before = zoneTransition.getOffsetBefore().getTotalSeconds();
+            int after = zoneTransition.getOffsetAfter().getTotalSeconds();
+            transitions[i] = zoneTransition.toEpochSecond();
+            // Local times in a gap or an overlap still resolve with the offset before the transition
+            localThresholds[i] = transitions[i] + Math.max(before, after);
+            offsets[i + 1] = after;
+        }
+        return new ZoneOffsetTable(transitions, localThresholds, offsets);
+    }
+
+    /**
+     * Converts a UTC epoch second to the local epoch second of this zone.
+     */
+    public long toLocal(long epochSecond) {
+        return epochSecond + offsets[countNotAfter(transitions, epochSecond)];
+    }
+
+    /**
+     * Converts a local epoch second of this zone to UTC with the rules of ZonedDateTime.ofLocal:
+     * a local time in a gap is moved forward by the length of the gap, and an ambiguous local time
+     * takes the earlier offset.
+     */
+    public long toUtc(long localEpochSecond) {
+        return localEpochSecond - offsets[countNotAfter(localThresholds, localEpochSecond)];
+    }
+
+    private static int countNotAfter(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
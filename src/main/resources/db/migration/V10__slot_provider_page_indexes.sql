@@ -0,0 +1,10 @@
+-- Slot pages of one provider in (start_time, id) order for GET /provider/{providerId}/slots
+-- (findSlotsPageByProviderId). With a status filter the page is one range of
+-- (provider_id, status, start_time, id); without one, id is appended to the provider range index so the
+-- keyset order is read straight off it instead of sorting slots that start together.
+CREATE INDEX idx_appointment_slots_provider_status_start
+    ON appointment_slots (provider_id, status, start_time, id);
+
+DROP INDEX idx_appointment_slots_provider_start;
+CREATE INDEX idx_appointment_slots_provider_start
+    ON appointment_slots (provider_id, start_time, id);
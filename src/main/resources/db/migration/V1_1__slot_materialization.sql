@@ -0,0 +1,11 @@
+-- Slot materialization per availability: EAGER persists every slot, VIRTUAL computes unbooked slots on
+-- read, ROLLING persists up to materialized_until. Availabilities created before had every slot persisted.
+ALTER TABLE provider_availability ADD COLUMN IF NOT EXISTS slot_materialization varchar(255);
+ALTER TABLE provider_availability ADD COLUMN IF NOT EXISTS materialized_until timestamp(6);
+
+UPDATE provider_availability
+SET slot_materialization = 'EAGER'
+WHERE slot_materialization IS NULL;
+
+-- Grid position of a materialized virtual slot, kept even if the slot is later moved
+ALTER TABLE appointment_slots ADD COLUMN IF NOT EXISTS original_start_time timestamp(6);
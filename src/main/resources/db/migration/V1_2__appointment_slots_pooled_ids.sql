@@ -0,0 +1,7 @@
+-- Slot ids move from IDENTITY to a pooled sequence so Hibernate can batch inserts. The increment must
+-- equal AppointmentSlot.ID_ALLOCATION_SIZE. Hibernate's pooled optimizer hands out the block of 50 ids
+-- ending at each value it draws, so the sequence starts a full block past the highest existing id.
+CREATE SEQUENCE IF NOT EXISTS appointment_slots_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('appointment_slots_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM appointment_slots));
+
+ALTER TABLE appointment_slots ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,3 @@
+-- Slot length in minutes, kept in step with start and end by AppointmentSlot so duration filters compare
+-- a column instead of computing end_time - start_time per row. V2 fills it in for existing slots.
+ALTER TABLE appointment_slots ADD COLUMN IF NOT EXISTS duration_minutes integer;
@@ -0,0 +1,17 @@
+-- Weekly recurrence days move from the provider_availability_recurrence_days join table into a 7-bit mask
+-- on the availability, as written by DayOfWeekSetConverter: bit 0 is Monday, bit 6 is Sunday.
+ALTER TABLE provider_availability ADD COLUMN IF NOT EXISTS recurrence_days smallint;
+
+DO $$
+BEGIN
+    IF to_regclass('provider_availability_recurrence_days') IS NOT NULL THEN
+        UPDATE provider_availability pa
+        SET recurrence_days = (
+            SELECT COALESCE(bit_or(1 << (CASE d.day_of_week
+                WHEN 'MONDAY' THEN 0 WHEN 'TUESDAY' THEN 1 WHEN 'WEDNESDAY' THEN 2 WHEN 'THURSDAY' THEN 3
+                WHEN 'FRIDAY' THEN 4 WHEN 'SATURDAY' THEN 5 ELSE 6 END)), 0)
+            FROM provider_availability_recurrence_days d
+            WHERE d.availability_id = pa.id);
+        DROP TABLE provider_availability_recurrence_days;
+    END IF;
+END $$;
@@ -0,0 +1,111 @@
+-- Schema as previously created by hibernate.ddl-auto=update from the entities before any of the later
+-- migrations: IDENTITY slot ids and recurrence days in a join table. Existing databases are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and only receive the migrations that follow, so every
+-- later column, sequence and data conversion is its own migration.
+
+CREATE TABLE providers (
+    id                  uuid         NOT NULL,
+    first_name          varchar(50)  NOT NULL,
+    last_name           varchar(50)  NOT NULL,
+    email               varchar(255) NOT NULL,
+    phone_number        varchar(255) NOT NULL,
+    password_hash       varchar(255) NOT NULL,
+    specialization      varchar(100) NOT NULL,
+    license_number      varchar(255) NOT NULL,
+    years_of_experience integer      NOT NULL,
+    verification_status varchar(255) NOT NULL,
+    role                varchar(255) NOT NULL,
+    is_active           boolean      NOT NULL,
+    street              varchar(255) NOT NULL,
+    city                varchar(255) NOT NULL,
+    state               varchar(255) NOT NULL,
+    zip                 varchar(255) NOT NULL,
+    created_at          timestamp(6),
+    updated_at          timestamp(6),
+    CONSTRAINT providers_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_providers_email UNIQUE (email),
+    CONSTRAINT uk_providers_phone_number UNIQUE (phone_number),
+    CONSTRAINT uk_providers_license_number UNIQUE (license_number)
+);
+
+CREATE TABLE patients (
+    id                             uuid         NOT NULL,
+    first_name                     varchar(50)  NOT NULL,
+    last_name                      varchar(50)  NOT NULL,
+    email                          varchar(100) NOT NULL,
+    phone_number                   varchar(20)  NOT NULL,
+    password_hash                  varchar(255) NOT NULL,
+    date_of_birth                  date         NOT NULL,
+    gender                         varchar(20)  NOT NULL,
+    street                         varchar(100) NOT NULL,
+    city                           varchar(50)  NOT NULL,
+    state                          varchar(50)  NOT NULL,
+    zip                            varchar(20)  NOT NULL,
+    emergency_contact_name         varchar(50),
+    emergency_contact_phone        varchar(20),
+    emergency_contact_relationship varchar(30),
+    insurance_provider             varchar(50),
+    insurance_policy_number        varchar(50),
+    email_verified                 boolean      NOT NULL,
+    phone_verified                 boolean      NOT NULL,
+    is_active                      boolean      NOT NULL,
+    created_at                     timestamp(6),
+    updated_at                     timestamp(6),
+    CONSTRAINT patients_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_patients_email UNIQUE (email),
+    CONSTRAINT uk_patients_phone_number UNIQUE (phone_number)
+);
+
+CREATE TABLE patient_medical_history (
+    patient_id      uuid NOT NULL,
+    medical_history varchar(255),
+    CONSTRAINT fk_patient_medical_history_patient FOREIGN KEY (patient_id) REFERENCES patients (id)
+);
+
+CREATE TABLE provider_availability (
+    id                    bigint GENERATED BY DEFAULT AS IDENTITY,
+    provider_id           bigint        NOT NULL,
+    start_time            timestamp(6)  NOT NULL,
+    end_time              timestamp(6)  NOT NULL,
+    timezone              varchar(255)  NOT NULL,
+    recurrence_type       varchar(255),
+    recurrence_end_date   timestamp(6),
+    slot_duration_minutes integer       NOT NULL,
+    price                 numeric(38, 2),
+    currency              varchar(3),
+    location              varchar(255),
+    appointment_type      varchar(255),
+    special_requirements  text,
+    status                varchar(255)  NOT NULL,
+    notes                 text,
+    created_at            timestamp(6)  NOT NULL,
+    updated_at            timestamp(6),
+    CONSTRAINT provider_availability_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE provider_availability_recurrence_days (
+    availability_id bigint NOT NULL,
+    day_of_week     varchar(255),
+    CONSTRAINT fk_recurrence_days_availability FOREIGN KEY (availability_id) REFERENCES provider_availability (id)
+);
+
+CREATE TABLE appointment_slots (
+    id                       bigint GENERATED BY DEFAULT AS IDENTITY,
+    provider_availability_id bigint        NOT NULL,
+    provider_id              bigint        NOT NULL,
+    start_time               timestamp(6)  NOT NULL,
+    end_time                 timestamp(6)  NOT NULL,
+    timezone                 varchar(255)  NOT NULL,
+    status                   varchar(255)  NOT NULL,
+    price                    numeric(38, 2),
+    currency                 varchar(3),
+    location                 varchar(255),
+    appointment_type         varchar(255),
+    special_requirements     text,
+    patient_id               bigint,
+    booking_notes            text,
+    created_at               timestamp(6)  NOT NULL,
+    updated_at               timestamp(6),
+    CONSTRAINT appointment_slots_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_appointment_slots_availability FOREIGN KEY (provider_availability_id) REFERENCES provider_availability (id)
+);
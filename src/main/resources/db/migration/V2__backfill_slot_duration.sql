@@ -0,0 +1,4 @@
+-- Slots written before duration_minutes existed; new slots get it from AppointmentSlot on save
+UPDATE appointment_slots
+SET duration_minutes = EXTRACT(EPOCH FROM end_time - start_time) / 60
+WHERE duration_minutes IS NULL;
@@ -0,0 +1,32 @@
+-- Indexes for the repository queries on the read path. Each comment names the queries an index serves.
+
+-- Slot search (AppointmentSlotSpecifications): status = 'AVAILABLE' is rendered as a literal, so the
+-- partial index matches; (start_time, id) is the keyset order, so a page is read straight off the index
+-- and stops after LIMIT rows.
+CREATE INDEX idx_appointment_slots_available_start
+    ON appointment_slots (start_time, id)
+    WHERE status = 'AVAILABLE';
+
+-- Provider-scoped ranges: search with providerId, findAvailableSlotsByProviderAndDateRange,
+-- findBookedSlotsByProviderAndDateRange
+CREATE INDEX idx_appointment_slots_provider_start
+    ON appointment_slots (provider_id, start_time);
+
+-- Per-availability reads: findByProviderAvailabilityId, countBookedSlotsByAvailabilityId; also keeps
+-- deletes of an availability from scanning the slot table for its foreign key
+CREATE INDEX idx_appointment_slots_availability_status
+    ON appointment_slots (provider_availability_id, status);
+
+-- Persisted exceptions of VIRTUAL availabilities by grid position: findExceptionsByAvailabilityIdsAndDateRange,
+-- existsByAvailabilityIdAndOccurrenceStartTime
+CREATE INDEX idx_appointment_slots_availability_occurrence
+    ON appointment_slots (provider_availability_id, (COALESCE(original_start_time, start_time)));
+
+-- findByProviderIdAndStatus, existsOverlappingAvailability, findByProviderIdAndStatusAndDateRange
+CREATE INDEX idx_provider_availability_provider_status
+    ON provider_availability (provider_id, status);
+
+-- Nightly horizon extension: findRollingAvailabilityIdsBehindHorizon
+CREATE INDEX idx_provider_availability_rolling
+    ON provider_availability (materialized_until)
+    WHERE status = 'ACTIVE' AND slot_materialization = 'ROLLING';
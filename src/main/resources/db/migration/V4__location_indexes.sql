@@ -0,0 +1,11 @@
+-- Location filters are resolved by LocationIndex to exact stored values, so the queries compare with
+-- location IN (...) and can use B-tree indexes instead of scanning with LIKE '%x%'.
+
+-- Slot search with a location filter; also lets findDistinctAvailableSlotLocations read the index only
+CREATE INDEX idx_appointment_slots_available_location
+    ON appointment_slots (location, start_time)
+    WHERE status = 'AVAILABLE';
+
+-- findByLocationIn, findDistinctLocations
+CREATE INDEX idx_provider_availability_location
+    ON provider_availability (location);
@@ -0,0 +1,12 @@
+-- Clinic coordinates for distance search, filled from the zip centroid table when a provider registers.
+-- Existing providers keep NULL and are placed at their zip centroid by ProviderGeoIndex.
+ALTER TABLE providers ADD COLUMN latitude double precision;
+ALTER TABLE providers ADD COLUMN longitude double precision;
+
+-- Numeric provider key: availabilities and slots store it as provider_id, so search results can be
+-- traced back to the provider (and its clinic) they belong to. Existing rows are numbered on ALTER.
+CREATE SEQUENCE providers_provider_number_seq;
+ALTER TABLE providers
+    ADD COLUMN provider_number bigint NOT NULL DEFAULT nextval('providers_provider_number_seq');
+ALTER SEQUENCE providers_provider_number_seq OWNED BY providers.provider_number;
+ALTER TABLE providers ADD CONSTRAINT uk_providers_provider_number UNIQUE (provider_number);
@@ -0,0 +1,82 @@
+-- Slot counts per provider and local date, read by the month calendar. The date is the slot's start in
+-- its own timezone, which is what the provider's calendar shows. Rows are kept current by the triggers
+-- below, in the transaction that changes the slots, so every write path (JPA batches, the INSERT ... SELECT
+-- slot generation, deletes) is covered. Computed slots of VIRTUAL availabilities have no rows here; the
+-- calendar adds them when it is read.
+CREATE TABLE provider_daily_availability (
+    provider_id     bigint  NOT NULL,
+    local_date      date    NOT NULL,
+    available_count integer NOT NULL,
+    booked_count    integer NOT NULL,
+    cancelled_count integer NOT NULL,
+    CONSTRAINT provider_daily_availability_pkey PRIMARY KEY (provider_id, local_date)
+);
+
+-- Adds the counts of the added slots and subtracts those of the removed ones, one upsert per touched day.
+-- Days whose counts do not change (e.g. a booking note edit) are not written.
+CREATE FUNCTION add_daily_availability(added appointment_slots[], removed appointment_slots[]) RETURNS void
+    LANGUAGE sql AS $$
+    INSERT INTO provider_daily_availability AS d
+        (provider_id, local_date, available_count, booked_count, cancelled_count)
+    SELECT provider_id,
+           (start_time AT TIME ZONE 'UTC' AT TIME ZONE timezone)::date,
+           sum(sign * (status = 'AVAILABLE')::int),
+           sum(sign * (status = 'BOOKED')::int),
+           sum(sign * (status = 'CANCELLED')::int)
+    FROM (
+        SELECT 1 AS sign, provider_id, start_time, timezone, status FROM unnest(added)
+        UNION ALL
+        SELECT -1, provider_id, start_time, timezone, status FROM unnest(removed)
+    ) delta
+    GROUP BY 1, 2
+    HAVING sum(sign * (status = 'AVAILABLE')::int) <> 0
+        OR sum(sign * (status = 'BOOKED')::int) <> 0
+        OR sum(sign * (status = 'CANCELLED')::int) <> 0
+    ON CONFLICT (provider_id, local_date) DO UPDATE SET
+        available_count = d.available_count + EXCLUDED.available_count,
+        booked_count    = d.booked_count + EXCLUDED.booked_count,
+        cancelled_count = d.cancelled_count + EXCLUDED.cancelled_count;
+$$;
+
+-- Statement-level with transition tables, so an INSERT ... SELECT of a whole series costs one upsert per
+-- day rather than one per slot. Transition tables exist only for the events that have them, hence one
+-- trigger per event.
+CREATE FUNCTION apply_daily_availability_delta() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM add_daily_availability(ARRAY(SELECT s FROM new_slots s), '{}');
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM add_daily_availability('{}', ARRAY(SELECT s FROM old_slots s));
+    ELSE
+        PERFORM add_daily_availability(ARRAY(SELECT s FROM new_slots s), ARRAY(SELECT s FROM old_slots s));
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_appointment_slots_daily_insert
+    AFTER INSERT ON appointment_slots
+    REFERENCING NEW TABLE AS new_slots
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_daily_availability_delta();
+
+CREATE TRIGGER trg_appointment_slots_daily_update
+    AFTER UPDATE ON appointment_slots
+    REFERENCING OLD TABLE AS old_slots NEW TABLE AS new_slots
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_daily_availability_delta();
+
+CREATE TRIGGER trg_appointment_slots_daily_delete
+    AFTER DELETE ON appointment_slots
+    REFERENCING OLD TABLE AS old_slots
+    FOR EACH STATEMENT EXECUTE FUNCTION apply_daily_availability_delta();
+
+-- Counts of the slots that exist before the triggers
+INSERT INTO provider_daily_availability (provider_id, local_date, available_count, booked_count, cancelled_count)
+SELECT provider_id,
+       (start_time AT TIME ZONE 'UTC' AT TIME ZONE timezone)::date,
+       count(*) FILTER (WHERE status = 'AVAILABLE'),
+       count(*) FILTER (WHERE status = 'BOOKED'),
+       count(*) FILTER (WHERE status = 'CANCELLED')
+FROM appointment_slots
+GROUP BY 1, 2
+HAVING count(*) FILTER (WHERE status IN ('AVAILABLE', 'BOOKED', 'CANCELLED')) > 0;
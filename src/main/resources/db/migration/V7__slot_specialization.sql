@@ -0,0 +1,79 @@
+-- Provider specialization copied onto availabilities and slots, so slot search can filter on it from the
+-- slot table alone. Stored as the smallint code of the Specialization enum; the table below maps codes
+-- to the names providers register with and must stay in step with the enum.
+CREATE TABLE specializations (
+    code smallint     NOT NULL,
+    name varchar(100) NOT NULL,
+    CONSTRAINT specializations_pkey PRIMARY KEY (code),
+    CONSTRAINT uk_specializations_name UNIQUE (name)
+);
+
+INSERT INTO specializations (code, name) VALUES
+    (1, 'Cardiology'),
+    (2, 'Dermatology'),
+    (3, 'Pediatrics'),
+    (4, 'General Medicine'),
+    (5, 'Orthopedics'),
+    (6, 'Neurology'),
+    (7, 'Psychiatry'),
+    (8, 'Oncology'),
+    (9, 'Gynecology'),
+    (10, 'Ophthalmology');
+
+-- Rows of a transition table are anonymous records, so V6's delta function found no
+-- add_daily_availability(record[], record[]) as soon as a slot statement fired it. Casting them to the
+-- table's row type resolves the call; this must precede the backfill below, which fires the update trigger.
+CREATE OR REPLACE FUNCTION apply_daily_availability_delta() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM add_daily_availability(ARRAY(SELECT s::appointment_slots FROM new_slots s), '{}');
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM add_daily_availability('{}', ARRAY(SELECT s::appointment_slots FROM old_slots s));
+    ELSE
+        PERFORM add_daily_availability(ARRAY(SELECT s::appointment_slots FROM new_slots s),
+                                       ARRAY(SELECT s::appointment_slots FROM old_slots s));
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+ALTER TABLE provider_availability ADD COLUMN specialization_code smallint;
+ALTER TABLE appointment_slots ADD COLUMN specialization_code smallint;
+
+-- Existing rows take their provider's current specialization
+UPDATE provider_availability pa
+SET specialization_code = s.code
+FROM providers p JOIN specializations s ON s.name = p.specialization
+WHERE p.provider_number = pa.provider_id;
+
+UPDATE appointment_slots sl
+SET specialization_code = pa.specialization_code
+FROM provider_availability pa
+WHERE pa.id = sl.provider_availability_id AND pa.specialization_code IS NOT NULL;
+
+-- Slot search with a specialization filter, in keyset order like idx_appointment_slots_available_start
+CREATE INDEX idx_appointment_slots_available_specialization
+    ON appointment_slots (specialization_code, start_time, id)
+    WHERE status = 'AVAILABLE';
+
+-- The application sets the code when an availability is created and slots copy it; when a provider's
+-- specialization changes, this rewrites the copies in the same transaction, whatever made the change.
+CREATE FUNCTION copy_provider_specialization() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+DECLARE
+    new_code smallint := (SELECT code FROM specializations WHERE name = NEW.specialization);
+BEGIN
+    UPDATE provider_availability SET specialization_code = new_code
+    WHERE provider_id = NEW.provider_number AND specialization_code IS DISTINCT FROM new_code;
+    UPDATE appointment_slots SET specialization_code = new_code
+    WHERE provider_id = NEW.provider_number AND specialization_code IS DISTINCT FROM new_code;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_providers_specialization
+    AFTER UPDATE OF specialization ON providers
+    FOR EACH ROW
+    WHEN (OLD.specialization IS DISTINCT FROM NEW.specialization)
+    EXECUTE FUNCTION copy_provider_specialization();
@@ -0,0 +1,5 @@
+-- Slot pages of one availability in (start_time, id) order, as embedded in availability responses. The
+-- existing indexes leading with provider_availability_id continue with status or the occurrence time and
+-- cannot return a window in start order.
+CREATE INDEX idx_appointment_slots_availability_start
+    ON appointment_slots (provider_availability_id, start_time, id);
@@ -0,0 +1,76 @@
+-- A version per provider that changes whenever one of its availabilities or slots does, so availability
+-- responses can carry an ETag and conditional requests can be answered from this table alone. Like the
+-- daily counters, it is written by triggers in the transaction that changes the rows, covering every
+-- write path. Versions come from one sequence, so a provider never gets back a version it had before,
+-- even if its row is removed and recreated.
+CREATE SEQUENCE provider_availability_version_seq;
+
+CREATE TABLE provider_availability_versions (
+    provider_id bigint    NOT NULL,
+    version     bigint    NOT NULL,
+    -- UTC start of the writing transaction; informational only, since an earlier-started transaction can commit later
+    updated_at  timestamp NOT NULL,
+    CONSTRAINT provider_availability_versions_pkey PRIMARY KEY (provider_id)
+);
+
+-- One upsert per provider, in provider order so concurrent statements lock the rows in the same order
+CREATE FUNCTION bump_provider_availability_versions(provider_ids bigint[]) RETURNS void
+    LANGUAGE sql AS $$
+    INSERT INTO provider_availability_versions AS v (provider_id, version, updated_at)
+    SELECT provider_id, nextval('provider_availability_version_seq'), now() AT TIME ZONE 'UTC'
+    FROM (SELECT DISTINCT provider_id FROM unnest(provider_ids) AS provider_id
+          WHERE provider_id IS NOT NULL ORDER BY provider_id) changed
+    ON CONFLICT (provider_id) DO UPDATE SET
+        version    = EXCLUDED.version,
+        updated_at = EXCLUDED.updated_at;
+$$;
+
+-- Statement-level with transition tables, so generating a whole series bumps the provider once. Both
+-- tables carry provider_id, and the transition tables have the same names on both.
+CREATE FUNCTION bump_changed_provider_versions() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM bump_provider_availability_versions(ARRAY(SELECT provider_id FROM new_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM bump_provider_availability_versions(ARRAY(SELECT provider_id FROM old_rows));
+    ELSE
+        PERFORM bump_provider_availability_versions(ARRAY(
+            SELECT provider_id FROM new_rows UNION SELECT provider_id FROM old_rows));
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_appointment_slots_version_insert
+    AFTER INSERT ON appointment_slots
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_changed_provider_versions();
+
+CREATE TRIGGER trg_appointment_slots_version_update
+    AFTER UPDATE ON appointment_slots
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_changed_provider_versions();
+
+CREATE TRIGGER trg_appointment_slots_version_delete
+    AFTER DELETE ON appointment_slots
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_changed_provider_versions();
+
+CREATE TRIGGER trg_provider_availability_version_insert
+    AFTER INSERT ON provider_availability
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_changed_provider_versions();
+
+CREATE TRIGGER trg_provider_availability_version_update
+    AFTER UPDATE ON provider_availability
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_changed_provider_versions();
+
+CREATE TRIGGER trg_provider_availability_version_delete
+    AFTER DELETE ON provider_availability
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_changed_provider_versions();
+
+-- Versions of the providers that have availability before the triggers
+SELECT bump_provider_availability_versions(ARRAY(SELECT DISTINCT provider_id FROM provider_availability));
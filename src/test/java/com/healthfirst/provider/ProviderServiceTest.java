@@ -2,10 +2,12 @@ package com.healthfirst.provider;
 
 import com.healthfirst.provider.dto.ProviderRegistrationRequest;
 import com.healthfirst.provider.dto.ProviderLoginRequest;
-import com.healthfirst.provider.entity.ClinicAddress;
 import com.healthfirst.provider.entity.Provider;
 import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.service.GeoPoint;
+import com.healthfirst.provider.service.ProviderGeoIndex;
 import com.healthfirst.provider.service.ProviderService;
+import com.healthfirst.provider.service.ZipCentroids;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +25,8 @@ public class ProviderServiceTest {
     private ProviderRepository providerRepository;
     private Validator validator;
     private BCryptPasswordEncoder passwordEncoder;
+    private ZipCentroids zipCentroids;
+    private ProviderGeoIndex providerGeoIndex;
     private ProviderService providerService;
 
     @BeforeEach
@@ -30,7 +34,9 @@ public class ProviderServiceTest {
         providerRepository = Mockito.mock(ProviderRepository.class);
         validator = Validation.buildDefaultValidatorFactory().getValidator();
         passwordEncoder = new BCryptPasswordEncoder(12);
-        providerService = new ProviderService(providerRepository, validator, passwordEncoder);
+        zipCentroids = Mockito.mock(ZipCentroids.class);
+        providerGeoIndex = Mockito.mock(ProviderGeoIndex.class);
+        providerService = new ProviderService(providerRepository, validator, passwordEncoder, zipCentroids, providerGeoIndex);
     }
 
     @Test
@@ -49,12 +55,38 @@ public class ProviderServiceTest {
         when(providerRepository.existsByEmail(anyString())).thenReturn(false);
         when(providerRepository.existsByPhoneNumber(anyString())).thenReturn(false);
         when(providerRepository.existsByLicenseNumber(anyString())).thenReturn(false);
-        when(providerRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+        when(providerRepository.saveAndFlush(any())).thenAnswer(i -> i.getArgument(0));
         var resp = providerService.registerProvider(req);
         assertEquals("John", resp.getFirstName());
         assertEquals("Doe", resp.getLastName());
     }
 
+    @Test
+    void testClinicPlacedAtZipCentroid() {
+        ProviderRegistrationRequest req = getValidRequest();
+        when(providerRepository.existsByEmail(anyString())).thenReturn(false);
+        when(providerRepository.existsByPhoneNumber(anyString())).thenReturn(false);
+        when(providerRepository.existsByLicenseNumber(anyString())).thenReturn(false);
+        when(zipCentroids.find("12345")).thenReturn(new GeoPoint(42.81, -73.95));
+        when(providerRepository.saveAndFlush(any())).thenAnswer(i -> i.getArgument(0));
+        var resp = providerService.registerProvider(req);
+        assertEquals(42.81, resp.getClinicAddress().getLatitude());
+        assertEquals(-73.95, resp.getClinicAddress().getLongitude());
+        verify(providerGeoIndex).register(any(), argThat(address -> address.getLatitude() == 42.81));
+    }
+
+    @Test
+    void testUnknownZipLeavesClinicUnplaced() {
+        ProviderRegistrationRequest req = getValidRequest();
+        when(providerRepository.existsByEmail(anyString())).thenReturn(false);
+        when(providerRepository.existsByPhoneNumber(anyString())).thenReturn(false);
+        when(providerRepository.existsByLicenseNumber(anyString())).thenReturn(false);
+        when(providerRepository.saveAndFlush(any())).thenAnswer(i -> i.getArgument(0));
+        var resp = providerService.registerProvider(req);
+        assertNull(resp.getClinicAddress().getLatitude());
+        assertNull(resp.getClinicAddress().getLongitude());
+    }
+
     @Test
     void testDuplicateEmail() {
         ProviderRegistrationRequest req = getValidRequest();
@@ -69,7 +101,7 @@ public class ProviderServiceTest {
         when(providerRepository.existsByEmail(anyString())).thenReturn(false);
         when(providerRepository.existsByPhoneNumber(anyString())).thenReturn(false);
         when(providerRepository.existsByLicenseNumber(anyString())).thenReturn(false);
-        when(providerRepository.save(any())).thenAnswer(i -> {
+        when(providerRepository.saveAndFlush(any())).thenAnswer(i -> {
             Provider p = (Provider) i.getArgument(0);
             assertNotEquals("StrongP@ssw0rd", p.getPasswordHash());
             assertTrue(passwordEncoder.matches("StrongP@ssw0rd", p.getPasswordHash()));
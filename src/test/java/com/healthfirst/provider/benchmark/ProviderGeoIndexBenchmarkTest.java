@@ -0,0 +1,135 @@
+package com.healthfirst.provider.benchmark;
+
+import com.healthfirst.provider.repository.ProviderLocationRow;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.service.GeoPoint;
+import com.healthfirst.provider.service.ProviderGeoIndex;
+import com.healthfirst.provider.service.ZipCentroids;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH measurement of "providers near me": {@code providers} clinics spread over the continental US,
+ * half of them in ten metro areas, and a query around midtown Manhattan for the nearest 200 within
+ * {@code radiusKm}. "grid" is {@link ProviderGeoIndex}; "scan" computes the distance to every clinic,
+ * which is what a query without a spatial index does.
+ *
+ * Run with: mvn test -Dtest=ProviderGeoIndexBenchmarkTest -Dbenchmark=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProviderGeoIndexBenchmarkTest {
+
+    private static final GeoPoint CENTER = new GeoPoint(40.7506, -73.9972);
+    private static final double[][] METROS = {
+            {40.75, -73.99}, {34.05, -118.24}, {41.88, -87.63}, {29.76, -95.37}, {33.45, -112.07},
+            {39.95, -75.17}, {29.42, -98.49}, {32.72, -117.16}, {32.78, -96.80}, {37.34, -121.89}
+    };
+
+    @Param({"100000"})
+    public int providers;
+
+    @Param({"10", "25", "100"})
+    public double radiusKm;
+
+    private ProviderGeoIndex geoIndex;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[providers];
+        longitudes = new double[providers];
+        List<ProviderLocationRow> rows = new ArrayList<>(providers);
+        for (int i = 0; i < providers; i++) {
+            if (i % 2 == 0) {
+                double[] metro = METROS[random.nextInt(METROS.length)];
+                latitudes[i] = metro[0] + random.nextGaussian() * 0.3;
+                longitudes[i] = metro[1] + random.nextGaussian() * 0.3;
+            } else {
+                latitudes[i] = 25 + random.nextDouble() * 24;
+                longitudes[i] = -124 + random.nextDouble() * 57;
+            }
+            rows.add(row((long) i, latitudes[i], longitudes[i]));
+        }
+
+        ProviderRepository providerRepository = Mockito.mock(ProviderRepository.class);
+        Mockito.when(providerRepository.findActiveProviderLocations()).thenReturn(rows);
+        geoIndex = new ProviderGeoIndex(providerRepository, Mockito.mock(ZipCentroids.class));
+        geoIndex.reload();
+    }
+
+    @Benchmark
+    public Map<Long, Double> grid() {
+        return geoIndex.findNearest(CENTER, radiusKm, 200);
+    }
+
+    @Benchmark
+    public int scan() {
+        int within = 0;
+        for (int i = 0; i < providers; i++) {
+            if (CENTER.distanceKm(latitudes[i], longitudes[i]) <= radiusKm) {
+                within++;
+            }
+        }
+        return within;
+    }
+
+    private static ProviderLocationRow row(Long providerNumber, double latitude, double longitude) {
+        return new ProviderLocationRow() {
+            @Override
+            public Long getProviderNumber() {
+                return providerNumber;
+            }
+
+            @Override
+            public String getZip() {
+                return null;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+        };
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProviderGeoIndexBenchmarkTest.class.getName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,197 @@
+package com.healthfirst.provider.benchmark;
+
+import com.healthfirst.provider.dto.AppointmentSlotResponse;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.SlotRow;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Heap allocated per request for reading every slot of one availability over 90 days (15-minute slots,
+ * about 2,900 rows) and mapping it to slot responses. "managed" loads entities in a read-write
+ * transaction, which keeps a dirty-checking snapshot of every slot and walks them again at commit;
+ * "read-only" is the same query in a read-only transaction; "row+slot" reads {@code SlotRow}s but
+ * rebuilds a transient AppointmentSlot from each before mapping it, as the read paths once did;
+ * "projection" maps the rows straight to responses, as the slot pages, search, batch and timeline
+ * endpoints do. Bytes are counted on the calling thread, so JDBC and Hibernate work is included and
+ * garbage collection does not skew the figures.
+ *
+ * Run with: mvn test -Dtest=ReadPathAllocationBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY,
+        refresh = AutoConfigureEmbeddedDatabase.RefreshMode.AFTER_CLASS)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReadPathAllocationBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void bytesAllocatedPerRead() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Long availabilityId = readWrite.execute(status -> {
+            ProviderAvailability availability = availabilityRepository.saveAndFlush(ProviderAvailability.builder()
+                    .providerId(1L)
+                    .startTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                    .endTime(LocalDateTime.of(2024, 1, 1, 17, 0))
+                    .timezone("UTC")
+                    .recurrenceType(ProviderAvailability.RecurrenceType.DAILY)
+                    .recurrenceEndDate(UNTIL)
+                    .slotDurationMinutes(15)
+                    .price(new BigDecimal("100.00"))
+                    .currency("USD")
+                    .location("Benchmark Clinic")
+                    .appointmentType("CONSULTATION")
+                    .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                    .build());
+            slotRepository.insertGeneratedSlots(availability.getId(), null, null, AppointmentSlot.ID_ALLOCATION_SIZE);
+            return availability.getId();
+        });
+
+        Supplier<Integer> entities = () -> slotRepository.findByProviderAvailabilityId(availabilityId).stream()
+                .map(ReadPathAllocationBenchmarkTest::response)
+                .collect(Collectors.toList()).size();
+        Supplier<Integer> rowsAsSlots = () -> rows(availabilityId).stream()
+                .map(ReadPathAllocationBenchmarkTest::toSlot)
+                .map(ReadPathAllocationBenchmarkTest::response)
+                .collect(Collectors.toList()).size();
+        Supplier<Integer> rows = () -> rows(availabilityId).stream()
+                .map(ReadPathAllocationBenchmarkTest::response)
+                .collect(Collectors.toList()).size();
+
+        int managed = measure("managed", () -> readWrite.execute(status -> entities.get()));
+        int readOnlyEntities = measure("read-only", () -> readOnly.execute(status -> entities.get()));
+        int slots = measure("row+slot", () -> readOnly.execute(status -> rowsAsSlots.get()));
+        int projected = measure("projection", () -> readOnly.execute(status -> rows.get()));
+
+        assertEquals(managed, readOnlyEntities);
+        assertEquals(managed, slots);
+        assertEquals(managed, projected);
+    }
+
+    private List<SlotRow> rows(Long availabilityId) {
+        return slotRepository.findSlotsPageByAvailabilityId(availabilityId, null, null, null, null, Limit.of(10_000));
+    }
+
+    private static AppointmentSlot toSlot(SlotRow row) {
+        ProviderAvailability availability = new ProviderAvailability();
+        availability.setId(row.providerAvailabilityId());
+        return AppointmentSlot.builder()
+                .id(row.id())
+                .providerAvailability(availability)
+                .providerId(row.providerId())
+                .startTime(row.startTime())
+                .endTime(row.endTime())
+                .durationMinutes(row.durationMinutes())
+                .originalStartTime(row.originalStartTime())
+                .timezone(row.timezone())
+                .status(row.status())
+                .price(row.price())
+                .currency(row.currency())
+                .location(row.location())
+                .appointmentType(row.appointmentType())
+                .specialRequirements(row.specialRequirements())
+                .specialization(row.specialization())
+                .patientId(row.patientId())
+                .bookingNotes(row.bookingNotes())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
+
+    private static AppointmentSlotResponse response(AppointmentSlot slot) {
+        return AppointmentSlotResponse.builder()
+                .id(slot.getId())
+                .providerAvailabilityId(slot.getProviderAvailability().getId())
+                .providerId(slot.getProviderId())
+                .startTime(slot.getStartTime())
+                .endTime(slot.getEndTime())
+                .timezone(slot.getTimezone())
+                .status(slot.getStatus())
+                .price(slot.getPrice())
+                .currency(slot.getCurrency())
+                .location(slot.getLocation())
+                .appointmentType(slot.getAppointmentType())
+                .specialRequirements(slot.getSpecialRequirements())
+                .patientId(slot.getPatientId())
+                .bookingNotes(slot.getBookingNotes())
+                .createdAt(slot.getCreatedAt())
+                .updatedAt(slot.getUpdatedAt())
+                .build();
+    }
+
+    private static AppointmentSlotResponse response(SlotRow slot) {
+        return AppointmentSlotResponse.builder()
+                .id(slot.id())
+                .providerAvailabilityId(slot.providerAvailabilityId())
+                .providerId(slot.providerId())
+                .startTime(slot.startTime())
+                .endTime(slot.endTime())
+                .timezone(slot.timezone())
+                .status(slot.status())
+                .price(slot.price())
+                .currency(slot.currency())
+                .location(slot.location())
+                .appointmentType(slot.appointmentType())
+                .specialRequirements(slot.specialRequirements())
+                .patientId(slot.patientId())
+                .bookingNotes(slot.bookingNotes())
+                .createdAt(slot.createdAt())
+                .updatedAt(slot.updatedAt())
+                .build();
+    }
+
+    private int measure(String path, Supplier<Integer> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int slots = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            slots = read.get();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ROUNDS; i++) {
+            read.get();
+        }
+        long perRead = (threads.getThreadAllocatedBytes(thread) - before) / ROUNDS;
+        System.out.printf("%-10s %6d slots: %8.1f KiB per read, %5d bytes per slot%n",
+                path, slots, perRead / 1024.0, perRead / Math.max(1, slots));
+        return slots;
+    }
+}
@@ -0,0 +1,107 @@
+package com.healthfirst.provider.benchmark;
+
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.service.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of occurrence lookup for a Mon/Wed/Fri weekly availability: "dayWalk" is the former
+ * SlotGenerator loop, which starts at the series start and steps one day at a time with plusDays(1);
+ * "compiled" is {@link RecurrenceRule}. Each invocation finds the occurrences of a one-week window
+ * that lies {@code weeksIntoSeries} weeks after the series start.
+ *
+ * Run with: mvn test -Dtest=RecurrenceBenchmarkTest -Dbenchmark=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecurrenceBenchmarkTest {
+
+    private static final LocalDateTime SERIES_START = LocalDateTime.of(2024, 1, 15, 14, 0);
+
+    @Param({"1", "26", "104"})
+    public int weeksIntoSeries;
+
+    private ProviderAvailability availability;
+    private RecurrenceRule rule;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+
+    @Setup
+    public void setUp() {
+        availability = ProviderAvailability.builder()
+                .startTime(SERIES_START)
+                .timezone("America/New_York")
+                .endTime(SERIES_START.plusHours(8))
+                .recurrenceType(ProviderAvailability.RecurrenceType.WEEKLY)
+                .recurrenceDays(new HashSet<>(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY)))
+                .recurrenceEndDate(SERIES_START.plusYears(3))
+                .slotDurationMinutes(30)
+                .build();
+        rule = RecurrenceRule.compile(availability);
+        windowStart = SERIES_START.plusWeeks(weeksIntoSeries);
+        windowEnd = windowStart.plusWeeks(1);
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        rule.forEachOccurrenceEpochSecond(windowStart, windowEnd, (start, end) -> blackhole.consume(start));
+    }
+
+    @Benchmark
+    public void compiledIncludingCompile(Blackhole blackhole) {
+        RecurrenceRule.compile(availability).forEachOccurrenceEpochSecond(windowStart, windowEnd,
+                (start, end) -> blackhole.consume(start));
+    }
+
+    @Benchmark
+    public void dayWalk(Blackhole blackhole) {
+        LocalDateTime current = availability.getStartTime();
+        LocalDateTime seriesEnd = availability.getRecurrenceEndDate();
+        Set<DayOfWeek> recurrenceDays = availability.getRecurrenceDays();
+        while (current.isBefore(seriesEnd) && current.isBefore(windowEnd)) {
+            if (!current.isBefore(windowStart)) {
+                blackhole.consume(current);
+            }
+            LocalDateTime next = current.plusDays(1);
+            while (!recurrenceDays.contains(next.getDayOfWeek())) {
+                next = next.plusDays(1);
+            }
+            current = next;
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecurrenceBenchmarkTest.class.getName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.healthfirst.provider.benchmark;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.service.SlotBatchWriter;
+import com.healthfirst.provider.service.SlotGenerator;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts per second for a 6-month daily availability with 15-minute slots.
+ * "row-at-a-time" flushes after every slot, which is the single INSERT round-trip per slot
+ * that the former IDENTITY id forced; "batched" is the {@link SlotBatchWriter} path.
+ *
+ * Run with: mvn test -Dtest=SlotInsertBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({SlotGenerator.class, SlotBatchWriter.class, AvailabilityProperties.class})
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "zonky.test.database.postgres.client.properties.reWriteBatchedInserts=true"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SlotInsertBenchmarkTest {
+
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private SlotGenerator slotGenerator;
+
+    @Autowired
+    private SlotBatchWriter slotBatchWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void insertsPerSecond() {
+        ProviderAvailability availability = availabilityRepository.saveAndFlush(ProviderAvailability.builder()
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endTime(LocalDateTime.of(2024, 1, 1, 17, 0))
+                .timezone("UTC")
+                .recurrenceType(ProviderAvailability.RecurrenceType.DAILY)
+                .recurrenceEndDate(LocalDateTime.of(2024, 7, 1, 0, 0))
+                .slotDurationMinutes(15)
+                .price(new BigDecimal("100.00"))
+                .currency("USD")
+                .location("Benchmark Clinic")
+                .appointmentType("CONSULTATION")
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build());
+        int expected = slotGenerator.generate(availability).size();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<AppointmentSlot> slots = slotGenerator.generate(availability);
+            for (AppointmentSlot slot : slots) {
+                entityManager.persist(slot);
+                entityManager.flush();
+                entityManager.detach(slot);
+            }
+            report("row-at-a-time", slots.size(), System.nanoTime() - start);
+
+            start = System.nanoTime();
+            int written = slotBatchWriter.write(sink -> slotGenerator.forEachSlot(availability, sink));
+            report("batched", written, System.nanoTime() - start);
+            assertEquals(expected, written);
+        }
+    }
+
+    private void report(String path, int slots, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-14s %6d slots in %7.1f ms -> %8.0f inserts/s%n",
+                path, slots, seconds * 1000, slots / seconds);
+    }
+}
@@ -3,12 +3,22 @@ package com.healthfirst.provider.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthfirst.provider.config.TestSecurityConfig;
 import com.healthfirst.provider.dto.AppointmentSlotResponse;
+import com.healthfirst.provider.dto.AvailabilityJobResponse;
 import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.ProviderAvailabilityBatchResponse;
 import com.healthfirst.provider.dto.ProviderAvailabilityRequest;
 import com.healthfirst.provider.dto.ProviderAvailabilityResponse;
+import com.healthfirst.provider.dto.ProviderCalendarResponse;
+import com.healthfirst.provider.dto.ProviderSlotsResponse;
+import com.healthfirst.provider.dto.ProviderTimelineResponse;
+import com.healthfirst.provider.dto.SearchCacheStatsResponse;
 import com.healthfirst.provider.entity.AppointmentSlot;
 import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.ProviderAvailabilityVersion;
+import com.healthfirst.provider.service.AvailabilityJobService;
 import com.healthfirst.provider.service.ProviderAvailabilityService;
+import com.healthfirst.provider.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,13 +27,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,12 +56,19 @@ class ProviderAvailabilityControllerTest {
     @MockBean
     private ProviderAvailabilityService availabilityService;
 
+    @MockBean
+    private AvailabilityJobService availabilityJobService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private ProviderAvailabilityRequest validRequest;
     private ProviderAvailabilityResponse mockResponse;
     private AppointmentSlotResponse mockSlotResponse;
+    private AvailabilitySearchResponse mockSearchResponse;
 
     @BeforeEach
     void setUp() {
@@ -90,6 +114,19 @@ class ProviderAvailabilityControllerTest {
                 .location("New York Medical Center")
                 .appointmentType("CONSULTATION")
                 .build();
+
+        mockSearchResponse = AvailabilitySearchResponse.builder()
+                .availableSlots(List.of(AvailabilitySearchResponse.AvailableSlot.builder()
+                        .slotId(1L)
+                        .providerId(1L)
+                        .slotStartTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                        .slotEndTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                        .durationMinutes(30)
+                        .build()))
+                .pageSize(1)
+                .hasMore(true)
+                .nextCursor("MTcwNTMyODAwMDox")
+                .build();
     }
 
     @Test
@@ -130,10 +167,79 @@ class ProviderAvailabilityControllerTest {
         verify(availabilityService).createAvailability(any(ProviderAvailabilityRequest.class));
     }
 
+    @Test
+    void createAvailabilityAsync_Accepted() throws Exception {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(availabilityJobService.submit(any(ProviderAvailabilityRequest.class)))
+                .thenReturn(AvailabilityJobResponse.builder()
+                        .jobId(jobId)
+                        .providerId(1L)
+                        .status(AvailabilityJobResponse.JobStatus.QUEUED)
+                        .build());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/provider/availability")
+                        .param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/provider/availability/jobs/" + jobId))
+                .andExpect(jsonPath("$.jobId").value(jobId.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        verify(availabilityService, never()).createAvailability(any());
+    }
+
+    @Test
+    void createAvailabilityAsync_QueueFull_ServiceUnavailable() throws Exception {
+        // Arrange
+        when(availabilityJobService.submit(any(ProviderAvailabilityRequest.class)))
+                .thenThrow(new RejectedExecutionException("Availability job queue is full"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/provider/availability")
+                        .param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getAvailabilityJob_Success() throws Exception {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(availabilityJobService.getJob(jobId))
+                .thenReturn(AvailabilityJobResponse.builder()
+                        .jobId(jobId)
+                        .providerId(1L)
+                        .status(AvailabilityJobResponse.JobStatus.RUNNING)
+                        .slotsGenerated(500)
+                        .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/availability/jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.slotsGenerated").value(500));
+    }
+
+    @Test
+    void getAvailabilityJob_NotFound() throws Exception {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(availabilityJobService.getJob(jobId))
+                .thenThrow(new RuntimeException("Availability job not found: " + jobId));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/availability/jobs/" + jobId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getProviderAvailability_Success() throws Exception {
         // Arrange
-        when(availabilityService.getProviderAvailability(1L))
+        when(availabilityService.getProviderAvailability(1L, null, null, null, null))
                 .thenReturn(mockResponse);
 
         // Act & Assert
@@ -143,20 +249,123 @@ class ProviderAvailabilityControllerTest {
                 .andExpect(jsonPath("$.providerId").value(1))
                 .andExpect(jsonPath("$.totalSlots").value(16));
 
-        verify(availabilityService).getProviderAvailability(1L);
+        verify(availabilityService).getProviderAvailability(1L, null, null, null, null);
+    }
+
+    @Test
+    void getProviderAvailability_CarriesVersionAsETag() throws Exception {
+        // Arrange
+        when(availabilityService.getAvailabilityVersion(1L)).thenReturn(Optional.of(
+                new ProviderAvailabilityVersion(1L, 42L, LocalDateTime.of(2024, 1, 15, 14, 0))));
+        when(availabilityService.getProviderAvailability(1L, null, null, null, null))
+                .thenReturn(mockResponse);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/availability"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(header().doesNotExist("Last-Modified"))
+                .andExpect(jsonPath("$.totalSlots").value(16));
+    }
+
+    @Test
+    void getProviderAvailability_IfModifiedSinceAlone_FullResponse() throws Exception {
+        // Arrange
+        when(availabilityService.getAvailabilityVersion(1L)).thenReturn(Optional.of(
+                new ProviderAvailabilityVersion(1L, 42L, LocalDateTime.of(2024, 1, 15, 14, 0))));
+        when(availabilityService.getProviderAvailability(1L, null, null, null, null))
+                .thenReturn(mockResponse);
+
+        // Act & Assert - only the ETag validates
+        mockMvc.perform(get("/api/v1/provider/1/availability")
+                        .header("If-Modified-Since", "Tue, 16 Jan 2024 09:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSlots").value(16));
+    }
+
+    @Test
+    void getProviderAvailability_UnchangedVersion_NotModified() throws Exception {
+        // Arrange
+        when(availabilityService.getAvailabilityVersion(1L)).thenReturn(Optional.of(
+                new ProviderAvailabilityVersion(1L, 42L, LocalDateTime.of(2024, 1, 15, 14, 0))));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/availability").header("If-None-Match", "\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(content().string(""));
+
+        verify(availabilityService, never()).getProviderAvailability(anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getProviderAvailability_ChangedVersion_FullResponse() throws Exception {
+        // Arrange
+        when(availabilityService.getAvailabilityVersion(1L)).thenReturn(Optional.of(
+                new ProviderAvailabilityVersion(1L, 43L, LocalDateTime.of(2024, 1, 15, 14, 5))));
+        when(availabilityService.getProviderAvailability(1L, null, null, null, null))
+                .thenReturn(mockResponse);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/availability").header("If-None-Match", "\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"43\""));
+    }
+
+    @Test
+    void getProviderAvailability_WindowAndPage() throws Exception {
+        // Arrange
+        mockResponse.setAppointmentSlots(List.of(mockSlotResponse));
+        mockResponse.setHasMoreSlots(true);
+        mockResponse.setNextSlotCursor("next");
+        when(availabilityService.getProviderAvailability(1L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 21), 1, "abc"))
+                .thenReturn(mockResponse);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/availability")
+                        .param("startDate", "2024-01-15")
+                        .param("endDate", "2024-01-21")
+                        .param("pageSize", "1")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSlots").value(16))
+                .andExpect(jsonPath("$.appointmentSlots[0].id").value(1))
+                .andExpect(jsonPath("$.hasMoreSlots").value(true))
+                .andExpect(jsonPath("$.nextSlotCursor").value("next"));
+    }
+
+    @Test
+    void getProviderAvailability_InvalidCursor() throws Exception {
+        // Arrange
+        when(availabilityService.getProviderAvailability(1L, null, null, null, "bad"))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/availability").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProviderAvailability_InvalidPageSize() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/availability")
+                        .param("pageSize", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityService, never()).getProviderAvailability(any(), any(), any(), any(), any());
     }
 
     @Test
     void getProviderAvailability_NotFound() throws Exception {
         // Arrange
-        when(availabilityService.getProviderAvailability(1L))
+        when(availabilityService.getProviderAvailability(1L, null, null, null, null))
                 .thenThrow(new RuntimeException("No availability found for provider: 1"));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/provider/1/availability"))
                 .andExpect(status().isNotFound());
 
-        verify(availabilityService).getProviderAvailability(1L);
+        verify(availabilityService).getProviderAvailability(1L, null, null, null, null);
     }
 
     @Test
@@ -271,9 +480,8 @@ class ProviderAvailabilityControllerTest {
                 .timezone("America/New_York")
                 .build();
 
-        List<AppointmentSlotResponse> mockSlots = Arrays.asList(mockSlotResponse);
         when(availabilityService.searchAvailability(any(AvailabilitySearchRequest.class)))
-                .thenReturn(mockSlots);
+                .thenReturn(mockSearchResponse);
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/availability/search")
@@ -283,8 +491,10 @@ class ProviderAvailabilityControllerTest {
                         .param("appointmentType", "CONSULTATION")
                         .param("timezone", "America/New_York"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].providerId").value(1));
+                .andExpect(jsonPath("$.availableSlots[0].slotId").value(1))
+                .andExpect(jsonPath("$.availableSlots[0].providerId").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("MTcwNTMyODAwMDox"));
 
         verify(availabilityService).searchAvailability(any(AvailabilitySearchRequest.class));
     }
@@ -292,49 +502,341 @@ class ProviderAvailabilityControllerTest {
     @Test
     void searchAvailability_WithFilters_Success() throws Exception {
         // Arrange
-        List<AppointmentSlotResponse> mockSlots = Arrays.asList(mockSlotResponse);
         when(availabilityService.searchAvailability(any(AvailabilitySearchRequest.class)))
-                .thenReturn(mockSlots);
+                .thenReturn(mockSearchResponse);
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/availability/search")
                         .param("startDate", "2024-01-15")
                         .param("providerId", "1")
                         .param("maxPrice", "200")
-                        .param("slotDurationMinutes", "30"))
+                        .param("slotDurationMinutes", "30")
+                        .param("pageSize", "1")
+                        .param("cursor", "MTcwNTMyODAwMDox"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1));
+                .andExpect(jsonPath("$.availableSlots[0].slotId").value(1));
 
-        verify(availabilityService).searchAvailability(any(AvailabilitySearchRequest.class));
+        verify(availabilityService).searchAvailability(argThat(request ->
+                request.getPageSize() == 1 && "MTcwNTMyODAwMDox".equals(request.getCursor())));
+    }
+
+    @Test
+    void getProvidersAvailability_Success() throws Exception {
+        // Arrange
+        when(availabilityService.getProvidersAvailability(List.of(1L, 2L), LocalDate.of(2024, 1, 15),
+                LocalDate.of(2024, 1, 21))).thenReturn(ProviderAvailabilityBatchResponse.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .endDate(LocalDate.of(2024, 1, 21))
+                .providers(List.of(
+                        ProviderAvailabilityBatchResponse.ProviderAvailabilities.builder()
+                                .providerId(1L)
+                                .availabilities(List.of(mockResponse))
+                                .build(),
+                        ProviderAvailabilityBatchResponse.ProviderAvailabilities.builder()
+                                .providerId(2L)
+                                .availabilities(List.of())
+                                .build()))
+                .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/availability/batch")
+                        .param("providerIds", "1,2")
+                        .param("startDate", "2024-01-15")
+                        .param("endDate", "2024-01-21"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.providers[0].providerId").value(1))
+                .andExpect(jsonPath("$.providers[0].availabilities[0].totalSlots").value(16))
+                .andExpect(jsonPath("$.providers[1].availabilities").isEmpty());
+    }
+
+    @Test
+    void getProvidersAvailability_InvalidRequest() throws Exception {
+        // Arrange
+        when(availabilityService.getProvidersAvailability(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("At most 50 providers per request"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/availability/batch")
+                        .param("providerIds", "1")
+                        .param("startDate", "2024-01-15")
+                        .param("endDate", "2024-01-21"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProviderTimeline_Success() throws Exception {
+        // Arrange
+        when(availabilityService.getProviderTimeline(1L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 21)))
+                .thenReturn(ProviderTimelineResponse.builder()
+                        .providerId(1L)
+                        .startDate(LocalDate.of(2024, 1, 15))
+                        .endDate(LocalDate.of(2024, 1, 21))
+                        .availabilityIds(List.of(1L, 2L))
+                        .totalSlots(1)
+                        .availableSlots(1)
+                        .slots(List.of(mockSlotResponse))
+                        .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/timeline")
+                        .param("startDate", "2024-01-15")
+                        .param("endDate", "2024-01-21"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availabilityIds[1]").value(2))
+                .andExpect(jsonPath("$.slots[0].id").value(1));
+    }
+
+    @Test
+    void getProviderTimeline_InvalidWindow() throws Exception {
+        // Arrange
+        when(availabilityService.getProviderTimeline(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("End date must not be before start date"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/timeline")
+                        .param("startDate", "2024-01-21")
+                        .param("endDate", "2024-01-15"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProviderCalendar_Success() throws Exception {
+        // Arrange
+        when(availabilityService.getProviderCalendar(1L, YearMonth.of(2024, 1))).thenReturn(ProviderCalendarResponse.builder()
+                .providerId(1L)
+                .month("2024-01")
+                .days(List.of(ProviderCalendarResponse.Day.builder()
+                        .date(LocalDate.of(2024, 1, 1))
+                        .availableSlots(12)
+                        .bookedSlots(4)
+                        .build()))
+                .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/calendar").param("month", "2024-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.month").value("2024-01"))
+                .andExpect(jsonPath("$.days[0].date").value("2024-01-01"))
+                .andExpect(jsonPath("$.days[0].availableSlots").value(12))
+                .andExpect(jsonPath("$.days[0].bookedSlots").value(4));
+    }
+
+    @Test
+    void getNextAvailableSlot_Success() throws Exception {
+        // Arrange
+        when(availabilityService.getNextAvailableSlot(1L, "CONSULTATION")).thenReturn(
+                AvailabilitySearchResponse.AvailableSlot.builder()
+                        .slotId(7L)
+                        .providerId(1L)
+                        .slotStartTime(LocalDateTime.of(2024, 1, 16, 14, 0))
+                        .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/next-available").param("appointmentType", "CONSULTATION"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slotId").value(7))
+                .andExpect(jsonPath("$.providerId").value(1));
+    }
+
+    @Test
+    void getNextAvailableSlot_NoSlot_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(availabilityService.getNextAvailableSlot(1L, null))
+                .thenThrow(new RuntimeException("No available slot for provider: 1"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/next-available"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getNextAvailableSlots_OnePerProvider() throws Exception {
+        // Arrange
+        when(availabilityService.getNextAvailableSlots("CONSULTATION", "boston", 2)).thenReturn(List.of(
+                AvailabilitySearchResponse.AvailableSlot.builder().slotId(3L).providerId(2L).build(),
+                AvailabilitySearchResponse.AvailableSlot.builder().slotId(9L).providerId(1L).build()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/availability/next-available")
+                        .param("appointmentType", "CONSULTATION")
+                        .param("location", "boston")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].providerId").value(2))
+                .andExpect(jsonPath("$[1].slotId").value(9));
+    }
+
+    @Test
+    void getNextAvailableSlots_InvalidLimit() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/availability/next-available")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityService, never()).getNextAvailableSlots(any(), any(), any());
+    }
+
+    @Test
+    void streamAvailability_WritesOneSlotPerLine() throws Exception {
+        // Arrange
+        Consumer<Consumer<AvailabilitySearchResponse.AvailableSlot>> slots = sink -> {
+            sink.accept(AvailabilitySearchResponse.AvailableSlot.builder().slotId(1L).providerId(1L).build());
+            sink.accept(AvailabilitySearchResponse.AvailableSlot.builder().slotId(2L).providerId(1L).build());
+        };
+        when(availabilityService.streamAvailability(any(AvailabilitySearchRequest.class))).thenReturn(slots);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/availability/search")
+                        .param("startDate", "2024-01-15")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("slotId").asLong());
+        verify(availabilityService, never()).searchAvailability(any());
+    }
+
+    @Test
+    void streamAvailability_InvalidRequest() throws Exception {
+        // Arrange
+        when(availabilityService.streamAvailability(any(AvailabilitySearchRequest.class)))
+                .thenThrow(new IllegalArgumentException("Latitude and longitude must be given together"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("startDate", "2024-01-15")
+                        .param("latitude", "40.75")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getSearchCacheStats_Success() throws Exception {
+        // Arrange
+        when(availabilityService.getSearchCacheStats()).thenReturn(SearchCacheStatsResponse.builder()
+                .hits(3)
+                .misses(1)
+                .hitRate(0.75)
+                .invalidations(2)
+                .entries(1)
+                .weight(5)
+                .maxWeight(50_000)
+                .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/availability/search/cache-stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(3))
+                .andExpect(jsonPath("$.hitRate").value(0.75))
+                .andExpect(jsonPath("$.invalidations").value(2));
+    }
+
+    @Test
+    void searchAvailability_InvalidCursor() throws Exception {
+        // Arrange
+        when(availabilityService.searchAvailability(any(AvailabilitySearchRequest.class)))
+                .thenThrow(new IllegalArgumentException("Invalid search cursor: x"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("startDate", "2024-01-15")
+                        .param("cursor", "x"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchAvailability_InvalidPageSize() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/availability/search")
+                        .param("startDate", "2024-01-15")
+                        .param("pageSize", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityService, never()).searchAvailability(any());
     }
 
     @Test
     void getProviderSlots_Success() throws Exception {
         // Arrange
-        mockResponse.setAppointmentSlots(Arrays.asList(mockSlotResponse));
-        when(availabilityService.getProviderAvailability(1L))
-                .thenReturn(mockResponse);
+        when(availabilityService.getProviderSlots(1L, AppointmentSlot.SlotStatus.BOOKED,
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 21), 20, null))
+                .thenReturn(ProviderSlotsResponse.builder()
+                        .providerId(1L)
+                        .status(AppointmentSlot.SlotStatus.BOOKED)
+                        .slots(List.of(mockSlotResponse))
+                        .pageSize(20)
+                        .hasMore(true)
+                        .nextCursor("next")
+                        .build());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/slots")
+                        .param("status", "BOOKED")
+                        .param("startDate", "2024-01-15")
+                        .param("endDate", "2024-01-21")
+                        .param("pageSize", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots[0].id").value(1))
+                .andExpect(jsonPath("$.slots[0].providerId").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getProviderSlots_NoFilters() throws Exception {
+        // Arrange
+        when(availabilityService.getProviderSlots(1L, null, null, null, null, null))
+                .thenReturn(ProviderSlotsResponse.builder()
+                        .providerId(1L)
+                        .slots(List.of())
+                        .pageSize(50)
+                        .build());
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/provider/1/slots"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].providerId").value(1));
+                .andExpect(jsonPath("$.slots").isEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
 
-        verify(availabilityService).getProviderAvailability(1L);
+        verify(availabilityService, never()).getProviderAvailability(anyLong());
     }
 
     @Test
-    void getProviderSlots_NotFound() throws Exception {
+    void getProviderSlots_UnknownStatus_BadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/slots").param("status", "RESCHEDULED"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityService, never()).getProviderSlots(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getProviderSlots_InvalidCursor_BadRequest() throws Exception {
         // Arrange
-        when(availabilityService.getProviderAvailability(1L))
-                .thenThrow(new RuntimeException("No availability found for provider: 1"));
+        when(availabilityService.getProviderSlots(1L, null, null, null, null, "not-a-cursor"))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
 
         // Act & Assert
-        mockMvc.perform(get("/api/v1/provider/1/slots"))
-                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/provider/1/slots").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProviderSlots_InvalidPageSize_BadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/provider/1/slots")
+                        .param("pageSize", "0"))
+                .andExpect(status().isBadRequest());
 
-        verify(availabilityService).getProviderAvailability(1L);
+        verify(availabilityService, never()).getProviderSlots(any(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -363,4 +865,32 @@ class ProviderAvailabilityControllerTest {
 
         verify(availabilityService, never()).searchAvailability(any());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void materializeSlot_Success() throws Exception {
+        // Arrange
+        LocalDateTime slotStart = LocalDateTime.of(2024, 1, 15, 14, 0);
+        when(availabilityService.materializeSlot(1L, slotStart))
+                .thenReturn(mockSlotResponse);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/provider/availability/1/slots")
+                        .param("startTime", "2024-01-15T14:00:00"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(availabilityService).materializeSlot(1L, slotStart);
+    }
+
+    @Test
+    void materializeSlot_AlreadyMaterialized_BadRequest() throws Exception {
+        // Arrange
+        when(availabilityService.materializeSlot(eq(1L), any()))
+                .thenThrow(new IllegalArgumentException("Slot at 2024-01-15T14:00 is already materialized"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/provider/availability/1/slots")
+                        .param("startTime", "2024-01-15T14:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,325 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.Specialization;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the dynamically built slot search against PostgreSQL: only supplied filters apply, the stored
+ * duration replaces the end - start computation, and keyset pages neither drop nor repeat slots. The
+ * JDBC export is checked against the same search, and the provider window read against the stored rows.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(AvailableSlotExportRepository.class)
+class AppointmentSlotSearchTest {
+
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2024, 1, 15, 0, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2024, 1, 16, 0, 0);
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private AvailableSlotExportRepository exportRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProviderAvailability availability;
+
+    @BeforeEach
+    void setUp() {
+        availability = availabilityRepository.saveAndFlush(ProviderAvailability.builder()
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("America/New_York")
+                .recurrenceType(ProviderAvailability.RecurrenceType.NONE)
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build());
+
+        List<AppointmentSlot> slots = new ArrayList<>();
+        slots.add(slot(14, 0, 30, "100.00", "New York Medical Center", "CONSULTATION", AppointmentSlot.SlotStatus.AVAILABLE));
+        slots.add(slot(14, 0, 60, "250.00", "New York Medical Center", "FOLLOW_UP", AppointmentSlot.SlotStatus.AVAILABLE));
+        slots.add(slot(15, 0, 30, "100.00", "Brooklyn Clinic", "CONSULTATION", AppointmentSlot.SlotStatus.AVAILABLE));
+        slots.add(slot(16, 0, 30, "100.00", "New York Medical Center", "CONSULTATION", AppointmentSlot.SlotStatus.BOOKED));
+        slots.add(slot(17, 0, 45, "150.00", "New York Medical Center", "CONSULTATION", AppointmentSlot.SlotStatus.AVAILABLE));
+        slotRepository.saveAllAndFlush(slots);
+    }
+
+    @Test
+    void noFilters_ReturnsAvailableSlotsInKeyOrder() {
+        List<SlotRow> page = search(null, null, null, null, null, 10);
+
+        assertEquals(4, page.size());
+        assertTrue(page.stream().allMatch(slot -> slot.status() == AppointmentSlot.SlotStatus.AVAILABLE));
+        assertTrue(page.get(0).id() < page.get(1).id());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 17, 0), page.get(3).startTime());
+    }
+
+    @Test
+    void durationFilter_UsesStoredDuration() {
+        List<SlotRow> page = search(null, null, null, 45, null, 10);
+
+        assertEquals(1, page.size());
+        assertEquals(45, page.get(0).durationMinutes());
+    }
+
+    @Test
+    void combinedFilters() {
+        assertEquals(1, search(Set.of("Brooklyn Clinic"), "CONSULTATION", null, null, null, 10).size());
+        assertEquals(3, search(null, null, 200, null, null, 10).size());
+        assertEquals(0, search(Set.of("Brooklyn Clinic"), "FOLLOW_UP", null, null, null, 10).size());
+    }
+
+    @Test
+    void locationFilter_MatchesResolvedLocationsExactly() {
+        assertEquals(4, search(Set.of("Brooklyn Clinic", "New York Medical Center"), null, null, null, null, 10).size());
+        assertEquals(0, search(Set.of("Brooklyn"), null, null, null, null, 10).size());
+        assertEquals(0, search(Set.of(), null, null, null, null, 10).size());
+    }
+
+    @Test
+    void providerFilter_MatchesAnyOfTheGivenProviders() {
+        assertEquals(4, searchProviders(Set.of(1L, 2L)).size());
+        assertEquals(0, searchProviders(Set.of(2L)).size());
+        assertEquals(0, searchProviders(Set.of()).size());
+    }
+
+    @Test
+    void specializationFilter_MatchesTheSlotColumn() {
+        AppointmentSlot dermatology = slot(18, 0, 30, "100.00", "Brooklyn Clinic", "CONSULTATION",
+                AppointmentSlot.SlotStatus.AVAILABLE);
+        dermatology.setSpecialization(Specialization.DERMATOLOGY);
+        slotRepository.saveAndFlush(dermatology);
+
+        assertEquals(4, searchSpecialization(Specialization.CARDIOLOGY).size());
+        assertEquals(List.of(dermatology.getId()), ids(searchSpecialization(Specialization.DERMATOLOGY)));
+        assertEquals(0, searchSpecialization(Specialization.ONCOLOGY).size());
+        try (Stream<SlotRow> slots = exportRepository.streamAvailableSlots(WINDOW_START, WINDOW_END,
+                null, null, Specialization.DERMATOLOGY, null, null, null, 2)) {
+            assertEquals(Specialization.DERMATOLOGY, slots.findFirst().orElseThrow().specialization());
+        }
+    }
+
+    @Test
+    void distinctLocations_OnlyFromAvailableSlots() {
+        slotRepository.saveAndFlush(slot(18, 0, 30, "100.00", "Queens Clinic", "CONSULTATION", AppointmentSlot.SlotStatus.BOOKED));
+
+        assertEquals(Set.of("Brooklyn Clinic", "New York Medical Center"),
+                new HashSet<>(slotRepository.findDistinctAvailableSlotLocations()));
+    }
+
+    @Test
+    void keysetPages_CoverAllSlotsOnce() {
+        List<Long> seen = new ArrayList<>();
+        SlotRow last = null;
+        do {
+            List<SlotRow> page = search(null, null, null, null, last, 1);
+            last = page.isEmpty() ? null : page.get(0);
+            page.forEach(slot -> seen.add(slot.id()));
+        } while (last != null);
+
+        assertEquals(search(null, null, null, null, null, 10).stream()
+                .map(SlotRow::id)
+                .collect(Collectors.toList()), seen);
+    }
+
+    @Test
+    void availabilitySlotPages_CoverTheWindowOnceWhateverTheStatus() {
+        List<Long> seen = new ArrayList<>();
+        SlotRow last = null;
+        do {
+            List<SlotRow> page = slotRepository.findSlotsPageByAvailabilityId(availability.getId(),
+                    LocalDateTime.of(2024, 1, 15, 14, 0), LocalDateTime.of(2024, 1, 15, 17, 0),
+                    last != null ? last.startTime() : null, last != null ? last.id() : null, Limit.of(1));
+            last = page.isEmpty() ? null : page.get(0);
+            page.forEach(slot -> seen.add(slot.id()));
+        } while (last != null);
+
+        assertEquals(4, seen.size());
+        assertEquals(seen, ids(slotRepository.findSlotsPageByAvailabilityId(availability.getId(),
+                LocalDateTime.of(2024, 1, 15, 14, 0), LocalDateTime.of(2024, 1, 15, 17, 0), null, null, Limit.of(10))));
+    }
+
+    @Test
+    void providerSlotPages_FilterByStatusAndCoverTheWindowOnce() {
+        List<Long> seen = new ArrayList<>();
+        SlotRow last = null;
+        do {
+            List<SlotRow> page = slotRepository.findSlotsPageByProviderId(1L, AppointmentSlot.SlotStatus.AVAILABLE,
+                    WINDOW_START, WINDOW_END, last != null ? last.startTime() : null,
+                    last != null ? last.id() : null, Limit.of(1));
+            last = page.isEmpty() ? null : page.get(0);
+            page.forEach(slot -> seen.add(slot.id()));
+        } while (last != null);
+
+        assertEquals(ids(search(null, null, null, null, null, 10)), seen);
+        assertEquals(5, slotRepository.findSlotsPageByProviderId(1L, null, null, null, null, null, Limit.of(10)).size());
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 15, 16, 0)), slotRepository.findSlotsPageByProviderId(1L,
+                        AppointmentSlot.SlotStatus.BOOKED, WINDOW_START, WINDOW_END, null, null, Limit.of(10)).stream()
+                .map(SlotRow::startTime)
+                .collect(Collectors.toList()));
+        assertEquals(0, slotRepository.findSlotsPageByProviderId(2L, null, null, null, null, null, Limit.of(10)).size());
+    }
+
+    @Test
+    void countByAvailabilityIdGroupByStatus_CountsEveryStatus() {
+        Map<AppointmentSlot.SlotStatus, Long> counts = slotRepository.countByAvailabilityIdGroupByStatus(availability.getId())
+                .stream()
+                .collect(Collectors.toMap(SlotStatusCount::getStatus, SlotStatusCount::getTotal));
+
+        assertEquals(Map.of(AppointmentSlot.SlotStatus.AVAILABLE, 4L, AppointmentSlot.SlotStatus.BOOKED, 1L), counts);
+    }
+
+    @Test
+    void export_StreamsWhatSearchPagesReturn() {
+        assertEquals(ids(search(null, null, null, null, null, 10)), ids(export(null, null, null, null, null)));
+        assertEquals(ids(search(Set.of("Brooklyn Clinic"), "CONSULTATION", null, null, null, 10)),
+                ids(export(Set.of("Brooklyn Clinic"), "CONSULTATION", null, null, null)));
+        assertEquals(ids(search(null, null, 200, 45, null, 10)), ids(export(null, null, null, 200, 45)));
+        assertEquals(4, export(null, null, Set.of(1L, 2L), null, null).size());
+        assertEquals(0, export(Set.of(), null, null, null, null).size());
+        assertEquals(0, export(null, null, Set.of(), null, null).size());
+    }
+
+    @Test
+    void export_CarriesTheFieldsSearchResponsesUse() {
+        SlotRow exported = export(Set.of("Brooklyn Clinic"), null, null, null, null).get(0);
+
+        assertEquals(availability.getId(), exported.providerAvailabilityId());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 15, 0), exported.startTime());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 15, 30), exported.endTime());
+        assertEquals(0, new BigDecimal("100.00").compareTo(exported.price()));
+        assertEquals("America/New_York", exported.timezone());
+        assertEquals(AppointmentSlot.SlotStatus.AVAILABLE, exported.status());
+    }
+
+    @Test
+    void providerWindowRead_ReturnsRowsWithEveryStatus() {
+        entityManager.clear();
+
+        List<SlotRow> slots = slotRepository.findByProviderIdsAndStartTimeRange(Set.of(1L, 2L),
+                LocalDateTime.of(2024, 1, 15, 14, 0), LocalDateTime.of(2024, 1, 15, 17, 0));
+
+        assertEquals(4, slots.size());
+        assertEquals(0, managedEntities());
+        SlotRow booked = slots.get(3);
+        assertEquals(AppointmentSlot.SlotStatus.BOOKED, booked.status());
+        assertEquals(availability.getId(), booked.providerAvailabilityId());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 16, 30), booked.endTime());
+        assertEquals(Specialization.CARDIOLOGY, booked.specialization());
+        assertEquals("New York Medical Center", booked.location());
+        assertNotNull(booked.createdAt());
+    }
+
+    @Test
+    void exceptionRead_ReturnsRowsByOccurrenceStart() {
+        AppointmentSlot moved = slot(18, 0, 30, "100.00", "Brooklyn Clinic", "CONSULTATION",
+                AppointmentSlot.SlotStatus.AVAILABLE);
+        moved.setOriginalStartTime(LocalDateTime.of(2024, 1, 16, 9, 0));
+        slotRepository.saveAndFlush(moved);
+        entityManager.clear();
+
+        List<SlotRow> exceptions = slotRepository.findExceptionsByAvailabilityIdsAndDateRange(
+                List.of(availability.getId()), LocalDateTime.of(2024, 1, 16, 0, 0), LocalDateTime.of(2024, 1, 17, 0, 0));
+
+        assertEquals(List.of(moved.getId()), ids(exceptions));
+        assertEquals(LocalDateTime.of(2024, 1, 16, 9, 0), exceptions.get(0).occurrenceStartTime());
+        assertEquals(0, managedEntities());
+    }
+
+    @Test
+    void slotPages_LoadNoEntities() {
+        entityManager.clear();
+
+        List<SlotRow> search = search(null, null, null, null, null, 10);
+        List<SlotRow> byAvailability = slotRepository.findSlotsPageByAvailabilityId(availability.getId(),
+                null, null, null, null, Limit.of(10));
+        List<SlotRow> byProvider = slotRepository.findSlotsPageByProviderId(1L, null, null, null, null, null,
+                Limit.of(10));
+
+        assertFalse(search.isEmpty());
+        assertFalse(byAvailability.isEmpty());
+        assertFalse(byProvider.isEmpty());
+        assertEquals(0, managedEntities());
+        assertEquals(availability.getId(), byAvailability.get(0).providerAvailabilityId());
+    }
+
+    private int managedEntities() {
+        return entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+    }
+
+    private List<SlotRow> export(Set<String> locations, String appointmentType, Set<Long> providerIds,
+                                 Integer maxPrice, Integer slotDurationMinutes) {
+        try (Stream<SlotRow> slots = exportRepository.streamAvailableSlots(WINDOW_START, WINDOW_END,
+                locations, appointmentType, null, providerIds, maxPrice, slotDurationMinutes, 2)) {
+            return slots.collect(Collectors.toList());
+        }
+    }
+
+    private static List<Long> ids(List<SlotRow> slots) {
+        return slots.stream().map(SlotRow::id).collect(Collectors.toList());
+    }
+
+    private List<SlotRow> search(Set<String> locations, String appointmentType, Integer maxPrice,
+                                 Integer slotDurationMinutes, SlotRow after, int limit) {
+        return slotRepository.findAvailableSlotsPageByFilters(WINDOW_START, WINDOW_END, locations, appointmentType,
+                null, null, maxPrice, slotDurationMinutes,
+                after != null ? after.startTime() : null, after != null ? after.id() : null, Limit.of(limit));
+    }
+
+    private List<SlotRow> searchProviders(Set<Long> providerIds) {
+        return slotRepository.findAvailableSlotsPageByFilters(WINDOW_START, WINDOW_END, null, null,
+                null, providerIds, null, null, null, null, Limit.of(10));
+    }
+
+    private List<SlotRow> searchSpecialization(Specialization specialization) {
+        return slotRepository.findAvailableSlotsPageByFilters(WINDOW_START, WINDOW_END, null, null,
+                specialization, null, null, null, null, null, Limit.of(10));
+    }
+
+    private AppointmentSlot slot(int hour, int minute, int durationMinutes, String price, String location,
+                                 String appointmentType, AppointmentSlot.SlotStatus status) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, hour, minute);
+        return AppointmentSlot.builder()
+                .providerAvailability(availability)
+                .providerId(1L)
+                .startTime(start)
+                .endTime(start.plusMinutes(durationMinutes))
+                .timezone("America/New_York")
+                .status(status)
+                .price(new BigDecimal(price))
+                .currency("USD")
+                .location(location)
+                .appointmentType(appointmentType)
+                .specialization(Specialization.CARDIOLOGY)
+                .build();
+    }
+}
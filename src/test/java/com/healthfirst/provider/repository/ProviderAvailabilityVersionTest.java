@@ -0,0 +1,139 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.ProviderAvailabilityVersion;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the triggers on provider_availability and appointment_slots move the provider's version
+ * on every kind of write, including the SQL slot generation, and leave other providers' versions alone.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class ProviderAvailabilityVersionTest {
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private ProviderAvailabilityVersionRepository versionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProviderAvailability availability;
+
+    @BeforeEach
+    void setUp() {
+        availability = availabilityRepository.saveAndFlush(availability(1L));
+    }
+
+    @Test
+    void availabilityInsert_CreatesVersion() {
+        ProviderAvailabilityVersion version = readVersion(1L);
+
+        assertTrue(version.getVersion() > 0);
+        assertNotNull(version.getUpdatedAt());
+    }
+
+    @Test
+    void slotWrites_EachMoveTheVersion() {
+        long created = readVersion(1L).getVersion();
+
+        AppointmentSlot slot = slotRepository.saveAndFlush(slot(LocalDateTime.of(2024, 1, 15, 14, 0)));
+        long inserted = readVersion(1L).getVersion();
+
+        slot.setStatus(AppointmentSlot.SlotStatus.BOOKED);
+        slotRepository.saveAndFlush(slot);
+        long booked = readVersion(1L).getVersion();
+
+        slotRepository.delete(slot);
+        slotRepository.flush();
+        long deleted = readVersion(1L).getVersion();
+
+        assertTrue(created < inserted);
+        assertTrue(inserted < booked);
+        assertTrue(booked < deleted);
+    }
+
+    @Test
+    void availabilityUpdate_MovesTheVersion() {
+        long before = readVersion(1L).getVersion();
+
+        availability.setNotes("Moved to the second floor");
+        availabilityRepository.saveAndFlush(availability);
+
+        assertTrue(readVersion(1L).getVersion() > before);
+    }
+
+    @Test
+    void sqlGeneration_MovesTheVersionOnce() {
+        long before = readVersion(1L).getVersion();
+
+        int inserted = slotRepository.insertGeneratedSlots(availability.getId(), null, null,
+                AppointmentSlot.ID_ALLOCATION_SIZE);
+
+        assertTrue(inserted > 1);
+        // One statement, one bump, whatever the number of slots
+        assertEquals(before + 1, readVersion(1L).getVersion());
+    }
+
+    @Test
+    void otherProvider_KeepsItsVersion() {
+        availabilityRepository.saveAndFlush(availability(2L));
+        long other = readVersion(2L).getVersion();
+
+        slotRepository.saveAllAndFlush(List.of(
+                slot(LocalDateTime.of(2024, 1, 15, 14, 0)),
+                slot(LocalDateTime.of(2024, 1, 15, 14, 30))));
+
+        assertEquals(other, readVersion(2L).getVersion());
+    }
+
+    private ProviderAvailabilityVersion readVersion(Long providerId) {
+        // The version is written by the database, so drop whatever Hibernate read before
+        entityManager.clear();
+        return versionRepository.findById(providerId).orElseThrow();
+    }
+
+    private static ProviderAvailability availability(Long providerId) {
+        return ProviderAvailability.builder()
+                .providerId(providerId)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("America/New_York")
+                .recurrenceType(ProviderAvailability.RecurrenceType.DAILY)
+                .recurrenceEndDate(LocalDateTime.of(2024, 1, 18, 0, 0))
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build();
+    }
+
+    private AppointmentSlot slot(LocalDateTime start) {
+        return AppointmentSlot.builder()
+                .providerAvailability(availability)
+                .providerId(1L)
+                .startTime(start)
+                .endTime(start.plusMinutes(30))
+                .timezone("America/New_York")
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .price(new BigDecimal("100.00"))
+                .currency("USD")
+                .build();
+    }
+}
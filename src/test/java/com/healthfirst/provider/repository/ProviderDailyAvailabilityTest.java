@@ -0,0 +1,147 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.ProviderDailyAvailability;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the appointment_slots triggers keep provider_daily_availability equal to a count of the
+ * slots, for inserts through Hibernate and through SQL, status changes and deletes.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class ProviderDailyAvailabilityTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 15);
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private ProviderDailyAvailabilityRepository dailyAvailabilityRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ProviderAvailability availability;
+
+    @BeforeEach
+    void setUp() {
+        availability = availabilityRepository.saveAndFlush(ProviderAvailability.builder()
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("America/New_York")
+                .recurrenceType(ProviderAvailability.RecurrenceType.DAILY)
+                .recurrenceEndDate(LocalDateTime.of(2024, 1, 18, 0, 0))
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build());
+    }
+
+    @Test
+    void insert_CountsByStatusOnTheLocalDate() {
+        slotRepository.saveAllAndFlush(List.of(
+                slot(LocalDateTime.of(2024, 1, 15, 14, 0), AppointmentSlot.SlotStatus.AVAILABLE),
+                slot(LocalDateTime.of(2024, 1, 15, 15, 0), AppointmentSlot.SlotStatus.BOOKED),
+                // 22:00 on the 15th in New York
+                slot(LocalDateTime.of(2024, 1, 16, 3, 0), AppointmentSlot.SlotStatus.AVAILABLE),
+                slot(LocalDateTime.of(2024, 1, 16, 15, 0), AppointmentSlot.SlotStatus.COMPLETED)));
+
+        List<ProviderDailyAvailability> days = readDays();
+
+        assertEquals(1, days.size());
+        assertEquals(MONDAY, days.get(0).getLocalDate());
+        assertEquals(2, days.get(0).getAvailableCount());
+        assertEquals(1, days.get(0).getBookedCount());
+        assertEquals(0, days.get(0).getCancelledCount());
+    }
+
+    @Test
+    void update_MovesCountsBetweenStatusesAndDays() {
+        AppointmentSlot slot = slotRepository.saveAndFlush(
+                slot(LocalDateTime.of(2024, 1, 15, 14, 0), AppointmentSlot.SlotStatus.AVAILABLE));
+
+        slot.setStatus(AppointmentSlot.SlotStatus.CANCELLED);
+        slotRepository.saveAndFlush(slot);
+        ProviderDailyAvailability monday = readDays().get(0);
+        assertEquals(0, monday.getAvailableCount());
+        assertEquals(1, monday.getCancelledCount());
+
+        slot.setStartTime(LocalDateTime.of(2024, 1, 16, 14, 0));
+        slot.setEndTime(LocalDateTime.of(2024, 1, 16, 14, 30));
+        slotRepository.saveAndFlush(slot);
+        Map<LocalDate, ProviderDailyAvailability> days = readDays().stream()
+                .collect(Collectors.toMap(ProviderDailyAvailability::getLocalDate, day -> day));
+        assertEquals(0, days.get(MONDAY).getCancelledCount());
+        assertEquals(1, days.get(MONDAY.plusDays(1)).getCancelledCount());
+    }
+
+    @Test
+    void delete_SubtractsCounts() {
+        List<AppointmentSlot> slots = slotRepository.saveAllAndFlush(List.of(
+                slot(LocalDateTime.of(2024, 1, 15, 14, 0), AppointmentSlot.SlotStatus.AVAILABLE),
+                slot(LocalDateTime.of(2024, 1, 15, 14, 30), AppointmentSlot.SlotStatus.AVAILABLE)));
+
+        slotRepository.deleteAll(slots.subList(0, 1));
+        slotRepository.flush();
+
+        assertEquals(1, readDays().get(0).getAvailableCount());
+    }
+
+    @Test
+    void sqlGeneration_CountedPerDay() {
+        int inserted = slotRepository.insertGeneratedSlots(availability.getId(), null, null,
+                AppointmentSlot.ID_ALLOCATION_SIZE);
+        entityManager.clear();
+
+        Map<LocalDate, Long> expected = slotRepository.findByProviderAvailabilityId(availability.getId()).stream()
+                .collect(Collectors.groupingBy(slot -> slot.getStartTime().atZone(ZoneOffset.UTC)
+                        .withZoneSameInstant(ZoneId.of("America/New_York")).toLocalDate(), Collectors.counting()));
+        Map<LocalDate, Long> counted = readDays().stream()
+                .collect(Collectors.toMap(ProviderDailyAvailability::getLocalDate, day -> (long) day.getAvailableCount()));
+
+        assertTrue(inserted > 0);
+        assertEquals(expected, counted);
+    }
+
+    private List<ProviderDailyAvailability> readDays() {
+        // The counters are written by the database, so drop whatever Hibernate read before
+        entityManager.clear();
+        return dailyAvailabilityRepository.findByProviderIdAndLocalDateBetweenOrderByLocalDate(
+                1L, MONDAY.minusDays(1), MONDAY.plusDays(10));
+    }
+
+    private AppointmentSlot slot(LocalDateTime start, AppointmentSlot.SlotStatus status) {
+        return AppointmentSlot.builder()
+                .providerAvailability(availability)
+                .providerId(1L)
+                .startTime(start)
+                .endTime(start.plusMinutes(30))
+                .timezone("America/New_York")
+                .status(status)
+                .price(new BigDecimal("100.00"))
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.dto.ProviderRegistrationRequest;
+import com.healthfirst.provider.dto.ProviderRegistrationResponse;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.service.GeoPoint;
+import com.healthfirst.provider.service.ProviderGeoIndex;
+import com.healthfirst.provider.service.ProviderService;
+import com.healthfirst.provider.service.ZipCentroids;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Registers providers against the real schema, where the database assigns provider_number, so the
+ * number handed to the geo index is the stored one and duplicates are rejected by the constraints.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class ProviderRegistrationTest {
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    private ZipCentroids zipCentroids;
+    private ProviderGeoIndex providerGeoIndex;
+    private ProviderService providerService;
+
+    @BeforeEach
+    void setUp() {
+        zipCentroids = mock(ZipCentroids.class);
+        providerGeoIndex = mock(ProviderGeoIndex.class);
+        providerService = new ProviderService(providerRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new BCryptPasswordEncoder(4),
+                zipCentroids, providerGeoIndex);
+    }
+
+    @Test
+    void registerProvider_IndexesDatabaseAssignedProviderNumber() {
+        // Arrange
+        when(zipCentroids.find("10001")).thenReturn(new GeoPoint(40.7506, -73.9972));
+
+        // Act
+        ProviderRegistrationResponse response = providerService.registerProvider(request("jane.smith@clinic.com",
+                "+12125551234", "NY123456"));
+
+        // Assert
+        assertNotNull(response.getProviderNumber());
+        assertEquals(response.getProviderNumber(), providerRepository.findByEmail("jane.smith@clinic.com")
+                .orElseThrow().getProviderNumber());
+        verify(providerGeoIndex).register(eq(response.getProviderNumber()), any(ClinicAddress.class));
+    }
+
+    @Test
+    void registerProvider_NumbersProvidersInOrder() {
+        ProviderRegistrationResponse first = providerService.registerProvider(request("jane.smith@clinic.com",
+                "+12125551234", "NY123456"));
+        ProviderRegistrationResponse second = providerService.registerProvider(request("john.doe@clinic.com",
+                "+12125555678", "NY654321"));
+
+        assertTrue(second.getProviderNumber() > first.getProviderNumber());
+    }
+
+    private ProviderRegistrationRequest request(String email, String phoneNumber, String licenseNumber) {
+        return ProviderRegistrationRequest.builder()
+                .firstName("Jane")
+                .lastName("Smith")
+                .email(email)
+                .phoneNumber(phoneNumber)
+                .password("StrongP@ssw0rd")
+                .specialization("Cardiology")
+                .licenseNumber(licenseNumber)
+                .yearsOfExperience(10)
+                .clinicAddress(ProviderRegistrationRequest.ClinicAddressDto.builder()
+                        .street("1 Main St")
+                        .city("New York")
+                        .state("NY")
+                        .zip("10001")
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.entity.Provider;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.Specialization;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the providers trigger rewrites the specialization copied onto availabilities and slots
+ * when a provider changes specialization, and leaves other providers alone.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class ProviderSpecializationSyncTest {
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Provider provider;
+    private ProviderAvailability availability;
+    private AppointmentSlot slot;
+    private AppointmentSlot otherProviderSlot;
+
+    @BeforeEach
+    void setUp() {
+        provider = providerRepository.saveAndFlush(Provider.builder()
+                .firstName("Jane")
+                .lastName("Smith")
+                .email("jane.smith@clinic.com")
+                .phoneNumber("+12125551234")
+                .passwordHash("hash")
+                .specialization("Cardiology")
+                .licenseNumber("NY123456")
+                .yearsOfExperience(10)
+                .clinicAddress(ClinicAddress.builder()
+                        .street("1 Main St").city("New York").state("NY").zip("10001").build())
+                .build());
+
+        availability = availabilityRepository.saveAndFlush(availability(provider.getProviderNumber()));
+        slot = slotRepository.saveAndFlush(slot(availability));
+        ProviderAvailability otherAvailability = availabilityRepository.saveAndFlush(
+                availability(provider.getProviderNumber() + 1000));
+        otherProviderSlot = slotRepository.saveAndFlush(slot(otherAvailability));
+    }
+
+    @Test
+    void specializationChange_RewritesAvailabilitiesAndSlots() {
+        provider.setSpecialization("Neurology");
+        providerRepository.saveAndFlush(provider);
+        entityManager.clear();
+
+        assertEquals(Specialization.NEUROLOGY,
+                availabilityRepository.findById(availability.getId()).orElseThrow().getSpecialization());
+        assertEquals(Specialization.NEUROLOGY, slotRepository.findById(slot.getId()).orElseThrow().getSpecialization());
+        assertEquals(Specialization.CARDIOLOGY,
+                slotRepository.findById(otherProviderSlot.getId()).orElseThrow().getSpecialization());
+    }
+
+    @Test
+    void unknownSpecialization_ClearsTheCode() {
+        provider.setSpecialization("Sports Medicine");
+        providerRepository.saveAndFlush(provider);
+        entityManager.clear();
+
+        assertNull(slotRepository.findById(slot.getId()).orElseThrow().getSpecialization());
+    }
+
+    private static ProviderAvailability availability(Long providerId) {
+        return ProviderAvailability.builder()
+                .providerId(providerId)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("America/New_York")
+                .recurrenceType(ProviderAvailability.RecurrenceType.NONE)
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .specialization(Specialization.CARDIOLOGY)
+                .build();
+    }
+
+    private static AppointmentSlot slot(ProviderAvailability availability) {
+        return AppointmentSlot.builder()
+                .providerAvailability(availability)
+                .providerId(availability.getProviderId())
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .timezone("America/New_York")
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .price(new BigDecimal("100.00"))
+                .currency("USD")
+                .specialization(availability.getSpecialization())
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.healthfirst.provider.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrades a database the way production ones are: the V1 schema with data in it, as the former
+ * ddl-auto=update left it, without Flyway history. Flyway baselines it at V1 and runs every later
+ * migration, which must carry the existing rows over to the current schema.
+ */
+class SchemaUpgradeTest {
+
+    @Test
+    void ddlAutoUpdateDatabase_BaselinedAndUpgraded() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            execute(dataSource, readMigration("V1__baseline_schema.sql"));
+            execute(dataSource,
+                    "INSERT INTO provider_availability (provider_id, start_time, end_time, timezone, recurrence_type, " +
+                    "recurrence_end_date, slot_duration_minutes, status, created_at) VALUES " +
+                    "(1, TIMESTAMP '2024-01-15 14:00', TIMESTAMP '2024-01-15 15:00', 'UTC', 'WEEKLY', " +
+                    "TIMESTAMP '2024-02-15 00:00', 30, 'ACTIVE', LOCALTIMESTAMP);" +
+                    "INSERT INTO provider_availability_recurrence_days (availability_id, day_of_week) VALUES " +
+                    "(1, 'MONDAY'), (1, 'WEDNESDAY'), (1, 'SUNDAY');" +
+                    "INSERT INTO appointment_slots (id, provider_availability_id, provider_id, start_time, end_time, " +
+                    "timezone, status, created_at) VALUES " +
+                    "(1, 1, 1, TIMESTAMP '2024-01-15 14:00', TIMESTAMP '2024-01-15 14:30', 'UTC', 'AVAILABLE', LOCALTIMESTAMP), " +
+                    "(120, 1, 1, TIMESTAMP '2024-01-15 14:30', TIMESTAMP '2024-01-15 15:15', 'UTC', 'BOOKED', LOCALTIMESTAMP)");
+
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .baselineOnMigrate(true)
+                    .baselineVersion("1")
+                    .load()
+                    .migrate();
+
+            // Monday, Wednesday and Sunday are bits 0, 2 and 6
+            assertEquals(1 + 4 + 64, queryLong(dataSource, "SELECT recurrence_days FROM provider_availability WHERE id = 1"));
+            assertEquals(0, queryLong(dataSource,
+                    "SELECT count(*) FROM pg_tables WHERE tablename = 'provider_availability_recurrence_days'"));
+            assertEquals(1, queryLong(dataSource,
+                    "SELECT count(*) FROM provider_availability WHERE slot_materialization = 'EAGER'"));
+            assertEquals(45, queryLong(dataSource, "SELECT duration_minutes FROM appointment_slots WHERE id = 120"));
+            // The next block of pooled ids lies wholly above the existing slots
+            assertTrue(queryLong(dataSource, "SELECT nextval('appointment_slots_seq')") - 50 >= 120);
+            assertEquals(0, queryLong(dataSource,
+                    "SELECT count(*) FROM information_schema.columns WHERE table_name = 'appointment_slots' " +
+                    "AND column_name = 'id' AND is_identity = 'YES'"));
+        }
+    }
+
+    private static String readMigration(String name) throws IOException {
+        try (InputStream script = SchemaUpgradeTest.class.getResourceAsStream("/db/migration/" + name)) {
+            return new String(script.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void execute(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long queryLong(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            assertTrue(result.next());
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.healthfirst.provider.repository;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.service.SlotGenerator;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link AppointmentSlotRepository#insertGeneratedSlots} expands availabilities into exactly
+ * the slots of the reference {@link SlotGenerator}, for every recurrence type and for bounded windows.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(SlotGenerator.class)
+class SlotGenerationEquivalenceTest {
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentSlotRepository slotRepository;
+
+    @Autowired
+    private SlotGenerator slotGenerator;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void singleOccurrence() {
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.NONE, null, null, 30), null, null);
+    }
+
+    @Test
+    void singleOccurrence_PartialLastSlotDropped() {
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.NONE, null, null, 45);
+        assertEquivalent(availability, null, null);
+    }
+
+    @Test
+    void daily_DefaultSixMonthSeries() {
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.DAILY, null, null, 15), null, null);
+    }
+
+    @Test
+    void daily_WithRecurrenceEndDate() {
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.DAILY, null,
+                LocalDateTime.of(2024, 2, 10, 12, 0), 30), null, null);
+    }
+
+    @Test
+    void weekly_WithoutRecurrenceDays() {
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.WEEKLY, null,
+                LocalDateTime.of(2024, 4, 1, 0, 0), 30), null, null);
+    }
+
+    @Test
+    void weekly_WithRecurrenceDays() {
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+                LocalDateTime.of(2024, 4, 1, 0, 0), 20), null, null);
+    }
+
+    @Test
+    void weekly_StartDayNotAmongRecurrenceDays() {
+        // Series starts on a Monday; the first occurrence is kept even though only Tuesdays recur
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.WEEKLY, EnumSet.of(DayOfWeek.TUESDAY),
+                LocalDateTime.of(2024, 3, 1, 0, 0), 60), null, null);
+    }
+
+    @Test
+    void monthly_DefaultSixMonthSeries() {
+        assertEquivalent(availability(ProviderAvailability.RecurrenceType.MONTHLY, null, null, 30), null, null);
+    }
+
+    @Test
+    void monthly_MonthEndStartIsClampedLikePlusMonths() {
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.MONTHLY, null,
+                LocalDateTime.of(2024, 12, 31, 0, 0), 30);
+        availability.setStartTime(LocalDateTime.of(2024, 1, 31, 14, 0));
+        availability.setEndTime(LocalDateTime.of(2024, 1, 31, 16, 0));
+        assertEquivalent(availabilityRepository.saveAndFlush(availability), null, null);
+    }
+
+    @Test
+    void daily_OccurrenceSpanningSpringForward() {
+        // Local 00:00-04:00 in New York; the 2024-03-10 occurrence is one hour shorter
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.DAILY, null,
+                LocalDateTime.of(2024, 3, 15, 0, 0), 30);
+        availability.setStartTime(LocalDateTime.of(2024, 3, 5, 5, 0));
+        availability.setEndTime(LocalDateTime.of(2024, 3, 5, 9, 0));
+        assertEquivalent(availabilityRepository.saveAndFlush(availability), null, null);
+    }
+
+    @Test
+    void boundedWindow_MatchesIncrementalMaterialization() {
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY), LocalDateTime.of(2024, 5, 1, 0, 0), 30);
+
+        assertEquivalent(availability, null, LocalDateTime.of(2024, 2, 1, 15, 10));
+        assertEquivalent(availability, LocalDateTime.of(2024, 2, 1, 15, 10), LocalDateTime.of(2024, 3, 14, 0, 0));
+        assertEquivalent(availability, LocalDateTime.of(2024, 3, 14, 0, 0), null);
+    }
+
+    @Test
+    void insertedSlotsCarryAvailabilityAttributesAndUniqueIds() {
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.DAILY, null,
+                LocalDateTime.of(2024, 1, 20, 0, 0), 15);
+
+        int inserted = slotRepository.insertGeneratedSlots(availability.getId(), null, null, AppointmentSlot.ID_ALLOCATION_SIZE);
+        // Slots persisted afterwards through Hibernate must not collide with the SQL-assigned ids
+        slotRepository.saveAllAndFlush(slotGenerator.generate(availability, null, null));
+        entityManager.clear();
+
+        List<AppointmentSlot> slots = slotRepository.findByProviderAvailabilityId(availability.getId());
+        assertEquals(inserted * 2, slots.size());
+        assertEquals(slots.size(), slots.stream().map(AppointmentSlot::getId).collect(Collectors.toSet()).size());
+        AppointmentSlot slot = slots.get(0);
+        assertEquals(AppointmentSlot.SlotStatus.AVAILABLE, slot.getStatus());
+        assertEquals(1L, slot.getProviderId());
+        assertEquals(15, slot.getDurationMinutes());
+        assertEquals("America/New_York", slot.getTimezone());
+        assertEquals(0, new BigDecimal("100.00").compareTo(slot.getPrice()));
+        assertEquals("USD", slot.getCurrency());
+        assertEquals("New York Medical Center", slot.getLocation());
+        assertEquals("CONSULTATION", slot.getAppointmentType());
+        assertNotNull(slot.getCreatedAt());
+    }
+
+    private void assertEquivalent(ProviderAvailability availability, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime[]> expected = new ArrayList<>();
+        slotGenerator.forEachSlotStartingBetween(availability, from, to,
+                slot -> expected.add(new LocalDateTime[]{slot.getStartTime(), slot.getEndTime()}));
+
+        List<AppointmentSlot> before = slotRepository.findByProviderAvailabilityId(availability.getId());
+        int inserted = slotRepository.insertGeneratedSlots(availability.getId(), from, to, AppointmentSlot.ID_ALLOCATION_SIZE);
+        entityManager.clear();
+
+        List<LocalDateTime[]> actual = slotRepository.findByProviderAvailabilityId(availability.getId()).stream()
+                .filter(slot -> before.stream().noneMatch(existing -> existing.getId().equals(slot.getId())))
+                .sorted(Comparator.comparing(AppointmentSlot::getStartTime))
+                .map(slot -> new LocalDateTime[]{slot.getStartTime(), slot.getEndTime()})
+                .collect(Collectors.toList());
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), inserted);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "slot " + i);
+        }
+    }
+
+    private ProviderAvailability availability(ProviderAvailability.RecurrenceType recurrenceType,
+                                              EnumSet<DayOfWeek> recurrenceDays,
+                                              LocalDateTime recurrenceEndDate, int slotDurationMinutes) {
+        return availabilityRepository.saveAndFlush(ProviderAvailability.builder()
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0)) // Monday
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("America/New_York")
+                .recurrenceType(recurrenceType)
+                .recurrenceDays(recurrenceDays != null ? new HashSet<>(recurrenceDays) : new HashSet<>())
+                .recurrenceEndDate(recurrenceEndDate)
+                .slotDurationMinutes(slotDurationMinutes)
+                .price(new BigDecimal("100.00"))
+                .currency("USD")
+                .location("New York Medical Center")
+                .appointmentType("CONSULTATION")
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build());
+    }
+}
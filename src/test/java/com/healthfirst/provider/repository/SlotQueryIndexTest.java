@@ -0,0 +1,159 @@
+package com.healthfirst.provider.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Asserts with EXPLAIN that the hot slot queries are served by the indexes created in the migrations.
+ * The statements mirror the SQL Hibernate generates for the repository methods named on each test,
+ * run against 40,000 analyzed slots spread over 200 availabilities.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+class SlotQueryIndexTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        execute("INSERT INTO provider_availability (provider_id, start_time, end_time, timezone, recurrence_type, " +
+                "slot_duration_minutes, status, slot_materialization, created_at) " +
+                "SELECT g, TIMESTAMP '2024-01-01 00:00', TIMESTAMP '2024-01-01 08:00', 'UTC', 'DAILY', 30, 'ACTIVE', " +
+                "CASE WHEN g % 10 = 0 THEN 'ROLLING' ELSE 'EAGER' END, LOCALTIMESTAMP FROM generate_series(1, 200) g");
+        execute("INSERT INTO appointment_slots (id, provider_availability_id, provider_id, start_time, end_time, " +
+                "duration_minutes, timezone, status, price, currency, location, appointment_type, specialization_code, created_at) " +
+                "SELECT nextval('appointment_slots_seq'), pa.id, pa.provider_id, s.start_time, s.start_time + INTERVAL '30 minutes', " +
+                "30, 'UTC', CASE WHEN d % 5 = 0 THEN 'BOOKED' ELSE 'AVAILABLE' END, 100, 'USD', 'Clinic ' || pa.id, " +
+                "CASE WHEN pa.id % 4 = 0 THEN 'FOLLOW_UP' ELSE 'CONSULTATION' END, pa.id % 10 + 1, LOCALTIMESTAMP " +
+                "FROM provider_availability pa, generate_series(0, 199) d, " +
+                "LATERAL (SELECT TIMESTAMP '2024-01-01 00:00' + d * INTERVAL '12 hours' + (pa.id % 24) * INTERVAL '30 minutes' AS start_time) s");
+        execute("ANALYZE provider_availability");
+        execute("ANALYZE appointment_slots");
+    }
+
+    @Test
+    void search_UsesAvailableStartIndex() {
+        // findAvailableSlotsPageByFilters without filters, first page
+        assertUsesIndex("idx_appointment_slots_available_start",
+                "SELECT * FROM appointment_slots WHERE status = 'AVAILABLE' AND start_time >= TIMESTAMP '2024-02-01 00:00' " +
+                "AND end_time <= TIMESTAMP '2024-02-02 00:00' ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void searchNextPage_UsesAvailableStartIndex() {
+        // findAvailableSlotsPageByFilters with a cursor
+        assertUsesIndex("idx_appointment_slots_available_start",
+                "SELECT * FROM appointment_slots WHERE status = 'AVAILABLE' AND start_time >= TIMESTAMP '2024-02-01 00:00' " +
+                "AND end_time <= TIMESTAMP '2024-03-01 00:00' AND (start_time > TIMESTAMP '2024-02-20 06:00' OR " +
+                "(start_time = TIMESTAMP '2024-02-20 06:00' AND id > 12345)) ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void searchByProvider_UsesProviderIndex() {
+        // findAvailableSlotsPageByFilters with one provider, findAvailableSlotsByProviderAndDateRange; either
+        // index leading with provider_id serves it, the one with status in (start_time, id) order
+        assertUsesIndex("idx_appointment_slots_provider_",
+                "SELECT * FROM appointment_slots WHERE status = 'AVAILABLE' AND start_time >= TIMESTAMP '2024-02-01 00:00' " +
+                "AND end_time <= TIMESTAMP '2024-03-01 00:00' AND provider_id = 17 ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void searchByLocation_UsesAvailableLocationIndex() {
+        // findAvailableSlotsPageByFilters with locations resolved by LocationIndex
+        assertUsesIndex("idx_appointment_slots_available_location",
+                "SELECT * FROM appointment_slots WHERE status = 'AVAILABLE' AND start_time >= TIMESTAMP '2024-01-01 00:00' " +
+                "AND end_time <= TIMESTAMP '2024-05-01 00:00' AND location IN ('Clinic 17', 'Clinic 18') " +
+                "ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void searchBySpecialization_UsesAvailableSpecializationIndex() {
+        // findAvailableSlotsPageByFilters with a specialization
+        assertUsesIndex("idx_appointment_slots_available_specialization",
+                "SELECT * FROM appointment_slots WHERE status = 'AVAILABLE' AND start_time >= TIMESTAMP '2024-01-01 00:00' " +
+                "AND end_time <= TIMESTAMP '2024-05-01 00:00' AND specialization_code = 3 " +
+                "ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void countBookedSlotsByAvailabilityId_UsesAvailabilityStatusIndex() {
+        assertUsesIndex("idx_appointment_slots_availability_status",
+                "SELECT count(*) FROM appointment_slots WHERE provider_availability_id = 17 AND status = 'BOOKED'");
+    }
+
+    @Test
+    void countByAvailabilityIdGroupByStatus_UsesAvailabilityStatusIndex() {
+        assertUsesIndex("idx_appointment_slots_availability_status",
+                "SELECT status, count(*) FROM appointment_slots WHERE provider_availability_id = 17 GROUP BY status");
+    }
+
+    @Test
+    void findSlotsPageByAvailabilityId_UsesAvailabilityStartIndex() {
+        // Next page of an availability's slots in a window
+        assertUsesIndex("idx_appointment_slots_availability_start",
+                "SELECT * FROM appointment_slots WHERE provider_availability_id = 17 " +
+                "AND start_time >= TIMESTAMP '2024-02-01 00:00' AND start_time < TIMESTAMP '2024-03-01 00:00' " +
+                "AND (start_time > TIMESTAMP '2024-02-03 10:00' OR (start_time = TIMESTAMP '2024-02-03 10:00' AND id > 5000)) " +
+                "ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void findSlotsPageByProviderIdWithStatus_UsesProviderStatusStartIndex() {
+        // Next page of a provider's booked slots in a window
+        assertUsesIndex("idx_appointment_slots_provider_status_start",
+                "SELECT * FROM appointment_slots WHERE provider_id = 17 AND status = 'BOOKED' " +
+                "AND start_time >= TIMESTAMP '2024-01-01 00:00' AND start_time < TIMESTAMP '2024-04-01 00:00' " +
+                "AND (start_time > TIMESTAMP '2024-02-03 10:00' OR (start_time = TIMESTAMP '2024-02-03 10:00' AND id > 5000)) " +
+                "ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void findSlotsPageByProviderId_UsesProviderStartIndexWithoutSorting() {
+        // Next page of a provider's slots of any status, no window
+        String plan = explain("SELECT * FROM appointment_slots WHERE provider_id = 17 " +
+                "AND (start_time > TIMESTAMP '2024-02-03 10:00' OR (start_time = TIMESTAMP '2024-02-03 10:00' AND id > 5000)) " +
+                "ORDER BY start_time, id FETCH FIRST 51 ROWS ONLY");
+        assertTrue(plan.contains("idx_appointment_slots_provider_start"), () -> "Expected provider index in plan:\n" + plan);
+        assertFalse(plan.contains("Sort"), () -> "Unexpected sort:\n" + plan);
+    }
+
+    @Test
+    void findByProviderAvailabilityId_UsesAvailabilityIndex() {
+        // Any of the indexes leading with provider_availability_id serves this query
+        assertUsesIndex("idx_appointment_slots_availability_",
+                "SELECT * FROM appointment_slots WHERE provider_availability_id = 17");
+    }
+
+    @Test
+    void findExceptionsByAvailabilityIdsAndDateRange_UsesOccurrenceIndex() {
+        assertUsesIndex("idx_appointment_slots_availability_occurrence",
+                "SELECT * FROM appointment_slots WHERE provider_availability_id IN (17, 18, 19) AND " +
+                "COALESCE(original_start_time, start_time) >= TIMESTAMP '2024-02-01 00:00' AND " +
+                "COALESCE(original_start_time, start_time) <= TIMESTAMP '2024-02-08 00:00'");
+    }
+
+    private void assertUsesIndex(String indexName, String sql) {
+        String text = explain(sql);
+        assertTrue(text.contains(indexName), () -> "Expected " + indexName + " in plan:\n" + text);
+        assertFalse(text.contains("Seq Scan on appointment_slots"), () -> "Unexpected sequential scan:\n" + text);
+    }
+
+    private String explain(String sql) {
+        @SuppressWarnings("unchecked")
+        List<String> plan = entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+        return String.join("\n", plan);
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+}
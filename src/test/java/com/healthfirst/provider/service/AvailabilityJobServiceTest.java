@@ -0,0 +1,195 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.dto.AvailabilityJobResponse;
+import com.healthfirst.provider.dto.ProviderAvailabilityRequest;
+import com.healthfirst.provider.dto.ProviderAvailabilityResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityJobServiceTest {
+
+    @Mock
+    private ProviderAvailabilityService availabilityService;
+
+    private AvailabilityProperties properties;
+
+    private AvailabilityJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AvailabilityProperties();
+        properties.getJobs().setThreads(1);
+        properties.getJobs().setQueueCapacity(3);
+        jobService = new AvailabilityJobService(availabilityService, properties);
+        jobService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.stop();
+    }
+
+    @Test
+    void submit_CompletesWithProgressAndAvailabilityId() throws Exception {
+        // Arrange
+        when(availabilityService.createAvailability(any(ProviderAvailabilityRequest.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    IntConsumer progress = invocation.getArgument(1);
+                    progress.accept(50);
+                    progress.accept(80);
+                    return ProviderAvailabilityResponse.builder().id(7L).build();
+                });
+
+        // Act
+        AvailabilityJobResponse submitted = jobService.submit(request(1L));
+        AvailabilityJobResponse job = awaitFinished(submitted.getJobId());
+
+        // Assert
+        assertEquals(AvailabilityJobResponse.JobStatus.COMPLETED, job.getStatus());
+        assertEquals(80, job.getSlotsGenerated());
+        assertEquals(7L, job.getAvailabilityId());
+        assertNotNull(job.getCompletedAt());
+    }
+
+    @Test
+    void submit_FailureIsReported() throws Exception {
+        // Arrange
+        when(availabilityService.createAvailability(any(ProviderAvailabilityRequest.class), any(IntConsumer.class)))
+                .thenThrow(new IllegalArgumentException("Availability overlaps with existing schedule"));
+
+        // Act
+        AvailabilityJobResponse job = awaitFinished(jobService.submit(request(1L)).getJobId());
+
+        // Assert
+        assertEquals(AvailabilityJobResponse.JobStatus.FAILED, job.getStatus());
+        assertEquals("Availability overlaps with existing schedule", job.getError());
+    }
+
+    @Test
+    void submit_ProvidersTakeTurns() throws Exception {
+        // Arrange - jobs block the single worker until all of them are queued
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> executionOrder = new CopyOnWriteArrayList<>();
+        when(availabilityService.createAvailability(any(ProviderAvailabilityRequest.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    ProviderAvailabilityRequest request = invocation.getArgument(0);
+                    release.await(5, TimeUnit.SECONDS);
+                    executionOrder.add(request.getProviderId());
+                    return ProviderAvailabilityResponse.builder().id(1L).build();
+                });
+
+        // Act
+        List<UUID> jobIds = List.of(
+                jobService.submit(request(1L)).getJobId(),
+                jobService.submit(request(1L)).getJobId(),
+                jobService.submit(request(1L)).getJobId());
+        properties.getJobs().setQueueCapacity(4);
+        UUID otherProviderJob = jobService.submit(request(2L)).getJobId();
+        release.countDown();
+        for (UUID jobId : jobIds) {
+            awaitFinished(jobId);
+        }
+        awaitFinished(otherProviderJob);
+
+        // Assert - provider 2 is served before provider 1's backlog is drained
+        assertEquals(4, executionOrder.size());
+        assertEquals(1L, executionOrder.get(3));
+    }
+
+    @Test
+    void submit_JobsOfOneProviderNeverOverlap() throws Exception {
+        // Arrange - two workers, so only the per-provider rule keeps the jobs apart
+        jobService.stop();
+        properties.getJobs().setThreads(2);
+        jobService = new AvailabilityJobService(availabilityService, properties);
+        jobService.start();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(availabilityService.createAvailability(any(ProviderAvailabilityRequest.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    running.decrementAndGet();
+                    return ProviderAvailabilityResponse.builder().id(1L).build();
+                });
+
+        // Act
+        List<UUID> jobIds = List.of(
+                jobService.submit(request(1L)).getJobId(),
+                jobService.submit(request(1L)).getJobId(),
+                jobService.submit(request(1L)).getJobId());
+        for (UUID jobId : jobIds) {
+            awaitFinished(jobId);
+        }
+
+        // Assert
+        assertEquals(1, maxRunning.get());
+        verify(availabilityService, times(3)).createAvailability(any(ProviderAvailabilityRequest.class), any(IntConsumer.class));
+    }
+
+    @Test
+    void submit_QueueFull_Rejected() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(availabilityService.createAvailability(any(ProviderAvailabilityRequest.class), any(IntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return ProviderAvailabilityResponse.builder().id(1L).build();
+                });
+        properties.getJobs().setQueueCapacity(1);
+
+        // Act & Assert
+        try {
+            jobService.submit(request(1L));
+            // The running job has left the queue; the next one fills it
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            jobService.submit(request(1L));
+            RejectedExecutionException rejected = assertThrows(RejectedExecutionException.class,
+                    () -> jobService.submit(request(1L)));
+            assertEquals("Availability job queue is full", rejected.getMessage());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void getJob_Unknown_ThrowsException() {
+        assertThrows(RuntimeException.class, () -> jobService.getJob(UUID.randomUUID()));
+    }
+
+    private AvailabilityJobResponse awaitFinished(UUID jobId) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            AvailabilityJobResponse job = jobService.getJob(jobId);
+            if (job.getCompletedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+
+    private ProviderAvailabilityRequest request(Long providerId) {
+        return ProviderAvailabilityRequest.builder().providerId(providerId).build();
+    }
+}
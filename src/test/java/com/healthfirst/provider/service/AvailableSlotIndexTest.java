@@ -0,0 +1,367 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.Specialization;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.AvailableSlotRow;
+import com.healthfirst.provider.repository.SlotRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares index searches against a brute-force filter over the same slots.
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailableSlotIndexTest {
+
+    private static final String[] LOCATIONS = {"New York Medical Center", "Boston Clinic", "New Haven Clinic", null};
+    private static final String[] TYPES = {"CONSULTATION", "FOLLOW_UP", null};
+    private static final Specialization[] SPECIALIZATIONS = {Specialization.CARDIOLOGY, Specialization.DERMATOLOGY,
+            Specialization.PEDIATRICS, null};
+
+    @Mock
+    private AppointmentSlotRepository slotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AvailableSlotIndex slotIndex;
+    private List<AvailableSlotRow> rows;
+    private LocalDateTime today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now(ZoneOffset.UTC).atStartOfDay();
+        rows = generateRows(3000, new Random(42));
+        slotIndex = new AvailableSlotIndex(slotRepository, transactionManager, new AvailabilityProperties());
+        when(slotRepository.streamAvailableSlotRows(any())).thenAnswer(invocation -> new ArrayList<>(rows).stream());
+        slotIndex.rebuild();
+    }
+
+    @Test
+    void covers_OnlyWindowsFromToday() {
+        assertTrue(slotIndex.covers(today));
+        assertTrue(slotIndex.covers(today.plusDays(3)));
+        assertFalse(slotIndex.covers(today.minusSeconds(1)));
+    }
+
+    @Test
+    void covers_FalseBeforeFirstBuild() {
+        AvailableSlotIndex unbuilt = new AvailableSlotIndex(slotRepository, transactionManager, new AvailabilityProperties());
+        assertFalse(unbuilt.covers(today.plusDays(1)));
+    }
+
+    @Test
+    void covers_FalseWhenDisabled() {
+        AvailabilityProperties properties = new AvailabilityProperties();
+        AvailableSlotIndex index = new AvailableSlotIndex(slotRepository, transactionManager, properties);
+        index.rebuild();
+        properties.getSlotIndex().setEnabled(false);
+        assertFalse(index.covers(today.plusDays(1)));
+    }
+
+    @Test
+    void findPage_MatchesBruteForceForEveryFilter() {
+        LocalDateTime start = today.plusDays(2);
+        LocalDateTime end = today.plusDays(9).minusSeconds(1);
+
+        assertMatches(start, end, null, null, null, null, null);
+        assertMatches(start, end, Set.of("Boston Clinic", "New Haven Clinic"), null, null, null, null);
+        assertMatches(start, end, Set.of("New York Medical Center", "New Haven Clinic"), "CONSULTATION", null, null, null);
+        assertMatches(start, end, null, "FOLLOW_UP", Set.of(3L), null, null);
+        assertMatches(start, end, null, null, Set.of(2L, 5L, 7L), null, null);
+        assertMatches(start, end, Set.of("Boston Clinic"), null, Set.of(), null, null);
+        assertMatches(start, end, null, null, null, 120, null);
+        assertMatches(start, end, Set.of("Boston Clinic"), null, null, 150, 45);
+        assertMatches(start, end, Set.of("Nowhere"), null, null, null, null);
+        assertMatches(start, end, Set.of(), null, null, null, null);
+    }
+
+    @Test
+    void findPage_MatchesBruteForceBySpecialization() {
+        LocalDateTime start = today.plusDays(2);
+        LocalDateTime end = today.plusDays(9).minusSeconds(1);
+
+        assertMatches(start, end, null, null, Specialization.CARDIOLOGY, null, null, null);
+        assertMatches(start, end, Set.of("Boston Clinic"), "CONSULTATION", Specialization.PEDIATRICS, null, null, null);
+        assertMatches(start, end, null, null, Specialization.DERMATOLOGY, Set.of(2L, 3L), 150, null);
+        assertMatches(start, end, null, null, Specialization.ONCOLOGY, null, null, null);
+    }
+
+    @Test
+    void findPage_CursorPagesCoverEverySlotOnce() {
+        LocalDateTime start = today.plusDays(1);
+        LocalDateTime end = today.plusDays(20);
+        Set<String> clinics = Set.of("Boston Clinic", "New Haven Clinic");
+        List<Long> expected = bruteForce(start, end, clinics, null, null, null, null).stream()
+                .map(AvailableSlotRow::getId)
+                .collect(Collectors.toList());
+
+        List<Long> paged = new ArrayList<>();
+        LocalDateTime afterStartTime = null;
+        Long afterId = null;
+        while (true) {
+            List<SlotRow> page = slotIndex.findPage(start, end, clinics, null, null, null, null, null,
+                    afterStartTime, afterId, 37);
+            page.forEach(slot -> paged.add(slot.id()));
+            if (page.size() < 37) {
+                break;
+            }
+            SlotRow last = page.get(page.size() - 1);
+            afterStartTime = last.startTime();
+            afterId = last.id();
+        }
+
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void findPage_ReturnsSearchFields() {
+        AvailableSlotRow row = rows.stream()
+                .filter(r -> r.getLocation() != null && r.getAppointmentType() != null && r.getPrice() != null)
+                .findFirst()
+                .orElseThrow();
+
+        SlotRow slot = slotIndex.findPage(row.getStartTime(), row.getEndTime(), Set.of(row.getLocation()),
+                row.getAppointmentType(), row.getSpecialization(), Set.of(row.getProviderId()), null, null,
+                row.getStartTime(), row.getId() - 1, 1).get(0);
+
+        assertEquals(row.getId(), slot.id());
+        assertEquals(row.getProviderAvailabilityId(), slot.providerAvailabilityId());
+        assertEquals(row.getProviderId(), slot.providerId());
+        assertEquals(row.getStartTime(), slot.startTime());
+        assertEquals(row.getEndTime(), slot.endTime());
+        assertEquals(0, row.getPrice().compareTo(slot.price()));
+        assertEquals(row.getCurrency(), slot.currency());
+        assertEquals(row.getTimezone(), slot.timezone());
+        assertEquals(row.getSpecialization(), slot.specialization());
+        assertEquals(row.getLocation(), slot.location());
+        assertEquals(row.getAppointmentType(), slot.appointmentType());
+        assertEquals(AppointmentSlot.SlotStatus.AVAILABLE, slot.status());
+    }
+
+    @Test
+    void updateSlot_BookedSlotLeavesIndexAndMovedSlotIsFoundAtNewPosition() {
+        AvailableSlotRow booked = rows.get(10);
+        AvailableSlotRow moved = rows.get(20);
+
+        AppointmentSlot bookedSlot = toSlot(booked);
+        AvailableSlotIndex.SlotPosition bookedPosition = AvailableSlotIndex.SlotPosition.of(bookedSlot);
+        bookedSlot.setStatus(AppointmentSlot.SlotStatus.BOOKED);
+        slotIndex.updateSlot(bookedPosition, bookedSlot);
+
+        AppointmentSlot movedSlot = toSlot(moved);
+        AvailableSlotIndex.SlotPosition movedPosition = AvailableSlotIndex.SlotPosition.of(movedSlot);
+        movedSlot.setStartTime(today.plusDays(15).plusHours(9));
+        movedSlot.setEndTime(today.plusDays(15).plusHours(9).plusMinutes(30));
+        movedSlot.setLocation("Relocated Clinic");
+        slotIndex.updateSlot(movedPosition, movedSlot);
+
+        rows.remove(booked);
+        rows.remove(moved);
+        rows.add(AvailableSlotIndex.SlotSnapshot.of(movedSlot));
+        assertMatches(today, today.plusDays(20), null, null, null, null, null);
+        assertMatches(today, today.plusDays(20), Set.of("Relocated Clinic"), null, null, null, null);
+    }
+
+    @Test
+    void removeAvailability_DropsItsSlots() {
+        slotIndex.removeAvailability(4L);
+
+        rows.removeIf(row -> row.getProviderAvailabilityId() == 4L);
+        assertMatches(today, today.plusDays(20), null, null, null, null, null);
+    }
+
+    @Test
+    void refreshAvailability_ReplacesItsSlots() {
+        List<AvailableSlotRow> refreshed = generateRows(50, new Random(7)).stream()
+                .map(row -> snapshot(row.getId() + 100_000, 5L, row))
+                .collect(Collectors.toList());
+        when(slotRepository.findAvailableSlotRowsByAvailabilityId(5L)).thenReturn(refreshed);
+
+        slotIndex.refreshAvailability(5L);
+
+        rows.removeIf(row -> row.getProviderAvailabilityId() == 5L);
+        rows.addAll(refreshed);
+        assertMatches(today, today.plusDays(20), null, null, null, null, null);
+    }
+
+    @Test
+    void findNextForProvider_MatchesBruteForce() {
+        LocalDateTime from = today.plusDays(4).plusHours(13);
+
+        for (long providerId = 1; providerId <= 5; providerId++) {
+            assertNextForProvider(providerId, from, null, null);
+            assertNextForProvider(providerId, from, "FOLLOW_UP", null);
+            assertNextForProvider(providerId, from, "CONSULTATION", Set.of("Boston Clinic", "New Haven Clinic"));
+        }
+        assertNull(slotIndex.findNextForProvider(99L, from, null, null));
+    }
+
+    @Test
+    void findNextForProvider_AdvancesWhenTheFirstSlotIsBooked() {
+        AvailableSlotRow first = bruteForce(today, today.plusDays(30), null, null, Set.of(3L), null, null).get(0);
+        AppointmentSlot bookedSlot = toSlot(first);
+        AvailableSlotIndex.SlotPosition position = AvailableSlotIndex.SlotPosition.of(bookedSlot);
+        bookedSlot.setStatus(AppointmentSlot.SlotStatus.BOOKED);
+
+        slotIndex.updateSlot(position, bookedSlot);
+
+        rows.remove(first);
+        assertNextForProvider(3L, today, null, null);
+        assertNotEquals(first.getId(), slotIndex.findNextForProvider(3L, today, null, null).id());
+    }
+
+    @Test
+    void findNextPerProvider_MatchesBruteForce() {
+        LocalDateTime now = today.plusDays(2).plusHours(7);
+
+        assertNextPerProvider(now, null, null, 10);
+        assertNextPerProvider(now, "CONSULTATION", null, 10);
+        assertNextPerProvider(now, null, Set.of("New York Medical Center"), 3);
+        assertNextPerProvider(now, "FOLLOW_UP", Set.of("Boston Clinic", "New Haven Clinic"), 10);
+        assertNextPerProvider(now, null, Set.of(), 10);
+    }
+
+    @Test
+    void findNextPerProvider_DropsStartedSlotsAndFollowsRemovals() {
+        assertNextPerProvider(today.plusDays(1), null, null, 10);
+        slotIndex.removeAvailability(2L);
+        rows.removeIf(row -> row.getProviderAvailabilityId() == 2L);
+
+        assertNextPerProvider(today.plusDays(6).plusMinutes(20), null, null, 10);
+        assertNextPerProvider(today.plusDays(6).plusMinutes(20), "CONSULTATION", Set.of("Boston Clinic"), 10);
+    }
+
+    private void assertNextForProvider(Long providerId, LocalDateTime from, String appointmentType,
+                                       Set<String> locations) {
+        Long expected = bruteForce(from, LocalDateTime.MAX, locations, appointmentType, Set.of(providerId), null, null)
+                .stream()
+                .findFirst()
+                .map(AvailableSlotRow::getId)
+                .orElse(null);
+        SlotRow next = slotIndex.findNextForProvider(providerId, from, appointmentType, locations);
+        assertEquals(expected, next != null ? next.id() : null);
+    }
+
+    private void assertNextPerProvider(LocalDateTime now, String appointmentType, Set<String> locations, int limit) {
+        Set<Long> seen = new HashSet<>();
+        List<Long> expected = bruteForce(now, LocalDateTime.MAX, locations, appointmentType, null, null, null).stream()
+                .filter(row -> seen.add(row.getProviderId()))
+                .limit(limit)
+                .map(AvailableSlotRow::getId)
+                .collect(Collectors.toList());
+        List<Long> actual = slotIndex.findNextPerProvider(now, appointmentType, locations, limit).stream()
+                .map(SlotRow::id)
+                .collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    private void assertMatches(LocalDateTime start, LocalDateTime end, Set<String> locations, String appointmentType,
+                               Set<Long> providerIds, Integer maxPrice, Integer duration) {
+        assertMatches(start, end, locations, appointmentType, null, providerIds, maxPrice, duration);
+    }
+
+    private void assertMatches(LocalDateTime start, LocalDateTime end, Set<String> locations, String appointmentType,
+                               Specialization specialization, Set<Long> providerIds, Integer maxPrice,
+                               Integer duration) {
+        List<Long> expected = bruteForce(start, end, locations, appointmentType, specialization, providerIds, maxPrice,
+                duration).stream()
+                .limit(5000)
+                .map(AvailableSlotRow::getId)
+                .collect(Collectors.toList());
+        List<Long> actual = slotIndex.findPage(start, end, locations, appointmentType, specialization, providerIds,
+                        maxPrice, duration, null, null, 5000).stream()
+                .map(SlotRow::id)
+                .collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    private List<AvailableSlotRow> bruteForce(LocalDateTime start, LocalDateTime end, Set<String> locations,
+                                              String appointmentType, Set<Long> providerIds, Integer maxPrice,
+                                              Integer duration) {
+        return bruteForce(start, end, locations, appointmentType, null, providerIds, maxPrice, duration);
+    }
+
+    private List<AvailableSlotRow> bruteForce(LocalDateTime start, LocalDateTime end, Set<String> locations,
+                                              String appointmentType, Specialization specialization,
+                                              Set<Long> providerIds, Integer maxPrice, Integer duration) {
+        Predicate<AvailableSlotRow> matches = row -> !row.getStartTime().isBefore(start)
+                && !row.getEndTime().isAfter(end)
+                && (locations == null || (row.getLocation() != null && locations.contains(row.getLocation())))
+                && (appointmentType == null || appointmentType.equals(row.getAppointmentType()))
+                && (specialization == null || specialization == row.getSpecialization())
+                && (providerIds == null || providerIds.contains(row.getProviderId()))
+                && (maxPrice == null || (row.getPrice() != null && row.getPrice().compareTo(BigDecimal.valueOf(maxPrice)) <= 0))
+                && (duration == null || row.getStartTime().plusMinutes(duration).isEqual(row.getEndTime()));
+        return rows.stream()
+                .filter(matches)
+                .sorted(Comparator.comparing(AvailableSlotRow::getStartTime).thenComparing(AvailableSlotRow::getId))
+                .collect(Collectors.toList());
+    }
+
+    private List<AvailableSlotRow> generateRows(int count, Random random) {
+        List<AvailableSlotRow> generated = new ArrayList<>();
+        int[] durations = {15, 30, 45, 60};
+        for (long id = 1; id <= count; id++) {
+            // Quarter-hour starts collide often, so equal start times are ordered by id
+            LocalDateTime startTime = today.plusMinutes(15L * random.nextInt(20 * 24 * 4));
+            long providerId = 1L + random.nextInt(5);
+            // A provider has one specialization, so every slot of theirs carries the same one
+            generated.add(new AvailableSlotIndex.SlotSnapshot(id, 1L + random.nextInt(8), providerId,
+                    startTime, startTime.plusMinutes(durations[random.nextInt(durations.length)]), "America/New_York",
+                    random.nextInt(10) == 0 ? null : BigDecimal.valueOf(50 + random.nextInt(150)), "USD",
+                    LOCATIONS[random.nextInt(LOCATIONS.length)], TYPES[random.nextInt(TYPES.length)], null,
+                    SPECIALIZATIONS[(int) (providerId % SPECIALIZATIONS.length)]));
+        }
+        return generated;
+    }
+
+    private static AvailableSlotRow snapshot(Long id, Long availabilityId, AvailableSlotRow row) {
+        return new AvailableSlotIndex.SlotSnapshot(id, availabilityId, row.getProviderId(), row.getStartTime(),
+                row.getEndTime(), row.getTimezone(), row.getPrice(), row.getCurrency(), row.getLocation(),
+                row.getAppointmentType(), row.getSpecialRequirements(), row.getSpecialization());
+    }
+
+    private static AppointmentSlot toSlot(AvailableSlotRow row) {
+        ProviderAvailability availability = new ProviderAvailability();
+        availability.setId(row.getProviderAvailabilityId());
+        return AppointmentSlot.builder()
+                .id(row.getId())
+                .providerAvailability(availability)
+                .providerId(row.getProviderId())
+                .startTime(row.getStartTime())
+                .endTime(row.getEndTime())
+                .timezone(row.getTimezone())
+                .price(row.getPrice())
+                .currency(row.getCurrency())
+                .location(row.getLocation())
+                .appointmentType(row.getAppointmentType())
+                .specialization(row.getSpecialization())
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .build();
+    }
+}
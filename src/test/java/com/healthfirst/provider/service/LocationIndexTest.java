@@ -0,0 +1,118 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationIndexTest {
+
+    @Mock
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AppointmentSlotRepository slotRepository;
+
+    private LocationIndex locationIndex;
+
+    @BeforeEach
+    void setUp() {
+        locationIndex = new LocationIndex(availabilityRepository, slotRepository, new AvailabilityProperties());
+        lenient().when(availabilityRepository.findDistinctLocations())
+                .thenReturn(List.of("New York Medical Center", "Boston Clinic", "Brooklyn Heights Clinic"));
+        lenient().when(slotRepository.findDistinctAvailableSlotLocations())
+                .thenReturn(List.of("Boston Clinic", "St. John's Hospital, Suite 4"));
+    }
+
+    @Test
+    void resolve_NullQueryMeansNoFilter() {
+        assertNull(locationIndex.resolve(null));
+        verifyNoInteractions(availabilityRepository, slotRepository);
+    }
+
+    @Test
+    void resolve_SubstringIgnoringCaseAndPunctuation() {
+        assertEquals(Set.of("Boston Clinic", "Brooklyn Heights Clinic"), locationIndex.resolve("clinic"));
+        assertEquals(Set.of("New York Medical Center"), locationIndex.resolve("YORK MED"));
+        assertEquals(Set.of("St. John's Hospital, Suite 4"), locationIndex.resolve("st johns"));
+        assertEquals(Set.of("St. John's Hospital, Suite 4"), locationIndex.resolve("suite 4"));
+    }
+
+    @Test
+    void resolve_ShortQueriesMatchBySubstring() {
+        assertEquals(Set.of("Brooklyn Heights Clinic", "Boston Clinic"), locationIndex.resolve("li"));
+        assertEquals(Set.of("New York Medical Center"), locationIndex.resolve("w y"));
+    }
+
+    @Test
+    void resolve_ToleratesTypos() {
+        assertEquals(Set.of("Boston Clinic"), locationIndex.resolve("Bostn"));
+        assertEquals(Set.of("New York Medical Center"), locationIndex.resolve("Medicl Centre"));
+    }
+
+    @Test
+    void resolve_UnrelatedQueryMatchesNothing() {
+        assertTrue(locationIndex.resolve("Chicago").isEmpty());
+        verify(availabilityRepository).findDistinctLocationsContaining("Chicago");
+    }
+
+    @Test
+    void resolve_FallsBackToStoredLocationsSavedSinceReload() {
+        // Arrange - saved by another instance after this one loaded the index
+        locationIndex.resolve("clinic");
+        when(availabilityRepository.findDistinctLocationsContaining("Queens"))
+                .thenReturn(List.of("Queens Family Practice"));
+
+        // Act
+        Set<String> result = locationIndex.resolve("Queens");
+
+        // Assert
+        assertEquals(Set.of("Queens Family Practice"), result);
+        assertEquals(Set.of("Queens Family Practice"), locationIndex.resolve("queens family"));
+        verify(availabilityRepository, times(1)).findDistinctLocationsContaining(anyString());
+        verify(availabilityRepository, times(1)).findDistinctLocations();
+    }
+
+    @Test
+    void resolve_BlankQueryMatchesEveryLocation() {
+        assertEquals(4, locationIndex.resolve(" ").size());
+    }
+
+    @Test
+    void matches_AppliesResolveRuleToSingleLocation() {
+        assertTrue(locationIndex.matches("clinic", "Queens Clinic"));
+        assertTrue(locationIndex.matches("bostn", "Boston Clinic"));
+        assertTrue(locationIndex.matches("li", "Queens Clinic"));
+        assertFalse(locationIndex.matches("chicago", "Queens Clinic"));
+        assertFalse(locationIndex.matches("clinic", null));
+        verifyNoInteractions(availabilityRepository, slotRepository);
+    }
+
+    @Test
+    void register_MakesNewLocationSearchable() {
+        locationIndex.register("Queens Family Practice");
+
+        assertEquals(Set.of("Queens Family Practice"), locationIndex.resolve("queens"));
+        verify(availabilityRepository, times(1)).findDistinctLocations();
+    }
+
+    @Test
+    void reload_LoadsOnFirstUseOnly() {
+        locationIndex.resolve("clinic");
+        locationIndex.resolve("boston");
+
+        verify(availabilityRepository, times(1)).findDistinctLocations();
+        verify(slotRepository, times(1)).findDistinctAvailableSlotLocations();
+    }
+}
@@ -1,26 +1,49 @@
 package com.healthfirst.provider.service;
 
+import com.healthfirst.provider.config.AvailabilityProperties;
 import com.healthfirst.provider.dto.AppointmentSlotResponse;
 import com.healthfirst.provider.dto.AvailabilitySearchRequest;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.ProviderAvailabilityBatchResponse;
 import com.healthfirst.provider.dto.ProviderAvailabilityRequest;
 import com.healthfirst.provider.dto.ProviderAvailabilityResponse;
+import com.healthfirst.provider.dto.ProviderCalendarResponse;
+import com.healthfirst.provider.dto.ProviderSlotsResponse;
+import com.healthfirst.provider.dto.ProviderTimelineResponse;
 import com.healthfirst.provider.entity.AppointmentSlot;
 import com.healthfirst.provider.entity.ProviderAvailability;
+import com.healthfirst.provider.entity.ProviderDailyAvailability;
+import com.healthfirst.provider.entity.Specialization;
 import com.healthfirst.provider.repository.AppointmentSlotRepository;
+import com.healthfirst.provider.repository.AvailableSlotExportRepository;
 import com.healthfirst.provider.repository.ProviderAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderAvailabilityVersionRepository;
+import com.healthfirst.provider.repository.ProviderDailyAvailabilityRepository;
+import com.healthfirst.provider.repository.ProviderRepository;
+import com.healthfirst.provider.repository.ProviderSummaryRow;
+import com.healthfirst.provider.repository.SlotRow;
+import com.healthfirst.provider.repository.SlotStatusCount;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,6 +58,42 @@ class ProviderAvailabilityServiceTest {
     @Mock
     private AppointmentSlotRepository slotRepository;
 
+    @Mock
+    private AvailableSlotExportRepository exportRepository;
+
+    @Mock
+    private ProviderDailyAvailabilityRepository dailyAvailabilityRepository;
+
+    @Mock
+    private ProviderAvailabilityVersionRepository versionRepository;
+
+    @Mock
+    private ProviderRepository providerRepository;
+
+    @Spy
+    private SlotGenerator slotGenerator = new SlotGenerator();
+
+    @Mock
+    private SlotBatchWriter slotBatchWriter;
+
+    @Mock
+    private AvailableSlotIndex slotIndex;
+
+    @Mock
+    private LocationIndex locationIndex;
+
+    @Mock
+    private ProviderGeoIndex providerGeoIndex;
+
+    @Mock
+    private SearchResultCache searchCache;
+
+    @Spy
+    private AvailabilityProperties properties = new AvailabilityProperties();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProviderAvailabilityService availabilityService;
 
@@ -44,6 +103,9 @@ class ProviderAvailabilityServiceTest {
 
     @BeforeEach
     void setUp() {
+        // A mocked Set-returning method answers an empty set, which would mean "no location matches"
+        lenient().when(locationIndex.resolve(null)).thenReturn(null);
+
         validRequest = ProviderAvailabilityRequest.builder()
                 .providerId(1L)
                 .startTime(LocalDateTime.of(2024, 1, 15, 9, 0))
@@ -92,6 +154,91 @@ class ProviderAvailabilityServiceTest {
         );
     }
 
+    // Plain rows rather than mocks: these are built inside when(...).thenReturn(...), where stubbing a
+    // mock would leave the outer stubbing unfinished
+    private static ProviderSummaryRow providerSummary(Long providerNumber, String firstName, String lastName) {
+        return new ProviderSummaryRow() {
+            @Override
+            public Long getProviderNumber() {
+                return providerNumber;
+            }
+
+            @Override
+            public String getFirstName() {
+                return firstName;
+            }
+
+            @Override
+            public String getLastName() {
+                return lastName;
+            }
+
+            @Override
+            public String getSpecialization() {
+                return "Cardiology";
+            }
+
+            @Override
+            public String getPhoneNumber() {
+                return null;
+            }
+
+            @Override
+            public String getEmail() {
+                return firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com";
+            }
+
+            @Override
+            public String getStreet() {
+                return "1 Main St";
+            }
+
+            @Override
+            public String getCity() {
+                return "Springfield";
+            }
+
+            @Override
+            public String getState() {
+                return "IL";
+            }
+
+            @Override
+            public String getZip() {
+                return "62701";
+            }
+        };
+    }
+
+    private static SlotStatusCount slotCount(AppointmentSlot.SlotStatus status, long count) {
+        return new SlotStatusCount() {
+            @Override
+            public AppointmentSlot.SlotStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return count;
+            }
+        };
+    }
+
+    // Repository reads return rows; the fixtures are built as slots and projected the same way
+    private static List<SlotRow> rows(List<AppointmentSlot> slots) {
+        return slots.stream().map(SlotRow::of).collect(Collectors.toList());
+    }
+
+    private List<AppointmentSlot> stubBatchWriter() {
+        List<AppointmentSlot> written = new ArrayList<>();
+        when(slotBatchWriter.write(any(), any())).thenAnswer(invocation -> {
+            Consumer<Consumer<AppointmentSlot>> slotSource = invocation.getArgument(0);
+            slotSource.accept(written::add);
+            return written.size();
+        });
+        return written;
+    }
+
     @Test
     void createAvailability_Success() {
         // Arrange
@@ -99,10 +246,11 @@ class ProviderAvailabilityServiceTest {
                 .thenReturn(false);
         when(availabilityRepository.save(any(ProviderAvailability.class)))
                 .thenReturn(mockAvailability);
-        when(slotRepository.saveAll(anyList()))
-                .thenReturn(mockSlots);
-        when(slotRepository.findByProviderAvailabilityId(anyLong()))
-                .thenReturn(mockSlots);
+        stubBatchWriter();
+        when(slotRepository.countByAvailabilityIdGroupByStatus(1L)).thenReturn(List.of(
+                slotCount(AppointmentSlot.SlotStatus.AVAILABLE, 1), slotCount(AppointmentSlot.SlotStatus.BOOKED, 1)));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(1L), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(rows(mockSlots));
 
         // Act
         ProviderAvailabilityResponse response = availabilityService.createAvailability(validRequest);
@@ -114,7 +262,30 @@ class ProviderAvailabilityServiceTest {
         assertEquals(1L, response.getAvailableSlots());
         assertEquals(1L, response.getBookedSlots());
         verify(availabilityRepository).save(any(ProviderAvailability.class));
-        verify(slotRepository).saveAll(anyList());
+        verify(slotBatchWriter).write(any(), any());
+        verify(searchCache).invalidate(any(SearchResultCache.SlotScope.class));
+        // The provider lock is taken before the overlap check it protects
+        InOrder inOrder = inOrder(availabilityRepository);
+        inOrder.verify(availabilityRepository).lockProvider(1L);
+        inOrder.verify(availabilityRepository).existsOverlappingAvailability(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void createAvailability_CopiesProviderSpecialization() {
+        // Arrange
+        when(providerRepository.findSpecializationByProviderNumber(1L)).thenReturn(Optional.of("Cardiology"));
+        when(availabilityRepository.existsOverlappingAvailability(anyLong(), any(), any(), any()))
+                .thenReturn(false);
+        when(availabilityRepository.save(any(ProviderAvailability.class)))
+                .thenReturn(mockAvailability);
+        stubBatchWriter();
+
+        // Act
+        availabilityService.createAvailability(validRequest);
+
+        // Assert
+        verify(availabilityRepository).save(argThat(availability ->
+                availability.getSpecialization() == Specialization.CARDIOLOGY));
     }
 
     @Test
@@ -169,10 +340,7 @@ class ProviderAvailabilityServiceTest {
                 .thenReturn(false);
         when(availabilityRepository.save(any(ProviderAvailability.class)))
                 .thenReturn(mockRecurringAvailability);
-        when(slotRepository.saveAll(anyList()))
-                .thenReturn(mockSlots);
-        when(slotRepository.findByProviderAvailabilityId(anyLong()))
-                .thenReturn(mockSlots);
+        stubBatchWriter();
 
         // Act
         ProviderAvailabilityResponse response = availabilityService.createAvailability(validRequest);
@@ -189,8 +357,10 @@ class ProviderAvailabilityServiceTest {
         // Arrange
         when(availabilityRepository.findByProviderIdAndStatus(anyLong(), any()))
                 .thenReturn(Arrays.asList(mockAvailability));
-        when(slotRepository.findByProviderAvailabilityId(anyLong()))
-                .thenReturn(mockSlots);
+        when(slotRepository.countByAvailabilityIdGroupByStatus(1L)).thenReturn(List.of(
+                slotCount(AppointmentSlot.SlotStatus.AVAILABLE, 1), slotCount(AppointmentSlot.SlotStatus.BOOKED, 1)));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(1L), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(rows(mockSlots));
 
         // Act
         ProviderAvailabilityResponse response = availabilityService.getProviderAvailability(1L);
@@ -199,6 +369,118 @@ class ProviderAvailabilityServiceTest {
         assertNotNull(response);
         assertEquals(1L, response.getProviderId());
         assertEquals(2L, response.getTotalSlots());
+        assertEquals(2, response.getAppointmentSlots().size());
+        assertFalse(response.isHasMoreSlots());
+        assertNull(response.getNextSlotCursor());
+        verify(slotRepository, never()).findByProviderAvailabilityId(anyLong());
+    }
+
+    @Test
+    void getProviderAvailability_MergesEveryActiveAvailability() {
+        // Arrange - a second availability starting later, one of whose slots repeats a time of the first
+        ProviderAvailability afternoon = ProviderAvailability.builder()
+                .id(2L)
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 15))
+                .endTime(LocalDateTime.of(2024, 1, 15, 16, 0))
+                .recurrenceType(ProviderAvailability.RecurrenceType.NONE)
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build();
+        List<AppointmentSlot> afternoonSlots = List.of(
+                AppointmentSlot.builder().id(3L).providerId(1L)
+                        .startTime(LocalDateTime.of(2024, 1, 15, 14, 0)).endTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build(),
+                AppointmentSlot.builder().id(4L).providerId(1L)
+                        .startTime(LocalDateTime.of(2024, 1, 15, 14, 15)).endTime(LocalDateTime.of(2024, 1, 15, 14, 45))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build());
+        when(availabilityRepository.findByProviderIdAndStatus(anyLong(), any()))
+                .thenReturn(Arrays.asList(afternoon, mockAvailability));
+        when(slotRepository.countByAvailabilityIdGroupByStatus(1L)).thenReturn(List.of(
+                slotCount(AppointmentSlot.SlotStatus.AVAILABLE, 1), slotCount(AppointmentSlot.SlotStatus.BOOKED, 1)));
+        when(slotRepository.countByAvailabilityIdGroupByStatus(2L)).thenReturn(List.of(
+                slotCount(AppointmentSlot.SlotStatus.AVAILABLE, 2)));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(1L), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(rows(mockSlots));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(2L), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(rows(afternoonSlots));
+
+        // Act
+        ProviderAvailabilityResponse response = availabilityService.getProviderAvailability(1L);
+
+        // Assert
+        assertEquals(1L, response.getId());
+        assertEquals(List.of(2L, 1L), response.getAvailabilityIds());
+        assertEquals(4L, response.getTotalSlots());
+        assertEquals(3L, response.getAvailableSlots());
+        assertEquals(List.of(1L, 4L, 2L),
+                response.getAppointmentSlots().stream().map(AppointmentSlotResponse::getId).toList());
+        assertFalse(response.isHasMoreSlots());
+    }
+
+    @Test
+    void getProviderAvailability_WindowPagesByCursor() {
+        // Arrange
+        LocalDateTime windowStart = LocalDateTime.of(2024, 1, 15, 0, 0);
+        LocalDateTime windowEnd = LocalDateTime.of(2024, 1, 16, 0, 0);
+        when(availabilityRepository.findByProviderIdAndStatus(anyLong(), any()))
+                .thenReturn(Arrays.asList(mockAvailability));
+        when(slotRepository.countByAvailabilityIdGroupByStatus(1L)).thenReturn(List.of(
+                slotCount(AppointmentSlot.SlotStatus.AVAILABLE, 1), slotCount(AppointmentSlot.SlotStatus.BOOKED, 1)));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(1L), eq(windowStart), eq(windowEnd), isNull(), isNull(), eq(Limit.of(2))))
+                .thenReturn(rows(mockSlots));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(1L), eq(windowStart), eq(windowEnd),
+                eq(LocalDateTime.of(2024, 1, 15, 14, 0)), eq(1L), eq(Limit.of(2))))
+                .thenReturn(rows(List.of(mockSlots.get(1))));
+
+        // Act
+        ProviderAvailabilityResponse first = availabilityService.getProviderAvailability(
+                1L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 15), 1, null);
+        ProviderAvailabilityResponse second = availabilityService.getProviderAvailability(
+                1L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 15), 1, first.getNextSlotCursor());
+
+        // Assert
+        assertEquals(2L, first.getTotalSlots());
+        assertEquals(List.of(1L), first.getAppointmentSlots().stream().map(AppointmentSlotResponse::getId).toList());
+        assertTrue(first.isHasMoreSlots());
+        assertEquals(2L, second.getTotalSlots());
+        assertEquals(List.of(2L), second.getAppointmentSlots().stream().map(AppointmentSlotResponse::getId).toList());
+        assertFalse(second.isHasMoreSlots());
+        assertNull(second.getNextSlotCursor());
+    }
+
+    @Test
+    void getProviderAvailability_VirtualSeries_CountsWithoutGeneratingAndPagesWindow() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        mockAvailability.setRecurrenceType(ProviderAvailability.RecurrenceType.DAILY);
+        mockAvailability.setRecurrenceEndDate(LocalDateTime.of(2024, 12, 31, 0, 0));
+        when(availabilityRepository.findByProviderIdAndStatus(anyLong(), any()))
+                .thenReturn(Arrays.asList(mockAvailability));
+
+        // Act
+        ProviderAvailabilityResponse response = availabilityService.getProviderAvailability(
+                1L, LocalDate.of(2024, 6, 1), null, 3, null);
+
+        // Assert
+        verify(slotGenerator, never()).generate(any());
+        assertEquals(slotGenerator.generate(mockAvailability).size(), response.getTotalSlots());
+        assertEquals(response.getTotalSlots(), response.getAvailableSlots());
+        // 9:00 in New York, which is 13:00 UTC in summer
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 6, 1, 13, 0),
+                LocalDateTime.of(2024, 6, 1, 13, 30),
+                LocalDateTime.of(2024, 6, 1, 14, 0)),
+                response.getAppointmentSlots().stream().map(AppointmentSlotResponse::getStartTime).toList());
+        assertTrue(response.isHasMoreSlots());
+    }
+
+    @Test
+    void getProviderAvailability_InvalidCursor_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getProviderAvailability(1L, null, null, null, "not-a-cursor"));
+        verifyNoInteractions(availabilityRepository, slotRepository);
     }
 
     @Test
@@ -213,6 +495,249 @@ class ProviderAvailabilityServiceTest {
         });
     }
 
+    @Test
+    void getProvidersAvailability_GroupsByProviderWithFixedQueries() {
+        // Arrange
+        ProviderAvailability virtualAvailability = ProviderAvailability.builder()
+                .id(2L)
+                .providerId(2L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("America/New_York")
+                .recurrenceType(ProviderAvailability.RecurrenceType.NONE)
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .slotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL)
+                .build();
+        AppointmentSlot bookedException = AppointmentSlot.builder()
+                .id(7L)
+                .providerAvailability(virtualAvailability)
+                .providerId(2L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .endTime(LocalDateTime.of(2024, 1, 15, 15, 0))
+                .originalStartTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .status(AppointmentSlot.SlotStatus.BOOKED)
+                .build();
+        mockSlots.forEach(slot -> slot.setProviderAvailability(mockAvailability));
+        List<AppointmentSlot> persisted = new ArrayList<>(mockSlots);
+        persisted.add(bookedException);
+
+        when(availabilityRepository.findActiveByProviderIdsAndWindow(eq(Set.of(1L, 2L, 3L)),
+                eq(LocalDateTime.of(2024, 1, 15, 0, 0)), eq(LocalDateTime.of(2024, 1, 16, 0, 0))))
+                .thenReturn(List.of(mockAvailability, virtualAvailability));
+        when(slotRepository.findByProviderIdsAndStartTimeRange(any(), any(), any())).thenReturn(rows(persisted));
+        when(slotRepository.findExceptionsByAvailabilityIdsAndDateRange(eq(List.of(2L)), any(), any()))
+                .thenReturn(rows(List.of(bookedException)));
+
+        // Act
+        ProviderAvailabilityBatchResponse response = availabilityService.getProvidersAvailability(
+                List.of(1L, 2L, 3L, 1L), LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 15));
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), response.getProviders().stream()
+                .map(ProviderAvailabilityBatchResponse.ProviderAvailabilities::getProviderId)
+                .collect(Collectors.toList()));
+        ProviderAvailabilityResponse first = response.getProviders().get(0).getAvailabilities().get(0);
+        assertEquals(2L, first.getTotalSlots());
+        assertEquals(1L, first.getBookedSlots());
+        ProviderAvailabilityResponse virtual = response.getProviders().get(1).getAvailabilities().get(0);
+        assertEquals(16L, virtual.getTotalSlots());
+        assertEquals(1L, virtual.getBookedSlots());
+        assertEquals(7L, virtual.getAppointmentSlots().get(1).getId());
+        assertTrue(response.getProviders().get(2).getAvailabilities().isEmpty());
+        verify(slotRepository, times(1)).findByProviderIdsAndStartTimeRange(any(), any(), any());
+        verify(slotRepository, never()).findByProviderAvailabilityId(anyLong());
+        verify(availabilityRepository, never()).findByProviderIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void getProvidersAvailability_NoAvailability_SkipsSlotQueries() {
+        // Arrange
+        when(availabilityRepository.findActiveByProviderIdsAndWindow(any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        ProviderAvailabilityBatchResponse response = availabilityService.getProvidersAvailability(
+                List.of(4L), LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 21));
+
+        // Assert
+        assertEquals(1, response.getProviders().size());
+        assertTrue(response.getProviders().get(0).getAvailabilities().isEmpty());
+        verifyNoInteractions(slotRepository);
+    }
+
+    @Test
+    void getProvidersAvailability_InvalidRequest_Rejected() {
+        properties.getBatch().setMaxProviders(2);
+        LocalDate monday = LocalDate.of(2024, 1, 15);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityService.getProvidersAvailability(List.of(), monday, monday));
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityService.getProvidersAvailability(List.of(1L, 2L, 3L), monday, monday));
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityService.getProvidersAvailability(List.of(1L), monday, monday.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> availabilityService.getProvidersAvailability(List.of(1L), monday, monday.plusDays(31)));
+        verifyNoInteractions(availabilityRepository, slotRepository);
+    }
+
+    @Test
+    void getProviderTimeline_MergesAvailabilitiesKeepingEachTimeOnce() {
+        // Arrange
+        ProviderAvailability eveningAvailability = ProviderAvailability.builder()
+                .id(2L)
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 16, 0))
+                .timezone("America/New_York")
+                .recurrenceType(ProviderAvailability.RecurrenceType.NONE)
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .slotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL)
+                .build();
+        mockSlots.forEach(slot -> slot.setProviderAvailability(mockAvailability));
+
+        when(availabilityRepository.findActiveByProviderIdsAndWindow(eq(List.of(1L)),
+                eq(LocalDateTime.of(2024, 1, 15, 0, 0)), eq(LocalDateTime.of(2024, 1, 16, 0, 0))))
+                .thenReturn(List.of(mockAvailability, eveningAvailability));
+        when(slotRepository.findByProviderIdsAndStartTimeRange(any(), any(), any())).thenReturn(rows(mockSlots));
+
+        // Act
+        ProviderTimelineResponse response = availabilityService.getProviderTimeline(
+                1L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 15));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), response.getAvailabilityIds());
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 15, 14, 0),
+                LocalDateTime.of(2024, 1, 15, 14, 30),
+                LocalDateTime.of(2024, 1, 15, 15, 0),
+                LocalDateTime.of(2024, 1, 15, 15, 30)),
+                response.getSlots().stream().map(AppointmentSlotResponse::getStartTime).collect(Collectors.toList()));
+        // The booked persisted slot takes the place of the computed one at the same time
+        assertEquals(2L, response.getSlots().get(1).getId());
+        assertEquals(AppointmentSlot.SlotStatus.BOOKED, response.getSlots().get(1).getStatus());
+        assertEquals(4, response.getTotalSlots());
+        assertEquals(3, response.getAvailableSlots());
+        verify(slotRepository, times(1)).findByProviderIdsAndStartTimeRange(any(), any(), any());
+        verify(slotRepository).findExceptionsByAvailabilityIdsAndDateRange(eq(List.of(2L)), any(), any());
+    }
+
+    @Test
+    void getProviderTimeline_InvalidWindow_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getProviderTimeline(1L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 14)));
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getProviderTimeline(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1)));
+        verifyNoInteractions(availabilityRepository, slotRepository);
+    }
+
+    @Test
+    void getProviderSlots_StatusFilter_PagesPersistedSlotsByCursor() {
+        // Arrange
+        LocalDateTime windowStart = LocalDateTime.of(2024, 1, 15, 0, 0);
+        LocalDateTime windowEnd = LocalDateTime.of(2024, 1, 22, 0, 0);
+        when(slotRepository.findSlotsPageByProviderId(eq(1L), eq(AppointmentSlot.SlotStatus.BOOKED),
+                eq(windowStart), eq(windowEnd), isNull(), isNull(), eq(Limit.of(2))))
+                .thenReturn(rows(mockSlots));
+        when(slotRepository.findSlotsPageByProviderId(eq(1L), eq(AppointmentSlot.SlotStatus.BOOKED),
+                eq(windowStart), eq(windowEnd), eq(LocalDateTime.of(2024, 1, 15, 14, 0)), eq(1L), eq(Limit.of(2))))
+                .thenReturn(rows(List.of(mockSlots.get(1))));
+
+        // Act
+        ProviderSlotsResponse first = availabilityService.getProviderSlots(1L, AppointmentSlot.SlotStatus.BOOKED,
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 21), 1, null);
+        ProviderSlotsResponse second = availabilityService.getProviderSlots(1L, AppointmentSlot.SlotStatus.BOOKED,
+                LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 21), 1, first.getNextCursor());
+
+        // Assert
+        assertEquals(List.of(1L), first.getSlots().stream().map(AppointmentSlotResponse::getId).toList());
+        assertTrue(first.isHasMore());
+        assertEquals(List.of(2L), second.getSlots().stream().map(AppointmentSlotResponse::getId).toList());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+        // Computed slots of VIRTUAL availabilities are never booked, so they are not looked for
+        verifyNoInteractions(availabilityRepository);
+    }
+
+    @Test
+    void getProviderSlots_Available_MergesComputedSlotsOfVirtualAvailabilities() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        AppointmentSlot repricedException = AppointmentSlot.builder()
+                .id(7L)
+                .providerAvailability(mockAvailability)
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .endTime(LocalDateTime.of(2024, 1, 15, 15, 0))
+                .originalStartTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .price(new BigDecimal("80.00"))
+                .build();
+        when(slotRepository.findSlotsPageByProviderId(eq(1L), eq(AppointmentSlot.SlotStatus.AVAILABLE),
+                isNull(), isNull(), isNull(), isNull(), eq(Limit.of(4))))
+                .thenReturn(rows(List.of(repricedException)));
+        when(availabilityRepository.findByProviderIdAndStatus(1L, ProviderAvailability.AvailabilityStatus.ACTIVE))
+                .thenReturn(List.of(mockAvailability));
+        when(slotRepository.findExceptionsByAvailabilityIdsAndDateRange(eq(List.of(1L)), any(), any()))
+                .thenReturn(rows(List.of(repricedException)));
+
+        // Act
+        ProviderSlotsResponse response = availabilityService.getProviderSlots(1L, AppointmentSlot.SlotStatus.AVAILABLE,
+                null, null, 3, null);
+
+        // Assert
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 15, 14, 0),
+                LocalDateTime.of(2024, 1, 15, 14, 30),
+                LocalDateTime.of(2024, 1, 15, 15, 0)),
+                response.getSlots().stream().map(AppointmentSlotResponse::getStartTime).toList());
+        // The persisted exception takes the place of the computed slot at its time
+        assertEquals(7L, response.getSlots().get(1).getId());
+        assertNull(response.getSlots().get(0).getId());
+        assertTrue(response.isHasMore());
+        assertNotNull(response.getNextCursor());
+    }
+
+    @Test
+    void getProviderSlots_InvalidRequest_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getProviderSlots(1L, null, null, null, null, "not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getProviderSlots(1L, null, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 14), null, null));
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getProviderSlots(1L, null, null, null, 0, null));
+        verifyNoInteractions(availabilityRepository, slotRepository);
+    }
+
+    @Test
+    void getProviderCalendar_CountersPlusComputedSlots() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        when(dailyAvailabilityRepository.findByProviderIdAndLocalDateBetweenOrderByLocalDate(
+                1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+                .thenReturn(List.of(new ProviderDailyAvailability(1L, LocalDate.of(2024, 1, 15), 3, 2, 1)));
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), any(), isNull(), eq(1L), isNull(), isNull()))
+                .thenReturn(List.of(mockAvailability));
+
+        // Act
+        ProviderCalendarResponse calendar = availabilityService.getProviderCalendar(1L, YearMonth.of(2024, 1));
+
+        // Assert
+        assertEquals("2024-01", calendar.getMonth());
+        assertEquals(31, calendar.getDays().size());
+        ProviderCalendarResponse.Day monday = calendar.getDays().get(14);
+        assertEquals(LocalDate.of(2024, 1, 15), monday.getDate());
+        // 16 computed slots from 09:00 to 17:00 New York time, plus the counted ones
+        assertEquals(19, monday.getAvailableSlots());
+        assertEquals(2, monday.getBookedSlots());
+        assertEquals(1, monday.getCancelledSlots());
+        assertEquals(0, calendar.getDays().get(15).getAvailableSlots());
+    }
+
     @Test
     void updateSlot_Success() {
         // Arrange
@@ -242,6 +767,37 @@ class ProviderAvailabilityServiceTest {
         verify(slotRepository).save(any(AppointmentSlot.class));
     }
 
+    @Test
+    void updateSlot_InvalidatesCachedSearchesAtOldAndNewPosition() {
+        // Arrange
+        AppointmentSlot mockSlot = AppointmentSlot.builder()
+                .id(1L)
+                .providerId(1L)
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .location("Boston Clinic")
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .build();
+        AppointmentSlotResponse updateRequest = AppointmentSlotResponse.builder()
+                .startTime(LocalDateTime.of(2024, 1, 16, 9, 0))
+                .endTime(LocalDateTime.of(2024, 1, 16, 9, 30))
+                .location("New York Medical Center")
+                .build();
+
+        when(slotRepository.findById(1L)).thenReturn(Optional.of(mockSlot));
+        when(slotRepository.save(any(AppointmentSlot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        availabilityService.updateSlot(1L, updateRequest);
+
+        // Assert
+        verify(searchCache).invalidate(
+                new SearchResultCache.SlotScope(LocalDateTime.of(2024, 1, 15, 14, 0), LocalDateTime.of(2024, 1, 15, 14, 30),
+                        1L, "Boston Clinic", null, null, null, 30),
+                new SearchResultCache.SlotScope(LocalDateTime.of(2024, 1, 16, 9, 0), LocalDateTime.of(2024, 1, 16, 9, 30),
+                        1L, "New York Medical Center", null, null, null, 30));
+    }
+
     @Test
     void updateSlot_BookedSlot_ThrowsException() {
         // Arrange
@@ -338,16 +894,52 @@ class ProviderAvailabilityServiceTest {
                 .timezone("America/New_York")
                 .build();
 
-        when(slotRepository.findAvailableSlotsByFilters(any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(mockSlots);
+        when(locationIndex.resolve("New York")).thenReturn(Set.of("New York Medical Center"));
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(mockSlots));
 
         // Act
-        List<AppointmentSlotResponse> response = availabilityService.searchAvailability(searchRequest);
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
 
         // Assert
         assertNotNull(response);
-        assertEquals(2, response.size());
-        verify(slotRepository).findAvailableSlotsByFilters(any(), any(), any(), any(), any(), any(), any());
+        assertEquals(2, response.getAvailableSlots().size());
+        assertFalse(response.isHasMore());
+        assertNull(response.getNextCursor());
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), eq(Set.of("New York Medical Center")),
+                eq("CONSULTATION"), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_EnrichesPageWithOneProviderLookup() {
+        // Arrange
+        AppointmentSlot otherProviderSlot = AppointmentSlot.builder()
+                .id(3L)
+                .providerId(2L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 15, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 15, 30))
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .build();
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .timezone("America/New_York")
+                .build();
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(new ArrayList<>(List.of(mockSlots.get(0), otherProviderSlot))));
+        when(providerRepository.findSummariesByProviderNumbers(Set.of(1L, 2L)))
+                .thenReturn(List.of(providerSummary(1L, "Jane", "Smith")));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        AvailabilitySearchResponse.AvailableSlot enriched = response.getAvailableSlots().get(0);
+        assertEquals("Jane Smith", enriched.getProviderName());
+        assertEquals("Cardiology", enriched.getSpecialization());
+        assertEquals("1 Main St, Springfield, IL 62701", enriched.getClinicAddress());
+        assertEquals("jane.smith@example.com", enriched.getProviderEmail());
+        assertNull(response.getAvailableSlots().get(1).getProviderName());
+        verify(providerRepository, times(1)).findSummariesByProviderNumbers(any());
     }
 
     @Test
@@ -360,15 +952,49 @@ class ProviderAvailabilityServiceTest {
                 .slotDurationMinutes(30)
                 .build();
 
-        when(slotRepository.findAvailableSlotsByFilters(any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(mockSlots);
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(mockSlots));
 
         // Act
-        List<AppointmentSlotResponse> response = availabilityService.searchAvailability(searchRequest);
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
 
         // Assert
         assertNotNull(response);
-        assertEquals(2, response.size());
+        assertEquals(2, response.getAvailableSlots().size());
+        assertFalse(response.isHasMore());
+        assertNull(response.getNextCursor());
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), eq(Set.of(1L)),
+                eq(200), eq(30), any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_BySpecialization_FiltersOnSlotColumn() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .specialization("general medicine")
+                .build();
+
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(mockSlots));
+
+        // Act
+        availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), any(), any(),
+                eq(Specialization.GENERAL_MEDICINE), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_UnknownSpecialization_Rejected() {
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .specialization("Astrology")
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.searchAvailability(searchRequest));
+        verifyNoInteractions(slotRepository);
     }
 
     @Test
@@ -382,10 +1008,7 @@ class ProviderAvailabilityServiceTest {
                 .thenReturn(false);
         when(availabilityRepository.save(any(ProviderAvailability.class)))
                 .thenReturn(mockAvailability);
-        when(slotRepository.saveAll(anyList()))
-                .thenReturn(mockSlots);
-        when(slotRepository.findByProviderAvailabilityId(anyLong()))
-                .thenReturn(mockSlots);
+        stubBatchWriter();
 
         // Act
         ProviderAvailabilityResponse response = availabilityService.createAvailability(validRequest);
@@ -396,4 +1019,634 @@ class ProviderAvailabilityServiceTest {
         assertEquals(LocalDateTime.of(2024, 1, 15, 14, 0), response.getStartTime());
         assertEquals(LocalDateTime.of(2024, 1, 15, 22, 0), response.getEndTime());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void createAvailability_Virtual_DoesNotPersistSlots() {
+        // Arrange
+        validRequest.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+
+        when(availabilityRepository.existsOverlappingAvailability(anyLong(), any(), any(), any()))
+                .thenReturn(false);
+        when(availabilityRepository.save(any(ProviderAvailability.class)))
+                .thenReturn(mockAvailability);
+
+        // Act
+        ProviderAvailabilityResponse response = availabilityService.createAvailability(validRequest);
+
+        // Assert
+        assertEquals(ProviderAvailability.SlotMaterialization.VIRTUAL, response.getSlotMaterialization());
+        assertEquals(16L, response.getTotalSlots());
+        assertEquals(16L, response.getAvailableSlots());
+        verify(slotBatchWriter, never()).write(any(), any());
+    }
+
+    @Test
+    void getProviderAvailability_Virtual_MergesPersistedExceptions() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        AppointmentSlot bookedException = AppointmentSlot.builder()
+                .id(7L)
+                .providerAvailability(mockAvailability)
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .endTime(LocalDateTime.of(2024, 1, 15, 15, 0))
+                .originalStartTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .status(AppointmentSlot.SlotStatus.BOOKED)
+                .build();
+
+        when(availabilityRepository.findByProviderIdAndStatus(anyLong(), any()))
+                .thenReturn(Arrays.asList(mockAvailability));
+        when(slotRepository.countByAvailabilityIdGroupByStatus(1L))
+                .thenReturn(List.of(slotCount(AppointmentSlot.SlotStatus.BOOKED, 1)));
+        when(slotRepository.findSlotsPageByAvailabilityId(eq(1L), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(rows(List.of(bookedException)));
+        when(slotRepository.findExceptionsByAvailabilityIdsAndDateRange(eq(List.of(1L)), any(), any()))
+                .thenReturn(rows(List.of(bookedException)));
+
+        // Act
+        ProviderAvailabilityResponse response = availabilityService.getProviderAvailability(1L);
+
+        // Assert
+        assertEquals(16L, response.getTotalSlots());
+        assertEquals(15L, response.getAvailableSlots());
+        assertEquals(1L, response.getBookedSlots());
+        assertEquals(7L, response.getAppointmentSlots().get(1).getId());
+        assertNull(response.getAppointmentSlots().get(0).getId());
+    }
+
+    @Test
+    void searchAvailability_IncludesVirtualSlots() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        AppointmentSlot cancelledException = AppointmentSlot.builder()
+                .id(8L)
+                .providerAvailability(mockAvailability)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0))
+                .endTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                .status(AppointmentSlot.SlotStatus.CANCELLED)
+                .build();
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .endDate(LocalDate.of(2024, 1, 15))
+                .timezone("America/New_York")
+                .build();
+
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(mockAvailability));
+        when(slotRepository.findExceptionsByAvailabilityIdsAndDateRange(eq(List.of(1L)), any(), any()))
+                .thenReturn(rows(List.of(cancelledException)));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        assertEquals(15, response.getAvailableSlots().size());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 14, 30), response.getAvailableSlots().get(0).getSlotStartTime());
+        assertEquals(1L, response.getAvailableSlots().get(0).getProviderAvailabilityId());
+        assertNull(response.getAvailableSlots().get(0).getSlotId());
+    }
+
+    @Test
+    void searchAvailability_VirtualSlotsPageByCursor() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .endDate(LocalDate.of(2024, 1, 15))
+                .timezone("America/New_York")
+                .pageSize(10)
+                .build();
+
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(mockAvailability));
+
+        // Act
+        AvailabilitySearchResponse firstPage = availabilityService.searchAvailability(searchRequest);
+        searchRequest.setCursor(firstPage.getNextCursor());
+        AvailabilitySearchResponse secondPage = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        assertEquals(10, firstPage.getAvailableSlots().size());
+        assertTrue(firstPage.isHasMore());
+        assertEquals(6, secondPage.getAvailableSlots().size());
+        assertFalse(secondPage.isHasMore());
+        assertNull(secondPage.getNextCursor());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 19, 0), secondPage.getAvailableSlots().get(0).getSlotStartTime());
+    }
+
+    @Test
+    void searchAvailability_VirtualAvailabilityOutsideResolvedLocationsExcluded() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .endDate(LocalDate.of(2024, 1, 15))
+                .location("Bostn")
+                .timezone("America/New_York")
+                .build();
+
+        when(locationIndex.resolve("Bostn")).thenReturn(Set.of("Boston Clinic"));
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(mockAvailability));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        assertTrue(response.getAvailableSlots().isEmpty());
+        verify(slotRepository, never()).findExceptionsByAvailabilityIdsAndDateRange(any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_CachedResponseServedWithoutQuerying() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .location("  New York ")
+                .timezone("UTC")
+                .build();
+        AvailabilitySearchResponse cached = AvailabilitySearchResponse.builder()
+                .availableSlots(Collections.emptyList())
+                .pageSize(50)
+                .build();
+        SearchResultCache.Key key = new SearchResultCache.Key(LocalDateTime.of(2024, 1, 15, 0, 0),
+                LocalDateTime.of(2024, 2, 14, 0, 0), "new york", null, null, null, null, null, null, null, null, 50, null);
+        when(searchCache.get(key)).thenReturn(cached);
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        assertSame(cached, response);
+        verifyNoInteractions(slotRepository, availabilityRepository, locationIndex);
+    }
+
+    @Test
+    void searchAvailability_StoresResponseWithResolvedFilters() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .location("New York")
+                .timezone("UTC")
+                .build();
+
+        when(searchCache.generation()).thenReturn(7L);
+        when(locationIndex.resolve("New York")).thenReturn(Set.of("New York Medical Center"));
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(mockSlots));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        verify(searchCache).put(any(SearchResultCache.Key.class), eq(LocalDateTime.of(2024, 1, 15, 0, 0)),
+                eq(Set.of("New York Medical Center")), isNull(), same(response), eq(7L));
+    }
+
+    @Test
+    void searchAvailability_NearPosition_RestrictsToNearbyProvidersWithDistance() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .latitude(40.75)
+                .longitude(-73.99)
+                .radiusKm(500.0)
+                .build();
+
+        Map<Long, Double> nearby = new LinkedHashMap<>();
+        nearby.put(1L, 2.5);
+        nearby.put(4L, 7.0);
+        when(providerGeoIndex.findNearest(eq(new GeoPoint(40.75, -73.99)), eq(200.0), eq(200))).thenReturn(nearby);
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(mockSlots));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), eq(Set.of(1L, 4L)),
+                any(), any(), any(), any(), any());
+        assertEquals(2.5, response.getAvailableSlots().get(0).getDistanceKm());
+    }
+
+    @Test
+    void searchAvailability_NearPosition_ProviderOutsideRadiusMatchesNothing() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .providerId(9L)
+                .latitude(40.75)
+                .longitude(-73.99)
+                .build();
+
+        when(providerGeoIndex.findNearest(any(), eq(25.0), anyInt())).thenReturn(Map.of(1L, 2.5));
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        // Act
+        availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), eq(Set.of()),
+                any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchAvailability_LatitudeWithoutLongitude_Rejected() {
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .latitude(40.75)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.searchAvailability(searchRequest));
+        verifyNoInteractions(providerGeoIndex, slotRepository);
+    }
+
+    @Test
+    void searchAvailability_MergesPersistedAndVirtualSlotsInKeyOrder() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        List<AppointmentSlot> persistedSlots = List.of(
+                AppointmentSlot.builder().id(21L).providerId(2L)
+                        .startTime(LocalDateTime.of(2024, 1, 15, 14, 0)).endTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build(),
+                AppointmentSlot.builder().id(22L).providerId(2L)
+                        .startTime(LocalDateTime.of(2024, 1, 15, 14, 30)).endTime(LocalDateTime.of(2024, 1, 15, 15, 0))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build(),
+                AppointmentSlot.builder().id(23L).providerId(2L)
+                        .startTime(LocalDateTime.of(2024, 1, 15, 15, 0)).endTime(LocalDateTime.of(2024, 1, 15, 15, 30))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build());
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .timezone("America/New_York")
+                .pageSize(2)
+                .build();
+
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(persistedSlots));
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(mockAvailability));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+        searchRequest.setCursor(response.getNextCursor());
+        availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        // The computed 14:00 slot sorts before the persisted one starting at the same time
+        assertNull(response.getAvailableSlots().get(0).getSlotId());
+        assertEquals(21L, response.getAvailableSlots().get(1).getSlotId());
+        assertTrue(response.isHasMore());
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(),
+                eq(LocalDateTime.of(2024, 1, 15, 14, 0)), eq(21L), eq(Limit.of(3)));
+    }
+
+    @Test
+    void streamAvailability_MergesPersistedAndVirtualSlotsAcrossDays() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        List<AppointmentSlot> persistedSlots = List.of(
+                AppointmentSlot.builder().id(21L).providerId(2L)
+                        .startTime(LocalDateTime.of(2024, 1, 15, 14, 0)).endTime(LocalDateTime.of(2024, 1, 15, 14, 30))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build(),
+                AppointmentSlot.builder().id(22L).providerId(2L)
+                        .startTime(LocalDateTime.of(2024, 1, 16, 15, 0)).endTime(LocalDateTime.of(2024, 1, 16, 15, 30))
+                        .status(AppointmentSlot.SlotStatus.AVAILABLE).build());
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .endDate(LocalDate.of(2024, 1, 16))
+                .timezone("America/New_York")
+                .build();
+
+        when(exportRepository.streamAvailableSlots(any(), any(), any(), any(), any(), any(), any(), any(), eq(500)))
+                .thenReturn(rows(persistedSlots).stream());
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(mockAvailability));
+
+        // Act
+        List<AvailabilitySearchResponse.AvailableSlot> streamed = new ArrayList<>();
+        availabilityService.streamAvailability(searchRequest).accept(streamed::add);
+
+        // Assert
+        assertEquals(18, streamed.size());
+        assertNull(streamed.get(0).getSlotId());
+        assertEquals(21L, streamed.get(1).getSlotId());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 21, 30), streamed.get(16).getSlotStartTime());
+        assertEquals(22L, streamed.get(17).getSlotId());
+        List<LocalDateTime> startTimes = streamed.stream()
+                .map(AvailabilitySearchResponse.AvailableSlot::getSlotStartTime)
+                .collect(Collectors.toList());
+        assertEquals(startTimes.stream().sorted().collect(Collectors.toList()), startTimes);
+        // Exceptions are read once for the whole window, not per day
+        verify(slotRepository, times(1)).findExceptionsByAvailabilityIdsAndDateRange(eq(List.of(1L)), any(), any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void streamAvailability_LooksUpProvidersOncePerBatch() {
+        // Arrange
+        properties.getSearch().setStreamFetchSize(2);
+        List<AppointmentSlot> persistedSlots = new ArrayList<>();
+        long[] providers = {1L, 2L, 1L, 2L, 3L};
+        for (int i = 0; i < providers.length; i++) {
+            persistedSlots.add(AppointmentSlot.builder().id(30L + i).providerId(providers[i])
+                    .startTime(LocalDateTime.of(2024, 1, 15, 14, 0).plusHours(i))
+                    .endTime(LocalDateTime.of(2024, 1, 15, 14, 30).plusHours(i))
+                    .status(AppointmentSlot.SlotStatus.AVAILABLE).build());
+        }
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .endDate(LocalDate.of(2024, 1, 16))
+                .timezone("America/New_York")
+                .build();
+        when(exportRepository.streamAvailableSlots(any(), any(), any(), any(), any(), any(), any(), any(), eq(2)))
+                .thenReturn(rows(persistedSlots).stream());
+        when(providerRepository.findSummariesByProviderNumbers(Set.of(1L, 2L)))
+                .thenReturn(List.of(providerSummary(1L, "Jane", "Smith"), providerSummary(2L, "Omar", "Haddad")));
+
+        // Act
+        List<AvailabilitySearchResponse.AvailableSlot> streamed = new ArrayList<>();
+        availabilityService.streamAvailability(searchRequest).accept(streamed::add);
+
+        // Assert
+        assertEquals(List.of("Jane Smith", "Omar Haddad", "Jane Smith", "Omar Haddad"), streamed.subList(0, 4).stream()
+                .map(AvailabilitySearchResponse.AvailableSlot::getProviderName)
+                .collect(Collectors.toList()));
+        assertNull(streamed.get(4).getProviderName());
+        verify(providerRepository).findSummariesByProviderNumbers(Set.of(1L, 2L));
+        verify(providerRepository).findSummariesByProviderNumbers(Set.of(3L));
+        verifyNoMoreInteractions(providerRepository);
+    }
+
+    @Test
+    void streamAvailability_InvalidRequestRejectedBeforeReading() {
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .longitude(-73.99)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.streamAvailability(searchRequest));
+        verifyNoInteractions(exportRepository, transactionManager);
+    }
+
+    @Test
+    void searchAvailability_PageSizeCapped() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .pageSize(100_000)
+                .build();
+
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(rows(mockSlots));
+
+        // Act
+        AvailabilitySearchResponse response = availabilityService.searchAvailability(searchRequest);
+
+        // Assert
+        assertEquals(500, response.getPageSize());
+        verify(slotRepository).findAvailableSlotsPageByFilters(any(), any(), any(), any(), any(), any(), any(), any(),
+                isNull(), isNull(), eq(Limit.of(501)));
+    }
+
+    @Test
+    void searchAvailability_InvalidCursor() {
+        // Arrange
+        AvailabilitySearchRequest searchRequest = AvailabilitySearchRequest.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .cursor("not-a-cursor")
+                .build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.searchAvailability(searchRequest));
+    }
+
+    @Test
+    void getNextAvailableSlot_EarlierComputedSlotWins() {
+        // Arrange
+        LocalDateTime tomorrow = LocalDate.now(ZoneOffset.UTC).plusDays(1).atTime(14, 0);
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        mockAvailability.setStartTime(tomorrow);
+        mockAvailability.setEndTime(tomorrow.plusHours(8));
+        AppointmentSlot persisted = AppointmentSlot.builder()
+                .id(5L)
+                .providerId(1L)
+                .startTime(tomorrow.plusDays(9))
+                .endTime(tomorrow.plusDays(9).plusMinutes(30))
+                .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                .build();
+        when(slotIndex.covers(any())).thenReturn(true);
+        when(slotIndex.findNextForProvider(eq(1L), any(), eq("CONSULTATION"), isNull())).thenReturn(SlotRow.of(persisted));
+        when(availabilityRepository.findVirtualAvailabilitiesByFilters(any(), eq(persisted.getStartTime()),
+                eq("CONSULTATION"), eq(1L), isNull(), isNull()))
+                .thenReturn(List.of(mockAvailability));
+
+        // Act
+        AvailabilitySearchResponse.AvailableSlot next = availabilityService.getNextAvailableSlot(1L, "CONSULTATION");
+
+        // Assert
+        assertEquals(tomorrow, next.getSlotStartTime());
+        assertEquals(1L, next.getProviderAvailabilityId());
+        assertNull(next.getSlotId());
+    }
+
+    @Test
+    void getNextAvailableSlot_NoSlot_ThrowsException() {
+        // Arrange
+        when(slotIndex.covers(any())).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> availabilityService.getNextAvailableSlot(1L, null));
+    }
+
+    @Test
+    void getNextAvailableSlots_BeforeIndexBuild_KeepsFirstSlotPerProvider() {
+        // Arrange
+        LocalDateTime tomorrow = LocalDate.now(ZoneOffset.UTC).plusDays(1).atTime(14, 0);
+        List<AppointmentSlot> slots = new ArrayList<>();
+        long[] providers = {2L, 2L, 1L, 3L, 1L};
+        for (int i = 0; i < providers.length; i++) {
+            slots.add(AppointmentSlot.builder()
+                    .id(10L + i)
+                    .providerId(providers[i])
+                    .startTime(tomorrow.plusHours(i))
+                    .endTime(tomorrow.plusHours(i).plusMinutes(30))
+                    .status(AppointmentSlot.SlotStatus.AVAILABLE)
+                    .build());
+        }
+        when(slotIndex.covers(any())).thenReturn(false);
+        when(slotRepository.findAvailableSlotsPageByFilters(any(), any(), isNull(), eq("CONSULTATION"), isNull(),
+                isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(rows(slots));
+
+        // Act
+        List<AvailabilitySearchResponse.AvailableSlot> next = availabilityService.getNextAvailableSlots(
+                "CONSULTATION", null, 2);
+
+        // Assert
+        assertEquals(List.of(10L, 12L), next.stream()
+                .map(AvailabilitySearchResponse.AvailableSlot::getSlotId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void getNextAvailableSlots_InvalidLimit_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                availabilityService.getNextAvailableSlots("CONSULTATION", null, 0));
+        verifyNoInteractions(slotIndex, slotRepository);
+    }
+
+    @Test
+    void materializeSlot_Success() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        LocalDateTime slotStart = LocalDateTime.of(2024, 1, 15, 15, 0);
+
+        when(availabilityRepository.findById(1L))
+                .thenReturn(Optional.of(mockAvailability));
+        when(slotRepository.existsByAvailabilityIdAndOccurrenceStartTime(1L, slotStart))
+                .thenReturn(false);
+        when(slotRepository.save(any(AppointmentSlot.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        AppointmentSlotResponse response = availabilityService.materializeSlot(1L, slotStart);
+
+        // Assert
+        assertEquals(slotStart, response.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 15, 30), response.getEndTime());
+        assertEquals(AppointmentSlot.SlotStatus.AVAILABLE, response.getStatus());
+        verify(slotRepository).save(argThat(slot -> slotStart.equals(slot.getOriginalStartTime())));
+    }
+
+    @Test
+    void materializeSlot_OffGrid_ThrowsException() {
+        // Arrange
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.VIRTUAL);
+        LocalDateTime slotStart = LocalDateTime.of(2024, 1, 15, 15, 10);
+
+        when(availabilityRepository.findById(1L))
+                .thenReturn(Optional.of(mockAvailability));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            availabilityService.materializeSlot(1L, slotStart);
+        });
+        verify(slotRepository, never()).save(any());
+    }
+
+    @Test
+    void materializeSlot_EagerAvailability_ThrowsException() {
+        // Arrange
+        when(availabilityRepository.findById(1L))
+                .thenReturn(Optional.of(mockAvailability));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            availabilityService.materializeSlot(1L, LocalDateTime.of(2024, 1, 15, 15, 0));
+        });
+    }
+
+    @Test
+    void createAvailability_Rolling_MaterializesOnlyUpToHorizon() {
+        // Arrange
+        LocalDateTime today = LocalDate.now(ZoneOffset.UTC).atTime(9, 0);
+        validRequest.setStartTime(today);
+        validRequest.setEndTime(today.plusHours(8));
+        validRequest.setTimezone("UTC");
+        validRequest.setRecurrenceType(ProviderAvailability.RecurrenceType.DAILY);
+        validRequest.setRecurrenceEndDate(today.plusYears(1));
+        validRequest.setSlotMaterialization(ProviderAvailability.SlotMaterialization.ROLLING);
+
+        when(availabilityRepository.existsOverlappingAvailability(anyLong(), any(), any(), any()))
+                .thenReturn(false);
+        when(availabilityRepository.save(any(ProviderAvailability.class)))
+                .thenAnswer(invocation -> {
+                    ProviderAvailability saved = invocation.getArgument(0);
+                    saved.setId(1L);
+                    return saved;
+                });
+        List<AppointmentSlot> written = stubBatchWriter();
+
+        // Act
+        ProviderAvailabilityResponse response = availabilityService.createAvailability(validRequest);
+
+        // Assert
+        LocalDateTime horizon = LocalDateTime.now(ZoneOffset.UTC).plusWeeks(8);
+        assertTrue(written.stream().allMatch(slot -> slot.getStartTime().isBefore(horizon)));
+        assertTrue(written.size() >= 7 * 8 * 16);
+        assertEquals(ProviderAvailability.SlotMaterialization.ROLLING, response.getSlotMaterialization());
+    }
+
+    @Test
+    void extendRollingHorizon_AppendsFromWatermark() {
+        // Arrange
+        mockAvailability.setRecurrenceType(ProviderAvailability.RecurrenceType.DAILY);
+        mockAvailability.setRecurrenceEndDate(LocalDateTime.of(2024, 6, 1, 0, 0));
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.ROLLING);
+        mockAvailability.setMaterializedUntil(LocalDateTime.of(2024, 1, 20, 0, 0));
+
+        when(availabilityRepository.findByIdForUpdate(1L))
+                .thenReturn(Optional.of(mockAvailability));
+        List<AppointmentSlot> written = stubBatchWriter();
+
+        // Act
+        int materialized = availabilityService.extendRollingHorizon(1L, LocalDateTime.of(2024, 1, 22, 0, 0));
+
+        // Assert
+        assertEquals(32, materialized);
+        assertEquals(LocalDateTime.of(2024, 1, 20, 14, 0), written.get(0).getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 22, 0, 0), mockAvailability.getMaterializedUntil());
+    }
+
+    @Test
+    void extendRollingHorizon_AlreadyAtSeriesEnd_DoesNothing() {
+        // Arrange
+        mockAvailability.setRecurrenceType(ProviderAvailability.RecurrenceType.DAILY);
+        mockAvailability.setRecurrenceEndDate(LocalDateTime.of(2024, 2, 1, 0, 0));
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.ROLLING);
+        mockAvailability.setMaterializedUntil(LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        when(availabilityRepository.findByIdForUpdate(1L))
+                .thenReturn(Optional.of(mockAvailability));
+
+        // Act
+        int materialized = availabilityService.extendRollingHorizon(1L, LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        // Assert
+        assertEquals(0, materialized);
+        verify(slotBatchWriter, never()).write(any(), any());
+    }
+
+    @Test
+    void extendRollingHorizon_DatabaseGeneration_InsertsWindowInPostgres() {
+        // Arrange
+        properties.setSlotGeneration(AvailabilityProperties.SlotGeneration.DATABASE);
+        mockAvailability.setRecurrenceType(ProviderAvailability.RecurrenceType.DAILY);
+        mockAvailability.setRecurrenceEndDate(LocalDateTime.of(2024, 6, 1, 0, 0));
+        mockAvailability.setSlotMaterialization(ProviderAvailability.SlotMaterialization.ROLLING);
+        mockAvailability.setMaterializedUntil(LocalDateTime.of(2024, 1, 20, 0, 0));
+
+        when(availabilityRepository.findByIdForUpdate(1L))
+                .thenReturn(Optional.of(mockAvailability));
+        when(slotRepository.insertGeneratedSlots(1L, LocalDateTime.of(2024, 1, 20, 0, 0),
+                LocalDateTime.of(2024, 1, 22, 0, 0), AppointmentSlot.ID_ALLOCATION_SIZE))
+                .thenReturn(32);
+
+        // Act
+        int materialized = availabilityService.extendRollingHorizon(1L, LocalDateTime.of(2024, 1, 22, 0, 0));
+
+        // Assert
+        assertEquals(32, materialized);
+        assertEquals(LocalDateTime.of(2024, 1, 22, 0, 0), mockAvailability.getMaterializedUntil());
+        verify(slotBatchWriter, never()).write(any(), any());
+    }
+}
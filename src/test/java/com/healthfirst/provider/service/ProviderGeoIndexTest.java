@@ -0,0 +1,150 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.ClinicAddress;
+import com.healthfirst.provider.repository.ProviderLocationRow;
+import com.healthfirst.provider.repository.ProviderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares grid searches against a brute-force scan over the same positions.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProviderGeoIndexTest {
+
+    private static final GeoPoint MIDTOWN = new GeoPoint(40.7506, -73.9972);
+
+    @Mock
+    private ProviderRepository providerRepository;
+
+    private ZipCentroids zipCentroids;
+    private ProviderGeoIndex geoIndex;
+    private List<ProviderLocationRow> rows;
+
+    @BeforeEach
+    void setUp() {
+        zipCentroids = new ZipCentroids(new ByteArrayResource(
+                "# zip,latitude,longitude\n10001,40.7506,-73.9972\n02108,42.3576,-71.0684\n".getBytes(StandardCharsets.UTF_8)));
+        geoIndex = new ProviderGeoIndex(providerRepository, zipCentroids);
+        rows = generateRows(5000, new Random(42));
+        lenient().when(providerRepository.findActiveProviderLocations()).thenAnswer(invocation -> rows);
+    }
+
+    @Test
+    void findNearest_MatchesBruteForce() {
+        assertMatches(MIDTOWN, 5, 200);
+        assertMatches(MIDTOWN, 25, 50);
+        assertMatches(MIDTOWN, 200, 1000);
+        assertMatches(new GeoPoint(41.2, -72.9), 60, 10);
+        assertMatches(new GeoPoint(0, 0), 100, 10);
+    }
+
+    @Test
+    void findNearest_AcrossTheAntimeridian() {
+        rows = new ArrayList<>(rows);
+        rows.add(row(9001L, null, 10.0, 179.98));
+        rows.add(row(9002L, null, 10.0, -179.98));
+
+        Map<Long, Double> nearest = geoIndex.findNearest(new GeoPoint(10.0, 179.99), 10, 10);
+
+        assertEquals(List.of(9001L, 9002L), new ArrayList<>(nearest.keySet()));
+    }
+
+    @Test
+    void reload_PlacesClinicsWithoutCoordinatesAtTheirZipCentroid() {
+        rows = List.of(row(1L, "02108", null, null), row(2L, "99999", null, null), row(3L, "10001-1234", null, null));
+
+        Map<Long, Double> nearest = geoIndex.findNearest(MIDTOWN, 500, 10);
+
+        assertEquals(List.of(3L, 1L), new ArrayList<>(nearest.keySet()));
+        assertEquals(0.0, nearest.get(3L), 1e-9);
+    }
+
+    @Test
+    void register_AddsAndMovesProviders() {
+        rows = List.of(row(1L, null, 40.76, -73.98));
+        geoIndex.register(2L, ClinicAddress.builder().zip("10001").build());
+        assertEquals(List.of(2L, 1L), new ArrayList<>(geoIndex.findNearest(MIDTOWN, 5, 10).keySet()));
+
+        geoIndex.register(2L, ClinicAddress.builder().zip("02108").build());
+
+        assertEquals(List.of(1L), new ArrayList<>(geoIndex.findNearest(MIDTOWN, 5, 10).keySet()));
+        verify(providerRepository, times(1)).findActiveProviderLocations();
+    }
+
+    @Test
+    void register_IgnoresClinicWithoutKnownPosition() {
+        rows = List.of();
+        geoIndex.register(2L, ClinicAddress.builder().zip("99999").build());
+
+        assertTrue(geoIndex.findNearest(MIDTOWN, 200, 10).isEmpty());
+    }
+
+    private void assertMatches(GeoPoint center, double radiusKm, int limit) {
+        List<Double> expected = rows.stream()
+                .map(row -> center.distanceKm(row.getLatitude(), row.getLongitude()))
+                .filter(distance -> distance <= radiusKm)
+                .sorted(Comparator.naturalOrder())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        Map<Long, Double> nearest = geoIndex.findNearest(center, radiusKm, limit);
+
+        assertEquals(expected, new ArrayList<>(nearest.values()));
+        nearest.forEach((providerNumber, distance) -> {
+            ProviderLocationRow row = rows.get((int) (providerNumber - 1));
+            assertEquals(center.distanceKm(row.getLatitude(), row.getLongitude()), distance);
+        });
+    }
+
+    private static List<ProviderLocationRow> generateRows(int count, Random random) {
+        List<ProviderLocationRow> generated = new ArrayList<>();
+        for (long providerNumber = 1; providerNumber <= count; providerNumber++) {
+            // Mostly clustered around New York, with a sprinkling across the globe
+            boolean clustered = random.nextInt(10) > 0;
+            double latitude = clustered ? 40.75 + random.nextGaussian() : -89 + random.nextDouble() * 178;
+            double longitude = clustered ? -73.99 + random.nextGaussian() : -180 + random.nextDouble() * 360;
+            generated.add(row(providerNumber, null, latitude, longitude));
+        }
+        return generated;
+    }
+
+    private static ProviderLocationRow row(Long providerNumber, String zip, Double latitude, Double longitude) {
+        return new ProviderLocationRow() {
+            @Override
+            public Long getProviderNumber() {
+                return providerNumber;
+            }
+
+            @Override
+            public String getZip() {
+                return zip;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+        };
+    }
+}
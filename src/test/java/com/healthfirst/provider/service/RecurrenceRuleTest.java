@@ -0,0 +1,265 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.DayOfWeekSetConverter;
+import com.healthfirst.provider.entity.ProviderAvailability;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void daily_WindowDeepInSeries() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.DAILY, null,
+                LocalDateTime.of(2026, 1, 1, 0, 0)));
+
+        List<LocalDateTime> occurrences = occurrences(rule,
+                LocalDateTime.of(2025, 6, 10, 14, 0), LocalDateTime.of(2025, 6, 13, 14, 0));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 6, 10, 14, 0),
+                LocalDateTime.of(2025, 6, 11, 14, 0),
+                LocalDateTime.of(2025, 6, 12, 14, 0)), occurrences);
+    }
+
+    @Test
+    void daily_OccurrenceEndingAtWindowStartIsExcluded() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.DAILY, null, null));
+
+        List<LocalDateTime> occurrences = occurrences(rule,
+                LocalDateTime.of(2024, 2, 1, 22, 0), LocalDateTime.of(2024, 2, 3, 0, 0));
+
+        assertEquals(List.of(LocalDateTime.of(2024, 2, 2, 14, 0)), occurrences);
+    }
+
+    @Test
+    void daily_OccurrenceOverlappingWindowStartIsIncluded() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.DAILY, null, null));
+
+        List<LocalDateTime> occurrences = occurrences(rule,
+                LocalDateTime.of(2024, 2, 1, 21, 59), LocalDateTime.of(2024, 2, 2, 14, 0));
+
+        assertEquals(List.of(LocalDateTime.of(2024, 2, 1, 14, 0)), occurrences);
+    }
+
+    @Test
+    void weekly_WithoutRecurrenceDays_StepsWholeWeeks() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.WEEKLY, null, null));
+
+        List<LocalDateTime> occurrences = occurrences(rule,
+                LocalDateTime.of(2024, 2, 6, 0, 0), LocalDateTime.of(2024, 2, 20, 0, 0));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 2, 12, 14, 0),
+                LocalDateTime.of(2024, 2, 19, 14, 0)), occurrences);
+    }
+
+    @Test
+    void weekly_WithRecurrenceDays_JumpsToMatchingDays() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY), null));
+
+        List<LocalDateTime> occurrences = occurrences(rule,
+                LocalDateTime.of(2024, 3, 2, 0, 0), LocalDateTime.of(2024, 3, 9, 0, 0));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 3, 4, 14, 0),
+                LocalDateTime.of(2024, 3, 6, 14, 0),
+                LocalDateTime.of(2024, 3, 8, 14, 0)), occurrences);
+    }
+
+    @Test
+    void weekly_SeriesStartAlwaysOccurs() {
+        // 2024-01-15 is a Monday; only Sundays recur
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.SUNDAY), LocalDateTime.of(2024, 1, 29, 0, 0)));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 15, 14, 0),
+                LocalDateTime.of(2024, 1, 21, 14, 0),
+                LocalDateTime.of(2024, 1, 28, 14, 0)), occurrences(rule, null, null));
+    }
+
+    @Test
+    void weekly_OvernightOccurrencesKeepTheirLength() {
+        // 20:00-02:00 crosses midnight; every occurrence must still last six hours
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), LocalDateTime.of(2024, 2, 1, 0, 0));
+        availability.setStartTime(LocalDateTime.of(2024, 1, 15, 20, 0));
+        availability.setEndTime(LocalDateTime.of(2024, 1, 16, 2, 0));
+
+        SlotGenerator generator = new SlotGenerator();
+        assertTrue(generator.generate(availability).stream()
+                .allMatch(slot -> slot.getEndTime().minusMinutes(30).equals(slot.getStartTime())));
+        assertEquals(5 * 12, generator.generate(availability).size());
+    }
+
+    @Test
+    void monthly_KeepsDayClampedLikePlusMonths() {
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.MONTHLY, null,
+                LocalDateTime.of(2024, 6, 1, 0, 0));
+        availability.setStartTime(LocalDateTime.of(2024, 1, 31, 14, 0));
+        availability.setEndTime(LocalDateTime.of(2024, 1, 31, 22, 0));
+        RecurrenceRule rule = RecurrenceRule.compile(availability);
+
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 31, 14, 0),
+                LocalDateTime.of(2024, 2, 29, 14, 0),
+                LocalDateTime.of(2024, 3, 29, 14, 0),
+                LocalDateTime.of(2024, 4, 29, 14, 0),
+                LocalDateTime.of(2024, 5, 29, 14, 0)), occurrences(rule, null, null));
+    }
+
+    @Test
+    void monthly_WindowDeepInSeries() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.MONTHLY, null,
+                LocalDateTime.of(2030, 1, 1, 0, 0)));
+
+        assertEquals(List.of(LocalDateTime.of(2028, 7, 15, 14, 0)), occurrences(rule,
+                LocalDateTime.of(2028, 6, 15, 22, 0), LocalDateTime.of(2028, 8, 1, 0, 0)));
+    }
+
+    @Test
+    void none_OnlyWhenOverlappingWindow() {
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.NONE, null, null));
+
+        assertEquals(1, occurrences(rule, null, null).size());
+        assertEquals(1, occurrences(rule, LocalDateTime.of(2024, 1, 15, 14, 0), LocalDateTime.of(2024, 1, 15, 14, 1)).size());
+        assertEquals(1, occurrences(rule, LocalDateTime.of(2024, 1, 15, 21, 59), null).size());
+        assertTrue(occurrences(rule, LocalDateTime.of(2024, 1, 15, 22, 0), null).isEmpty());
+        assertTrue(occurrences(rule, null, LocalDateTime.of(2024, 1, 15, 14, 0)).isEmpty());
+    }
+
+    @Test
+    void windowsMatchFullSeries() {
+        // Consecutive windows must not drop occurrences; one spanning a window boundary is in both windows
+        RecurrenceRule rule = RecurrenceRule.compile(availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY), null));
+
+        Set<LocalDateTime> windowed = new LinkedHashSet<>();
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        while (from.isBefore(LocalDateTime.of(2024, 8, 1, 0, 0))) {
+            windowed.addAll(occurrences(rule, from, from.plusHours(61)));
+            from = from.plusHours(61);
+        }
+
+        assertEquals(occurrences(rule, null, null), new ArrayList<>(windowed));
+    }
+
+    @Test
+    void daily_KeepsLocalTimeAcrossDstChanges() {
+        // 09:00-17:00 in New York is 14:00-22:00 UTC in winter and 13:00-21:00 UTC in summer
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.DAILY, null,
+                LocalDateTime.of(2024, 11, 10, 0, 0));
+        availability.setTimezone("America/New_York");
+        RecurrenceRule rule = RecurrenceRule.compile(availability);
+
+        List<LocalDateTime[]> occurrences = new ArrayList<>();
+        rule.forEachOccurrence(LocalDateTime.of(2024, 3, 9, 0, 0), LocalDateTime.of(2024, 3, 12, 0, 0),
+                (start, end) -> occurrences.add(new LocalDateTime[]{start, end}));
+        rule.forEachOccurrence(LocalDateTime.of(2024, 11, 2, 0, 0), LocalDateTime.of(2024, 11, 5, 0, 0),
+                (start, end) -> occurrences.add(new LocalDateTime[]{start, end}));
+
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 3, 9, 14, 0), LocalDateTime.of(2024, 3, 9, 22, 0)}, occurrences.get(0));
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 3, 10, 13, 0), LocalDateTime.of(2024, 3, 10, 21, 0)}, occurrences.get(1));
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 3, 11, 13, 0), LocalDateTime.of(2024, 3, 11, 21, 0)}, occurrences.get(2));
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 11, 2, 13, 0), LocalDateTime.of(2024, 11, 2, 21, 0)}, occurrences.get(3));
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 11, 3, 14, 0), LocalDateTime.of(2024, 11, 3, 22, 0)}, occurrences.get(4));
+        assertEquals(6, occurrences.size());
+    }
+
+    @Test
+    void daily_OccurrenceSpanningDstChangeHasWallClockBounds() {
+        // 00:00-04:00 local on 2024-03-10 in New York lasts only three hours
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.DAILY, null,
+                LocalDateTime.of(2024, 3, 12, 0, 0));
+        availability.setTimezone("America/New_York");
+        availability.setStartTime(LocalDateTime.of(2024, 3, 8, 5, 0));
+        availability.setEndTime(LocalDateTime.of(2024, 3, 8, 9, 0));
+
+        List<LocalDateTime[]> occurrences = new ArrayList<>();
+        RecurrenceRule.compile(availability).forEachOccurrence(null, null,
+                (start, end) -> occurrences.add(new LocalDateTime[]{start, end}));
+
+        assertEquals(4, occurrences.size());
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 3, 10, 5, 0), LocalDateTime.of(2024, 3, 10, 8, 0)}, occurrences.get(2));
+        assertArrayEquals(new LocalDateTime[]{LocalDateTime.of(2024, 3, 11, 4, 0), LocalDateTime.of(2024, 3, 11, 8, 0)}, occurrences.get(3));
+    }
+
+    @Test
+    void weekly_RecurrenceDaysAreProviderWeekdays() {
+        // Monday 20:00 in New York is Tuesday 01:00 UTC
+        ProviderAvailability availability = availability(ProviderAvailability.RecurrenceType.WEEKLY,
+                EnumSet.of(DayOfWeek.MONDAY), LocalDateTime.of(2024, 2, 1, 0, 0));
+        availability.setTimezone("America/New_York");
+        availability.setStartTime(LocalDateTime.of(2024, 1, 16, 1, 0));
+        availability.setEndTime(LocalDateTime.of(2024, 1, 16, 3, 0));
+
+        assertEquals(List.of(
+                LocalDateTime.of(2024, 1, 16, 1, 0),
+                LocalDateTime.of(2024, 1, 23, 1, 0),
+                LocalDateTime.of(2024, 1, 30, 1, 0)), occurrences(RecurrenceRule.compile(availability), null, null));
+    }
+
+    @Test
+    void zoneOffsetTable_MatchesZoneRules() {
+        for (String zoneName : List.of("America/New_York", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata", "UTC")) {
+            ZoneId zone = ZoneId.of(zoneName);
+            ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+            for (LocalDateTime local = LocalDateTime.of(2024, 1, 1, 0, 0); local.getYear() < 2025; local = local.plusMinutes(15)) {
+                long localSecond = local.toEpochSecond(ZoneOffset.UTC);
+                long expectedUtc = ZonedDateTime.ofLocal(local, zone, null).toEpochSecond();
+                assertEquals(expectedUtc, table.toUtc(localSecond), zoneName + " " + local);
+                assertEquals(ZonedDateTime.ofInstant(Instant.ofEpochSecond(localSecond), zone).toLocalDateTime()
+                        .toEpochSecond(ZoneOffset.UTC), table.toLocal(localSecond), zoneName + " " + local);
+            }
+            assertSame(table, ZoneOffsetTable.of(zone));
+        }
+    }
+
+    @Test
+    void dayOfWeekSetConverter_RoundTrip() {
+        DayOfWeekSetConverter converter = new DayOfWeekSetConverter();
+        Set<DayOfWeek> days = EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.SUNDAY);
+
+        assertEquals(Short.valueOf((short) 0b1000101), converter.convertToDatabaseColumn(days));
+        assertEquals(days, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(days)));
+        assertTrue(converter.convertToEntityAttribute(null).isEmpty());
+        assertEquals(Short.valueOf((short) 0), converter.convertToDatabaseColumn(null));
+    }
+
+    private List<LocalDateTime> occurrences(RecurrenceRule rule, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        rule.forEachOccurrence(from, to, (start, end) -> occurrences.add(start));
+        return occurrences;
+    }
+
+    private ProviderAvailability availability(ProviderAvailability.RecurrenceType recurrenceType,
+                                              Set<DayOfWeek> recurrenceDays, LocalDateTime recurrenceEndDate) {
+        return ProviderAvailability.builder()
+                .id(1L)
+                .providerId(1L)
+                .startTime(LocalDateTime.of(2024, 1, 15, 14, 0)) // Monday
+                .endTime(LocalDateTime.of(2024, 1, 15, 22, 0))
+                .timezone("UTC")
+                .recurrenceType(recurrenceType)
+                .recurrenceDays(recurrenceDays != null ? new HashSet<>(recurrenceDays) : new HashSet<>())
+                .recurrenceEndDate(recurrenceEndDate)
+                .slotDurationMinutes(30)
+                .status(ProviderAvailability.AvailabilityStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,254 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.config.AvailabilityProperties;
+import com.healthfirst.provider.dto.AvailabilitySearchResponse;
+import com.healthfirst.provider.dto.SearchCacheStatsResponse;
+import com.healthfirst.provider.entity.Specialization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchResultCacheTest {
+
+    private static final LocalDateTime WEEK_START = LocalDateTime.of(2024, 1, 15, 0, 0);
+    private static final LocalDateTime WEEK_END = LocalDateTime.of(2024, 1, 21, 23, 59, 59);
+
+    @Mock
+    private ProviderGeoIndex providerGeoIndex;
+
+    private AvailabilityProperties properties;
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AvailabilityProperties();
+        cache = new SearchResultCache(new LocationIndex(null, null, properties), providerGeoIndex, properties);
+    }
+
+    @Test
+    void get_HitAfterPutAndCountsLookups() {
+        SearchResultCache.Key key = key("new york", null, null);
+        AvailabilitySearchResponse response = response(3);
+
+        assertNull(cache.get(key));
+        cache.put(key, WEEK_START, Set.of("New York Medical Center"), null, response, cache.generation());
+
+        assertEquals(response, cache.get(key));
+        SearchCacheStatsResponse stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+        assertEquals(1, stats.getEntries());
+        assertEquals(4, stats.getWeight());
+    }
+
+    @Test
+    void get_ReturnsCopiesThatCallersCannotChange() {
+        // Arrange
+        SearchResultCache.Key key = key(null, null, null);
+        AvailabilitySearchResponse response = response(2);
+        cache.put(key, WEEK_START, null, null, response, cache.generation());
+
+        // Act - change the stored response and a served copy
+        response.getAvailableSlots().clear();
+        AvailabilitySearchResponse served = cache.get(key);
+        served.getAvailableSlots().get(0).setLocation("Changed");
+        served.getAvailableSlots().remove(1);
+        served.setHasMore(true);
+
+        // Assert
+        AvailabilitySearchResponse again = cache.get(key);
+        assertNotSame(served, again);
+        assertEquals(2, again.getAvailableSlots().size());
+        assertNull(again.getAvailableSlots().get(0).getLocation());
+        assertFalse(again.isHasMore());
+    }
+
+    @Test
+    void put_EvictsLeastRecentlyUsedBeyondMaxWeight() {
+        properties.getSearchCache().setMaxWeight(10);
+        SearchResultCache.Key first = key(null, "CONSULTATION", null);
+        SearchResultCache.Key second = key(null, "FOLLOW_UP", null);
+        SearchResultCache.Key third = key(null, null, 5L);
+        cache.put(first, WEEK_START, null, null, response(3), cache.generation());
+        cache.put(second, WEEK_START, null, null, response(3), cache.generation());
+        cache.get(first);
+
+        cache.put(third, WEEK_START, null, null, response(3), cache.generation());
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(1, cache.stats().getEvictions());
+        assertEquals(8, cache.stats().getWeight());
+    }
+
+    @Test
+    void put_SkipsResponseHeavierThanTheWholeCache() {
+        properties.getSearchCache().setMaxWeight(3);
+        SearchResultCache.Key key = key(null, null, null);
+
+        cache.put(key, WEEK_START, null, null, response(3), cache.generation());
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void put_DroppedWhenAnInvalidationHappenedWhileComputing() {
+        SearchResultCache.Key key = key(null, null, null);
+        long generation = cache.generation();
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 3, 1, 9, 0), 1L, "Boston Clinic", "CONSULTATION"));
+        cache.put(key, WEEK_START, null, null, response(1), generation);
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void invalidate_EvictsOnlyEntriesCoveringTheSlot() {
+        SearchResultCache.Key anything = key(null, null, null);
+        SearchResultCache.Key boston = key("boston", null, null);
+        SearchResultCache.Key followUp = key(null, "FOLLOW_UP", null);
+        SearchResultCache.Key otherProvider = key(null, null, 2L);
+        SearchResultCache.Key nextWeek = new SearchResultCache.Key(WEEK_START.plusWeeks(1), WEEK_END.plusWeeks(1),
+                null, null, null, null, null, null, null, null, null, 50, null);
+        SearchResultCache.Key cheap = new SearchResultCache.Key(WEEK_START, WEEK_END,
+                null, null, null, null, 80, null, null, null, null, 50, null);
+        long generation = cache.generation();
+        cache.put(anything, WEEK_START, null, null, response(1), generation);
+        cache.put(boston, WEEK_START, Set.of("Boston Clinic"), null, response(1), generation);
+        cache.put(followUp, WEEK_START, null, null, response(1), generation);
+        cache.put(otherProvider, WEEK_START, null, null, response(1), generation);
+        cache.put(nextWeek, WEEK_START.plusWeeks(1), null, null, response(1), generation);
+        cache.put(cheap, WEEK_START, null, null, response(1), generation);
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 1L, "New York Medical Center", "CONSULTATION"));
+
+        assertNull(cache.get(anything));
+        assertNotNull(cache.get(boston));
+        assertNotNull(cache.get(followUp));
+        assertNotNull(cache.get(otherProvider));
+        assertNotNull(cache.get(nextWeek));
+        assertNotNull(cache.get(cheap));
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void invalidate_SlotBeforeTheCursorPageKeepsIt() {
+        SearchResultCache.Key secondPage = new SearchResultCache.Key(WEEK_START, WEEK_END,
+                null, null, null, null, null, null, null, null, null, 50, "cursor");
+        cache.put(secondPage, LocalDateTime.of(2024, 1, 18, 12, 0), null, null, response(1), cache.generation());
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 1L, "Boston Clinic", null));
+        assertNotNull(cache.get(secondPage));
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 19, 9, 0), 1L, "Boston Clinic", null));
+        assertNull(cache.get(secondPage));
+    }
+
+    @Test
+    void invalidate_NewLocationMatchingTheQueryEvicts() {
+        SearchResultCache.Key boston = key("boston", null, null);
+        cache.put(boston, WEEK_START, Set.of("Boston Clinic"), null, response(1), cache.generation());
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 1L, "Boston Children's Hospital", null));
+
+        assertNull(cache.get(boston));
+    }
+
+    @Test
+    void invalidate_DistanceSearchEvictsForProvidersWithinRadius() {
+        SearchResultCache.Key nearMidtown = new SearchResultCache.Key(WEEK_START, WEEK_END, null, null, null, null,
+                null, null, 40.75, -73.99, 10.0, 50, null);
+        cache.put(nearMidtown, WEEK_START, null, Set.of(1L), response(1), cache.generation());
+        when(providerGeoIndex.positionOfProvider(2L)).thenReturn(new GeoPoint(42.36, -71.06));
+        when(providerGeoIndex.positionOfProvider(3L)).thenReturn(new GeoPoint(40.76, -73.98));
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 2L, null, null));
+        assertNotNull(cache.get(nearMidtown));
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 3L, null, null));
+        assertNull(cache.get(nearMidtown));
+    }
+
+    @Test
+    void invalidate_SlotOfAnotherSpecializationKeepsEntry() {
+        SearchResultCache.Key cardiology = key(null, null, Specialization.CARDIOLOGY, null);
+        cache.put(cardiology, WEEK_START, null, null, response(1), cache.generation());
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 1L, "Boston Clinic", null,
+                Specialization.DERMATOLOGY));
+        assertNotNull(cache.get(cardiology));
+
+        cache.invalidate(scope(LocalDateTime.of(2024, 1, 16, 9, 0), 2L, "Boston Clinic", null,
+                Specialization.CARDIOLOGY));
+        assertNull(cache.get(cardiology));
+    }
+
+    @Test
+    void get_ExpiredEntryIsAMiss() {
+        properties.getSearchCache().setTimeToLive(Duration.ZERO);
+        SearchResultCache.Key key = key(null, null, null);
+
+        cache.put(key, WEEK_START, null, null, response(1), cache.generation());
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.stats().getEntries());
+        assertEquals(0, cache.stats().getWeight());
+    }
+
+    @Test
+    void disabled_NeverStores() {
+        properties.getSearchCache().setEnabled(false);
+        SearchResultCache.Key key = key(null, null, null);
+
+        cache.put(key, WEEK_START, null, null, response(1), cache.generation());
+        properties.getSearchCache().setEnabled(true);
+
+        assertNull(cache.get(key));
+    }
+
+    private static SearchResultCache.Key key(String location, String appointmentType, Long providerId) {
+        return key(location, appointmentType, null, providerId);
+    }
+
+    private static SearchResultCache.Key key(String location, String appointmentType,
+                                             Specialization specialization, Long providerId) {
+        return new SearchResultCache.Key(WEEK_START, WEEK_END, location, appointmentType, specialization, providerId,
+                null, null, null, null, null, 50, null);
+    }
+
+    private static SearchResultCache.SlotScope scope(LocalDateTime start, Long providerId, String location,
+                                                     String appointmentType) {
+        return scope(start, providerId, location, appointmentType, null);
+    }
+
+    private static SearchResultCache.SlotScope scope(LocalDateTime start, Long providerId, String location,
+                                                     String appointmentType, Specialization specialization) {
+        return new SearchResultCache.SlotScope(start, start.plusMinutes(30), providerId, location, appointmentType,
+                specialization, new BigDecimal("100.00"), 30);
+    }
+
+    private static AvailabilitySearchResponse response(int slots) {
+        List<AvailabilitySearchResponse.AvailableSlot> availableSlots = new ArrayList<>(
+                Collections.nCopies(slots, AvailabilitySearchResponse.AvailableSlot.builder().build()));
+        return AvailabilitySearchResponse.builder()
+                .availableSlots(availableSlots)
+                .pageSize(50)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.healthfirst.provider.service;
+
+import com.healthfirst.provider.entity.AppointmentSlot;
+import com.healthfirst.provider.repository.SlotRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotTimelineTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 1, 15, 14, 0);
+
+    @Test
+    void merge_InterleavesSourcesInSearchOrder() {
+        List<SlotRow> morning = List.of(slot(1L, 0, 30), slot(2L, 60, 30), slot(3L, 120, 30));
+        List<SlotRow> evening = List.of(slot(4L, 30, 30), slot(5L, 90, 30));
+
+        List<SlotRow> timeline = merge(morning, evening, List.of());
+
+        assertEquals(List.of(1L, 4L, 2L, 5L, 3L), ids(timeline));
+    }
+
+    @Test
+    void merge_SameTimeFromTwoSources_KeptOnce() {
+        List<SlotRow> first = List.of(slot(1L, 0, 30), slot(2L, 30, 30));
+        List<SlotRow> second = List.of(slot(3L, 0, 30), slot(4L, 60, 30));
+
+        assertEquals(List.of(1L, 2L, 4L), ids(merge(first, second)));
+    }
+
+    @Test
+    void merge_TakenSlotWinsOverAvailableOneAtTheSameTime() {
+        SlotRow booked = slot(9L, 0, 30, AppointmentSlot.SlotStatus.BOOKED);
+
+        List<SlotRow> timeline = merge(List.of(slot(1L, 0, 30)), List.of(booked));
+
+        assertEquals(List.of(9L), ids(timeline));
+    }
+
+    @Test
+    void merge_SameStartDifferentEnd_BothKept() {
+        // 30 and 60 minute slots at the same start, with a duplicate of the 30 minute one after the longer one
+        List<SlotRow> timeline = merge(
+                List.of(slot(1L, 0, 30)), List.of(slot(2L, 0, 60)), List.of(slot(3L, 0, 30)));
+
+        assertEquals(List.of(1L, 2L), ids(timeline));
+    }
+
+    @Test
+    void merge_MatchesSortedConcatenation() {
+        Random random = new Random(42);
+        List<List<SlotRow>> sources = new ArrayList<>();
+        List<SlotRow> all = new ArrayList<>();
+        long id = 1;
+        for (int source = 0; source < 7; source++) {
+            List<SlotRow> slots = new ArrayList<>();
+            int minute = random.nextInt(60);
+            for (int i = 0; i < 50; i++) {
+                // Distinct durations per source, so no two slots share start and end
+                slots.add(slot(id++, minute, 10 + source));
+                minute += 1 + random.nextInt(90);
+            }
+            sources.add(slots);
+            all.addAll(slots);
+        }
+        Collections.shuffle(all, random);
+        all.sort(SearchCursor::compare);
+
+        List<SlotRow> timeline = new ArrayList<>();
+        SlotTimeline.merge(sources.stream().map(List::iterator).collect(Collectors.toList()), timeline::add);
+
+        assertEquals(ids(all), ids(timeline));
+    }
+
+    @Test
+    void merge_NoSources_Empty() {
+        List<SlotRow> timeline = new ArrayList<>();
+        SlotTimeline.merge(List.of(), timeline::add);
+
+        assertTrue(timeline.isEmpty());
+    }
+
+    @SafeVarargs
+    private static List<SlotRow> merge(List<SlotRow>... sources) {
+        List<Iterator<SlotRow>> iterators = new ArrayList<>();
+        for (List<SlotRow> source : sources) {
+            iterators.add(source.iterator());
+        }
+        List<SlotRow> timeline = new ArrayList<>();
+        SlotTimeline.merge(iterators, timeline::add);
+        return timeline;
+    }
+
+    private static List<Long> ids(List<SlotRow> slots) {
+        return slots.stream().map(SlotRow::id).collect(Collectors.toList());
+    }
+
+    private static SlotRow slot(Long id, int startMinute, int durationMinutes) {
+        return slot(id, startMinute, durationMinutes, AppointmentSlot.SlotStatus.AVAILABLE);
+    }
+
+    private static SlotRow slot(Long id, int startMinute, int durationMinutes, AppointmentSlot.SlotStatus status) {
+        return new SlotRow(id, 1L, null, MONDAY.plusMinutes(startMinute),
+                MONDAY.plusMinutes(startMinute + durationMinutes), durationMinutes, null, null, status, null, null,
+                null, null, null, null, null, null, null, null);
+    }
+}